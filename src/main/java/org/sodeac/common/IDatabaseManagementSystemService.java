@@ -19,6 +19,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 import org.sodeac.common.misc.RuntimeWrappedException;
 import org.sodeac.common.misc.Driver.IDriver;
@@ -40,7 +41,71 @@ public interface IDatabaseManagementSystemService extends IDriver
 	public String getPassword(ConnectionProperties connectionProperties);
 	
 	public File backup(SystemProperties properties, ConnectionProperties connectionProperties, File backupDirectory, File tempDirectory, String key, String... schemas) throws SQLException, IOException;
-	public void restore(SystemProperties properties, ConnectionProperties connectionProperties, File backupFile, File tempDirectory, String key) throws SQLException, IOException;
+	
+	/**
+	 * Restores backup.
+	 * 
+	 * @param properties system properties
+	 * @param connectionProperties connection properties of database to restore
+	 * @param backupFile backup file
+	 * @param tempDirectory not used, backup is restored without temporary files
+	 * @param key encryption key
+	 * @throws SQLException
+	 * @throws IOException
+	 * @deprecated use {@link #restore(SystemProperties, ConnectionProperties, File, String)}
+	 */
+	@Deprecated
+	public default void restore(SystemProperties properties, ConnectionProperties connectionProperties, File backupFile, File tempDirectory, String key) throws SQLException, IOException
+	{
+		restore(properties, connectionProperties, backupFile, key);
+	}
+	
+	/**
+	 * Restores backup.
+	 * 
+	 * @param properties system properties
+	 * @param connectionProperties connection properties of database to restore
+	 * @param backupFile backup file
+	 * @param key encryption key
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	public default void restore(SystemProperties properties, ConnectionProperties connectionProperties, File backupFile, String key) throws SQLException, IOException
+	{
+		restoreWithProgress(properties, connectionProperties, backupFile, key, null);
+	}
+	
+	/**
+	 * Creates backup and reports progress.
+	 * 
+	 * @param properties system properties
+	 * @param connectionProperties connection properties of database to backup
+	 * @param backupDirectory directory to store backup file
+	 * @param tempDirectory directory for temporary clone of database, if clone is enabled by {@link H2PropertyBuilder#setBackupClone(boolean)}
+	 * @param key encryption key
+	 * @param progress consumer of bytes written to backup file, or null
+	 * @param schemas schemas to backup, or nothing to backup whole database
+	 * @return backup file
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	public default File backupWithProgress(SystemProperties properties, ConnectionProperties connectionProperties, File backupDirectory, File tempDirectory, String key, LongConsumer progress, String... schemas) throws SQLException, IOException
+	{
+		return backup(properties, connectionProperties, backupDirectory, tempDirectory, key, schemas);
+	}
+	
+	/**
+	 * Restores backup and reports progress.
+	 * 
+	 * @param properties system properties
+	 * @param connectionProperties connection properties of database to restore
+	 * @param backupFile backup file
+	 * @param key encryption key
+	 * @param progress consumer of bytes read from backup file, or null
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	public void restoreWithProgress(SystemProperties properties, ConnectionProperties connectionProperties, File backupFile, String key, LongConsumer progress) throws SQLException, IOException;
 	
 	public default Connection getConnection(ConnectionProperties connectionProperties) throws SQLException
 	{
@@ -58,6 +123,7 @@ public interface IDatabaseManagementSystemService extends IDriver
 	{
 		public static final String PAGE_SIZE = "PAGE_SIZE";
 		public static final String CACHE_SIZE = "CACHE_SIZE";
+		public static final String BACKUP_CLONE = "BACKUP_CLONE";
 		
 		private H2PropertyBuilder()
 		{
@@ -109,6 +175,18 @@ public interface IDatabaseManagementSystemService extends IDriver
 			return this;
 		}
 		
+		/**
+		 * Defines whether backup scripts a temporary clone of database or streams script of running database directly to backup file (default).
+		 * 
+		 * @param backupClone true, to script a temporary clone created by BACKUP TO
+		 * @return builder
+		 */
+		public H2PropertyBuilder setBackupClone(boolean backupClone)
+		{
+			this.connectionProperties.getProperties().put(BACKUP_CLONE, Boolean.toString(backupClone));
+			return this;
+		}
+		
 		private ConnectionProperties connectionProperties = null;
 		private SystemProperties systemProperties = null;
 		private DatabaseProperties databaseProperties = null;
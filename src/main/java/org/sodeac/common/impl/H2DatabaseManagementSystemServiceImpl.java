@@ -10,12 +10,23 @@
  *******************************************************************************/
 package org.sodeac.common.impl;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
@@ -26,17 +37,20 @@ import java.util.Date;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.LongConsumer;
 
+import org.h2.tools.RunScript;
 import org.osgi.service.component.annotations.Component;
 import org.sodeac.common.IDatabaseManagementSystemService;
 import org.sodeac.common.misc.Driver.IDriver;
-import org.sodeac.common.misc.CommonConsumer;
 import org.sodeac.common.misc.Converter;
 import org.sodeac.common.misc.RuntimeWrappedException;
 
 @Component(name="H2-DBMS-Service",service=IDatabaseManagementSystemService.class,property={"type=h2"})
 public class H2DatabaseManagementSystemServiceImpl implements IDatabaseManagementSystemService
 {
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final long PROGRESS_INTERVAL = 1024L * 1024L;
 
 	@Override
 	public int driverIsApplicableFor(Map<String, Object> properties)
@@ -374,6 +388,12 @@ public class H2DatabaseManagementSystemServiceImpl implements IDatabaseManagemen
 
 	@Override
 	public File backup(SystemProperties properties, ConnectionProperties connectionProperties, File backupDirectory, File tempDirectory, String key, String... schemas) throws SQLException, IOException
+	{
+		return backupWithProgress(properties, connectionProperties, backupDirectory, tempDirectory, key, null, schemas);
+	}
+	
+	@Override
+	public File backupWithProgress(SystemProperties properties, ConnectionProperties connectionProperties, File backupDirectory, File tempDirectory, String key, LongConsumer progress, String... schemas) throws SQLException, IOException
 	{
 		Objects.requireNonNull(connectionProperties, "connection properties are requiered");
 		if(connectionProperties.getDbname().isEmpty())
@@ -387,11 +407,13 @@ public class H2DatabaseManagementSystemServiceImpl implements IDatabaseManagemen
 			backupDirectory.mkdirs();
 		}
 		
+		boolean backupClone = "true".equalsIgnoreCase(connectionProperties.getProperties().get(H2PropertyBuilder.BACKUP_CLONE));
+		
 		if(tempDirectory == null)
 		{
 			tempDirectory = new File(System.getProperty("java.io.tmpdir"));
 		}
-		if(! tempDirectory.exists())
+		if(backupClone && (! tempDirectory.exists()))
 		{
 			tempDirectory.mkdirs();
 		}
@@ -399,18 +421,21 @@ public class H2DatabaseManagementSystemServiceImpl implements IDatabaseManagemen
 		Connection connection = getConnection(connectionProperties);
 		try
 		{
-			File cloneFile = new File(tempDirectory,UUID.randomUUID().toString() + ".zip");
+			File cloneFile = backupClone ? new File(tempDirectory,UUID.randomUUID().toString() + ".zip") : null;
 			try
 			{
 				Date now = new Date();
-				PreparedStatement preparedStatementClone = connection.prepareStatement("BACKUP TO '" + cloneFile.getCanonicalPath()  + "' ");
-				try
-				{
-					preparedStatementClone.executeUpdate();
-				}
-				finally 
+				if(backupClone)
 				{
-					preparedStatementClone.close();
+					PreparedStatement preparedStatementClone = connection.prepareStatement("BACKUP TO '" + cloneFile.getCanonicalPath()  + "' ");
+					try
+					{
+						preparedStatementClone.executeUpdate();
+					}
+					finally 
+					{
+						preparedStatementClone.close();
+					}
 				}
 				
 				StringBuilder schemaPart = new StringBuilder();
@@ -452,11 +477,24 @@ public class H2DatabaseManagementSystemServiceImpl implements IDatabaseManagemen
 				
 				File backupFile = new File(backupDirectory,filename);
 				
-				OutputStream backupOutputStream = Converter.OutputStreamToCryptedOutputStream.apply(new FileOutputStream(backupFile),key);
+				// script => utf-8 => gzip => aes => file, buffered on both sides of compression
+				
+				Writer backupWriter = new OutputStreamWriter
+				(
+					new BufferedOutputStream
+					(
+						Converter.OutputStreamToCryptedOutputStream.apply
+						(
+							new ProgressOutputStream(new BufferedOutputStream(new FileOutputStream(backupFile), BUFFER_SIZE), progress),
+							key
+						),
+						BUFFER_SIZE
+					),
+					StandardCharsets.UTF_8
+				);
 				try
 				{
-					ConnectionProperties cloneProperties = connectionProperties.copy().setDirectory(cloneFile.getCanonicalPath());
-					Connection cloneConnection = getConnection(cloneProperties);
+					Connection scriptConnection = backupClone ? getConnection(connectionProperties.copy().setDirectory(cloneFile.getCanonicalPath())) : connection;
 					
 					try
 					{
@@ -483,7 +521,7 @@ public class H2DatabaseManagementSystemServiceImpl implements IDatabaseManagemen
 								schemaQuery.append(" " + schema);
 							}
 						}
-						PreparedStatement preparedStatementScript = cloneConnection.prepareStatement("SCRIPT DROP BLOCKSIZE 8096" + schemaQuery.toString());
+						PreparedStatement preparedStatementScript = scriptConnection.prepareStatement("SCRIPT DROP BLOCKSIZE 8096" + schemaQuery.toString());
 						try
 						{
 							ResultSet resultSet = preparedStatementScript.executeQuery();
@@ -491,7 +529,8 @@ public class H2DatabaseManagementSystemServiceImpl implements IDatabaseManagemen
 							{
 								while(resultSet.next())
 								{
-									backupOutputStream.write((resultSet.getString(1) + "\n").getBytes());
+									backupWriter.write(resultSet.getString(1));
+									backupWriter.write('\n');
 								}
 							}
 							finally 
@@ -506,19 +545,22 @@ public class H2DatabaseManagementSystemServiceImpl implements IDatabaseManagemen
 					} 
 					finally
 					{
-						cloneConnection.close();
+						if(scriptConnection != connection)
+						{
+							scriptConnection.close();
+						}
 					}
 					
 					return backupFile;
 				}
 				finally 
 				{
-					backupOutputStream.close();
+					backupWriter.close();
 				}
 			}
 			finally 
 			{
-				if(cloneFile.exists())
+				if((cloneFile != null) && cloneFile.exists())
 				{
 					if(! cloneFile.delete())
 					{
@@ -532,9 +574,9 @@ public class H2DatabaseManagementSystemServiceImpl implements IDatabaseManagemen
 			connection.close();
 		}
 	}
-
+	
 	@Override
-	public void restore(SystemProperties properties, ConnectionProperties connectionProperties, File backupFile, File tempDirectory, String key) throws SQLException, IOException
+	public void restoreWithProgress(SystemProperties properties, ConnectionProperties connectionProperties, File backupFile, String key, LongConsumer progress) throws SQLException, IOException
 	{
 		Objects.requireNonNull(connectionProperties, "connection properties are requiered");
 		if(connectionProperties.getDbname().isEmpty())
@@ -549,48 +591,34 @@ public class H2DatabaseManagementSystemServiceImpl implements IDatabaseManagemen
 			Objects.requireNonNull(backupFile, "backup file is required");
 		}
 		
-		if(tempDirectory == null)
-		{
-			tempDirectory = new File(System.getProperty("java.io.tmpdir"));
-		}
-		if(! tempDirectory.exists())
-		{
-			tempDirectory.mkdirs();
-		}
-		
 		Connection connectionRestore = getConnection(connectionProperties);
 		try
 		{
 			connectionRestore.setAutoCommit(false);
-			File tempRestore = new File(tempDirectory,"restore-" + UUID.randomUUID().toString() + ".sql");
+			
+			// file => aes => gunzip => utf-8 => RUNSCRIPT, without temporary script file
+			
+			Reader scriptReader = new BufferedReader
+			(
+				new InputStreamReader
+				(
+					Converter.CryptedInputStreamToInputStream.apply
+					(
+						new ProgressInputStream(new BufferedInputStream(new FileInputStream(backupFile), BUFFER_SIZE), progress), 
+						key
+					), 
+					StandardCharsets.UTF_8
+				),
+				BUFFER_SIZE
+			);
 			try
 			{
-				CommonConsumer.CopyStreamAndClose.accept
-				(
-					Converter.CryptedInputStreamToInputStream.apply(new FileInputStream(backupFile), null), 
-					new FileOutputStream(tempRestore)
-				);
-				
-				PreparedStatement preparedStatement = connectionRestore.prepareStatement("RUNSCRIPT FROM '" + tempRestore.getCanonicalPath() + "'");
-				try
-				{
-					preparedStatement.executeUpdate();
-				}
-				finally 
-				{
-					preparedStatement.close();
-				}
+				RunScript.execute(connectionRestore, scriptReader);
 				connectionRestore.commit();
 			}
 			finally 
 			{
-				if(tempDirectory.exists())
-				{
-					if(! tempRestore.delete())
-					{
-						tempRestore.deleteOnExit();
-					}
-				}
+				scriptReader.close();
 			}
 		}
 		finally 
@@ -598,5 +626,119 @@ public class H2DatabaseManagementSystemServiceImpl implements IDatabaseManagemen
 			connectionRestore.close();
 		}
 	}
-
+	
+	private static class ProgressOutputStream extends FilterOutputStream
+	{
+		private LongConsumer progress = null;
+		private long count = 0L;
+		private long reported = 0L;
+		
+		private ProgressOutputStream(OutputStream out, LongConsumer progress)
+		{
+			super(out);
+			this.progress = progress;
+		}
+		
+		@Override
+		public void write(int b) throws IOException
+		{
+			out.write(b);
+			count(1);
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			out.write(b, off, len);
+			count(len);
+		}
+		
+		private void count(int len)
+		{
+			this.count += len;
+			if((this.progress != null) && ((this.count - this.reported) >= PROGRESS_INTERVAL))
+			{
+				this.reported = this.count;
+				this.progress.accept(this.count);
+			}
+		}
+		
+		@Override
+		public void close() throws IOException
+		{
+			super.close();
+			if((this.progress != null) && (this.reported != this.count))
+			{
+				this.reported = this.count;
+				this.progress.accept(this.count);
+			}
+		}
+	}
+	
+	private static class ProgressInputStream extends FilterInputStream
+	{
+		private LongConsumer progress = null;
+		private long count = 0L;
+		private long reported = 0L;
+		
+		private ProgressInputStream(InputStream in, LongConsumer progress)
+		{
+			super(in);
+			this.progress = progress;
+		}
+		
+		@Override
+		public int read() throws IOException
+		{
+			int b = in.read();
+			if(b >= 0)
+			{
+				count(1);
+			}
+			return b;
+		}
+		
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException
+		{
+			int read = in.read(b, off, len);
+			if(read > 0)
+			{
+				count(read);
+			}
+			return read;
+		}
+		
+		@Override
+		public long skip(long n) throws IOException
+		{
+			long skipped = in.skip(n);
+			if(skipped > 0)
+			{
+				count(skipped);
+			}
+			return skipped;
+		}
+		
+		private void count(long len)
+		{
+			this.count += len;
+			if((this.progress != null) && ((this.count - this.reported) >= PROGRESS_INTERVAL))
+			{
+				this.reported = this.count;
+				this.progress.accept(this.count);
+			}
+		}
+		
+		@Override
+		public void close() throws IOException
+		{
+			super.close();
+			if((this.progress != null) && (this.reported != this.count))
+			{
+				this.reported = this.count;
+				this.progress.accept(this.count);
+			}
+		}
+	}
 }
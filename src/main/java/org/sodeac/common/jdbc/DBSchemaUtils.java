@@ -10,12 +10,20 @@
  *******************************************************************************/
 package org.sodeac.common.jdbc;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Dictionary;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Hashtable;
@@ -32,11 +40,16 @@ import org.sodeac.common.misc.Driver;
 import org.sodeac.common.model.dbschema.ColumnNodeType;
 import org.sodeac.common.model.dbschema.DBSchemaBow;
 import org.sodeac.common.model.dbschema.DBSchemaNodeType;
+import org.sodeac.common.model.dbschema.DBSchemaTreeModel;
 import org.sodeac.common.model.dbschema.EventConsumerNodeType;
 import org.sodeac.common.model.dbschema.IndexNodeType;
 import org.sodeac.common.model.dbschema.SequenceNodeType;
 import org.sodeac.common.model.dbschema.TableNodeType;
 import org.sodeac.common.typedtree.BranchNode;
+import org.sodeac.common.typedtree.BranchNodeListType;
+import org.sodeac.common.typedtree.BranchNodeType;
+import org.sodeac.common.typedtree.LeafNodeType;
+import org.sodeac.common.typedtree.TypedTreeMetaModel.RootBranchNode;
 
 public class DBSchemaUtils
 {
@@ -48,6 +61,10 @@ public class DBSchemaUtils
 	private Connection connection = null;
 	private IDBSchemaUtilsDriver driver = null;
 	private ILogService logService = null;
+	private Map<String,CatalogSnapshot> catalogSnapshots = null;
+	
+	private static final String FINGERPRINT_SPEC_NAME = "SPEC_NAME";
+	private static final String FINGERPRINT_FINGERPRINT = "FINGERPRINT";
 	
 	public static DBSchemaUtils get(Connection connection)
 	{
@@ -75,14 +92,54 @@ public class DBSchemaUtils
 		return adaptSchema(schema.getWrappedBranchNode());
 	}
 	
+	/**
+	 * Adapts database to schema specification. If {@link DBSchemaNodeType#fingerprintTable} is defined, a fingerprint of specification is stored 
+	 * in this table after successful adaption and the adaption is skipped, if the specification is unchanged and all tables, columns, keys and 
+	 * indices of specification still exist in catalog. 
+	 * 
+	 * @param schema schema specification
+	 * @return true, if schema is usable, otherwise false
+	 * @throws SQLException
+	 */
 	public boolean adaptSchema(BranchNode<?, DBSchemaNodeType> schema) throws SQLException
 	{
-		
 		if(schema == null)
 		{
 			return false;
 		}
 		
+		String fingerprint = null;
+		String fingerprintTable = schema.getValue(DBSchemaNodeType.fingerprintTable);
+		
+		boolean usable = false;
+		this.catalogSnapshots = new HashMap<String,CatalogSnapshot>();
+		try
+		{
+			if((fingerprintTable != null) && (! fingerprintTable.isEmpty()))
+			{
+				fingerprint = createFingerprint(schema);
+				if(fingerprint.equals(readFingerprint(schema, fingerprintTable)) && catalogMatches(schema))
+				{
+					return true;
+				}
+			}
+			
+			usable = checkSchema(schema);
+		}
+		finally 
+		{
+			this.catalogSnapshots = null;
+		}
+		
+		if(usable && (fingerprint != null))
+		{
+			writeFingerprint(schema, fingerprintTable, fingerprint);
+		}
+		return usable;
+	}
+	
+	private boolean checkSchema(BranchNode<?, DBSchemaNodeType> schema) throws SQLException
+	{
 		CheckProperties checkProperties = new CheckProperties();
 		String schemaSpecificationName = schema.getValue(DBSchemaNodeType.name);
 		
@@ -548,6 +605,270 @@ public class DBSchemaUtils
 		return checkProperties.getUnusableExceptionList().isEmpty();
 	}
 	
+	/**
+	 * Checks existence of tables, columns, keys and indices of schema specification in catalog. The checks are served by catalog snapshot.
+	 * 
+	 * @param schema schema specification
+	 * @return true, if all objects of specification exist, otherwise false
+	 * @throws SQLException
+	 */
+	protected boolean catalogMatches(BranchNode<?, DBSchemaNodeType> schema) throws SQLException
+	{
+		boolean skipChecks = schema.getValue(DBSchemaNodeType.skipChecks) == null ? false : schema.getValue(DBSchemaNodeType.skipChecks).booleanValue();
+		
+		for(BranchNode<DBSchemaNodeType, TableNodeType> table : schema.getUnmodifiableNodeList(DBSchemaNodeType.tables))
+		{
+			Map<String,Object> tableProperties = new HashMap<String, Object>();
+			tableProperties.put(CatalogSnapshot.class.getName(), this.catalogSnapshots);
+			
+			if(! driver.tableExists(connection, schema, table, tableProperties))
+			{
+				return false;
+			}
+			for(BranchNode<TableNodeType, ColumnNodeType> column : table.getUnmodifiableNodeList(TableNodeType.columns))
+			{
+				Map<String,Object> columnProperties = new HashMap<String, Object>(tableProperties);
+				if(! driver.columnExists(connection, schema, table, column, columnProperties))
+				{
+					return false;
+				}
+				if((! skipChecks) && (! driver.isValidForeignKey(connection, schema, table, column, columnProperties)))
+				{
+					return false;
+				}
+			}
+			if(skipChecks)
+			{
+				continue;
+			}
+			if(! driver.primaryKeyExists(connection, schema, table, tableProperties))
+			{
+				return false;
+			}
+			for(BranchNode<TableNodeType,IndexNodeType> index : table.getUnmodifiableNodeList(TableNodeType.indices))
+			{
+				if(! driver.isValidIndex(connection, schema, table, index, new HashMap<String, Object>(tableProperties)))
+				{
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Creates SHA-256 fingerprint of schema specification. Runtime values like event consumers are not considered.
+	 * 
+	 * @param schema schema specification
+	 * @return fingerprint as hex string
+	 * @throws SQLException
+	 */
+	protected String createFingerprint(BranchNode<?, DBSchemaNodeType> schema) throws SQLException
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append(driver.getClass().getName()).append(';');
+		builder.append(connection.getMetaData().getDatabaseProductName()).append(';');
+		builder.append(getSchema(connection)).append(';');
+		appendFingerprint(schema, builder);
+		
+		try
+		{
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(builder.toString().getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder();
+			for(byte b : hash)
+			{
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		}
+		catch (NoSuchAlgorithmException e) 
+		{
+			throw new RuntimeException(e);
+		}
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static void appendFingerprint(BranchNode node, StringBuilder builder)
+	{
+		builder.append('{');
+		for(LeafNodeType leafNodeType : (List<LeafNodeType>)node.getLeafNodeTypeList())
+		{
+			Object value = node.getValue(leafNodeType);
+			if(value instanceof Class)
+			{
+				value = ((Class)value).getName();
+			}
+			else if(!((value instanceof String) || (value instanceof Number) || (value instanceof Boolean) || (value instanceof Enum)))
+			{
+				continue; // consumers and other runtime values
+			}
+			String string = value.toString();
+			builder.append(leafNodeType.getNodeName()).append(':').append(string.length()).append(':').append(string).append(';');
+		}
+		for(BranchNodeType branchNodeType : (List<BranchNodeType>)node.getBranchNodeTypeList())
+		{
+			BranchNode child = node.get(branchNodeType);
+			if(child != null)
+			{
+				builder.append(branchNodeType.getNodeName());
+				appendFingerprint(child, builder);
+			}
+		}
+		for(BranchNodeListType branchNodeListType : (List<BranchNodeListType>)node.getBranchNodeListTypeList())
+		{
+			builder.append(branchNodeListType.getNodeName()).append('[');
+			for(BranchNode child : (List<BranchNode>)node.getUnmodifiableNodeList(branchNodeListType))
+			{
+				appendFingerprint(child, builder);
+			}
+			builder.append(']');
+		}
+		builder.append('}');
+	}
+	
+	private RootBranchNode<DBSchemaTreeModel, DBSchemaNodeType> createFingerprintSchema(BranchNode<?, DBSchemaNodeType> schema, String fingerprintTable) throws SQLException
+	{
+		String schemaName = getSchema(connection);
+		if((schema.getValue(DBSchemaNodeType.dbmsSchemaName) != null) && (! schema.getValue(DBSchemaNodeType.dbmsSchemaName).isEmpty()))
+		{
+			schemaName = schema.getValue(DBSchemaNodeType.dbmsSchemaName);
+		}
+		
+		RootBranchNode<DBSchemaTreeModel, DBSchemaNodeType> fingerprintSchema = DBSchemaTreeModel.newSchema(schema.getValue(DBSchemaNodeType.name), schemaName);
+		fingerprintSchema
+			.setValue(DBSchemaNodeType.tableSpaceData, schema.getValue(DBSchemaNodeType.tableSpaceData))
+			.setValue(DBSchemaNodeType.tableSpaceIndex, schema.getValue(DBSchemaNodeType.tableSpaceIndex))
+			.setValue(DBSchemaNodeType.logUpdates, schema.getValue(DBSchemaNodeType.logUpdates));
+		
+		BranchNode<DBSchemaNodeType, TableNodeType> table = fingerprintSchema.create(DBSchemaNodeType.tables).setValue(TableNodeType.name, fingerprintTable);
+		TableNodeType.createVarcharColumn(table, FINGERPRINT_SPEC_NAME, false, 255).create(ColumnNodeType.primaryKey);
+		TableNodeType.createVarcharColumn(table, FINGERPRINT_FINGERPRINT, false, 64);
+		
+		return fingerprintSchema;
+	}
+	
+	private String formatFingerprintName(BranchNode<?, DBSchemaNodeType> fingerprintSchema, String name, String type)
+	{
+		return driver.objectNameGuidelineFormat(fingerprintSchema, connection, name, type);
+	}
+	
+	private String getFingerprintTableName(BranchNode<?, DBSchemaNodeType> fingerprintSchema)
+	{
+		BranchNode<DBSchemaNodeType, TableNodeType> table = fingerprintSchema.getUnmodifiableNodeList(DBSchemaNodeType.tables).get(0);
+		return fingerprintSchema.getValue(DBSchemaNodeType.dbmsSchemaName) + "." + formatFingerprintName(fingerprintSchema, table.getValue(TableNodeType.name), "TABLE");
+	}
+	
+	private boolean fingerprintTableExists(BranchNode<?, DBSchemaNodeType> fingerprintSchema) throws SQLException
+	{
+		BranchNode<DBSchemaNodeType, TableNodeType> table = fingerprintSchema.getUnmodifiableNodeList(DBSchemaNodeType.tables).get(0);
+		return driver.tableExists(connection, fingerprintSchema, table, new HashMap<String,Object>());
+	}
+	
+	/**
+	 * Reads fingerprint of last successfully adapted specification.
+	 * 
+	 * @param schema schema specification
+	 * @param fingerprintTable name of table to store fingerprints
+	 * @return stored fingerprint or null, if not exists
+	 * @throws SQLException
+	 */
+	protected String readFingerprint(BranchNode<?, DBSchemaNodeType> schema, String fingerprintTable) throws SQLException
+	{
+		RootBranchNode<DBSchemaTreeModel, DBSchemaNodeType> fingerprintSchema = createFingerprintSchema(schema, fingerprintTable);
+		try
+		{
+			if(! fingerprintTableExists(fingerprintSchema))
+			{
+				return null;
+			}
+			
+			String specificationName = schema.getValue(DBSchemaNodeType.name) == null ? "" : schema.getValue(DBSchemaNodeType.name);
+			PreparedStatement preparedStatement = connection.prepareStatement
+			(
+				"SELECT " + formatFingerprintName(fingerprintSchema, FINGERPRINT_FINGERPRINT, "COLUMN") + 
+				" FROM " + getFingerprintTableName(fingerprintSchema) + 
+				" WHERE " + formatFingerprintName(fingerprintSchema, FINGERPRINT_SPEC_NAME, "COLUMN") + " = ?"
+			);
+			try
+			{
+				preparedStatement.setString(1, specificationName);
+				ResultSet resultSet = preparedStatement.executeQuery();
+				try
+				{
+					return resultSet.next() ? resultSet.getString(1) : null;
+				}
+				finally 
+				{
+					resultSet.close();
+				}
+			}
+			finally 
+			{
+				preparedStatement.close();
+			}
+		}
+		finally 
+		{
+			fingerprintSchema.dispose();
+		}
+	}
+	
+	/**
+	 * Stores fingerprint of successfully adapted specification. The table to store fingerprints is created by schema driver.
+	 * 
+	 * @param schema schema specification
+	 * @param fingerprintTable name of table to store fingerprints
+	 * @param fingerprint fingerprint to store
+	 * @throws SQLException
+	 */
+	protected void writeFingerprint(BranchNode<?, DBSchemaNodeType> schema, String fingerprintTable, String fingerprint) throws SQLException
+	{
+		RootBranchNode<DBSchemaTreeModel, DBSchemaNodeType> fingerprintSchema = createFingerprintSchema(schema, fingerprintTable);
+		try
+		{
+			if((! fingerprintTableExists(fingerprintSchema)) && (! checkSchema(fingerprintSchema)))
+			{
+				return;
+			}
+			
+			String tableName = getFingerprintTableName(fingerprintSchema);
+			String specNameColumn = formatFingerprintName(fingerprintSchema, FINGERPRINT_SPEC_NAME, "COLUMN");
+			String fingerprintColumn = formatFingerprintName(fingerprintSchema, FINGERPRINT_FINGERPRINT, "COLUMN");
+			String specificationName = schema.getValue(DBSchemaNodeType.name) == null ? "" : schema.getValue(DBSchemaNodeType.name);
+			
+			PreparedStatement preparedStatement = connection.prepareStatement("UPDATE " + tableName + " SET " + fingerprintColumn + " = ? WHERE " + specNameColumn + " = ?");
+			try
+			{
+				preparedStatement.setString(1, fingerprint);
+				preparedStatement.setString(2, specificationName);
+				if(preparedStatement.executeUpdate() > 0)
+				{
+					return;
+				}
+			}
+			finally 
+			{
+				preparedStatement.close();
+			}
+			
+			preparedStatement = connection.prepareStatement("INSERT INTO " + tableName + " (" + specNameColumn + ", " + fingerprintColumn + ") VALUES (?, ?)");
+			try
+			{
+				preparedStatement.setString(1, specificationName);
+				preparedStatement.setString(2, fingerprint);
+				preparedStatement.executeUpdate();
+			}
+			finally 
+			{
+				preparedStatement.close();
+			}
+		}
+		finally 
+		{
+			fingerprintSchema.dispose();
+		}
+	}
+	
 	protected void logUpdate(String message, BranchNode<?, DBSchemaNodeType> schema)
 	{
 		if((schema.getValue(DBSchemaNodeType.logUpdates) != null) && (!schema.getValue(DBSchemaNodeType.logUpdates).booleanValue()))
@@ -1289,6 +1610,10 @@ public class DBSchemaUtils
 				}
 				
 				Map<String,Object> tableProperties = new HashMap<String, Object>(); 
+				if(dbSchemaUtils.catalogSnapshots != null)
+				{
+					tableProperties.put(CatalogSnapshot.class.getName(), dbSchemaUtils.catalogSnapshots);
+				}
 				tableTracker.setTableProperties(tableProperties);
 				tableTracker.setExits(driver.tableExists(connection, schema, table, tableProperties));
 				if(! tableTracker.isExits())
@@ -1587,6 +1912,10 @@ public class DBSchemaUtils
 						exc = e;
 						dbSchemaUtils.logError(e, schema,  "Primary Key for Table " + table.getValue(TableNodeType.name) + " can not create ",  checkProperties);
 					}
+					finally 
+					{
+						CatalogSnapshot.invalidateKeyMetaData(tableTracker.getTableProperties(), table);
+					}
 					
 					if(checkProperties.isInterrupted())
 					{
@@ -1707,6 +2036,10 @@ public class DBSchemaUtils
 					try
 					{
 						Map<String,Object> columnIndexProperties = new HashMap<String,Object>();
+						if(tableTracker.getTableProperties() != null)
+						{
+							columnIndexProperties.put(CatalogSnapshot.class.getName(), tableTracker.getTableProperties().get(CatalogSnapshot.class.getName()));
+						}
 						boolean indexExists = driver.isValidIndex(connection, schema, table, index, columnIndexProperties);
 						
 						if(! indexExists)
@@ -1775,6 +2108,10 @@ public class DBSchemaUtils
 								exc = e;
 								dbSchemaUtils.logError(e, schema,  "Index " + index.getValue(IndexNodeType.name) + " can not create ", checkProperties);
 							}
+							finally 
+							{
+								CatalogSnapshot.invalidateKeyMetaData(columnIndexProperties, table);
+							}
 								
 							if(checkProperties.isInterrupted())
 							{
@@ -2725,6 +3062,10 @@ public class DBSchemaUtils
 						exc = e;
 						dbSchemaUtils.logError(e, schema,  "Column foreign key for " + table.getValue(TableNodeType.name) + " Col " + column.getValue(ColumnNodeType.name) + " can not update", checkProperties);
 					}
+					finally 
+					{
+						CatalogSnapshot.invalidateKeyMetaData(columnProperties, table);
+					}
 					
 					if(checkProperties.isInterrupted())
 					{
@@ -2809,6 +3150,490 @@ public class DBSchemaUtils
 		}
 	}
 	
+	/**
+	 * Snapshot of tables and columns of a dbms schema. The snapshot is loaded once by {@link DBSchemaUtils#adaptSchema(BranchNode)} with 
+	 * one query for tables and one query for columns and serves existence checks of {@link IDBSchemaUtilsDriver#tableExists} 
+	 * and {@link IDBSchemaUtilsDriver#columnExists} for all objects existing on load. Primary keys, foreign keys and indices are 
+	 * loaded on first request with one query for schema, if supported by driver, otherwise with one query for each table.
+	 * 
+	 * @author Sebastian Palarus
+	 *
+	 */
+	public static class CatalogSnapshot
+	{
+		private Map<String,TableEntry> tables = new HashMap<String,TableEntry>();
+		private Map<String,TableEntry> tablesIgnoreCase = new HashMap<String,TableEntry>();
+		private IDBSchemaUtilsDriver driver = null;
+		private String catalogSearchPattern = null;
+		private String schemaSearchPattern = null;
+		private Set<KeyMetaData> keyMetaDataBySchema = EnumSet.noneOf(KeyMetaData.class);
+				
+		private CatalogSnapshot()
+		{
+			super();
+		}
+		
+		/**
+		 * Returns snapshot of schema. The snapshot is loaded on first request while adaption of schema.
+		 * 
+		 * @param properties table or column properties
+		 * @param driver schema driver
+		 * @param connection underlying connection
+		 * @param schema hole schema specification
+		 * @param catalog name of catalog
+		 * @param schemaName name of dbms schema
+		 * @return snapshot of schema or null, if properties are not created by running schema adaption
+		 * @throws SQLException
+		 */
+		@SuppressWarnings("unchecked")
+		public static CatalogSnapshot get
+		(
+			Map<String,Object> properties, 
+			IDBSchemaUtilsDriver driver, 
+			Connection connection, 
+			BranchNode<?, DBSchemaNodeType> schema, 
+			String catalog, 
+			String schemaName
+		) throws SQLException
+		{
+			Map<String,CatalogSnapshot> catalogSnapshots = (Map<String,CatalogSnapshot>)properties.get(CatalogSnapshot.class.getName());
+			if(catalogSnapshots == null)
+			{
+				return null;
+			}
+			String key = catalog + "." + schemaName;
+			CatalogSnapshot catalogSnapshot = catalogSnapshots.get(key);
+			if(catalogSnapshot == null)
+			{
+				catalogSnapshot = new CatalogSnapshot();
+				catalogSnapshot.driver = driver;
+				catalogSnapshot.catalogSearchPattern = driver.catalogSearchPattern(schema, connection, catalog);
+				catalogSnapshot.schemaSearchPattern = driver.schemaSearchPattern(schema, connection, schemaName);
+				DatabaseMetaData databaseMetaData = connection.getMetaData();
+				
+				catalogSnapshot.load(databaseMetaData, catalogSnapshot.catalogSearchPattern, catalogSnapshot.schemaSearchPattern, catalog, schemaName);
+				if(catalogSnapshot.tables.isEmpty())
+				{
+					// Try again with wildcard schema
+					catalogSnapshot.catalogSearchPattern = null;
+					catalogSnapshot.schemaSearchPattern = null;
+					catalogSnapshot.load(databaseMetaData, null, null, catalog, schemaName);
+				}
+				catalogSnapshots.put(key, catalogSnapshot);
+			}
+			return catalogSnapshot;
+		}
+		
+		private void load(DatabaseMetaData databaseMetaData, String catalogSearchPattern, String schemaSearchPattern, String catalog, String schemaName) throws SQLException
+		{
+			ResultSet resultSet = databaseMetaData.getTables(catalogSearchPattern, schemaSearchPattern, "%", new String[]{"TABLE"});
+			try
+			{
+				while(resultSet.next())
+				{
+					String tbl = resultSet.getString("TABLE_NAME");
+					if((tbl != null) && matches(resultSet.getString("TABLE_CAT"), resultSet.getString("TABLE_SCHEM"), catalog, schemaName))
+					{
+						getOrCreateTable(tbl);
+					}
+				}
+			}
+			finally 
+			{
+				resultSet.close();
+			}
+			
+			resultSet = databaseMetaData.getColumns(catalogSearchPattern, schemaSearchPattern, "%", "%");
+			try
+			{
+				while(resultSet.next())
+				{
+					String cat 		= resultSet.getString("TABLE_CAT");
+					String schem 	= resultSet.getString("TABLE_SCHEM");
+					String tbl 		= resultSet.getString("TABLE_NAME");
+					String col 		= resultSet.getString("COLUMN_NAME");
+					
+					if((tbl == null) || (col == null) || (! matches(cat, schem, catalog, schemaName)))
+					{
+						continue;
+					}
+					
+					if(schem == null)
+					{
+						schem = cat;
+					}
+					if(cat == null) {cat = "";}
+					if(schem == null) {schem = "";}
+					
+					Map<String,Object> columnProperties = new HashMap<String,Object>();
+					columnProperties.put("COLUMN_TABLE_CAT", cat);
+					columnProperties.put("COLUMN_TABLE_SCHEM", schem);
+					columnProperties.put("COLUMN_TABLE_NAME", tbl);
+					
+					columnProperties.put("COLUMN_COLUMN_NAME", col);
+					columnProperties.put("COLUMN_DATA_TYPE", resultSet.getInt("DATA_TYPE"));
+					columnProperties.put("COLUMN_TYPE_NAME", resultSet.getString("TYPE_NAME"));
+					columnProperties.put("COLUMN_COLUMN_SIZE", resultSet.getInt("COLUMN_SIZE"));
+					columnProperties.put("COLUMN_DECIMAL_DIGITS", resultSet.getInt("DECIMAL_DIGITS"));
+					columnProperties.put("COLUMN_NULLABLE", resultSet.getInt("NULLABLE"));
+					columnProperties.put("COLUMN_COLUMN_DEF",resultSet.getString("COLUMN_DEF"));
+					
+					TableEntry tableEntry = getOrCreateTable(tbl);
+					tableEntry.columns.put(col, columnProperties);
+					tableEntry.columnsIgnoreCase.putIfAbsent(col.toUpperCase(), columnProperties);
+				}
+			}
+			finally 
+			{
+				resultSet.close();
+			}
+		}
+		
+		private static boolean matches(String cat, String schem, String catalog, String schemaName)
+		{
+			if(schem == null)
+			{
+				schem = cat;
+			}
+			if(cat == null) {cat = "";}
+			if(schem == null) {schem = "";}
+			
+			if(!(cat.isEmpty() || cat.equalsIgnoreCase("null") || cat.equalsIgnoreCase(catalog) || cat.equalsIgnoreCase(schemaName)))
+			{
+				return false;
+			}
+			return schem.equalsIgnoreCase(schemaName);
+		}
+		
+		private TableEntry getOrCreateTable(String tableName)
+		{
+			TableEntry tableEntry = this.tables.get(tableName);
+			if(tableEntry == null)
+			{
+				tableEntry = new TableEntry();
+				this.tables.put(tableName, tableEntry);
+				this.tablesIgnoreCase.putIfAbsent(tableName.toUpperCase(), tableEntry);
+			}
+			return tableEntry;
+		}
+		
+		private TableEntry getTable(String tableName, boolean quoted)
+		{
+			TableEntry tableEntry = this.tables.get(tableName);
+			if((tableEntry != null) || quoted)
+			{
+				return tableEntry;
+			}
+			return this.tablesIgnoreCase.get(tableName.toUpperCase());
+		}
+		
+		/**
+		 * 
+		 * @param tableName name of table
+		 * @param quoted true, if name is case sensitive
+		 * @return true, if table exists on load of snapshot, otherwise false
+		 */
+		public boolean tableExists(String tableName, boolean quoted)
+		{
+			return getTable(tableName, quoted) != null;
+		}
+		
+		/**
+		 * Checks existence of column and stores metadata of column in {@code columnProperties}.
+		 * 
+		 * @param tableName name of table
+		 * @param tableQuoted true, if name of table is case sensitive
+		 * @param columnName name of column
+		 * @param columnQuoted true, if name of column is case sensitive
+		 * @param columnProperties properties to store working parameter
+		 * @return true, if column exists on load of snapshot, otherwise false
+		 */
+		public boolean columnExists(String tableName, boolean tableQuoted, String columnName, boolean columnQuoted, Map<String,Object> columnProperties)
+		{
+			TableEntry tableEntry = getTable(tableName, tableQuoted);
+			if(tableEntry == null)
+			{
+				return false;
+			}
+			Map<String,Object> properties = tableEntry.columns.get(columnName);
+			if((properties == null) && (! columnQuoted))
+			{
+				properties = tableEntry.columnsIgnoreCase.get(columnName.toUpperCase());
+			}
+			if(properties == null)
+			{
+				return false;
+			}
+			columnProperties.putAll(properties);
+			return true;
+		}
+		
+		/**
+		 * Returns metadata of primary keys, foreign keys or indices of table. The metadata of tables existing on load of snapshot is loaded 
+		 * once and served until {@link #invalidateKeyMetaData(Map, BranchNode)} is invoked for table. The metadata of other tables 
+		 * is queried on each request.
+		 * 
+		 * @param keyMetaData type of metadata
+		 * @param properties table or column properties
+		 * @param driver schema driver
+		 * @param connection underlying connection
+		 * @param schema hole schema specification
+		 * @param catalog name of catalog
+		 * @param schemaName name of dbms schema
+		 * @param tableName name of table
+		 * @param tableQuoted true, if name of table is case sensitive
+		 * @return rows of metadata
+		 * @throws SQLException
+		 */
+		public static MetaDataRows getKeyMetaData
+		(
+			KeyMetaData keyMetaData,
+			Map<String,Object> properties, 
+			IDBSchemaUtilsDriver driver, 
+			Connection connection, 
+			BranchNode<?, DBSchemaNodeType> schema, 
+			String catalog, 
+			String schemaName,
+			String tableName,
+			boolean tableQuoted
+		) throws SQLException
+		{
+			String tableSearchPattern = driver.objectSearchPattern(schema, connection, tableName, tableQuoted, "TABLE");
+			CatalogSnapshot catalogSnapshot = properties == null ? null : get(properties, driver, connection, schema, catalog, schemaName);
+			if(catalogSnapshot != null)
+			{
+				MetaDataRows rows = catalogSnapshot.loadKeyMetaData(keyMetaData, connection, tableName, tableQuoted, tableSearchPattern);
+				if(rows != null)
+				{
+					return rows;
+				}
+			}
+			return MetaDataRows.read
+			(
+				keyMetaData.query
+				(
+					connection.getMetaData(), 
+					driver.catalogSearchPattern(schema, connection, catalog), 
+					driver.schemaSearchPattern(schema, connection, schemaName), 
+					tableSearchPattern
+				)
+			);
+		}
+		
+		/**
+		 * Discards loaded metadata of primary keys, foreign keys and indices of table. Must be invoked after keys or indices of table are modified.
+		 * 
+		 * @param properties table or column properties
+		 * @param table table specification
+		 */
+		@SuppressWarnings("unchecked")
+		public static void invalidateKeyMetaData(Map<String,Object> properties, BranchNode<?, TableNodeType> table)
+		{
+			Map<String,CatalogSnapshot> catalogSnapshots = properties == null ? null : (Map<String,CatalogSnapshot>)properties.get(CatalogSnapshot.class.getName());
+			if(catalogSnapshots == null)
+			{
+				return;
+			}
+			boolean tableQuoted = table.getValue(TableNodeType.quotedName) == null ? false : table.getValue(TableNodeType.quotedName).booleanValue();
+			for(CatalogSnapshot catalogSnapshot : catalogSnapshots.values())
+			{
+				TableEntry tableEntry = catalogSnapshot.getTable(table.getValue(TableNodeType.name), tableQuoted);
+				if(tableEntry != null)
+				{
+					tableEntry.keyMetaData.clear();
+				}
+			}
+		}
+		
+		private MetaDataRows loadKeyMetaData(KeyMetaData keyMetaData, Connection connection, String tableName, boolean tableQuoted, String tableSearchPattern) throws SQLException
+		{
+			TableEntry tableEntry = getTable(tableName, tableQuoted);
+			if(tableEntry == null)
+			{
+				return null;
+			}
+			
+			if(driver.isSchemaWideKeyMetaDataSupported(keyMetaData) && this.keyMetaDataBySchema.add(keyMetaData))
+			{
+				MetaDataRows schemaRows = MetaDataRows.read(keyMetaData.query(connection.getMetaData(), catalogSearchPattern, schemaSearchPattern, null));
+				for(Map<String,Object> row : schemaRows.rows)
+				{
+					Object tbl = row.get(keyMetaData.tableNameColumn);
+					TableEntry entry = tbl == null ? null : this.tables.get(tbl.toString());
+					if(entry != null)
+					{
+						entry.keyMetaData.computeIfAbsent(keyMetaData, k -> new ArrayList<Map<String,Object>>()).add(row);
+					}
+				}
+				for(TableEntry entry : this.tables.values())
+				{
+					entry.keyMetaData.putIfAbsent(keyMetaData, new ArrayList<Map<String,Object>>());
+				}
+			}
+			
+			List<Map<String,Object>> rows = tableEntry.keyMetaData.get(keyMetaData);
+			if(rows == null)
+			{
+				rows = MetaDataRows.read(keyMetaData.query(connection.getMetaData(), catalogSearchPattern, schemaSearchPattern, tableSearchPattern)).rows;
+				tableEntry.keyMetaData.put(keyMetaData, rows);
+			}
+			return new MetaDataRows(rows);
+		}
+		
+		private static class TableEntry
+		{
+			private Map<String,Map<String,Object>> columns = new HashMap<String,Map<String,Object>>();
+			private Map<String,Map<String,Object>> columnsIgnoreCase = new HashMap<String,Map<String,Object>>();
+			private Map<KeyMetaData,List<Map<String,Object>>> keyMetaData = new EnumMap<KeyMetaData,List<Map<String,Object>>>(KeyMetaData.class);
+		}
+		
+		/**
+		 * Type of key metadata served by catalog snapshot.
+		 * 
+		 * @author Sebastian Palarus
+		 *
+		 */
+		public enum KeyMetaData
+		{
+			/**
+			 * {@link DatabaseMetaData#getPrimaryKeys(String, String, String)}
+			 */
+			PRIMARY_KEYS("TABLE_NAME"),
+			
+			/**
+			 * {@link DatabaseMetaData#getImportedKeys(String, String, String)}
+			 */
+			IMPORTED_KEYS("FKTABLE_NAME"),
+			
+			/**
+			 * {@link DatabaseMetaData#getIndexInfo(String, String, String, boolean, boolean)}
+			 */
+			INDEX_INFO("TABLE_NAME");
+			
+			private String tableNameColumn = null;
+			
+			private KeyMetaData(String tableNameColumn)
+			{
+				this.tableNameColumn = tableNameColumn;
+			}
+			
+			private ResultSet query(DatabaseMetaData databaseMetaData, String catalogSearchPattern, String schemaSearchPattern, String tableSearchPattern) throws SQLException
+			{
+				switch (this) 
+				{
+					case PRIMARY_KEYS:
+						
+						return databaseMetaData.getPrimaryKeys(catalogSearchPattern, schemaSearchPattern, tableSearchPattern);
+					
+					case IMPORTED_KEYS:
+						
+						return databaseMetaData.getImportedKeys(catalogSearchPattern, schemaSearchPattern, tableSearchPattern);
+					
+					default:
+						
+						return databaseMetaData.getIndexInfo(catalogSearchPattern, schemaSearchPattern, tableSearchPattern, false, false);
+				}
+			}
+		}
+		
+		/**
+		 * Detached rows of jdbc meta api with access by column label.
+		 * 
+		 * @author Sebastian Palarus
+		 *
+		 */
+		public static class MetaDataRows
+		{
+			private List<Map<String,Object>> rows = null;
+			private Map<String,Object> row = null;
+			private int position = -1;
+			
+			private MetaDataRows(List<Map<String,Object>> rows)
+			{
+				super();
+				this.rows = rows;
+			}
+			
+			/**
+			 * Reads all rows and closes {@code resultSet}.
+			 * 
+			 * @param resultSet result set of jdbc meta api
+			 * @return detached rows
+			 * @throws SQLException
+			 */
+			public static MetaDataRows read(ResultSet resultSet) throws SQLException
+			{
+				List<Map<String,Object>> rows = new ArrayList<Map<String,Object>>();
+				try
+				{
+					ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+					while(resultSet.next())
+					{
+						Map<String,Object> row = new HashMap<String,Object>();
+						for(int i = 1; i <= resultSetMetaData.getColumnCount(); i++)
+						{
+							row.put(resultSetMetaData.getColumnLabel(i).toUpperCase(), resultSet.getObject(i));
+						}
+						rows.add(row);
+					}
+				}
+				finally 
+				{
+					resultSet.close();
+				}
+				return new MetaDataRows(rows);
+			}
+			
+			public boolean next()
+			{
+				if((this.position + 1) >= this.rows.size())
+				{
+					this.position = this.rows.size();
+					this.row = null;
+					return false;
+				}
+				this.row = this.rows.get(++this.position);
+				return true;
+			}
+			
+			public String getString(String columnLabel)
+			{
+				Object value = this.row.get(columnLabel.toUpperCase());
+				return value == null ? null : value.toString();
+			}
+			
+			public boolean getBoolean(String columnLabel)
+			{
+				Object value = this.row.get(columnLabel.toUpperCase());
+				if(value instanceof Boolean)
+				{
+					return ((Boolean)value).booleanValue();
+				}
+				if(value instanceof Number)
+				{
+					return ((Number)value).intValue() != 0;
+				}
+				return (value != null) && (value.toString().equalsIgnoreCase("true") || value.toString().equals("1"));
+			}
+			
+			public short getShort(String columnLabel)
+			{
+				Object value = this.row.get(columnLabel.toUpperCase());
+				if(value instanceof Number)
+				{
+					return ((Number)value).shortValue();
+				}
+				return value == null ? 0 : Short.parseShort(value.toString());
+			}
+			
+			public void close()
+			{
+				this.position = this.rows.size();
+				this.row = null;
+			}
+		}
+	}
+	
 	public static String getSchema(Connection connection) throws SQLException
 	{
 		try
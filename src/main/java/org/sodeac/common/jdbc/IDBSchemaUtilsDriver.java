@@ -175,6 +175,12 @@ public interface IDBSchemaUtilsDriver extends IDriver
 			quoted = table.getValue(TableNodeType.quotedName).booleanValue();
 		}
 		
+		DBSchemaUtils.CatalogSnapshot catalogSnapshot = DBSchemaUtils.CatalogSnapshot.get(tableProperties, this, connection, schema, catalog, schemaName);
+		if((catalogSnapshot != null) && catalogSnapshot.tableExists(table.getValue(TableNodeType.name), quoted))
+		{
+			return true;
+		}
+		
 		String cat = null;
 		String schem = null;
 		String tbl;
@@ -248,6 +254,11 @@ public interface IDBSchemaUtilsDriver extends IDriver
 			}
 		}
 		
+		if(catalogSnapshot != null)
+		{
+			return false; // catalog snapshot already covers wildcard search
+		}
+		
 		try
 		{
 			// Try again with wildcard tablename
@@ -459,15 +470,13 @@ public interface IDBSchemaUtilsDriver extends IDriver
 		String tbl = null;
 		String col = null;
 		
-		ResultSet resultSet = null;
+		DBSchemaUtils.CatalogSnapshot.MetaDataRows resultSet = null;
 		try
 		{
-			DatabaseMetaData databaseMetaData = connection.getMetaData();
-			resultSet = databaseMetaData.getPrimaryKeys
+			resultSet = DBSchemaUtils.CatalogSnapshot.getKeyMetaData
 			(
-				catalogSearchPattern(schema, connection, catalog), 
-				schemaSearchPattern(schema, connection, schemaName),  
-				objectSearchPattern(schema, connection, table.getValue(TableNodeType.name), tableQuoted, "TABLE")
+				DBSchemaUtils.CatalogSnapshot.KeyMetaData.PRIMARY_KEYS, tableProperties, this, 
+				connection, schema, catalog, schemaName, table.getValue(TableNodeType.name), tableQuoted
 			);
 			while(resultSet.next())
 			{
@@ -849,6 +858,16 @@ public interface IDBSchemaUtilsDriver extends IDriver
 			columnQuoted = column.getValue(ColumnNodeType.quotedName).booleanValue();
 		}
 		
+		DBSchemaUtils.CatalogSnapshot catalogSnapshot = DBSchemaUtils.CatalogSnapshot.get(columnProperties, this, connection, schema, catalog, schemaName);
+		if
+		(
+			(catalogSnapshot != null) && 
+			catalogSnapshot.columnExists(table.getValue(TableNodeType.name), tableQuoted, column.getValue(ColumnNodeType.name), columnQuoted, columnProperties)
+		)
+		{
+			return true;
+		}
+		
 		String cat = null;
 		String schem = null;
 		String tbl = null;
@@ -948,6 +967,11 @@ public interface IDBSchemaUtilsDriver extends IDriver
 			}
 		}
 		
+		if(catalogSnapshot != null)
+		{
+			return false; // catalog snapshot already covers wildcard search
+		}
+		
 		resultSet = null;
 		try
 		{
@@ -1598,15 +1622,13 @@ public interface IDBSchemaUtilsDriver extends IDriver
 			keyQuoted = column.get(ColumnNodeType.foreignKey).getValue(ForeignKeyNodeType.quotedKeyName).booleanValue();
 		}
 		
-		ResultSet resultSet = null;
+		DBSchemaUtils.CatalogSnapshot.MetaDataRows resultSet = null;
 		try
 		{
-			DatabaseMetaData databaseMetaData = connection.getMetaData();
-			resultSet = databaseMetaData.getImportedKeys
+			resultSet = DBSchemaUtils.CatalogSnapshot.getKeyMetaData
 			(
-				catalogSearchPattern(schema, connection, catalog), 
-				schemaSearchPattern(schema, connection, schemaName),  
-				objectSearchPattern(schema, connection, table.getValue(TableNodeType.name), tableQuoted, "TABLE")
+				DBSchemaUtils.CatalogSnapshot.KeyMetaData.IMPORTED_KEYS, columnProperties, this, 
+				connection, schema, catalog, schemaName, table.getValue(TableNodeType.name), tableQuoted
 			);
 			while(resultSet.next())
 			{
@@ -2185,7 +2207,7 @@ public interface IDBSchemaUtilsDriver extends IDriver
 		String col = null;
 		String idx = null;
 		
-		ResultSet resultSet = null;
+		DBSchemaUtils.CatalogSnapshot.MetaDataRows resultSet = null;
 		try
 		{
 			
@@ -2210,13 +2232,10 @@ public interface IDBSchemaUtilsDriver extends IDriver
 			boolean unique = false;
 			
 			
-			DatabaseMetaData databaseMetaData = connection.getMetaData();
-			resultSet = databaseMetaData.getIndexInfo
+			resultSet = DBSchemaUtils.CatalogSnapshot.getKeyMetaData
 			(
-				catalogSearchPattern(schema, connection, catalog), 
-				schemaSearchPattern(schema, connection, schemaName),  
-				objectSearchPattern(schema, connection, table.getValue(TableNodeType.name), tableQuoted, "TABLE"), 
-				false, false
+				DBSchemaUtils.CatalogSnapshot.KeyMetaData.INDEX_INFO, indexProperties, this, 
+				connection, schema, catalog, schemaName, table.getValue(TableNodeType.name), tableQuoted
 			);
 			while(resultSet.next())
 			{
@@ -2757,6 +2776,16 @@ public interface IDBSchemaUtilsDriver extends IDriver
 		return name;
 	}
 	
+	/**
+	 * 
+	 * @param keyMetaData type of key metadata
+	 * @return true, if jdbc meta api returns {@code keyMetaData} of all tables of schema, if table name is null, otherwise false
+	 */
+	public default boolean isSchemaWideKeyMetaDataSupported(DBSchemaUtils.CatalogSnapshot.KeyMetaData keyMetaData)
+	{
+		return false;
+	}
+	
 	/**
 	 * 
 	 * @return character to quote an identifier
@@ -2789,4 +2818,73 @@ public interface IDBSchemaUtilsDriver extends IDriver
 	{
 		return "";
 	}
+	
+	/**
+	 * create multi-row insert statement
+	 * 
+	 * @param tableName name of table
+	 * @param columns names of columns
+	 * @param rowCount count of rows (parameter groups) to insert
+	 * 
+	 * @return insert statement with <code>columns.size() * rowCount</code> parameters
+	 */
+	public default String getMultiRowInsertStatement(String tableName, List<String> columns, int rowCount)
+	{
+		StringBuilder sql = new StringBuilder("insert into " + tableName + " (" + String.join(",", columns) + ") values ");
+		appendValueRows(sql, columns.size(), rowCount);
+		return sql.toString();
+	}
+	
+	/**
+	 * 
+	 * @return true, if dbms supports multi-row upsert by {@link IDBSchemaUtilsDriver#getUpsertStatement(String, String, List, List, int)}, otherwise false
+	 */
+	public default boolean supportsUpsert()
+	{
+		return false;
+	}
+	
+	/**
+	 * create multi-row upsert statement. Rows with existing primary key update the updatable columns, other rows are inserted.
+	 * 
+	 * @param tableName name of table
+	 * @param primaryKeyColumn name of primary key column
+	 * @param columns names of columns
+	 * @param updateColumns names of columns to update on existing rows
+	 * @param rowCount count of rows (parameter groups) to upsert
+	 * 
+	 * @return upsert statement with <code>columns.size() * rowCount</code> parameters, or null, if dbms does not support upsert
+	 */
+	public default String getUpsertStatement(String tableName, String primaryKeyColumn, List<String> columns, List<String> updateColumns, int rowCount)
+	{
+		return null;
+	}
+	
+	/**
+	 * append parameter groups <code>(?,?),(?,?)</code> to sql
+	 * 
+	 * @param sql sql builder
+	 * @param columnCount count of parameters per row
+	 * @param rowCount count of rows
+	 */
+	public static void appendValueRows(StringBuilder sql, int columnCount, int rowCount)
+	{
+		for(int row = 0; row < rowCount; row++)
+		{
+			if(row > 0)
+			{
+				sql.append(",");
+			}
+			sql.append("(");
+			for(int column = 0; column < columnCount; column++)
+			{
+				if(column > 0)
+				{
+					sql.append(",");
+				}
+				sql.append("?");
+			}
+			sql.append(")");
+		}
+	}
 }
@@ -22,16 +22,36 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.sql.DataSource;
 
@@ -41,6 +61,7 @@ import org.sodeac.common.annotation.ServiceRegistration;
 import org.sodeac.common.annotation.StringProperty;
 import org.sodeac.common.function.ConplierBean;
 import org.sodeac.common.function.ExceptionCatchedConsumer;
+import org.sodeac.common.function.ExceptionCatchedFunction;
 import org.sodeac.common.jdbc.TypedTreeJDBCCruder.ConvertEvent.ConvertEventProvider;
 import org.sodeac.common.jdbc.TypedTreeJDBCCruder.Session.RuntimeParameter;
 import org.sodeac.common.jdbc.TypedTreeJDBCHelper.MASK;
@@ -55,6 +76,7 @@ import org.sodeac.common.typedtree.INodeType;
 import org.sodeac.common.typedtree.LeafNode;
 import org.sodeac.common.typedtree.LeafNodeType;
 import org.sodeac.common.typedtree.Node;
+import org.sodeac.common.typedtree.TreeChangeSet;
 import org.sodeac.common.typedtree.TypedTreeMetaModel;
 import org.sodeac.common.typedtree.TypedTreeMetaModel.RootBranchNode;
 import org.sodeac.common.typedtree.annotation.Association.AssociationType;
@@ -73,9 +95,22 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 		this.loadDefinitionContainer = new HashMap<INodeType, PreparedLoadDefinitionContainer>();
 		this.deleteDefinitionContainer = new HashMap<INodeType, PreparedDeleteDefinitionContainer>();
 		this.lock = new ReentrantLock();
+		this.preparedStatementCacheIndex = new HashMap<Connection, PreparedStatementCache>();
 		this.rootNodeFactories = new HashMap<INodeType, Function<Object[], Collection<RootBranchNode<? extends TypedTreeMetaModel,? extends BranchNodeMetaModel>>>>();
 	}
 	
+	/**
+	 * max count of rows bound to one multi-row insert or upsert statement
+	 */
+	public static final int MULTI_ROW_LIMIT = 500;
+	
+	/**
+	 * max count of parameters bound to one multi-row insert or upsert statement (postgresql jdbc driver accepts up to 32767 parameters)
+	 */
+	public static final int MULTI_ROW_PARAMETER_LIMIT = 32000;
+	
+	private static final AtomicLong ASYNC_SESSION_COUNTER = new AtomicLong();
+	
 	public static final TypedTreeJDBCCruder get()
 	{
 		return new TypedTreeJDBCCruder();
@@ -97,6 +132,10 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 	private Map<INodeType, PreparedLoadDefinitionContainer> loadDefinitionContainer = null; 
 	private Map<INodeType, Function<Object[], Collection<RootBranchNode<? extends TypedTreeMetaModel,? extends BranchNodeMetaModel>>>> rootNodeFactories = null; 
 	
+	private Map<Connection, PreparedStatementCache> preparedStatementCacheIndex = null;
+	private volatile int preparedStatementCacheSize = PreparedStatementCache.DEFAULT_SIZE;
+	private volatile IdentityCache identityCache = null;
+	
 	private Lock lock = null;
 	private boolean softclose = false;
 	
@@ -105,6 +144,18 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 		return new Session(mainDatasource);
 	}
 	
+	/**
+	 * Opens a session running all operations asynchronously on a single worker thread.
+	 * 
+	 * @param mainDatasource datasource to get connection
+	 * @param maxPendingOperations max count of submitted and uncompleted operations, further submissions block until operations are completed
+	 * @return async session
+	 */
+	public AsyncSession openAsyncSession(DataSource mainDatasource, int maxPendingOperations)
+	{
+		return new AsyncSession(new Session(mainDatasource), maxPendingOperations);
+	}
+	
 	@Override
 	public void close()
 	{
@@ -153,6 +204,18 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			{
 				this.rootNodeFactories.clear();
 			}
+			if(this.preparedStatementCacheIndex != null)
+			{
+				for(PreparedStatementCache preparedStatementCache : this.preparedStatementCacheIndex.values())
+				{
+					preparedStatementCache.close();
+				}
+				this.preparedStatementCacheIndex.clear();
+				if(! softclose)
+				{
+					this.preparedStatementCacheIndex = null;
+				}
+			}
 			if(! softclose)
 			{
 				this.rootNodeFactories = null;
@@ -164,6 +227,94 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 		}
 	}
 	
+	/**
+	 * Setter for maximum count of prepared statements cached for one physical connection.
+	 * 
+	 * @param preparedStatementCacheSize maximum count of cached statements
+	 * @return cruder
+	 */
+	public TypedTreeJDBCCruder setPreparedStatementCacheSize(int preparedStatementCacheSize)
+	{
+		if(preparedStatementCacheSize < 1)
+		{
+			throw new IllegalArgumentException("cache size must be greater than 0");
+		}
+		this.preparedStatementCacheSize = preparedStatementCacheSize;
+		return this;
+	}
+	
+	/**
+	 * Setter for second-level identity cache. Sessions of this cruder populate nodes loaded by primary key from cache and
+	 * invalidate cached rows on persist and delete.
+	 * 
+	 * @param identityCache identity cache, or null to disable caching
+	 * @return cruder
+	 */
+	public TypedTreeJDBCCruder setIdentityCache(IdentityCache identityCache)
+	{
+		this.identityCache = identityCache;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * @return second-level identity cache, or null, if caching is disabled
+	 */
+	public IdentityCache getIdentityCache()
+	{
+		return this.identityCache;
+	}
+	
+	/**
+	 * Returns statement cache bound to physical connection of <code>connection</code>. Statements are prepared on <code>connection</code> 
+	 * as handed out by data source. The cached statements survive sessions, if data source hands out the same physical connection again, 
+	 * also wrapped by a new logical connection of a pool. Statements closed by pool with previous logical connection are prepared again on demand.
+	 * 
+	 * @param connection connection of session
+	 * @return statement cache
+	 * @throws SQLException
+	 */
+	protected PreparedStatementCache getPreparedStatementCache(Connection connection) throws SQLException
+	{
+		Connection physicalConnection = connection.isWrapperFor(Connection.class) ? connection.unwrap(Connection.class) : connection;
+		if(physicalConnection == null)
+		{
+			physicalConnection = connection;
+		}
+		
+		lock.lock();
+		try
+		{
+			PreparedStatementCache preparedStatementCache = preparedStatementCacheIndex.get(physicalConnection);
+			if((preparedStatementCache != null) && (! physicalConnection.isClosed()))
+			{
+				preparedStatementCache.bind(connection);
+				return preparedStatementCache;
+			}
+			
+			// remove caches of closed connections
+			
+			Iterator<Entry<Connection, PreparedStatementCache>> iterator = preparedStatementCacheIndex.entrySet().iterator();
+			while(iterator.hasNext())
+			{
+				Entry<Connection, PreparedStatementCache> entry = iterator.next();
+				if(entry.getKey().isClosed())
+				{
+					entry.getValue().close();
+					iterator.remove();
+				}
+			}
+			
+			preparedStatementCache = new PreparedStatementCache(connection, this.preparedStatementCacheSize);
+			preparedStatementCacheIndex.put(physicalConnection, preparedStatementCache);
+			return preparedStatementCache;
+		}
+		finally 
+		{
+			lock.unlock();
+		}
+	}
+	
 	public Collection<INodeType<?,?>> getNodeTypeList(BranchNodeType<? extends BranchNodeMetaModel,? extends BranchNodeMetaModel> type) throws SQLException
 	{
 		return TypedTreeJDBCCruder.this.getPreparedLoadDefinitionContainer(type).loadDefinition.nodeTypeList;
@@ -236,8 +387,10 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 		private volatile DataSource mainDatasource = null;
 		private volatile Connection mainConnection = null;
 		private volatile IDBSchemaUtilsDriver mainUtilsDriver = null;
-		private Map<String,PreparedStatement> preparedStatementCache = new HashMap<String,PreparedStatement>();
-		private Map<String,PreparedStatement> preparedStatementResultSetCache = new HashMap<String,PreparedStatement>();
+		private PreparedStatementCache preparedStatementCache = null;
+		private List<BranchNode<?,?>> trackedPersistedNodes = new ArrayList<BranchNode<?,?>>();
+		private Set<AutoCloseable> openCursors = new LinkedHashSet<AutoCloseable>();
+		private Set<IdentityCache.CacheKey> dirtyCacheKeys = new HashSet<IdentityCache.CacheKey>();
 		private boolean isPostgreSQL = false;
 		private boolean isH2 = false;
 		
@@ -253,6 +406,7 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			{
 				this.mainConnection = mainDatasource.getConnection();
 				this.mainConnection.setAutoCommit(false);
+				this.preparedStatementCache = TypedTreeJDBCCruder.this.getPreparedStatementCache(this.mainConnection);
 				
 				Map<String,Object> driverProperties = new HashMap<>();
 				driverProperties.put(Connection.class.getCanonicalName(), this.mainConnection);
@@ -273,37 +427,30 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 		@Override
 		public void close() throws Exception 
 		{
-			if(this.error)
-			{
-				try
-				{
-					if(this.mainConnection != null)
-					{
-						this.mainConnection.rollback();
-					}
-				}
-				catch (Exception e) {}
-			}
-			for(PreparedStatement preparedStatement : this.preparedStatementResultSetCache.values())
+			for(AutoCloseable cursor : new ArrayList<AutoCloseable>(this.openCursors))
 			{
 				try
 				{
-					preparedStatement.close();
+					cursor.close();
 				}
 				catch (Exception e) {}
-				catch (Error e) {}
 			}
-			this.preparedStatementResultSetCache.clear();
-			for(PreparedStatement preparedStatement : this.preparedStatementCache.values())
+			this.openCursors.clear();
+			releaseDirtyCacheKeys();
+			if(this.error)
 			{
 				try
 				{
-					preparedStatement.close();
+					if(this.mainConnection != null)
+					{
+						this.mainConnection.rollback();
+					}
 				}
 				catch (Exception e) {}
-				catch (Error e) {}
 			}
-			this.preparedStatementCache.clear();
+			
+			// cached statements are not closed with session, they are reused, if data source hands out same connection again
+			
 			try
 			{
 				if(this.mainConnection != null)
@@ -353,6 +500,125 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			return collector;
 		}
 		
+		/**
+		 * Loads nodes lazily with a forward-only cursor. Rows are fetched from database in blocks of <code>fetchSize</code> rows, 
+		 * and nodes are created by <code>nodeFactory</code> not until they are consumed. A node factory can return recycled nodes.
+		 * 
+		 * <p>The returned stream has to be closed to release cursor.
+		 * 
+		 * @param type type of nodes to load
+		 * @param sqlAppender appends sql constraint to select statement
+		 * @param prepareStatement prepares statement parameter
+		 * @param nodeFactory creates nodes for row values
+		 * @param fetchSize count of rows fetched from database at once
+		 * @return stream of loaded nodes
+		 * @throws SQLException
+		 */
+		public <T extends BranchNodeMetaModel> Stream<BranchNode<?,T>> streamList(BranchNodeType<? extends BranchNodeMetaModel,T> type, BiFunction<IRuntimeParameter, String, String> sqlAppender, BiConsumer<IRuntimeParameter,PreparedStatement> prepareStatement, Function<Object[], Collection<BranchNode<? extends BranchNodeMetaModel,T>>> nodeFactory, int fetchSize) throws SQLException
+		{
+			if(error)
+			{
+				throw new RuntimeException("Session is invalid by thrown exception");
+			}
+			
+			boolean valid = false;
+			try
+			{
+				checkMainConnection();
+				
+				PreparedLoadDefinitionContainer preparedDefinitionContainer = TypedTreeJDBCCruder.this.getPreparedLoadDefinitionContainer(type);
+				
+				RuntimeParameter runtimeParameter = new RuntimeParameter();
+				runtimeParameter.nodeFactory = (Function)nodeFactory;
+				
+				Stream<BranchNode<?,T>> stream = toStream(preparedDefinitionContainer.loadDefinition.openCursor(runtimeParameter, sqlAppender, prepareStatement, fetchSize));
+				valid = true;
+				return stream;
+			}
+			finally 
+			{
+				if(! valid)
+				{
+					this.error = true;
+				}
+			}
+		}
+		
+		/**
+		 * Loads nodes lazily with a forward-only cursor. Rows are fetched from database in blocks of <code>fetchSize</code> rows, 
+		 * and nodes are created by <code>nodeFactory</code> not until they are consumed. A node factory can return recycled nodes.
+		 * 
+		 * <p>The returned stream has to be closed to release cursor.
+		 * 
+		 * @param type type of nodes to load
+		 * @param searchField field to search
+		 * @param searchValues values to search
+		 * @param nodeFactory creates nodes for row values
+		 * @param fetchSize count of rows fetched from database at once
+		 * @return stream of loaded nodes
+		 * @throws SQLException
+		 */
+		public <T extends BranchNodeMetaModel> Stream<BranchNode<?,T>> streamList(BranchNodeType<? extends BranchNodeMetaModel,T> type, INodeType<T,?> searchField, Object[] searchValues, Function<Object[], Collection<BranchNode<? extends BranchNodeMetaModel,T>>> nodeFactory, int fetchSize) throws SQLException
+		{
+			return streamListBySearchField(type, searchField, searchValues, nodeFactory, fetchSize);
+		}
+		
+		/**
+		 * Loads nodes referencing nodes with primary key in <code>searchValues</code> lazily with a forward-only cursor. 
+		 * 
+		 * <p>The returned stream has to be closed to release cursor.
+		 * 
+		 * @param type type of nodes to load
+		 * @param searchValues primary keys of referenced nodes
+		 * @param nodeFactory creates nodes for row values
+		 * @param fetchSize count of rows fetched from database at once
+		 * @return stream of loaded nodes
+		 * @throws SQLException
+		 */
+		public <T extends BranchNodeMetaModel> Stream<BranchNode<?,T>> streamListByReferencedNode(BranchNodeListType<? extends BranchNodeMetaModel,T> type, Object[] searchValues, Function<Object[], Collection<BranchNode<? extends BranchNodeMetaModel,T>>> nodeFactory, int fetchSize) throws SQLException
+		{
+			return streamListBySearchField(type, type, searchValues, nodeFactory, fetchSize);
+		}
+		
+		private <T extends BranchNodeMetaModel> Stream<BranchNode<?,T>> streamListBySearchField(INodeType<?,T> type, INodeType<?,?> searchField, Object[] searchValues, Function<Object[], Collection<BranchNode<? extends BranchNodeMetaModel,T>>> nodeFactory, int fetchSize) throws SQLException
+		{
+			if(error)
+			{
+				throw new RuntimeException("Session is invalid by thrown exception");
+			}
+			
+			boolean valid = false;
+			try
+			{
+				checkMainConnection();
+				
+				PreparedLoadDefinitionContainer preparedDefinitionContainer = TypedTreeJDBCCruder.this.getPreparedLoadDefinitionContainer(type);
+				
+				RuntimeParameter runtimeParameter = new RuntimeParameter();
+				runtimeParameter.searchField = searchField;
+				runtimeParameter.searchValues = searchValues;
+				runtimeParameter.nodeFactory = (Function)nodeFactory;
+				
+				Stream<BranchNode<?,T>> stream = toStream(preparedDefinitionContainer.loadDefinition.openCursor(runtimeParameter, fetchSize));
+				valid = true;
+				return stream;
+			}
+			finally 
+			{
+				if(! valid)
+				{
+					this.error = true;
+				}
+			}
+		}
+		
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private <T extends BranchNodeMetaModel> Stream<BranchNode<?,T>> toStream(NodeCursor cursor)
+		{
+			this.openCursors.add(cursor);
+			return (Stream)StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(cursor::close);
+		}
+		
 		public <T extends BranchNodeMetaModel> List<BranchNode<?,T>> loadList(BranchNodeType<? extends BranchNodeMetaModel,T> type, INodeType<T,?> searchField, Object[] searchValues, Function<Object[], Collection<BranchNode<? extends BranchNodeMetaModel,T>>> nodeFactory) throws SQLException
 		{
 			if(error)
@@ -541,6 +807,126 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			loadListByReferencedNode(childNodeType, Collections.singleton(node.get(TypedTreeJDBCHelper.parseTableNode(node.getNodeType(), MASK.PK_COLUMN).getPrimaryKeyNode().getLeafNodeType()).getValue() ).toArray(), ids -> Collections.singletonList(node.create(childNodeType))).clear();
 		}
 		
+		/**
+		 * Loads referenced child nodes of all <code>nodes</code> as defined in <code>fetchPlan</code>. Each level of plan is loaded 
+		 * with one query per chunk of {@link FetchPlan#getChunkSize()} parent nodes, instead of one query per parent node.
+		 * 
+		 * @param nodes parent nodes with primary key value
+		 * @param fetchPlan child node types to load
+		 * @throws SQLException
+		 */
+		public void loadReferencedChildNodes(Collection<? extends BranchNode<?,?>> nodes, FetchPlan fetchPlan) throws SQLException
+		{
+			Objects.requireNonNull(fetchPlan, "fetch plan not defined");
+			if((nodes == null) || nodes.isEmpty())
+			{
+				return;
+			}
+			loadReferencedChildNodes(nodes, fetchPlan, fetchPlan.getChunkSize());
+		}
+		
+		private void loadReferencedChildNodes(Collection<? extends BranchNode<?,?>> nodes, FetchPlan fetchPlan, int chunkSize) throws SQLException
+		{
+			for(Entry<INodeType<?,?>,FetchPlan> entry : fetchPlan.childPlans.entrySet())
+			{
+				List<BranchNode<?,?>> childNodes = loadReferencedChildNodes(nodes, entry.getKey(), chunkSize);
+				if((! childNodes.isEmpty()) && (! entry.getValue().childPlans.isEmpty()))
+				{
+					loadReferencedChildNodes(childNodes, entry.getValue(), chunkSize);
+				}
+			}
+		}
+		
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private List<BranchNode<?,?>> loadReferencedChildNodes(Collection<? extends BranchNode<?,?>> nodes, INodeType childNodeType, int chunkSize) throws SQLException
+		{
+			if(error)
+			{
+				throw new RuntimeException("Session is invalid by thrown exception");
+			}
+			
+			// index parent nodes by primary key
+			
+			Map<String,List<BranchNode<?,?>>> parentNodeIndex = new LinkedHashMap<String,List<BranchNode<?,?>>>();
+			List<Object> parentIds = new ArrayList<Object>();
+			Map<INodeType,LeafNodeType> primaryKeyIndex = new HashMap<INodeType,LeafNodeType>();
+			
+			for(BranchNode node : nodes)
+			{
+				if(node == null)
+				{
+					continue;
+				}
+				if(node.getNodeType().getTypeClass() != childNodeType.getParentNodeClass())
+				{
+					throw new IllegalStateException("node type " + node.getNodeType() + " does not contain " + childNodeType);
+				}
+				LeafNodeType primaryKey = primaryKeyIndex.computeIfAbsent(node.getNodeType(), t -> TypedTreeJDBCHelper.parseTableNode(t, MASK.PK_COLUMN).getPrimaryKeyNode().getLeafNodeType());
+				Object id = node.getValue(primaryKey);
+				if(id == null)
+				{
+					throw new IllegalStateException("can not load data without primary key value");
+				}
+				
+				if(childNodeType instanceof BranchNodeListType)
+				{
+					if(! node.getUnmodifiableNodeList((BranchNodeListType)childNodeType).isEmpty())
+					{
+						node.clear((BranchNodeListType)childNodeType);
+					}
+				}
+				else if(node.get((BranchNodeType)childNodeType) != null)
+				{
+					node.remove((BranchNodeType)childNodeType);
+				}
+				
+				String key = id.toString();
+				List<BranchNode<?,?>> parentNodeList = parentNodeIndex.get(key);
+				if(parentNodeList == null)
+				{
+					parentNodeList = new ArrayList<BranchNode<?,?>>();
+					parentNodeIndex.put(key, parentNodeList);
+					parentIds.add(id);
+				}
+				parentNodeList.add(node);
+			}
+			
+			List<BranchNode<?,?>> collector = new ArrayList<BranchNode<?,?>>();
+			if(parentIds.isEmpty())
+			{
+				return collector;
+			}
+			
+			boolean valid = false;
+			try
+			{
+				PreparedLoadDefinitionContainer preparedDefinitionContainer = TypedTreeJDBCCruder.this.getPreparedLoadDefinitionContainer(childNodeType);
+				
+				checkMainConnection();
+				
+				for(int i = 0; i < parentIds.size(); i += chunkSize)
+				{
+					RuntimeParameter runtimeParameter = new RuntimeParameter();
+					runtimeParameter.searchField = childNodeType;
+					runtimeParameter.searchValues = parentIds.subList(i, Math.min(i + chunkSize, parentIds.size())).toArray();
+					
+					preparedDefinitionContainer.loadDefinition.selectNodeByReferencedNodes(runtimeParameter, collector, parentNodeIndex);
+					
+					runtimeParameter.close();
+				}
+				valid = true;
+			}
+			finally 
+			{
+				if(! valid)
+				{
+					this.error = true;
+				}
+			}
+			
+			return collector;
+		}
+		
 		public < P extends BranchNodeMetaModel, T extends BranchNodeMetaModel> BranchNode< P,T> persist(BranchNode< P,T> node) throws SQLException, InstantiationException, IllegalAccessException
 		{
 			if(error)
@@ -570,6 +956,13 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 					preparedDefinitionContainer.updateStatement.updateNode(runtimeParameter);
 				}
 				
+				invalidateCachedNode(preparedDefinitionContainer.insertStatement.tableNode, node);
+				
+				if(node.getRootNode().getChangeSet() != null)
+				{
+					this.trackedPersistedNodes.add(node);
+				}
+				
 				runtimeParameter.close();
 				valid = true;
 			}
@@ -584,23 +977,112 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			return node;
 		}
 		
-		public < P extends BranchNodeMetaModel, T extends BranchNodeMetaModel> BranchNode< P,T> delete(BranchNode< P,T> node) throws SQLException
+		/**
+		 * Persists a collection of nodes. New nodes are inserted by multi-row insert statements. Existing nodes with known modified columns 
+		 * are updated one by one like {@link Session#persist(BranchNode)}, only modified columns are written. Existing nodes with unknown modified columns 
+		 * are written by multi-row upsert statements (insert ... on conflict in PostgreSQL, merge in H2), which update the updatable columns of existing rows. 
+		 * Nodes with autogenerated primary key, or existing nodes in dbms without upsert support, are persisted one by one.
+		 * 
+		 * <p>Upserted nodes run update triggers of columns.
+		 * 
+		 * @param nodes nodes to persist
+		 * @return persisted nodes
+		 * @throws SQLException
+		 * @throws InstantiationException
+		 * @throws IllegalAccessException
+		 */
+		@SuppressWarnings("rawtypes")
+		public <C extends Collection<? extends BranchNode<?,?>>> C persistAll(C nodes) throws SQLException, InstantiationException, IllegalAccessException
 		{
 			if(error)
 			{
 				throw new RuntimeException("Session is invalid by thrown exception");
 			}
+			if((nodes == null) || nodes.isEmpty())
+			{
+				return nodes;
+			}
 			boolean valid = false;
 			try
 			{
-				PreparedDeleteDefinitionContainer preparedDefinitionContainer = TypedTreeJDBCCruder.this.getPreparedDeleteDefinitionContainer(node.getNodeType());
-				
 				checkMainConnection();
 				
+				// group by node type
+				
+				Map<INodeType,List<BranchNode>> nodesByType = new LinkedHashMap<INodeType,List<BranchNode>>();
+				for(BranchNode<?,?> node : nodes)
+				{
+					if(node == null)
+					{
+						continue;
+					}
+					List<BranchNode> list = nodesByType.get(node.getNodeType());
+					if(list == null)
+					{
+						list = new ArrayList<BranchNode>();
+						nodesByType.put(node.getNodeType(), list);
+					}
+					list.add(node);
+				}
+				
 				RuntimeParameter runtimeParameter = new RuntimeParameter();
-				runtimeParameter.branchNode = node;
 				
-				preparedDefinitionContainer.preparedDeleteStatementDefinition.deleteNode(runtimeParameter);
+				for(Entry<INodeType,List<BranchNode>> entry : nodesByType.entrySet())
+				{
+					PreparedPersistDefinitionContainer preparedDefinitionContainer = TypedTreeJDBCCruder.this.getPreparedPersistDefinitionContainer(entry.getKey());
+					boolean insertable = preparedDefinitionContainer.insertStatement.isMultiRowInsertable();
+					boolean upsertable = preparedDefinitionContainer.insertStatement.isMultiRowUpsertable(this.mainUtilsDriver);
+					
+					List<BranchNode> insertList = new ArrayList<BranchNode>();
+					List<BranchNode> upsertList = new ArrayList<BranchNode>();
+					
+					for(BranchNode node : entry.getValue())
+					{
+						runtimeParameter.branchNode = node;
+						
+						if(preparedDefinitionContainer.checkPersistableIsNew.checkIsNew(runtimeParameter))
+						{
+							if(insertable)
+							{
+								insertList.add(node);
+							}
+							else
+							{
+								preparedDefinitionContainer.insertStatement.insertNode(runtimeParameter);
+							}
+						}
+						else
+						{
+							if(upsertable && (! preparedDefinitionContainer.updateStatement.isModifiedColumnsKnown(node)))
+							{
+								upsertList.add(node);
+							}
+							else
+							{
+								preparedDefinitionContainer.updateStatement.updateNode(runtimeParameter);
+							}
+						}
+					}
+					
+					if(! insertList.isEmpty())
+					{
+						preparedDefinitionContainer.insertStatement.insertNodes(runtimeParameter, insertList, false);
+					}
+					if(! upsertList.isEmpty())
+					{
+						preparedDefinitionContainer.insertStatement.insertNodes(runtimeParameter, upsertList, true);
+					}
+					
+					for(BranchNode node : entry.getValue())
+					{
+						invalidateCachedNode(preparedDefinitionContainer.insertStatement.tableNode, node);
+						
+						if(node.getRootNode().getChangeSet() != null)
+						{
+							this.trackedPersistedNodes.add(node);
+						}
+					}
+				}
 				
 				runtimeParameter.close();
 				valid = true;
@@ -612,40 +1094,99 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 					this.error = true;
 				}
 			}
-			return node;
+			
+			return nodes;
 		}
 		
-		public PreparedStatement getCachedPreparedStatement(String sql, int resultSetType,int resultSetConcurrency) throws SQLException
+		public < P extends BranchNodeMetaModel, T extends BranchNodeMetaModel> BranchNode< P,T> delete(BranchNode< P,T> node) throws SQLException
 		{
-			String key = "_" + resultSetType + "_" + resultSetConcurrency + "_" + sql; 
-			
-			PreparedStatement preparedStatement = this.preparedStatementResultSetCache.get(key);
-			if((preparedStatement != null) && (! preparedStatement.isClosed()))
+			if(error)
 			{
-				return preparedStatement;
+				throw new RuntimeException("Session is invalid by thrown exception");
+			}
+			boolean valid = false;
+			try
+			{
+				PreparedDeleteDefinitionContainer preparedDefinitionContainer = TypedTreeJDBCCruder.this.getPreparedDeleteDefinitionContainer(node.getNodeType());
+				
+				checkMainConnection();
+				
+				RuntimeParameter runtimeParameter = new RuntimeParameter();
+				runtimeParameter.branchNode = node;
+				
+				preparedDefinitionContainer.preparedDeleteStatementDefinition.deleteNode(runtimeParameter);
+				
+				invalidateCachedNode(preparedDefinitionContainer.preparedDeleteStatementDefinition.tableNode, node);
+				
+				runtimeParameter.close();
+				valid = true;
+			}
+			finally 
+			{
+				if(! valid)
+				{
+					this.error = true;
+				}
 			}
-			preparedStatement = mainConnection.prepareStatement(sql,resultSetType,resultSetConcurrency);
-			this.preparedStatementResultSetCache.put(key,preparedStatement);
-			return preparedStatement;				
+			return node;
 		}
 		
-		public PreparedStatement getCachedPreparedStatement(String sql, boolean returnGeneratedKey) throws SQLException
+		/*
+		 * Removes cached row of node. The row is not cached again by this session until transaction is committed or rolled back.
+		 */
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private void invalidateCachedNode(TableNode tableNode, BranchNode<?,?> node)
 		{
-			PreparedStatement preparedStatement = this.preparedStatementCache.get(sql);
-			if((preparedStatement != null) && (! preparedStatement.isClosed()))
+			IdentityCache identityCache = TypedTreeJDBCCruder.this.identityCache;
+			if((identityCache == null) || (tableNode.getPrimaryKeyNode() == null))
 			{
-				return preparedStatement;
+				return;
 			}
-			if(returnGeneratedKey)
+			Object id = ((BranchNode)node).getValue(tableNode.getPrimaryKeyNode().getLeafNodeType());
+			if(id == null)
 			{
-				preparedStatement = mainConnection.prepareStatement(sql,Statement.RETURN_GENERATED_KEYS);
+				return;
 			}
-			else
+			IdentityCache.CacheKey key = new IdentityCache.CacheKey(tableNode.getTableName(), id);
+			identityCache.invalidate(key);
+			this.dirtyCacheKeys.add(key);
+		}
+		
+		/*
+		 * Removes rows modified in finished transaction again, because other sessions may have cached previous version of row.
+		 */
+		private void releaseDirtyCacheKeys()
+		{
+			IdentityCache identityCache = TypedTreeJDBCCruder.this.identityCache;
+			if(identityCache != null)
 			{
-				preparedStatement = mainConnection.prepareStatement(sql);
+				for(IdentityCache.CacheKey key : this.dirtyCacheKeys)
+				{
+					identityCache.invalidate(key);
+				}
 			}
-			this.preparedStatementCache.put(sql,preparedStatement);
-			return preparedStatement;
+			this.dirtyCacheKeys.clear();
+		}
+		
+		public PreparedStatement getCachedPreparedStatement(String sql, int resultSetType,int resultSetConcurrency) throws SQLException
+		{
+			checkMainConnection();
+			return this.preparedStatementCache.getPreparedStatement(sql, resultSetType, resultSetConcurrency, false);
+		}
+		
+		public PreparedStatement getCachedPreparedStatement(String sql, boolean returnGeneratedKey) throws SQLException
+		{
+			checkMainConnection();
+			return this.preparedStatementCache.getPreparedStatement(sql, -1, -1, returnGeneratedKey);
+		}
+		
+		/**
+		 * 
+		 * @return statement cache of session's connection, or null, if session is not connected
+		 */
+		public PreparedStatementCache getPreparedStatementCache()
+		{
+			return this.preparedStatementCache;
 		}
 		
 		public void flush()throws SQLException
@@ -659,6 +1200,19 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			{
 				mainConnection.commit();
 			}
+			releaseDirtyCacheKeys();
+			
+			// persisted modifications are not pending anymore
+			
+			for(BranchNode<?,?> node : this.trackedPersistedNodes)
+			{
+				TreeChangeSet changeSet = node.getRootNode() == null ? null : node.getRootNode().getChangeSet();
+				if(changeSet != null)
+				{
+					changeSet.clear(node);
+				}
+			}
+			this.trackedPersistedNodes.clear();
 		}
 		
 		public void rollback() throws SQLException
@@ -667,6 +1221,8 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			{
 				mainConnection.rollback();
 			}
+			releaseDirtyCacheKeys();
+			this.trackedPersistedNodes.clear();
 			error = false;
 		}
 		
@@ -706,6 +1262,8 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			private INodeType searchField;
 			private Object[] searchValues;
 			private Object[] values = null;
+			private int parameterOffset = 0;
+			private long cacheGeneration = 0L;
 			
 			private Function<Object[], Collection<BranchNode<? extends BranchNodeMetaModel, ? extends BranchNodeMetaModel>>> nodeFactory;
 			
@@ -725,65 +1283,989 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			{
 				this.resultSet = resultSet;
 			}
-			protected Object[] getValues()
+			protected Object[] getValues()
+			{
+				return values;
+			}
+			protected void setValues(Object[] values)
+			{
+				this.values = values;
+			}
+			public BranchNode<? extends BranchNodeMetaModel, ? extends BranchNodeMetaModel> getBranchNode() 
+			{
+				return branchNode;
+			}
+			public Object getStaticValue() 
+			{
+				return staticValue;
+			}
+			public Connection getConnection() 
+			{
+				return connection;
+			}
+			public void close()
+			{
+				this.connection = null;
+				this.dbSchemaUtilsDriver = null;
+				this.preparedStatement = null;
+				this.resultSet = null;
+				this.branchNode = null;
+				this.workingBranchNode = null;
+				this.staticValue = null;
+				this.isNew = null;
+				this.isExisting = null;
+				if(this.conplierBean != null)
+				{
+					this.conplierBean.setValue(null);
+				}
+				this.conplierBean = null;
+				if(this.convertEvent != null)
+				{
+					this.convertEvent.clear();
+				}
+				this.convertEvent = null;
+				
+				this.searchField = null;
+				this.searchValues = null;
+				this.nodeFactory = null;
+				this.values = null;
+				this.type = null;
+				this.childType = null;
+			}
+			
+			public PreparedStatement getPreparedStatement(String sql, int resultSetType,int resultSetConcurrency) throws SQLException
+			{
+				return Session.this.getCachedPreparedStatement(sql, resultSetType, resultSetConcurrency);
+			}
+			
+			public PreparedStatement getPreparedStatement(String sql, boolean returnGeneratedKey) throws SQLException
+			{
+				return Session.this.getCachedPreparedStatement(sql, returnGeneratedKey);
+			}
+		}
+	}
+	
+	/**
+	 * Facade of {@link Session} returning {@link CompletableFuture}s. All operations run in submission order on a single worker thread, 
+	 * which owns the connection of session. Consecutive persist calls of same node type are coalesced to one {@link Session#persistAll(Collection)}.
+	 * 
+	 * <p>A node submitted to persist must not be modified until returned future is completed. The session must not be closed by its own operations.
+	 * 
+	 * @author Sebastian Palarus
+	 *
+	 */
+	public class AsyncSession implements AutoCloseable
+	{
+		private Session session = null;
+		private ExecutorService executor = null;
+		private Semaphore pendingOperations = null;
+		private PersistBatch persistBatch = null;
+		private boolean closed = false;
+		private volatile Thread workerThread = null;
+		
+		protected AsyncSession(Session session, int maxPendingOperations)
+		{
+			super();
+			if(maxPendingOperations < 1)
+			{
+				throw new IllegalArgumentException("max pending operations must be > 0");
+			}
+			this.session = session;
+			String threadName = "AsyncSession-" + ASYNC_SESSION_COUNTER.incrementAndGet();
+			this.executor = Executors.newSingleThreadExecutor(runnable ->
+			{
+				Thread thread = new Thread(runnable, threadName);
+				thread.setDaemon(true);
+				this.workerThread = thread;
+				return thread;
+			});
+			this.pendingOperations = new Semaphore(maxPendingOperations);
+		}
+		
+		/**
+		 * Runs operation on worker thread with underlying session.
+		 * 
+		 * @param operation operation to run
+		 * @return future of operation's result
+		 */
+		public <R> CompletableFuture<R> execute(ExceptionCatchedFunction<Session, R> operation)
+		{
+			Objects.requireNonNull(operation, "operation is null");
+			this.pendingOperations.acquireUninterruptibly();
+			synchronized (this)
+			{
+				if(this.closed)
+				{
+					this.pendingOperations.release();
+					throw new IllegalStateException("async session is closed");
+				}
+				this.persistBatch = null;
+				
+				CompletableFuture<R> future = new CompletableFuture<R>();
+				submit(() ->
+				{
+					try
+					{
+						future.complete(operation.applyWithException(this.session));
+					}
+					catch (Throwable e) 
+					{
+						future.completeExceptionally(e);
+					}
+					finally 
+					{
+						this.pendingOperations.release();
+					}
+				}, 1);
+				return future;
+			}
+		}
+		
+		/**
+		 * Persists node asynchronously. Consecutive calls for same node type are persisted as one batch.
+		 * 
+		 * @param node node to persist
+		 * @return future of persisted node
+		 */
+		@SuppressWarnings("unchecked")
+		public < P extends BranchNodeMetaModel, T extends BranchNodeMetaModel> CompletableFuture<BranchNode< P,T>> persist(BranchNode< P,T> node)
+		{
+			if(node == null)
+			{
+				return CompletableFuture.completedFuture(node);
+			}
+			this.pendingOperations.acquireUninterruptibly();
+			synchronized (this)
+			{
+				if(this.closed)
+				{
+					this.pendingOperations.release();
+					throw new IllegalStateException("async session is closed");
+				}
+				
+				PersistBatch batch = this.persistBatch;
+				if((batch == null) || (batch.nodeType != node.getNodeType()))
+				{
+					batch = new PersistBatch(node.getNodeType());
+					PersistBatch submittedBatch = batch;
+					submit(() -> persistBatch(submittedBatch), 1);
+					this.persistBatch = batch;
+				}
+				
+				CompletableFuture<BranchNode<?,?>> future = new CompletableFuture<BranchNode<?,?>>();
+				batch.nodes.add(node);
+				batch.futures.add(future);
+				return (CompletableFuture<BranchNode< P,T>>)(CompletableFuture<?>)future;
+			}
+		}
+		
+		public <T extends BranchNodeMetaModel> CompletableFuture<List<BranchNode<?,T>>> loadList(BranchNodeType<? extends BranchNodeMetaModel,T> type, INodeType<T,?> searchField, Object[] searchValues, Function<Object[], Collection<BranchNode<? extends BranchNodeMetaModel,T>>> nodeFactory)
+		{
+			return execute(s -> s.loadList(type, searchField, searchValues, nodeFactory));
+		}
+		
+		public < P extends BranchNodeMetaModel, T extends BranchNodeMetaModel> CompletableFuture<BranchNode< P,T>> delete(BranchNode< P,T> node)
+		{
+			return execute(s -> s.delete(node));
+		}
+		
+		public CompletableFuture<Void> commit()
+		{
+			return execute(s -> 
+			{
+				s.commit();
+				return null;
+			});
+		}
+		
+		public CompletableFuture<Void> rollback()
+		{
+			return execute(s -> 
+			{
+				s.rollback();
+				return null;
+			});
+		}
+		
+		/**
+		 * 
+		 * @return future completed after all previously submitted operations are completed
+		 */
+		public CompletableFuture<Void> flush()
+		{
+			return execute(s -> null);
+		}
+		
+		/**
+		 * Closes session after all previously submitted operations are completed.
+		 * 
+		 * @throws IllegalStateException if invoked by operation running on worker thread
+		 */
+		@Override
+		public void close() throws Exception
+		{
+			if(Thread.currentThread() == this.workerThread)
+			{
+				throw new IllegalStateException("async session can not be closed by its own operation");
+			}
+			
+			synchronized (this)
+			{
+				if(this.closed)
+				{
+					return;
+				}
+				this.closed = true;
+				this.persistBatch = null;
+			}
+			
+			CompletableFuture<Void> closeFuture = new CompletableFuture<Void>();
+			this.executor.execute(() -> 
+			{
+				try
+				{
+					this.session.close();
+					closeFuture.complete(null);
+				}
+				catch (Throwable e) 
+				{
+					closeFuture.completeExceptionally(e);
+				}
+			});
+			this.executor.shutdown();
+			
+			try
+			{
+				closeFuture.get();
+			}
+			catch (ExecutionException e) 
+			{
+				if(e.getCause() instanceof Exception)
+				{
+					throw (Exception)e.getCause();
+				}
+				throw e;
+			}
+		}
+		
+		private void submit(Runnable task, int permits)
+		{
+			try
+			{
+				this.executor.execute(task);
+			}
+			catch (RejectedExecutionException e) 
+			{
+				this.pendingOperations.release(permits);
+				throw e;
+			}
+		}
+		
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private void persistBatch(PersistBatch batch)
+		{
+			synchronized (this)
+			{
+				if(this.persistBatch == batch)
+				{
+					this.persistBatch = null; // close batch for further nodes
+				}
+			}
+			
+			try
+			{
+				Set<BranchNode<?,?>> nodes = Collections.newSetFromMap(new IdentityHashMap<BranchNode<?,?>,Boolean>());
+				nodes.addAll(batch.nodes);
+				if(nodes.size() == 1)
+				{
+					this.session.persist((BranchNode)batch.nodes.get(0));
+				}
+				else
+				{
+					this.session.persistAll(new ArrayList<BranchNode<?,?>>(nodes));
+				}
+				for(int i = 0; i < batch.futures.size(); i++)
+				{
+					batch.futures.get(i).complete(batch.nodes.get(i));
+				}
+			}
+			catch (Throwable e) 
+			{
+				for(CompletableFuture<BranchNode<?,?>> future : batch.futures)
+				{
+					future.completeExceptionally(e);
+				}
+			}
+			finally 
+			{
+				this.pendingOperations.release(batch.futures.size());
+			}
+		}
+		
+		private class PersistBatch
+		{
+			private INodeType<?,?> nodeType = null;
+			private List<BranchNode<?,?>> nodes = new ArrayList<BranchNode<?,?>>();
+			private List<CompletableFuture<BranchNode<?,?>>> futures = new ArrayList<CompletableFuture<BranchNode<?,?>>>();
+			
+			private PersistBatch(INodeType<?,?> nodeType)
+			{
+				super();
+				this.nodeType = nodeType;
+			}
+		}
+	}
+	
+	/**
+	 * LRU cache of prepared statements bound to a physical connection. Evicted statements are closed. 
+	 * 
+	 * <p>A statement, that provides an open result set, should be acquired by {@link PreparedStatementCache#acquire(PreparedStatement)}
+	 * until result set is closed. If an acquired statement is evicted, it is closed on last {@link PreparedStatementCache#release(PreparedStatement)}.
+	 * 
+	 * @author Sebastian Palarus
+	 *
+	 */
+	public static class PreparedStatementCache
+	{
+		public static final int DEFAULT_SIZE = 256;
+		
+		private Connection connection = null;
+		private LinkedHashMap<StatementKey,PreparedStatement> statements = null;
+		private Map<PreparedStatement,Integer> acquiredStatements = new IdentityHashMap<PreparedStatement,Integer>();
+		private Set<PreparedStatement> evictedStatements = Collections.newSetFromMap(new IdentityHashMap<PreparedStatement,Boolean>());
+		private long hitCount = 0L;
+		private long missCount = 0L;
+		
+		protected PreparedStatementCache(Connection connection, int size)
+		{
+			super();
+			this.connection = connection;
+			this.statements = new LinkedHashMap<StatementKey,PreparedStatement>(16, 0.75f, true)
+			{
+				private static final long serialVersionUID = 5914436577096532208L;
+				
+				@Override
+				protected boolean removeEldestEntry(Entry<StatementKey, PreparedStatement> eldest)
+				{
+					if(size() <= size)
+					{
+						return false;
+					}
+					if(acquiredStatements.containsKey(eldest.getValue()))
+					{
+						evictedStatements.add(eldest.getValue()); // close deferred until released
+						return true;
+					}
+					try
+					{
+						eldest.getValue().close();
+					}
+					catch (Exception e) {}
+					return true;
+				}
+			};
+		}
+		
+		/**
+		 * Returns cached statement or prepares new statement.
+		 * 
+		 * @param sql sql statement
+		 * @param resultSetType result set type, or -1 for default type
+		 * @param resultSetConcurrency result set concurrency, or -1 for default concurrency
+		 * @param returnGeneratedKey statement returns generated keys
+		 * @return prepared statement
+		 * @throws SQLException
+		 */
+		protected synchronized PreparedStatement getPreparedStatement(String sql, int resultSetType, int resultSetConcurrency, boolean returnGeneratedKey) throws SQLException
+		{
+			StatementKey key = new StatementKey(sql, resultSetType, resultSetConcurrency, returnGeneratedKey);
+			PreparedStatement preparedStatement = this.statements.get(key);
+			if((preparedStatement != null) && (! preparedStatement.isClosed()))
+			{
+				this.hitCount++;
+				return preparedStatement;
+			}
+			this.missCount++;
+			
+			if(resultSetType != -1)
+			{
+				preparedStatement = connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+			}
+			else if(returnGeneratedKey)
+			{
+				preparedStatement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+			}
+			else
+			{
+				preparedStatement = connection.prepareStatement(sql);
+			}
+			this.statements.put(key, preparedStatement);
+			return preparedStatement;
+		}
+		
+		/**
+		 * Marks statement as in use, e.g. while its result set is open. Acquired statements are not closed on eviction.
+		 * 
+		 * @param preparedStatement statement provided by this cache
+		 */
+		public synchronized void acquire(PreparedStatement preparedStatement)
+		{
+			this.acquiredStatements.merge(preparedStatement, 1, Integer::sum);
+		}
+		
+		/**
+		 * Releases statement acquired by {@link PreparedStatementCache#acquire(PreparedStatement)}. 
+		 * An evicted statement is closed on last release.
+		 * 
+		 * @param preparedStatement acquired statement
+		 */
+		public synchronized void release(PreparedStatement preparedStatement)
+		{
+			Integer count = this.acquiredStatements.get(preparedStatement);
+			if(count == null)
+			{
+				return;
+			}
+			if(count.intValue() > 1)
+			{
+				this.acquiredStatements.put(preparedStatement, count.intValue() - 1);
+				return;
+			}
+			this.acquiredStatements.remove(preparedStatement);
+			if(this.evictedStatements.remove(preparedStatement))
+			{
+				try
+				{
+					preparedStatement.close();
+				}
+				catch (Exception e) {}
+			}
+		}
+		
+		/*
+		 * binds cache to logical connection handed out by data source for same physical connection. New statements are prepared by this connection, 
+		 * cached statements are kept until closed (e.g. by pool with previous logical connection) or evicted.
+		 */
+		protected synchronized void bind(Connection connection)
+		{
+			this.connection = connection;
+		}
+		
+		/**
+		 * 
+		 * @return count of requests served by cached statements
+		 */
+		public synchronized long getHitCount()
+		{
+			return hitCount;
+		}
+		
+		/**
+		 * 
+		 * @return count of requests, that required preparing a statement
+		 */
+		public synchronized long getMissCount()
+		{
+			return missCount;
+		}
+		
+		/**
+		 * 
+		 * @return count of cached statements
+		 */
+		public synchronized int size()
+		{
+			return this.statements.size();
+		}
+		
+		protected synchronized void close()
+		{
+			this.evictedStatements.addAll(this.statements.values());
+			for(PreparedStatement preparedStatement : this.evictedStatements)
+			{
+				try
+				{
+					preparedStatement.close();
+				}
+				catch (Exception e) {}
+				catch (Error e) {}
+			}
+			this.statements.clear();
+			this.evictedStatements.clear();
+			this.acquiredStatements.clear();
+		}
+		
+		private static class StatementKey
+		{
+			private String sql = null;
+			private int resultSetType;
+			private int resultSetConcurrency;
+			private boolean returnGeneratedKey;
+			private int hashCode;
+			
+			private StatementKey(String sql, int resultSetType, int resultSetConcurrency, boolean returnGeneratedKey)
+			{
+				super();
+				this.sql = sql;
+				this.resultSetType = resultSetType;
+				this.resultSetConcurrency = resultSetConcurrency;
+				this.returnGeneratedKey = returnGeneratedKey;
+				this.hashCode = (((sql.hashCode() * 31) + resultSetType) * 31 + resultSetConcurrency) * 31 + (returnGeneratedKey ? 1231 : 1237);
+			}
+			
+			@Override
+			public int hashCode()
+			{
+				return hashCode;
+			}
+			
+			@Override
+			public boolean equals(Object obj)
+			{
+				if(this == obj)
+				{
+					return true;
+				}
+				if(! (obj instanceof StatementKey))
+				{
+					return false;
+				}
+				StatementKey other = (StatementKey)obj;
+				return (this.hashCode == other.hashCode) && (this.resultSetType == other.resultSetType) && (this.resultSetConcurrency == other.resultSetConcurrency) 
+						&& (this.returnGeneratedKey == other.returnGeneratedKey) && this.sql.equals(other.sql);
+			}
+		}
+	}
+	
+	/**
+	 * Second-level cache of loaded rows keyed by table and primary key. The cache stores column values of rows and
+	 * sessions populate fresh nodes from this values, so cached state is never shared between trees. 
+	 * 
+	 * <p>Entries are evicted by size (least recently used) and by time to live. Persist and delete by sessions of the same cruder
+	 * invalidate the affected entries.
+	 * 
+	 * @author Sebastian Palarus
+	 *
+	 */
+	public static class IdentityCache
+	{
+		public static final int DEFAULT_SIZE = 10000;
+		
+		private LinkedHashMap<CacheKey,CacheEntry> entries = null;
+		private LinkedHashMap<CacheKey,Long> invalidations = null;
+		private Set<Class<?>> cachedTypes = null;
+		private long timeToLive;
+		private long hitCount = 0L;
+		private long missCount = 0L;
+		private long generation = 0L;
+		private long evictedGeneration = 0L;
+		
+		/**
+		 * Constructor for identity cache.
+		 * 
+		 * @param size maximum count of cached rows
+		 * @param timeToLive time to live of cached rows in milliseconds, or 0 for unlimited time
+		 */
+		public IdentityCache(int size, long timeToLive)
+		{
+			super();
+			if(size < 1)
+			{
+				throw new IllegalArgumentException("cache size must be greater than 0");
+			}
+			if(timeToLive < 0)
+			{
+				throw new IllegalArgumentException("time to live must not be negative");
+			}
+			this.timeToLive = timeToLive;
+			this.cachedTypes = new HashSet<Class<?>>();
+			this.entries = new LinkedHashMap<CacheKey,CacheEntry>(16, 0.75f, true)
+			{
+				private static final long serialVersionUID = -3425178530174328617L;
+				
+				@Override
+				protected boolean removeEldestEntry(Entry<CacheKey, CacheEntry> eldest)
+				{
+					return size() > size;
+				}
+			};
+			this.invalidations = new LinkedHashMap<CacheKey,Long>(16, 0.75f, false)
+			{
+				private static final long serialVersionUID = 2739043187129404621L;
+				
+				@Override
+				protected boolean removeEldestEntry(Entry<CacheKey, Long> eldest)
+				{
+					if(size() <= size)
+					{
+						return false;
+					}
+					// generation of evicted key is unknown furthermore, reject all older puts
+					IdentityCache.this.evictedGeneration = Math.max(IdentityCache.this.evictedGeneration, eldest.getValue());
+					return true;
+				}
+			};
+		}
+		
+		/**
+		 * Restricts cache to rows of specified node types. If no type is added, rows of all types are cached.
+		 * 
+		 * @param types static node type instances
+		 * @return cache
+		 */
+		public synchronized IdentityCache addNodeType(INodeType<?,?>... types)
+		{
+			for(INodeType<?,?> type : types)
+			{
+				this.cachedTypes.add(type.getTypeClass());
+			}
+			return this;
+		}
+		
+		/**
+		 * 
+		 * @param type class of node type's meta model
+		 * @return true, if rows of this type are cached, otherwise false
+		 */
+		public synchronized boolean isCached(Class<?> type)
+		{
+			return this.cachedTypes.isEmpty() || this.cachedTypes.contains(type);
+		}
+		
+		/**
+		 * 
+		 * @param key cache key
+		 * @return copy of cached column values, or null, if row is not cached or expired
+		 */
+		protected synchronized Object[] get(CacheKey key)
+		{
+			CacheEntry entry = this.entries.get(key);
+			if(entry == null)
+			{
+				this.missCount++;
+				return null;
+			}
+			if((this.timeToLive > 0) && (System.currentTimeMillis() - entry.timestamp > this.timeToLive))
+			{
+				this.entries.remove(key);
+				this.missCount++;
+				return null;
+			}
+			this.hitCount++;
+			return entry.values.clone();
+		}
+		
+		/**
+		 * 
+		 * @return current generation of cache, to request before rows are selected from database
+		 */
+		protected synchronized long getGeneration()
+		{
+			return this.generation;
+		}
+		
+		/**
+		 * Caches column values of row. Values are not cached, if row is invalidated after specified generation, because selected row may be outdated.
+		 * 
+		 * @param key cache key
+		 * @param values column values
+		 * @param generation generation of cache requested before row was selected
+		 */
+		protected synchronized void put(CacheKey key, Object[] values, long generation)
+		{
+			if(generation < this.evictedGeneration)
+			{
+				return;
+			}
+			Long invalidated = this.invalidations.get(key);
+			if((invalidated != null) && (generation < invalidated.longValue()))
+			{
+				return;
+			}
+			this.entries.put(key, new CacheEntry(values.clone(), System.currentTimeMillis()));
+		}
+		
+		protected synchronized void invalidate(CacheKey key)
+		{
+			this.entries.remove(key);
+			this.invalidations.remove(key);
+			this.invalidations.put(key, ++this.generation);
+		}
+		
+		/**
+		 * Removes cached row.
+		 * 
+		 * @param tableName name of table
+		 * @param id primary key value
+		 */
+		public void invalidate(String tableName, Object id)
+		{
+			invalidate(new CacheKey(tableName, id));
+		}
+		
+		/**
+		 * Removes all cached rows.
+		 */
+		public synchronized void clear()
+		{
+			this.entries.clear();
+			this.invalidations.clear();
+			this.evictedGeneration = ++this.generation;
+		}
+		
+		/**
+		 * 
+		 * @return count of lookups served by cache
+		 */
+		public synchronized long getHitCount()
+		{
+			return hitCount;
+		}
+		
+		/**
+		 * 
+		 * @return count of lookups, that required loading from database
+		 */
+		public synchronized long getMissCount()
+		{
+			return missCount;
+		}
+		
+		/**
+		 * 
+		 * @return count of cached rows
+		 */
+		public synchronized int size()
+		{
+			return this.entries.size();
+		}
+		
+		private static class CacheEntry
+		{
+			private Object[] values = null;
+			private long timestamp;
+			
+			private CacheEntry(Object[] values, long timestamp)
+			{
+				super();
+				this.values = values;
+				this.timestamp = timestamp;
+			}
+		}
+		
+		protected static class CacheKey
+		{
+			private String tableName = null;
+			private String id = null;
+			private int hashCode;
+			
+			protected CacheKey(String tableName, Object id)
+			{
+				super();
+				this.tableName = tableName;
+				this.id = id.toString();
+				this.hashCode = (tableName.hashCode() * 31) + this.id.hashCode();
+			}
+			
+			@Override
+			public int hashCode()
+			{
+				return hashCode;
+			}
+			
+			@Override
+			public boolean equals(Object obj)
+			{
+				if(this == obj)
+				{
+					return true;
+				}
+				if(! (obj instanceof CacheKey))
+				{
+					return false;
+				}
+				CacheKey other = (CacheKey)obj;
+				return (this.hashCode == other.hashCode) && this.id.equals(other.id) && this.tableName.equals(other.tableName);
+			}
+		}
+	}
+	
+	/**
+	 * Forward-only cursor to iterate nodes loaded row by row.
+	 * 
+	 * @author Sebastian Palarus
+	 *
+	 */
+	private class NodeCursor implements Iterator<BranchNode<?,?>>, AutoCloseable
+	{
+		private PreparedLoadResultSetDefinition loadDefinition = null;
+		private RuntimeParameter runtimeParameter = null;
+		private Session session = null;
+		private PreparedStatement preparedStatement = null;
+		private ResultSet resultSet = null;
+		private List<BranchNode<?,?>> buffer = new ArrayList<BranchNode<?,?>>();
+		private int bufferIndex = 0;
+		private boolean closed = false;
+		
+		private NodeCursor(PreparedLoadResultSetDefinition loadDefinition, RuntimeParameter runtimeParameter, PreparedStatement preparedStatement, int fetchSize) throws SQLException
+		{
+			super();
+			this.loadDefinition = loadDefinition;
+			this.runtimeParameter = runtimeParameter;
+			this.session = runtimeParameter.getSession();
+			this.preparedStatement = preparedStatement;
+			
+			if(fetchSize > 0)
+			{
+				preparedStatement.setFetchSize(fetchSize);
+			}
+			runtimeParameter.preparedStatement = preparedStatement;
+			runtimeParameter.values = new Object[loadDefinition.columns.size()];
+			runtimeParameter.convertEvent.setPreparedStatement(preparedStatement);
+			
+			loadDefinition.startCacheGeneration(runtimeParameter);
+			this.resultSet = preparedStatement.executeQuery();
+			runtimeParameter.resultSet = this.resultSet;
+		}
+		
+		@Override
+		public boolean hasNext()
+		{
+			while(this.bufferIndex >= this.buffer.size())
+			{
+				if(this.closed)
+				{
+					return false;
+				}
+				this.buffer.clear();
+				this.bufferIndex = 0;
+				
+				boolean valid = false;
+				try
+				{
+					if(! this.resultSet.next())
+					{
+						valid = true;
+						close();
+						return false;
+					}
+					this.loadDefinition.readRow(this.runtimeParameter, this.buffer);
+					valid = true;
+				}
+				catch (SQLException e) 
+				{
+					throw new RuntimeException(e);
+				}
+				finally 
+				{
+					if(! valid)
+					{
+						this.session.error = true;
+						close();
+					}
+				}
+			}
+			return true;
+		}
+		
+		@Override
+		public BranchNode<?, ?> next()
+		{
+			if(! hasNext())
 			{
-				return values;
+				throw new NoSuchElementException();
 			}
-			protected void setValues(Object[] values)
+			return this.buffer.get(this.bufferIndex++);
+		}
+		
+		@Override
+		public void close()
+		{
+			if(this.closed)
 			{
-				this.values = values;
+				return;
 			}
-			public BranchNode<? extends BranchNodeMetaModel, ? extends BranchNodeMetaModel> getBranchNode() 
+			this.closed = true;
+			try
 			{
-				return branchNode;
+				this.resultSet.close();
 			}
-			public Object getStaticValue() 
+			catch (Exception e) {}
+			try
 			{
-				return staticValue;
+				this.preparedStatement.close();
 			}
-			public Connection getConnection() 
+			catch (Exception e) {}
+			
+			if(this.session.openCursors != null)
 			{
-				return connection;
+				this.session.openCursors.remove(this);
 			}
-			public void close()
+			this.runtimeParameter.close();
+			this.buffer.clear();
+			this.resultSet = null;
+			this.preparedStatement = null;
+			this.loadDefinition = null;
+		}
+	}
+	
+	/**
+	 * A fetch plan defines child nodes to load for a collection of parent nodes by {@link Session#loadReferencedChildNodes(Collection, FetchPlan)}.
+	 * 
+	 * @author Sebastian Palarus
+	 *
+	 */
+	public static class FetchPlan
+	{
+		public static final int DEFAULT_CHUNK_SIZE = 1000;
+		
+		private Map<INodeType<?,?>,FetchPlan> childPlans = new LinkedHashMap<INodeType<?,?>,FetchPlan>();
+		private int chunkSize = DEFAULT_CHUNK_SIZE;
+		
+		/**
+		 * Adds a path of referenced child nodes to load. Each node type of path has to be a {@link BranchNodeType} or {@link BranchNodeListType} 
+		 * contained by node type of previous path element.
+		 * 
+		 * @param path child node types
+		 * @return fetch plan
+		 */
+		public FetchPlan add(INodeType<?,?>... path)
+		{
+			Objects.requireNonNull(path, "path not defined");
+			FetchPlan plan = this;
+			for(INodeType<?,?> nodeType : path)
 			{
-				this.connection = null;
-				this.dbSchemaUtilsDriver = null;
-				this.preparedStatement = null;
-				this.resultSet = null;
-				this.branchNode = null;
-				this.workingBranchNode = null;
-				this.staticValue = null;
-				this.isNew = null;
-				this.isExisting = null;
-				if(this.conplierBean != null)
-				{
-					this.conplierBean.setValue(null);
-				}
-				this.conplierBean = null;
-				if(this.convertEvent != null)
+				if(! ((nodeType instanceof BranchNodeType) || (nodeType instanceof BranchNodeListType)))
 				{
-					this.convertEvent.clear();
+					throw new IllegalArgumentException("node type " + nodeType + " is not a branch node type");
 				}
-				this.convertEvent = null;
-				
-				this.searchField = null;
-				this.searchValues = null;
-				this.nodeFactory = null;
-				this.values = null;
-				this.type = null;
-				this.childType = null;
-			}
-			
-			public PreparedStatement getPreparedStatement(String sql, int resultSetType,int resultSetConcurrency) throws SQLException
-			{
-				return Session.this.getCachedPreparedStatement(sql, resultSetType, resultSetConcurrency);
+				plan = plan.childPlans.computeIfAbsent(nodeType, t -> new FetchPlan());
 			}
-			
-			public PreparedStatement getPreparedStatement(String sql, boolean returnGeneratedKey) throws SQLException
+			return this;
+		}
+		
+		/**
+		 * 
+		 * @return maximum count of parent nodes in one query
+		 */
+		public int getChunkSize()
+		{
+			return chunkSize;
+		}
+		
+		/**
+		 * 
+		 * @param chunkSize maximum count of parent nodes in one query
+		 * @return fetch plan
+		 */
+		public FetchPlan setChunkSize(int chunkSize)
+		{
+			if(chunkSize < 1)
 			{
-				return Session.this.getCachedPreparedStatement(sql, returnGeneratedKey);
+				throw new IllegalArgumentException("chunk size must be greater than 0");
 			}
+			this.chunkSize = chunkSize;
+			return this;
 		}
 	}
 	
@@ -914,6 +2396,10 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 				
 				sqlColumns.append(columnNode.getColumnName());
 				BiConsumer<RuntimeParameter, PreparedLoadResultSetDefinition> nodeSetter = (r,d) -> {r.branchNode.get((LeafNodeType)r.type).setValue(r.staticValue);};
+				if(columnNode.isPrimaryKey())
+				{
+					this.primaryKeyIndex = this.columns.size();
+				}
 				this.columns.add(new JDBCGetterDefinition(columnNode, cursorPosititon++, nodeSetter));
 				this.nodeTypeList.add(columnNode.getLeafNodeType());
 			}
@@ -962,15 +2448,25 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			}
 			
 			this.sql = "select " + sqlColumns + "  from " + tableNode.getTableName() + " ";
+			if(tableNode.getReferencedByColumnNode() != null)
+			{
+				// referencing column is selected additionally to assign loaded nodes to parent nodes
+				
+				this.referencedBySQL = "select " + sqlColumns + "," + tableNode.getReferencedByColumnNode().getColumnName() + "  from " + tableNode.getTableName() + " ";
+			}
 			this.nodeTypeList = Collections.unmodifiableList(this.nodeTypeList);
+			this.typeClass = nodeType.getTypeClass();
 		}
 		
 		private TableNode tableNode = null;
+		private Class<?> typeClass = null;
+		private int primaryKeyIndex = -1;
 		private BranchNodeMetaModel type = null;
 		private String domain = null;
 		private String boundedContext = null;
 		private String service = null;
 		private String sql = null;
+		private String referencedBySQL = null;
 		private List<JDBCGetterDefinition> columns = null;
 		protected List<INodeType<?,?>> nodeTypeList = null;
 		private Map<INodeType,ConstraintHelper> constrainHelperIndex = null;
@@ -997,6 +2493,7 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			boundedContext = null;
 			service = null;
 			sql = null;
+			referencedBySQL = null;
 			columns = null;
 			nodeTypeList = null;
 			constrainHelperIndex = null;
@@ -1008,8 +2505,7 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			private String sqlType;
 		}
 		
-		@SuppressWarnings({ "unchecked", "rawtypes" })
-		protected void selectNode(RuntimeParameter runtimeParameter, List collector) throws SQLException
+		private ConstraintHelper getConstraintHelper(RuntimeParameter runtimeParameter)
 		{
 			Objects.requireNonNull(runtimeParameter.searchField,"search field not defined");
 			
@@ -1057,164 +2553,360 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 					
 				constrainHelperIndex.put(runtimeParameter.searchField, constraintHelper);
 			}
-			
-			
-			String completeSQL = null;
+			return constraintHelper;
+		}
+		
+		private String getSearchConstraint(RuntimeParameter runtimeParameter, ConstraintHelper constraintHelper)
+		{
 			if(runtimeParameter.getSession().isPostgreSQL)
 			{
-				completeSQL = sql + " where " + constraintHelper.column + " in (select * from unnest(?))";
+				return " where " + constraintHelper.column + " in (select * from unnest(?))";
 			}
 			else if(runtimeParameter.getSession().isH2)
 			{
-				completeSQL = sql + " where " + constraintHelper.column + " in (UNNEST(?))";
+				return " where " + constraintHelper.column + " in (UNNEST(?))";
 			}
-			else
+			return " where " + constraintHelper.column + " in (?)";
+		}
+		
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		protected void selectNode(RuntimeParameter runtimeParameter, List collector) throws SQLException
+		{
+			// populate nodes cached by primary key and select missing nodes only
+			
+			IdentityCache identityCache = getIdentityCache();
+			if((identityCache != null) && (runtimeParameter.searchValues != null) && (runtimeParameter.searchField == this.tableNode.getPrimaryKeyNode().getLeafNodeType()))
 			{
-				completeSQL = sql + " where " + constraintHelper.column + " in (?)";
+				List<Object> missingValues = new ArrayList<Object>();
+				for(Object searchValue : runtimeParameter.searchValues)
+				{
+					Object[] values = null;
+					if(searchValue != null)
+					{
+						IdentityCache.CacheKey key = new IdentityCache.CacheKey(this.tableNode.getTableName(), searchValue);
+						if(! runtimeParameter.getSession().dirtyCacheKeys.contains(key))
+						{
+							values = identityCache.get(key);
+						}
+					}
+					if(values == null)
+					{
+						missingValues.add(searchValue);
+						continue;
+					}
+					runtimeParameter.values = values;
+					populateNodes(runtimeParameter, collector);
+				}
+				if(missingValues.isEmpty())
+				{
+					return;
+				}
+				runtimeParameter.searchValues = missingValues.toArray();
 			}
 			
+			ConstraintHelper constraintHelper = getConstraintHelper(runtimeParameter);
+			String completeSQL = sql + getSearchConstraint(runtimeParameter, constraintHelper);
+			
 			runtimeParameter.preparedStatement = runtimeParameter.getPreparedStatement(completeSQL);
 			runtimeParameter.values = new Object[this.columns.size()];
 			runtimeParameter.convertEvent.setPreparedStatement(runtimeParameter.preparedStatement);
 			runtimeParameter.preparedStatement.setArray(1, runtimeParameter.connection.createArrayOf(constraintHelper.sqlType, runtimeParameter.searchValues));
 			
-			ResultSet resultSet = runtimeParameter.preparedStatement.executeQuery();
+			PreparedStatement preparedStatement = runtimeParameter.preparedStatement;
+			PreparedStatementCache preparedStatementCache = runtimeParameter.getSession().getPreparedStatementCache();
+			preparedStatementCache.acquire(preparedStatement);
 			try
 			{
-				runtimeParameter.resultSet = resultSet;
-				while(resultSet.next())
+				startCacheGeneration(runtimeParameter);
+				ResultSet resultSet = preparedStatement.executeQuery();
+				try
 				{
-					for(JDBCGetterDefinition column : this.columns)
+					runtimeParameter.resultSet = resultSet;
+					while(resultSet.next())
 					{
-						try
-						{
-							column.getter.acceptWithException(runtimeParameter);
-						}
-						catch (SQLException e) 
-						{
-							throw e;
-						}
-						catch (Exception e) 
-						{
-							throw new RuntimeException(e);
-						}
-					}
-					
-					Collection<BranchNode<?, ?>> nodes = runtimeParameter.nodeFactory.apply(runtimeParameter.values);
-					
-					if(nodes == null)
-					{
-						continue;
-					}
-					for(BranchNode<?, ?> node : nodes)
-					{
-						if(node == null)
-						{
-							continue;
-						}
-						collector.add(node);
-						runtimeParameter.branchNode = node;
-						int i = 0;
-						for(JDBCGetterDefinition column : this.columns)
-						{
-							runtimeParameter.childType = column.childType;
-							runtimeParameter.type = column.type;
-							
-							runtimeParameter.staticValue = runtimeParameter.values[i++];
-							if(column.nodeSetter != null)
-							{
-								column.nodeSetter.accept(runtimeParameter, this);
-							}
-						}
+						readRow(runtimeParameter, collector);
 					}
-					
-					runtimeParameter.childType = null;
-					runtimeParameter.type = null;
-					runtimeParameter.branchNode = null;
-					runtimeParameter.workingBranchNode = null;
+				}
+				finally 
+				{
+					resultSet.close();
 				}
 			}
 			finally 
 			{
-				resultSet.close();
+				preparedStatementCache.release(preparedStatement);
+			}
+		
+		}
+		
+		/*
+		 * Remembers generation of identity cache before rows are selected. Rows invalidated after this are not cached by readRow.
+		 */
+		private void startCacheGeneration(RuntimeParameter runtimeParameter)
+		{
+			IdentityCache identityCache = getIdentityCache();
+			runtimeParameter.cacheGeneration = identityCache == null ? 0L : identityCache.getGeneration();
+		}
+		
+		private void readRow(RuntimeParameter runtimeParameter, List collector) throws SQLException
+		{
+			readValues(runtimeParameter);
+			
+			// cache row, if not modified by uncommitted transaction of session
+			
+			IdentityCache identityCache = getIdentityCache();
+			if((identityCache != null) && (runtimeParameter.values[this.primaryKeyIndex] != null))
+			{
+				IdentityCache.CacheKey key = new IdentityCache.CacheKey(this.tableNode.getTableName(), runtimeParameter.values[this.primaryKeyIndex]);
+				if(! runtimeParameter.getSession().dirtyCacheKeys.contains(key))
+				{
+					identityCache.put(key, runtimeParameter.values, runtimeParameter.cacheGeneration);
+				}
 			}
 			
+			populateNodes(runtimeParameter, collector);
 		}
 		
+		/*
+		 * Populates nodes created by node factory with values of runtime parameter.
+		 */
 		@SuppressWarnings({ "unchecked", "rawtypes" })
-		protected void selectNode(RuntimeParameter runtimeParameter, List collector, BiFunction<IRuntimeParameter, String, String> sqlAppender, BiConsumer<IRuntimeParameter,PreparedStatement> prepareStatement) throws SQLException
+		private void populateNodes(RuntimeParameter runtimeParameter, List collector)
+		{
+			Collection<BranchNode<?, ?>> nodes = runtimeParameter.nodeFactory.apply(runtimeParameter.values);
+			
+			if(nodes != null)
+			{
+				for(BranchNode<?, ?> node : nodes)
+				{
+					populateNode(runtimeParameter, node, collector);
+				}
+			}
+			
+			runtimeParameter.childType = null;
+			runtimeParameter.type = null;
+			runtimeParameter.branchNode = null;
+			runtimeParameter.workingBranchNode = null;
+		}
+		
+		/*
+		 * Returns identity cache of cruder, if rows of this node type are cached.
+		 */
+		private IdentityCache getIdentityCache()
+		{
+			IdentityCache identityCache = TypedTreeJDBCCruder.this.identityCache;
+			if((identityCache == null) || (this.primaryKeyIndex < 0) || (! identityCache.isCached(this.typeClass)))
+			{
+				return null;
+			}
+			return identityCache;
+		}
+		
+		private void readValues(RuntimeParameter runtimeParameter) throws SQLException
+		{
+			for(JDBCGetterDefinition column : this.columns)
+			{
+				try
+				{
+					column.getter.acceptWithException(runtimeParameter);
+				}
+				catch (SQLException e) 
+				{
+					throw e;
+				}
+				catch (Exception e) 
+				{
+					throw new RuntimeException(e);
+				}
+			}
+		}
+		
+		/*
+		 * Opens cursor for nodes with search field value in search values. The statement is not cached, because it is open until cursor is closed.
+		 */
+		protected NodeCursor openCursor(RuntimeParameter runtimeParameter, int fetchSize) throws SQLException
+		{
+			ConstraintHelper constraintHelper = getConstraintHelper(runtimeParameter);
+			String completeSQL = sql + getSearchConstraint(runtimeParameter, constraintHelper);
+			
+			PreparedStatement preparedStatement = runtimeParameter.connection.prepareStatement(completeSQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			try
+			{
+				preparedStatement.setArray(1, runtimeParameter.connection.createArrayOf(constraintHelper.sqlType, runtimeParameter.searchValues));
+				return new NodeCursor(this, runtimeParameter, preparedStatement, fetchSize);
+			}
+			catch (SQLException | RuntimeException e) 
+			{
+				preparedStatement.close();
+				throw e;
+			}
+		}
+		
+		/*
+		 * Opens cursor for nodes selected by custom sql constraint. The statement is not cached, because it is open until cursor is closed.
+		 */
+		protected NodeCursor openCursor(RuntimeParameter runtimeParameter, BiFunction<IRuntimeParameter, String, String> sqlAppender, BiConsumer<IRuntimeParameter,PreparedStatement> prepareStatement, int fetchSize) throws SQLException
 		{
 			Objects.requireNonNull(sqlAppender,"sqlAppender not defined");
 			String completeSQL = sqlAppender.apply(runtimeParameter, sql);
 			
-			runtimeParameter.preparedStatement = runtimeParameter.getPreparedStatement(completeSQL);
+			PreparedStatement preparedStatement = runtimeParameter.connection.prepareStatement(completeSQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			try
+			{
+				runtimeParameter.preparedStatement = preparedStatement;
+				if(prepareStatement != null)
+				{
+					prepareStatement.accept(runtimeParameter, preparedStatement);
+				}
+				return new NodeCursor(this, runtimeParameter, preparedStatement, fetchSize);
+			}
+			catch (SQLException | RuntimeException e) 
+			{
+				preparedStatement.close();
+				throw e;
+			}
+		}
+		
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private void populateNode(RuntimeParameter runtimeParameter, BranchNode<?, ?> node, List collector)
+		{
+			if(node == null)
+			{
+				return;
+			}
+			collector.add(node);
+			runtimeParameter.branchNode = node;
+			int i = 0;
+			for(JDBCGetterDefinition column : this.columns)
+			{
+				runtimeParameter.childType = column.childType;
+				runtimeParameter.type = column.type;
+				
+				runtimeParameter.staticValue = runtimeParameter.values[i++];
+				if(column.nodeSetter != null)
+				{
+					column.nodeSetter.accept(runtimeParameter, this);
+				}
+			}
 			
-			runtimeParameter.values = new Object[this.columns.size()];
-			runtimeParameter.convertEvent.setPreparedStatement(runtimeParameter.preparedStatement);
-			if(prepareStatement != null)
+			TreeChangeSet changeSet = node.getRootNode().getChangeSet();
+			if(changeSet != null)
 			{
-				prepareStatement.accept(runtimeParameter, runtimeParameter.preparedStatement);
+				changeSet.clear(node);
+			}
+		}
+		
+		/*
+		 * Loads child nodes referencing parent nodes with primary key in search values and creates them in all parent nodes with this primary key.
+		 */
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		protected void selectNodeByReferencedNodes(RuntimeParameter runtimeParameter, List collector, Map<String,List<BranchNode<?,?>>> parentNodeIndex) throws SQLException
+		{
+			ColumnNode referencedByColumnNode = this.tableNode.getReferencedByColumnNode();
+			if
+			(
+				(referencedByColumnNode == null) || 
+				(
+					(referencedByColumnNode.getBranchNodeType() != runtimeParameter.searchField) &&
+					(referencedByColumnNode.getBranchNodeListType() != runtimeParameter.searchField)
+				)
+			)
+			{
+				throw new IllegalStateException("node " + this.tableNode.getNodeType() + " is not referenced by " + runtimeParameter.searchField);
 			}
 			
-			ResultSet resultSet = runtimeParameter.preparedStatement.executeQuery();
+			ConstraintHelper constraintHelper = getConstraintHelper(runtimeParameter);
+			String completeSQL = referencedBySQL + getSearchConstraint(runtimeParameter, constraintHelper);
+			int referencedByPosition = this.columns.size() + 1;
+			
+			runtimeParameter.preparedStatement = runtimeParameter.getPreparedStatement(completeSQL);
+			runtimeParameter.values = new Object[this.columns.size()];
+			runtimeParameter.convertEvent.setPreparedStatement(runtimeParameter.preparedStatement);
+			runtimeParameter.preparedStatement.setArray(1, runtimeParameter.connection.createArrayOf(constraintHelper.sqlType, runtimeParameter.searchValues));
+			
+			PreparedStatement preparedStatement = runtimeParameter.preparedStatement;
+			PreparedStatementCache preparedStatementCache = runtimeParameter.getSession().getPreparedStatementCache();
+			preparedStatementCache.acquire(preparedStatement);
 			try
 			{
-				runtimeParameter.resultSet = resultSet;
-				while(resultSet.next())
+				ResultSet resultSet = preparedStatement.executeQuery();
+				try
 				{
-					for(JDBCGetterDefinition column : this.columns)
+					runtimeParameter.resultSet = resultSet;
+					while(resultSet.next())
 					{
-						try
-						{
-							column.getter.acceptWithException(runtimeParameter);
-						}
-						catch (SQLException e) 
+						Object referencedId = resultSet.getObject(referencedByPosition);
+						List<BranchNode<?,?>> parentNodeList = referencedId == null ? null : parentNodeIndex.get(referencedId.toString());
+						if(parentNodeList == null)
 						{
-							throw e;
+							continue;
 						}
-						catch (Exception e) 
+					
+						readValues(runtimeParameter);
+					
+						for(BranchNode parentNode : parentNodeList)
 						{
-							throw new RuntimeException(e);
+							BranchNode<?,?> node = runtimeParameter.searchField instanceof BranchNodeListType ? 
+									parentNode.create((BranchNodeListType)runtimeParameter.searchField) : 
+									parentNode.create((BranchNodeType)runtimeParameter.searchField);
+							populateNode(runtimeParameter, node, collector);
 						}
-					}
-					
-					Collection<BranchNode<?, ?>> nodes = runtimeParameter.nodeFactory.apply(runtimeParameter.values);
 					
-					if(nodes == null)
-					{
-						continue;
+						runtimeParameter.childType = null;
+						runtimeParameter.type = null;
+						runtimeParameter.branchNode = null;
+						runtimeParameter.workingBranchNode = null;
 					}
-					for(BranchNode<?, ?> node : nodes)
+				}
+				finally 
+				{
+					resultSet.close();
+				}
+			}
+			finally 
+			{
+				preparedStatementCache.release(preparedStatement);
+			}
+		}
+		
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		protected void selectNode(RuntimeParameter runtimeParameter, List collector, BiFunction<IRuntimeParameter, String, String> sqlAppender, BiConsumer<IRuntimeParameter,PreparedStatement> prepareStatement) throws SQLException
+		{
+			Objects.requireNonNull(sqlAppender,"sqlAppender not defined");
+			String completeSQL = sqlAppender.apply(runtimeParameter, sql);
+			
+			runtimeParameter.preparedStatement = runtimeParameter.getPreparedStatement(completeSQL);
+			
+			runtimeParameter.values = new Object[this.columns.size()];
+			runtimeParameter.convertEvent.setPreparedStatement(runtimeParameter.preparedStatement);
+			if(prepareStatement != null)
+			{
+				prepareStatement.accept(runtimeParameter, runtimeParameter.preparedStatement);
+			}
+			
+			PreparedStatement preparedStatement = runtimeParameter.preparedStatement;
+			PreparedStatementCache preparedStatementCache = runtimeParameter.getSession().getPreparedStatementCache();
+			preparedStatementCache.acquire(preparedStatement);
+			try
+			{
+				startCacheGeneration(runtimeParameter);
+				ResultSet resultSet = preparedStatement.executeQuery();
+				try
+				{
+					runtimeParameter.resultSet = resultSet;
+					while(resultSet.next())
 					{
-						if(node == null)
-						{
-							continue;
-						}
-						collector.add(node);
-						runtimeParameter.branchNode = node;
-						int i = 0;
-						for(JDBCGetterDefinition column : this.columns)
-						{
-							runtimeParameter.childType = column.childType;
-							runtimeParameter.type = column.type;
-							
-							runtimeParameter.staticValue = runtimeParameter.values[i++];
-							if(column.nodeSetter != null)
-							{
-								column.nodeSetter.accept(runtimeParameter, this);
-							}
-						}
+						readRow(runtimeParameter, collector);
 					}
-					
-					runtimeParameter.childType = null;
-					runtimeParameter.type = null;
-					runtimeParameter.branchNode = null;
-					runtimeParameter.workingBranchNode = null;
+				}
+				finally 
+				{
+					resultSet.close();
 				}
 			}
 			finally 
 			{
-				resultSet.close();
+				preparedStatementCache.release(preparedStatement);
 			}
 		}
 	}
@@ -1330,12 +3022,31 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			}
 			
 			this.sql = "insert into " + tableNode.getTableName() + " (" + sqlColumns + ") values (" + sqlValues + ")";
+			
+			// column names for multi-row insert and upsert
+			
+			this.tableName = tableNode.getTableName();
+			this.primaryKeyColumnName = tableNode.getPrimaryKeyNode() == null ? null : tableNode.getPrimaryKeyNode().getColumnName();
+			this.columnNames = new ArrayList<String>();
+			this.updatableColumnNames = new ArrayList<String>();
+			for(JDBCSetterDefinition column : this.columns)
+			{
+				this.columnNames.add(column.columnNode.getColumnName());
+				if(column.parentType || (column.columnNode.isUpdatable() && (! column.columnNode.isPrimaryKey())))
+				{
+					this.updatableColumnNames.add(column.columnNode.getColumnName());
+				}
+			}
 		}
 		
 		
 		private TableNode tableNode = null;
 		private String sql = null;
+		private String tableName = null;
+		private String primaryKeyColumnName = null;
 		private List<JDBCSetterDefinition> columns = null;
+		private List<String> columnNames = null;
+		private List<String> updatableColumnNames = null;
 		private JDBCGetterDefinition autoGeneratedRetrieve = null; 
 		
 		@SuppressWarnings({ "unchecked", "rawtypes" })
@@ -1353,6 +3064,138 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			runtimeParameter.convertEvent.setPreparedStatement(runtimeParameter.preparedStatement);
 			runtimeParameter.convertEvent.setPersistNode(runtimeParameter.branchNode);
 			
+			setParameters(runtimeParameter, false);
+			
+			runtimeParameter.preparedStatement.executeUpdate();
+			
+			// get autogen key
+			
+			if(this.autoGeneratedRetrieve != null)
+			{
+				try
+				{
+					ResultSet backupResultSet = runtimeParameter.getResultSet();
+					try
+					{
+						Object[] backupValues = runtimeParameter.getValues();
+						try
+						{
+							runtimeParameter.setValues(new Object[1]);
+							runtimeParameter.setResultSet(runtimeParameter.preparedStatement.getGeneratedKeys());
+							try
+							{
+								runtimeParameter.getResultSet().next();
+								this.autoGeneratedRetrieve.getter.acceptWithException(runtimeParameter);
+								
+								runtimeParameter.childType = this.autoGeneratedRetrieve.childType;
+								runtimeParameter.type = this.autoGeneratedRetrieve.type;
+								runtimeParameter.staticValue = runtimeParameter.values[0];
+								
+								this.autoGeneratedRetrieve.nodeSetter.accept(runtimeParameter, null);
+								
+								runtimeParameter.childType = null;
+								runtimeParameter.type = null;
+								runtimeParameter.staticValue = null;
+							}
+							finally 
+							{
+								runtimeParameter.getResultSet().close();
+							}
+						}
+						finally 
+						{
+							runtimeParameter.setValues(backupValues);
+						}
+					}
+					finally 
+					{
+						runtimeParameter.setResultSet(backupResultSet);
+					}
+				}
+				catch (SQLException e) 
+				{
+					throw e;
+				}
+				catch (RuntimeException e) 
+				{
+					throw e;
+				}
+				catch (Exception e) 
+				{
+					throw new RuntimeException(e);
+				}
+			}
+		}
+		
+		/**
+		 * Inserts new nodes or upserts existing nodes with multi-row statements. Each statement binds up to {@link TypedTreeJDBCCruder#MULTI_ROW_LIMIT} rows.
+		 * Upserted nodes run update triggers instead of insert triggers.
+		 * 
+		 * @param runtimeParameter runtime parameter
+		 * @param nodes nodes to insert or upsert
+		 * @param upsert use upsert statement instead of insert statement
+		 */
+		@SuppressWarnings("rawtypes")
+		public void insertNodes(RuntimeParameter runtimeParameter, List<BranchNode> nodes, boolean upsert) throws SQLException, InstantiationException, IllegalAccessException
+		{
+			int columnCount = this.columns.size();
+			int rowsPerStatement = Math.max(1, Math.min(MULTI_ROW_LIMIT, MULTI_ROW_PARAMETER_LIMIT / columnCount));
+			
+			int index = 0;
+			while(index < nodes.size())
+			{
+				int rowCount = Math.min(rowsPerStatement, nodes.size() - index);
+				String sql = upsert ? 
+						runtimeParameter.dbSchemaUtilsDriver.getUpsertStatement(this.tableName, this.primaryKeyColumnName, this.columnNames, this.updatableColumnNames, rowCount) : 
+						runtimeParameter.dbSchemaUtilsDriver.getMultiRowInsertStatement(this.tableName, this.columnNames, rowCount);
+				
+				runtimeParameter.preparedStatement = runtimeParameter.getPreparedStatement(sql, false);
+				runtimeParameter.convertEvent.setPreparedStatement(runtimeParameter.preparedStatement);
+				
+				try
+				{
+					for(int i = 0; i < rowCount; i++)
+					{
+						runtimeParameter.branchNode = nodes.get(index + i);
+						runtimeParameter.parameterOffset = i * columnCount;
+						runtimeParameter.convertEvent.setPersistNode(runtimeParameter.branchNode);
+						
+						setParameters(runtimeParameter, upsert);
+					}
+				}
+				finally 
+				{
+					runtimeParameter.parameterOffset = 0;
+				}
+				
+				runtimeParameter.preparedStatement.executeUpdate();
+				
+				index += rowCount;
+			}
+		}
+		
+		/**
+		 * 
+		 * @return true, if nodes can be inserted by multi-row statements, otherwise false
+		 */
+		private boolean isMultiRowInsertable()
+		{
+			return (this.autoGeneratedRetrieve == null) && (! this.columns.isEmpty());
+		}
+		
+		/**
+		 * 
+		 * @param dbSchemaUtilsDriver schema utils driver of session
+		 * @return true, if nodes can be upserted by multi-row statements, otherwise false
+		 */
+		private boolean isMultiRowUpsertable(IDBSchemaUtilsDriver dbSchemaUtilsDriver)
+		{
+			return isMultiRowInsertable() && (this.primaryKeyColumnName != null) && (dbSchemaUtilsDriver != null) && dbSchemaUtilsDriver.supportsUpsert();
+		}
+		
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private void setParameters(RuntimeParameter runtimeParameter, boolean upsert) throws SQLException, InstantiationException, IllegalAccessException
+		{
 			for(JDBCSetterDefinition column : this.columns)
 			{
 				try
@@ -1404,7 +3247,7 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 							runtimeParameter.workingBranchNode = (BranchNode)node;
 						}
 					}
-					if(column.columnNode.getOnInsert() != null)
+					if((! upsert) && (column.columnNode.getOnInsert() != null))
 					{
 						column.columnNode.getOnInsertInstance().accept(runtimeParameter.convertEvent);
 						
@@ -1414,6 +3257,16 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 							runtimeParameter.workingBranchNode = (BranchNode)node;
 						}
 					}
+					if(upsert && (column.columnNode.getOnUpdate() != null))
+					{
+						column.columnNode.getOnUpdateInstance().accept(runtimeParameter.convertEvent);
+						
+						if(column.branchNodeType != null)
+						{
+							node = runtimeParameter.branchNode.get((BranchNodeType)column.branchNodeType);
+							runtimeParameter.workingBranchNode = (BranchNode)node;
+						}
+					}
 					
 					// set parameter
 					
@@ -1439,65 +3292,6 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 				}
 			}
 			
-			runtimeParameter.preparedStatement.executeUpdate();
-			
-			// get autogen key
-			
-			if(this.autoGeneratedRetrieve != null)
-			{
-				try
-				{
-					ResultSet backupResultSet = runtimeParameter.getResultSet();
-					try
-					{
-						Object[] backupValues = runtimeParameter.getValues();
-						try
-						{
-							runtimeParameter.setValues(new Object[1]);
-							runtimeParameter.setResultSet(runtimeParameter.preparedStatement.getGeneratedKeys());
-							try
-							{
-								runtimeParameter.getResultSet().next();
-								this.autoGeneratedRetrieve.getter.acceptWithException(runtimeParameter);
-								
-								runtimeParameter.childType = this.autoGeneratedRetrieve.childType;
-								runtimeParameter.type = this.autoGeneratedRetrieve.type;
-								runtimeParameter.staticValue = runtimeParameter.values[0];
-								
-								this.autoGeneratedRetrieve.nodeSetter.accept(runtimeParameter, null);
-								
-								runtimeParameter.childType = null;
-								runtimeParameter.type = null;
-								runtimeParameter.staticValue = null;
-							}
-							finally 
-							{
-								runtimeParameter.getResultSet().close();
-							}
-						}
-						finally 
-						{
-							runtimeParameter.setValues(backupValues);
-						}
-					}
-					finally 
-					{
-						runtimeParameter.setResultSet(backupResultSet);
-					}
-				}
-				catch (SQLException e) 
-				{
-					throw e;
-				}
-				catch (RuntimeException e) 
-				{
-					throw e;
-				}
-				catch (Exception e) 
-				{
-					throw new RuntimeException(e);
-				}
-			}
 		}
 		
 		private void close()
@@ -1684,7 +3478,10 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			
 			this.columns.add(new JDBCSetterDefinition(tableNode.getPrimaryKeyNode(), cursorPosititon++));
 			
+			this.tableName = tableNode.getTableName();
+			this.primaryKeyColumnName = tableNode.getPrimaryKeyNode().getColumnName();
 			this.sql = "update " + tableNode.getTableName() + " set " + sqlColumns +  " where " + tableNode.getPrimaryKeyNode().getColumnName() + " = ? ";
+			this.partialUpdateIndex = new ConcurrentHashMap<String,PartialUpdate>();
 		}
 		
 		private TableNode tableNode = null;
@@ -1693,17 +3490,137 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 		private String boundedContext = null;
 		private String service = null;
 		private String sql = null;
+		private String tableName = null;
+		private String primaryKeyColumnName = null;
 		private List<JDBCSetterDefinition> columns = null;
+		private Map<String,PartialUpdate> partialUpdateIndex = null;
+		
+		private class PartialUpdate
+		{
+			private String sql = null;
+			private List<JDBCSetterDefinition> columns = null;
+		}
+		
+		/**
+		 * 
+		 * @param node node to update
+		 * @return true, if modified columns of node are tracked by change set of tree, otherwise false
+		 */
+		@SuppressWarnings("rawtypes")
+		private boolean isModifiedColumnsKnown(BranchNode node)
+		{
+			TreeChangeSet changeSet = node.getRootNode().getChangeSet();
+			return (changeSet != null) && (! changeSet.isCreated(node)) && changeSet.isTracked(node);
+		}
 		
-		@SuppressWarnings({ "unchecked", "rawtypes" })
 		public void updateNode(RuntimeParameter runtimeParameter) throws SQLException, InstantiationException, IllegalAccessException
 		{
-			runtimeParameter.preparedStatement = runtimeParameter.getPreparedStatement(this.sql);
+			if(! isModifiedColumnsKnown(runtimeParameter.branchNode))
+			{
+				// modified columns are unknown
+				updateColumns(runtimeParameter, this.sql, this.columns);
+				return;
+			}
+			
+			TreeChangeSet changeSet = runtimeParameter.branchNode.getRootNode().getChangeSet();
+			Set<INodeType<?,?>> modifiedNodeTypes = changeSet.getModifiedNodeTypes(runtimeParameter.branchNode);
+			if(modifiedNodeTypes.isEmpty())
+			{
+				return; // nothing to update
+			}
+			
+			PartialUpdate partialUpdate = getPartialUpdate(modifiedNodeTypes);
+			if(partialUpdate == null)
+			{
+				return; // no modified column
+			}
+			updateColumns(runtimeParameter, partialUpdate.sql, partialUpdate.columns);
+		}
+		
+		/*
+		 * Returns update statement definition restricted to modified columns. Columns with update trigger are always updated.
+		 */
+		private PartialUpdate getPartialUpdate(Set<INodeType<?,?>> modifiedNodeTypes)
+		{
+			StringBuilder key = new StringBuilder();
+			boolean modifiedColumn = false;
+			
+			for(int i = 0; i < this.columns.size() - 1; i++)
+			{
+				JDBCSetterDefinition column = this.columns.get(i);
+				if(column.parentType)
+				{
+					continue; // modified parent means removed and created node
+				}
+				
+				boolean include = false;
+				if(column.branchNodeType != null)
+				{
+					include = modifiedNodeTypes.contains(column.branchNodeType);
+				}
+				else
+				{
+					include = modifiedNodeTypes.contains(column.columnNode.getLeafNodeType());
+				}
+				
+				if(include)
+				{
+					modifiedColumn = true;
+				}
+				else if((column.columnNode.getOnUpsert() != null) || (column.columnNode.getOnUpdate() != null))
+				{
+					include = true;
+				}
+				
+				if(include)
+				{
+					key.append(i).append(',');
+				}
+			}
+			
+			if(! modifiedColumn)
+			{
+				return null;
+			}
+			
+			String partialUpdateKey = key.toString();
+			PartialUpdate partialUpdate = this.partialUpdateIndex.get(partialUpdateKey);
+			if(partialUpdate != null)
+			{
+				return partialUpdate;
+			}
+			
+			partialUpdate = new PartialUpdate();
+			partialUpdate.columns = new ArrayList<JDBCSetterDefinition>();
+			
+			StringBuilder sqlColumns = new StringBuilder();
+			int cursorPosititon = 1;
+			for(String index : partialUpdateKey.split(","))
+			{
+				JDBCSetterDefinition column = this.columns.get(Integer.parseInt(index));
+				if(sqlColumns.length() > 0)
+				{
+					sqlColumns.append(",");
+				}
+				sqlColumns.append(column.columnNode.getColumnName() + " = ? ");
+				partialUpdate.columns.add(new JDBCSetterDefinition(column.columnNode, cursorPosititon++));
+			}
+			partialUpdate.columns.add(new JDBCSetterDefinition(this.columns.get(this.columns.size() - 1).columnNode, cursorPosititon++));
+			partialUpdate.sql = "update " + this.tableName + " set " + sqlColumns +  " where " + this.primaryKeyColumnName + " = ? ";
+			
+			PartialUpdate existing = this.partialUpdateIndex.putIfAbsent(partialUpdateKey, partialUpdate);
+			return existing == null ? partialUpdate : existing;
+		}
+		
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private void updateColumns(RuntimeParameter runtimeParameter, String sql, List<JDBCSetterDefinition> columns) throws SQLException, InstantiationException, IllegalAccessException
+		{
+			runtimeParameter.preparedStatement = runtimeParameter.getPreparedStatement(sql);
 			
 			runtimeParameter.convertEvent.setPreparedStatement(runtimeParameter.preparedStatement);
 			runtimeParameter.convertEvent.setPersistNode(runtimeParameter.branchNode);
 			
-			for(JDBCSetterDefinition column : this.columns)
+			for(JDBCSetterDefinition column : columns)
 			{
 				try
 				{
@@ -1792,12 +3709,24 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			this.boundedContext = null;
 			this.service = null;
 			this.sql = null;
+			this.tableName = null;
+			this.primaryKeyColumnName = null;
 			if(this.columns != null)
 			{
 				this.columns.forEach(c -> c.close());
 				this.columns.clear();
 			}
 			this.columns = null;
+			if(this.partialUpdateIndex != null)
+			{
+				for(PartialUpdate partialUpdate : this.partialUpdateIndex.values())
+				{
+					partialUpdate.columns.forEach(c -> c.close());
+					partialUpdate.columns.clear();
+				}
+				this.partialUpdateIndex.clear();
+			}
+			this.partialUpdateIndex = null;
 		}
 	}
 	
@@ -2022,17 +3951,17 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			{
 				if(value == null)
 				{
-					runtimeParameter.preparedStatement.setNull(JDBCSetterDefinition.this.cursorPosition, Types.VARCHAR);
+					runtimeParameter.preparedStatement.setNull(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, Types.VARCHAR);
 				}
 				else
 				{
 					if(value instanceof String)
 					{
-						runtimeParameter.preparedStatement.setString(JDBCSetterDefinition.this.cursorPosition, (String) value);
+						runtimeParameter.preparedStatement.setString(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, (String) value);
 					}
 					else
 					{
-						runtimeParameter.preparedStatement.setString(JDBCSetterDefinition.this.cursorPosition, value.toString());
+						runtimeParameter.preparedStatement.setString(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, value.toString());
 					}
 				}
 			}
@@ -2045,11 +3974,11 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			{
 				if(value == null)
 				{
-					runtimeParameter.preparedStatement.setNull(JDBCSetterDefinition.this.cursorPosition, Types.BOOLEAN);
+					runtimeParameter.preparedStatement.setNull(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, Types.BOOLEAN);
 				}
 				else
 				{
-					runtimeParameter.preparedStatement.setBoolean(JDBCSetterDefinition.this.cursorPosition, (Boolean) value);
+					runtimeParameter.preparedStatement.setBoolean(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, (Boolean) value);
 				}
 			}
 		}
@@ -2059,7 +3988,7 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			@Override
 			public void setValue(RuntimeParameter runtimeParameter, Object value) throws SQLException
 			{
-				runtimeParameter.preparedStatement.setObject(JDBCSetterDefinition.this.cursorPosition, (UUID) value);
+				runtimeParameter.preparedStatement.setObject(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, (UUID) value);
 			}
 		}
 		
@@ -2070,11 +3999,11 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			{
 				if(value == null)
 				{
-					runtimeParameter.preparedStatement.setNull(JDBCSetterDefinition.this.cursorPosition, Types.INTEGER);
+					runtimeParameter.preparedStatement.setNull(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, Types.INTEGER);
 				}
 				else
 				{
-					runtimeParameter.preparedStatement.setInt(JDBCSetterDefinition.this.cursorPosition, (Integer) value);
+					runtimeParameter.preparedStatement.setInt(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, (Integer) value);
 				}
 			}
 		}
@@ -2086,11 +4015,11 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			{
 				if(value == null)
 				{
-					runtimeParameter.preparedStatement.setNull(JDBCSetterDefinition.this.cursorPosition, Types.BIGINT);
+					runtimeParameter.preparedStatement.setNull(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, Types.BIGINT);
 				}
 				else
 				{
-					runtimeParameter.preparedStatement.setLong(JDBCSetterDefinition.this.cursorPosition, (Long) value);
+					runtimeParameter.preparedStatement.setLong(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, (Long) value);
 				}
 			}
 		}
@@ -2102,11 +4031,11 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			{
 				if(value == null)
 				{
-					runtimeParameter.preparedStatement.setNull(JDBCSetterDefinition.this.cursorPosition, Types.FLOAT);
+					runtimeParameter.preparedStatement.setNull(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, Types.FLOAT);
 				}
 				else
 				{
-					runtimeParameter.preparedStatement.setFloat(JDBCSetterDefinition.this.cursorPosition, (Float) value);
+					runtimeParameter.preparedStatement.setFloat(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, (Float) value);
 				}
 			}
 		}
@@ -2118,11 +4047,11 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			{
 				if(value == null)
 				{
-					runtimeParameter.preparedStatement.setNull(JDBCSetterDefinition.this.cursorPosition, Types.DOUBLE);
+					runtimeParameter.preparedStatement.setNull(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, Types.DOUBLE);
 				}
 				else
 				{
-					runtimeParameter.preparedStatement.setDouble(JDBCSetterDefinition.this.cursorPosition, (Double) value);
+					runtimeParameter.preparedStatement.setDouble(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, (Double) value);
 				}
 			}
 		}
@@ -2134,11 +4063,11 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			{
 				if(value == null)
 				{
-					runtimeParameter.preparedStatement.setNull(JDBCSetterDefinition.this.cursorPosition, Types.TIMESTAMP);
+					runtimeParameter.preparedStatement.setNull(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, Types.TIMESTAMP);
 				}
 				else
 				{
-					runtimeParameter.preparedStatement.setTimestamp(JDBCSetterDefinition.this.cursorPosition, new java.sql.Timestamp(( (Date) value).getTime()));
+					runtimeParameter.preparedStatement.setTimestamp(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, new java.sql.Timestamp(( (Date) value).getTime()));
 				}
 			}
 		}
@@ -2150,11 +4079,11 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			{
 				if(value == null)
 				{
-					runtimeParameter.preparedStatement.setNull(JDBCSetterDefinition.this.cursorPosition, Types.DATE);
+					runtimeParameter.preparedStatement.setNull(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, Types.DATE);
 				}
 				else
 				{
-					runtimeParameter.preparedStatement.setDate(JDBCSetterDefinition.this.cursorPosition, new java.sql.Date(( (Date) value).getTime()));
+					runtimeParameter.preparedStatement.setDate(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, new java.sql.Date(( (Date) value).getTime()));
 				}
 			}
 		}
@@ -2166,11 +4095,11 @@ public class TypedTreeJDBCCruder implements AutoCloseable
 			{
 				if(value == null)
 				{
-					runtimeParameter.preparedStatement.setNull(JDBCSetterDefinition.this.cursorPosition, Types.TIME);
+					runtimeParameter.preparedStatement.setNull(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, Types.TIME);
 				}
 				else
 				{
-					runtimeParameter.preparedStatement.setTime(JDBCSetterDefinition.this.cursorPosition, new java.sql.Time(( (Date) value).getTime()));
+					runtimeParameter.preparedStatement.setTime(runtimeParameter.parameterOffset + JDBCSetterDefinition.this.cursorPosition, new java.sql.Time(( (Date) value).getTime()));
 				}
 			}
 		}
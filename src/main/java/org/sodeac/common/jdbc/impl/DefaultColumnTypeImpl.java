@@ -84,6 +84,10 @@ public class DefaultColumnTypeImpl implements IColumnType
 		IDBSchemaUtilsDriver schemaDriver
 	) throws SQLException
 	{
+		if(dbProduct == null)
+		{
+			dbProduct = connection.getMetaData().getDatabaseProductName();
+		}
 		String columnType = column.getValue(ColumnNodeType.columnType);
 		if((columnType == null) || ColumnType.VARCHAR.toString().equalsIgnoreCase(columnType) || ColumnType.CHAR.toString().equalsIgnoreCase(columnType) )
 		{
@@ -91,7 +95,7 @@ public class DefaultColumnTypeImpl implements IColumnType
 			
 			if((column.getValue(ColumnNodeType.size) != null) && (column.getValue(ColumnNodeType.size).intValue() > 0))
 			{
-				if(ColumnType.VARCHAR.toString().equalsIgnoreCase(type) && connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("Oracle"))
+				if(ColumnType.VARCHAR.toString().equalsIgnoreCase(type) && dbProduct.equalsIgnoreCase("Oracle"))
 				{
 					return schemaDriver.objectNameGuidelineFormat(schema, connection, type + "(" + column.getValue(ColumnNodeType.size) + " CHAR)", "COLUMN_TYPE") ;
 				}
@@ -105,40 +109,40 @@ public class DefaultColumnTypeImpl implements IColumnType
 		
 		if(ColumnType.CLOB.toString().equalsIgnoreCase(columnType))
 		{
-			if(connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL"))
+			if(dbProduct.equalsIgnoreCase("PostgreSQL"))
 			{
 				return schemaDriver.objectNameGuidelineFormat(schema, connection, "text", "COLUMN_TYPE");
 			}
 		}
 		if(ColumnType.REAL.toString().equalsIgnoreCase(columnType))
 		{
-			if(connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL"))
+			if(dbProduct.equalsIgnoreCase("PostgreSQL"))
 			{
 				return schemaDriver.objectNameGuidelineFormat(schema, connection, "float4", "COLUMN_TYPE");
 			}
-			if(connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("Oracle"))
+			if(dbProduct.equalsIgnoreCase("Oracle"))
 			{
 				return schemaDriver.objectNameGuidelineFormat(schema, connection, "FLOAT(63)", "COLUMN_TYPE");
 			}
 		}
 		if(ColumnType.DOUBLE.toString().equalsIgnoreCase(columnType))
 		{
-			if(connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL"))
+			if(dbProduct.equalsIgnoreCase("PostgreSQL"))
 			{
 				return schemaDriver.objectNameGuidelineFormat(schema, connection, "float8", "COLUMN_TYPE");
 			}
-			if(connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("Oracle"))
+			if(dbProduct.equalsIgnoreCase("Oracle"))
 			{
 				return schemaDriver.objectNameGuidelineFormat(schema, connection, "FLOAT(126)", "COLUMN_TYPE");
 			}
 		}
 		if(ColumnType.BINARY.toString().equalsIgnoreCase(columnType))
 		{
-			if(connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL"))
+			if(dbProduct.equalsIgnoreCase("PostgreSQL"))
 			{
 				return schemaDriver.objectNameGuidelineFormat(schema, connection, "bytea", "COLUMN_TYPE");
 			}
-			if(connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("Oracle"))
+			if(dbProduct.equalsIgnoreCase("Oracle"))
 			{
 				return schemaDriver.objectNameGuidelineFormat(schema, connection, "LONG RAW", "COLUMN_TYPE");
 			}
@@ -146,7 +150,7 @@ public class DefaultColumnTypeImpl implements IColumnType
 		
 		if(ColumnType.BLOB.toString().equalsIgnoreCase(columnType))
 		{
-			if(connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL"))
+			if(dbProduct.equalsIgnoreCase("PostgreSQL"))
 			{
 				return schemaDriver.objectNameGuidelineFormat(schema, connection, "oid", "COLUMN_TYPE");
 			}
@@ -154,7 +158,7 @@ public class DefaultColumnTypeImpl implements IColumnType
 		
 		if(ColumnType.BOOLEAN.toString().equalsIgnoreCase(columnType))
 		{
-			if(connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("Oracle"))
+			if(dbProduct.equalsIgnoreCase("Oracle"))
 			{
 				return schemaDriver.objectNameGuidelineFormat(schema, connection, "CHAR(1)", "COLUMN_TYPE");
 			}
@@ -162,7 +166,7 @@ public class DefaultColumnTypeImpl implements IColumnType
 		
 		if(ColumnType.SMALLINT.toString().equalsIgnoreCase(columnType))
 		{
-			if(connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("Oracle"))
+			if(dbProduct.equalsIgnoreCase("Oracle"))
 			{
 				return schemaDriver.objectNameGuidelineFormat(schema, connection, "NUMBER(5)", "COLUMN_TYPE");
 			}
@@ -170,7 +174,7 @@ public class DefaultColumnTypeImpl implements IColumnType
 		
 		if(ColumnType.INTEGER.toString().equalsIgnoreCase(columnType))
 		{
-			if(connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("Oracle"))
+			if(dbProduct.equalsIgnoreCase("Oracle"))
 			{
 				return schemaDriver.objectNameGuidelineFormat(schema, connection, "NUMBER(10)", "COLUMN_TYPE");
 			}
@@ -178,7 +182,7 @@ public class DefaultColumnTypeImpl implements IColumnType
 		
 		if(ColumnType.BIGINT.toString().equalsIgnoreCase(columnType))
 		{
-			if(connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("Oracle"))
+			if(dbProduct.equalsIgnoreCase("Oracle"))
 			{
 				return schemaDriver.objectNameGuidelineFormat(schema, connection, "NUMBER(19)", "COLUMN_TYPE");
 			}
@@ -186,7 +190,7 @@ public class DefaultColumnTypeImpl implements IColumnType
 		
 		if(ColumnType.TIME.toString().equalsIgnoreCase(columnType))
 		{
-			if(connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("Oracle"))
+			if(dbProduct.equalsIgnoreCase("Oracle"))
 			{
 				return schemaDriver.objectNameGuidelineFormat(schema, connection, "DATE", "COLUMN_TYPE");
 			}
@@ -14,6 +14,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Map;
 
 import org.osgi.service.component.annotations.Component;
@@ -153,4 +154,44 @@ public class H2DBUtilDriver implements IDBSchemaUtilsDriver
 			preparedStatement.close();
 		}
 	}
+	
+	@Override
+	public boolean supportsUpsert()
+	{
+		return true;
+	}
+	
+	/**
+	 * H2's merge using statement. The columns of values table are named C1, C2, ...
+	 */
+	@Override
+	public String getUpsertStatement(String tableName, String primaryKeyColumn, List<String> columns, List<String> updateColumns, int rowCount)
+	{
+		StringBuilder sql = new StringBuilder("merge into " + tableName + " T using (values ");
+		IDBSchemaUtilsDriver.appendValueRows(sql, columns.size(), rowCount);
+		sql.append(") S on (T." + primaryKeyColumn + " = S.C" + (columns.indexOf(primaryKeyColumn) + 1) + ")");
+		if(! updateColumns.isEmpty())
+		{
+			sql.append(" when matched then update set ");
+			for(int i = 0; i < updateColumns.size(); i++)
+			{
+				if(i > 0)
+				{
+					sql.append(",");
+				}
+				sql.append(updateColumns.get(i) + " = S.C" + (columns.indexOf(updateColumns.get(i)) + 1));
+			}
+		}
+		sql.append(" when not matched then insert (" + String.join(",", columns) + ") values (");
+		for(int i = 0; i < columns.size(); i++)
+		{
+			if(i > 0)
+			{
+				sql.append(",");
+			}
+			sql.append("S.C" + (i + 1));
+		}
+		sql.append(")");
+		return sql.toString();
+	}
 }
@@ -15,6 +15,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.osgi.service.component.annotations.Component;
@@ -24,6 +25,7 @@ import org.osgi.service.component.annotations.ReferencePolicy;
 import org.sodeac.common.jdbc.DBSchemaUtils;
 import org.sodeac.common.jdbc.IColumnType;
 import org.sodeac.common.jdbc.IDBSchemaUtilsDriver;
+import org.sodeac.common.jdbc.DBSchemaUtils.CatalogSnapshot.KeyMetaData;
 import org.sodeac.common.misc.Driver;
 import org.sodeac.common.misc.OSGiDriverRegistry;
 import org.sodeac.common.misc.Driver.IDriver;
@@ -381,4 +383,40 @@ public class PGDBUtilDriver implements IDBSchemaUtilsDriver
 	}
 	
 	
+	
+	@Override
+	public boolean isSchemaWideKeyMetaDataSupported(KeyMetaData keyMetaData)
+	{
+		// pgjdbc requires table name for index info
+		return keyMetaData != KeyMetaData.INDEX_INFO;
+	}
+	
+	@Override
+	public boolean supportsUpsert()
+	{
+		return true;
+	}
+	
+	@Override
+	public String getUpsertStatement(String tableName, String primaryKeyColumn, List<String> columns, List<String> updateColumns, int rowCount)
+	{
+		StringBuilder sql = new StringBuilder("insert into " + tableName + " (" + String.join(",", columns) + ") values ");
+		IDBSchemaUtilsDriver.appendValueRows(sql, columns.size(), rowCount);
+		sql.append(" on conflict (" + primaryKeyColumn + ") do ");
+		if(updateColumns.isEmpty())
+		{
+			sql.append("nothing");
+			return sql.toString();
+		}
+		sql.append("update set ");
+		for(int i = 0; i < updateColumns.size(); i++)
+		{
+			if(i > 0)
+			{
+				sql.append(",");
+			}
+			sql.append(updateColumns.get(i) + " = excluded." + updateColumns.get(i));
+		}
+		return sql.toString();
+	}
 }
@@ -10,11 +10,17 @@
  *******************************************************************************/
 package org.sodeac.common.jdbc.impl;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.sql.Blob;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.postgresql.largeobject.LargeObject;
@@ -22,6 +28,8 @@ import org.postgresql.largeobject.LargeObjectManager;
 
 public class PGLargeObjectBlob implements Blob
 {
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+	
 	private LargeObject largeObject;
 	private org.postgresql.core.BaseConnection nativeConnection;
 	private long oid = -1;
@@ -86,6 +94,9 @@ public class PGLargeObjectBlob implements Blob
 		return is;
 	}
 
+	/**
+	 * Searches pattern by Boyer-Moore-Horspool algorithm. Large object is streamed in chunks, only the tail of previous chunk is retained.
+	 */
 	@Override
 	public long position(byte[] pattern, long start) throws SQLException
 	{
@@ -97,58 +108,62 @@ public class PGLargeObjectBlob implements Blob
 		{
 			return -1;
 		}
+		if(start < 1)
+		{
+			throw new SQLException("start position must be >= 1");
+		}
 		
 		if (pattern.length == 0) 
 		{
-			return 1;
+			return start;
+		}
+		
+		int patternLength = pattern.length;
+		int[] shift = new int[256];
+		Arrays.fill(shift, patternLength);
+		for(int i = 0; i < patternLength - 1; i++)
+		{
+			shift[pattern[i] & 0xFF] = patternLength - 1 - i;
 		}
 		
-		InputStream is = start == 1 ? getBinaryStream() : getBinaryStream(start, length());
+		LargeObject reader = openLargeObject(start);
 		try
 		{
-			byte[] buffer = new byte[1080];
-			int len;
-			int matchedLength = 0;
-			long matchStart = -1;
-			long pos = 0;
-			while((len = is.read(buffer)) > 0)
+			byte[] buffer = new byte[Math.max(DEFAULT_CHUNK_SIZE, patternLength * 2)];
+			int filled = 0;
+			long bufferPosition = start;
+			int read;
+			while((read = reader.read(buffer, filled, buffer.length - filled)) > 0)
 			{
-				for(int i = 0; i < len; i++)
+				filled += read;
+				
+				int offset = 0;
+				while(offset + patternLength <= filled)
 				{
-					pos++;
-					
-					if(buffer[i] == pattern[matchedLength])
-					{
-						matchedLength++;
-					}
-					else
-					{
-						matchStart = -1;
-						matchedLength = 0;
-						continue;
-					}
-					
-					if(matchedLength == 1)
+					int index = patternLength - 1;
+					while((index >= 0) && (buffer[offset + index] == pattern[index]))
 					{
-						matchStart = pos;
+						index--;
 					}
-					
-					if(matchedLength == pattern.length)
+					if(index < 0)
 					{
-						return matchStart;
+						return bufferPosition + offset;
 					}
+					offset += shift[buffer[offset + patternLength - 1] & 0xFF];
 				}
+				
+				// retain unchecked tail for next chunk
+				
+				filled -= offset;
+				System.arraycopy(buffer, offset, buffer, 0, filled);
+				bufferPosition += offset;
 			}
 		}
-		catch (Exception e) 
-		{
-			throw new SQLException(e.getMessage(), e);
-		}
 		finally 
 		{
 			try
 			{
-				is.close();
+				reader.close();
 			}
 			catch (Exception e) {}
 		}
@@ -268,11 +283,173 @@ public class PGLargeObjectBlob implements Blob
 		return is;
 	}
 	
+	/**
+	 * Opens a channel to read large object in chunks. Reads into heap buffers go directly into backing array.
+	 * 
+	 * @param pos position of the first byte to read, starting with 1
+	 * @param length maximum count of bytes to read, or -1 to read until end of large object
+	 * @param chunkSize maximum count of bytes to request from server by single read
+	 * @return readable channel
+	 * @throws SQLException
+	 */
+	public ReadableByteChannel getReadableByteChannel(long pos, long length, int chunkSize) throws SQLException
+	{
+		if(isFree)
+		{
+			throw new SQLException("Blob is free");
+		}
+		checkChunkSize(chunkSize);
+		return new LargeObjectChannel(openLargeObject(pos), length, chunkSize);
+	}
+	
+	/**
+	 * Opens a channel to read large object in chunks of {@link PGLargeObjectBlob#DEFAULT_CHUNK_SIZE}.
+	 * 
+	 * @return readable channel
+	 * @throws SQLException
+	 */
+	public ReadableByteChannel getReadableByteChannel() throws SQLException
+	{
+		return getReadableByteChannel(1L, -1L, DEFAULT_CHUNK_SIZE);
+	}
+	
+	/**
+	 * Opens a channel to write large object in chunks.
+	 * 
+	 * @param pos position of the first byte to write, starting with 1
+	 * @param chunkSize maximum count of bytes to send to server by single write
+	 * @return writable channel
+	 * @throws SQLException
+	 */
+	public WritableByteChannel getWritableByteChannel(long pos, int chunkSize) throws SQLException
+	{
+		if(isFree)
+		{
+			throw new SQLException("Blob is free");
+		}
+		checkChunkSize(chunkSize);
+		return new LargeObjectChannel(openLargeObject(pos), -1L, chunkSize);
+	}
+	
+	/**
+	 * Transfers content of large object to target channel, e.g. a {@link java.nio.channels.FileChannel}. A single chunk buffer is used for complete transfer.
+	 * 
+	 * @param pos position of the first byte to transfer, starting with 1
+	 * @param length maximum count of bytes to transfer, or -1 to transfer until end of large object
+	 * @param target target channel
+	 * @param chunkSize size of chunk buffer, must be &gt; 0
+	 * @return count of transferred bytes
+	 * @throws SQLException
+	 * @throws IOException
+	 * @throws IllegalArgumentException if chunk size is not positive
+	 */
+	public long transferTo(long pos, long length, WritableByteChannel target, int chunkSize) throws SQLException, IOException
+	{
+		if(isFree)
+		{
+			throw new SQLException("Blob is free");
+		}
+		checkChunkSize(chunkSize);
+		LargeObject reader = openLargeObject(pos);
+		try
+		{
+			byte[] chunk = new byte[chunkSize];
+			ByteBuffer buffer = ByteBuffer.wrap(chunk);
+			long transferred = 0L;
+			int read;
+			while(((length < 0) || (transferred < length)) && ((read = reader.read(chunk, 0, length < 0 ? chunkSize : (int)Math.min(chunkSize, length - transferred))) > 0))
+			{
+				buffer.clear().limit(read);
+				while(buffer.hasRemaining())
+				{
+					target.write(buffer);
+				}
+				transferred += read;
+			}
+			return transferred;
+		}
+		finally 
+		{
+			try
+			{
+				reader.close();
+			}
+			catch (Exception e) {}
+		}
+	}
+	
+	/**
+	 * Transfers content of large object to output stream. A single chunk buffer is used for complete transfer.
+	 * 
+	 * @param pos position of the first byte to transfer, starting with 1
+	 * @param length maximum count of bytes to transfer, or -1 to transfer until end of large object
+	 * @param target target stream
+	 * @param chunkSize size of chunk buffer, must be &gt; 0
+	 * @return count of transferred bytes
+	 * @throws SQLException
+	 * @throws IOException
+	 * @throws IllegalArgumentException if chunk size is not positive
+	 */
+	public long transferTo(long pos, long length, OutputStream target, int chunkSize) throws SQLException, IOException
+	{
+		if(isFree)
+		{
+			throw new SQLException("Blob is free");
+		}
+		checkChunkSize(chunkSize);
+		LargeObject reader = openLargeObject(pos);
+		try
+		{
+			byte[] chunk = new byte[chunkSize];
+			long transferred = 0L;
+			int read;
+			while(((length < 0) || (transferred < length)) && ((read = reader.read(chunk, 0, length < 0 ? chunkSize : (int)Math.min(chunkSize, length - transferred))) > 0))
+			{
+				target.write(chunk, 0, read);
+				transferred += read;
+			}
+			return transferred;
+		}
+		finally 
+		{
+			try
+			{
+				reader.close();
+			}
+			catch (Exception e) {}
+		}
+	}
+	
 	public long getOID()
 	{
 		return this.oid;
 	}
 	
+	private LargeObject openLargeObject(long pos) throws SQLException
+	{
+		if(pos < 1)
+		{
+			throw new SQLException("position must be >= 1");
+		}
+		checkLargeObject();
+		LargeObject largeObject = this.largeObject;
+		if(pos != 1)
+		{
+			largeObject.seek64(pos - 1L, LargeObject.SEEK_SET);
+		}
+		this.usedList.add(largeObject);
+		this.largeObject = null;
+		return largeObject;
+	}
+	
+	private static void checkChunkSize(int chunkSize)
+	{
+		if(chunkSize < 1)
+		{
+			throw new IllegalArgumentException("chunk size must be > 0");
+		}
+	}
+	
 	private void checkLargeObject() throws SQLException
 	{
 		if(this.largeObject == null) 
@@ -294,5 +471,144 @@ public class PGLargeObjectBlob implements Blob
 	{
 		return writable;
 	}
-
+	
+	private class LargeObjectChannel implements ReadableByteChannel, WritableByteChannel
+	{
+		private LargeObject largeObject = null;
+		private long remaining = -1L;
+		private int chunkSize = DEFAULT_CHUNK_SIZE;
+		private byte[] chunk = null;
+		private boolean open = true;
+		
+		private LargeObjectChannel(LargeObject largeObject, long remaining, int chunkSize)
+		{
+			super();
+			this.largeObject = largeObject;
+			this.remaining = remaining;
+			this.chunkSize = chunkSize;
+		}
+		
+		private byte[] getChunk()
+		{
+			if(this.chunk == null)
+			{
+				this.chunk = new byte[this.chunkSize];
+			}
+			return this.chunk;
+		}
+		
+		@Override
+		public int read(ByteBuffer dst) throws IOException
+		{
+			if(! open)
+			{
+				throw new ClosedChannelException();
+			}
+			if(this.remaining == 0L)
+			{
+				return -1;
+			}
+			int length = Math.min(dst.remaining(), this.chunkSize);
+			if(this.remaining > 0L)
+			{
+				length = (int)Math.min(length, this.remaining);
+			}
+			if(length == 0)
+			{
+				return 0;
+			}
+			
+			try
+			{
+				int read;
+				if(dst.hasArray())
+				{
+					read = this.largeObject.read(dst.array(), dst.arrayOffset() + dst.position(), length);
+					if(read > 0)
+					{
+						dst.position(dst.position() + read);
+					}
+				}
+				else
+				{
+					read = this.largeObject.read(getChunk(), 0, length);
+					if(read > 0)
+					{
+						dst.put(this.chunk, 0, read);
+					}
+				}
+				if(read <= 0)
+				{
+					return -1;
+				}
+				if(this.remaining > 0L)
+				{
+					this.remaining -= read;
+				}
+				return read;
+			}
+			catch (SQLException e) 
+			{
+				throw new IOException(e.getMessage(), e);
+			}
+		}
+		
+		@Override
+		public int write(ByteBuffer src) throws IOException
+		{
+			if(! open)
+			{
+				throw new ClosedChannelException();
+			}
+			int written = 0;
+			try
+			{
+				while(src.hasRemaining())
+				{
+					int length = Math.min(src.remaining(), this.chunkSize);
+					if(src.hasArray())
+					{
+						this.largeObject.write(src.array(), src.arrayOffset() + src.position(), length);
+						src.position(src.position() + length);
+					}
+					else
+					{
+						src.get(getChunk(), 0, length);
+						this.largeObject.write(this.chunk, 0, length);
+					}
+					written += length;
+				}
+				return written;
+			}
+			catch (SQLException e) 
+			{
+				throw new IOException(e.getMessage(), e);
+			}
+		}
+		
+		@Override
+		public boolean isOpen()
+		{
+			return open;
+		}
+		
+		@Override
+		public void close() throws IOException
+		{
+			if(! open)
+			{
+				return;
+			}
+			open = false;
+			this.chunk = null;
+			try
+			{
+				this.largeObject.close();
+			}
+			catch (SQLException e) 
+			{
+				throw new IOException(e.getMessage(), e);
+			}
+		}
+	}
 }
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.message.dispatcher.api;
+
+import org.sodeac.common.message.MessageHeader;
+
+/**
+ * Message addressed to {@link IDispatcherChannel}, used to publish messages for multiple channels with {@link IMessageDispatcher#sendMessages(java.util.Collection)}.
+ *
+ * @author Sebastian Palarus
+ *
+ * @param <T> type of payload
+ */
+public class ChannelMessage<T>
+{
+	private String channelId = null;
+	private T payload = null;
+	private MessageHeader messageHeader = null;
+	
+	/**
+	 * Constructor of channel message.
+	 *
+	 * @param channelId id of addressed channel
+	 * @param payload payload of message
+	 * @param messageHeader message header properties, or null to create default header
+	 */
+	public ChannelMessage(String channelId, T payload, MessageHeader messageHeader)
+	{
+		super();
+		this.channelId = channelId;
+		this.payload = payload;
+		this.messageHeader = messageHeader;
+	}
+	
+	/**
+	 * Creates channel message with default header.
+	 *
+	 * @param channelId id of addressed channel
+	 * @param payload payload of message
+	 * @return channel message
+	 */
+	public static <T> ChannelMessage<T> of(String channelId, T payload)
+	{
+		return new ChannelMessage<T>(channelId, payload, null);
+	}
+	
+	/**
+	 * Creates channel message.
+	 *
+	 * @param channelId id of addressed channel
+	 * @param payload payload of message
+	 * @param messageHeader message header properties
+	 * @return channel message
+	 */
+	public static <T> ChannelMessage<T> of(String channelId, T payload, MessageHeader messageHeader)
+	{
+		return new ChannelMessage<T>(channelId, payload, messageHeader);
+	}
+	
+	public String getChannelId()
+	{
+		return channelId;
+	}
+	
+	public T getPayload()
+	{
+		return payload;
+	}
+	
+	public MessageHeader getMessageHeader()
+	{
+		return messageHeader;
+	}
+}
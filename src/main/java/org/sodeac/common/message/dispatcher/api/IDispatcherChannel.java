@@ -15,7 +15,10 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import org.sodeac.common.message.MessageHeader;
@@ -31,6 +34,49 @@ import org.sodeac.common.snapdeque.DequeSnapshot;
  */
 public interface IDispatcherChannel<T>
 {
+	/**
+	 * Configuration key for count of priority lanes (Integer). If count of lanes is less than 2, messages are queued in FIFO order.
+	 * Otherwise messages are ordered by {@link MessageHeader#getPriority()}, higher priority first, with weighted-fair share for lower priorities.
+	 */
+	public static final String CONFIGURATION_KEY_PRIORITY_LANES = "org.sodeac.message.dispatcher.channel.priority.lanes";
+	
+	/**
+	 * Configuration key for weights of priority lanes (int[] or comma separated String). A lane with weight n delivers up to n messages per round.
+	 * Default weight is lane index + 1.
+	 */
+	public static final String CONFIGURATION_KEY_PRIORITY_LANE_WEIGHTS = "org.sodeac.message.dispatcher.channel.priority.weights";
+	
+	/**
+	 * Configuration key for journal directory of channel (String, {@link java.io.File} or {@link java.nio.file.Path}). If directory is defined, 
+	 * messages with {@link MessageHeader#getGuaranteedDelivery()} are written to journal before they are queued, and are replayed into channel, 
+	 * if channel is created again. Journaled messages are removed from journal, if they are acknowledged: removed from channel 
+	 * or marked as processed by {@link IMessage#setProcessed(Boolean)}. Polled messages remain in journal until they are marked as processed.
+	 * The directory must not be shared with other channels.
+	 */
+	public static final String CONFIGURATION_KEY_JOURNAL_DIRECTORY = "org.sodeac.message.dispatcher.channel.journal.directory";
+	
+	/**
+	 * Configuration key for size of journal segment files in bytes (Integer). Default size is 16 MB.
+	 */
+	public static final String CONFIGURATION_KEY_JOURNAL_SEGMENT_SIZE = "org.sodeac.message.dispatcher.channel.journal.segmentsize";
+	
+	/**
+	 * Configuration key for {@link IMessagePayloadCodec} to serialize payload of messages. Default codec is {@link IMessagePayloadCodec#SERIALIZABLE}.
+	 */
+	public static final String CONFIGURATION_KEY_PAYLOAD_CODEC = "org.sodeac.message.dispatcher.channel.payload.codec";
+	
+	/**
+	 * Configuration key for spill directory of channel (String, {@link java.io.File} or {@link java.nio.file.Path}). If directory is defined, 
+	 * messages exceeding high watermark of channel are written to a spill file instead of queue, and are queued again, if queue is drained. 
+	 * Spilled messages are not part of {@link IDispatcherChannel#getMessageSnapshot()}.
+	 */
+	public static final String CONFIGURATION_KEY_SPILL_DIRECTORY = "org.sodeac.message.dispatcher.channel.spill.directory";
+	
+	/**
+	 * Configuration key for count of queued messages, that are hold in memory, if spill directory is defined (Integer). Default is capacity of channel.
+	 */
+	public static final String CONFIGURATION_KEY_SPILL_HIGH_WATERMARK = "org.sodeac.message.dispatcher.channel.spill.highwatermark";
+	
 	/**
 	 * getter for channel id
 	 * 
@@ -108,6 +154,48 @@ public interface IDispatcherChannel<T>
 	 */
 	public Future<IOnMessageStoreResult> sendMessageWithResult(T messagePayload, MessageHeader messageHeader) throws CapacityExceededException;
 	
+	/**
+	 * send a message, wait if capacity of channel is exceeded
+	 * 
+	 * @param messagePayload payload of message to store in channel
+	 * @param messageHeader message header properties
+	 * @param timeout max time to wait for free capacity
+	 * @param unit unit of timeout
+	 * 
+	 * @return true, if message is sent, false, if timeout elapsed or channel is disposed
+	 * @throws InterruptedException if current thread is interrupted while waiting
+	 */
+	public boolean sendMessage(T messagePayload, MessageHeader messageHeader, long timeout, TimeUnit unit) throws InterruptedException;
+	
+	/**
+	 * send a message asynchronously. If capacity of channel is exceeded, message is sent as soon as capacity is released.
+	 * 
+	 * @param messagePayload payload of message to store in channel
+	 * 
+	 * @return future completes if message is stored in channel
+	 */
+	public default CompletableFuture<Void> sendMessageAsync(T messagePayload)
+	{
+		return this.sendMessageAsync(messagePayload, null);
+	}
+	
+	/**
+	 * send a message asynchronously. If capacity of channel is exceeded, message is sent as soon as capacity is released.
+	 * 
+	 * @param messagePayload payload of message to store in channel
+	 * @param messageHeader message header properties
+	 * 
+	 * @return future completes if message is stored in channel
+	 */
+	public CompletableFuture<Void> sendMessageAsync(T messagePayload, MessageHeader messageHeader);
+	
+	/**
+	 * getter for send credits of producers
+	 * 
+	 * @return count of messages, that can be sent without exceeding capacity of channel
+	 */
+	public int getRemainingCapacity();
+	
 	/**
 	 * getter for configuration propertyblock of queue
 	 * 
@@ -159,11 +247,23 @@ public interface IDispatcherChannel<T>
 	/**
 	 * return message snapshot-poll (remove returned elements from channel)
 	 * 
+	 * <p>Delivery of journaled messages is at-least-once: polled messages are not acknowledged, they remain in journal 
+	 * and are replayed, if channel is created again, until they are marked as processed by {@link IMessage#setProcessed(Boolean)}.
 	 * 
 	 * @return snapshot for chain
 	 */
 	public DequeSnapshot<IMessage<T>> getMessageSnapshotPoll();
 	
+	/**
+	 * remove up to {@code maxMessages} messages from head of channel. Unlike {@link IDispatcherChannel#getMessageSnapshotPoll()} no snapshot is created.
+	 * 
+	 * <p>Polled messages are not acknowledged, as described for {@link IDispatcherChannel#getMessageSnapshotPoll()}.
+	 * 
+	 * @param maxMessages max count of messages to remove
+	 * @return removed messages in order of channel
+	 */
+	public List<IMessage<T>> pollMessages(int maxMessages);
+	
 	/**
 	 * register an adapter for purpose of channel configuration
 	 * 
@@ -268,6 +368,14 @@ public interface IDispatcherChannel<T>
 	 */
 	public boolean removeMessageList(List<UUID> uuidList);
 	
+	/**
+	 * remove all {@link IMessage}s matching the filter. The filter is evaluated on a snapshot of message queue, matching messages are removed afterwards in one pass.
+	 * 
+	 * @param filter predicate returns true for messages to remove
+	 * @return true if one of {@link IMessage} was found and remove, otherwise false
+	 */
+	public boolean removeMessages(Predicate<? super IMessage<T>> filter);
+	
 	// TODO getTaskList/Index by Predicate
 	
 	/**
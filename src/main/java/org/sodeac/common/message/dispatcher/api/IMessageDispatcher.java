@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.sodeac.common.message.dispatcher.api;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.sodeac.common.snapdeque.CapacityExceededException;
@@ -35,6 +36,19 @@ public interface IMessageDispatcher
 	 */
 	public <T> void sendMessage(String channelId,T message) throws ChannelNotFoundException, CapacityExceededException;
 	
+	/**
+	 * queue messages to addressed channels. Messages are grouped by channel, each group is linked with one lock acquisition 
+	 * and the worker of each affected channel is notified once. Order of messages is kept within a channel.
+	 * 
+	 * <p>All channels are resolved before any message is queued. If capacity of a channel is exceeded, messages for other channels are queued anyway.
+	 * 
+	 * @param messages messages addressed to channels
+	 * 
+	 * @throws ChannelNotFoundException if an addressed channel does not exist, no message is queued
+	 * @throws CapacityExceededException if capacity of a channel is exceeded, further exceptions are suppressed
+	 */
+	public void sendMessages(Collection<? extends ChannelMessage<?>> messages) throws ChannelNotFoundException, CapacityExceededException;
+	
 	/**
 	 * factory-methode creating instance of {@link IPropertyBlock} 
 	 * 
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.message.dispatcher.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Codec to serialize payload of {@link IMessage}s, if messages are stored outside of heap, e.g. in journal of channel.
+ *
+ * <p>Codec is configured for {@link IDispatcherChannel} with {@link IDispatcherChannel#CONFIGURATION_KEY_PAYLOAD_CODEC}.
+ * Default codec is {@link IMessagePayloadCodec#SERIALIZABLE}.
+ *
+ * @author Sebastian Palarus
+ *
+ * @param <T> type of payload
+ */
+public interface IMessagePayloadCodec<T>
+{
+	/**
+	 * Codec for payloads implementing {@link java.io.Serializable}.
+	 */
+	public static final IMessagePayloadCodec<Object> SERIALIZABLE = new IMessagePayloadCodec<Object>()
+	{
+		@Override
+		public byte[] encode(Object payload) throws IOException
+		{
+			ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+			ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
+			try
+			{
+				objectOutputStream.writeObject(payload);
+			}
+			finally
+			{
+				objectOutputStream.close();
+			}
+			return byteArrayOutputStream.toByteArray();
+		}
+		
+		@Override
+		public Object decode(byte[] data) throws IOException
+		{
+			ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(data));
+			try
+			{
+				return objectInputStream.readObject();
+			}
+			catch (ClassNotFoundException e)
+			{
+				throw new IOException(e.getMessage(), e);
+			}
+			finally
+			{
+				objectInputStream.close();
+			}
+		}
+	};
+	
+	/**
+	 * Serializes payload.
+	 *
+	 * @param payload payload of message
+	 * @return serialized payload
+	 * @throws IOException if payload can not be serialized
+	 */
+	public byte[] encode(T payload) throws IOException;
+	
+	/**
+	 * Deserializes payload.
+	 *
+	 * @param data serialized payload
+	 * @return payload of message
+	 * @throws IOException if payload can not be deserialized
+	 */
+	public T decode(byte[] data) throws IOException;
+}
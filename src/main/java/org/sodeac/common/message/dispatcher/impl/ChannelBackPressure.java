@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.message.dispatcher.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Back-pressure of channel. Parks blocking producers and holds pending asynchronous sends, until capacity of message queue is released.
+ *
+ * <p>{@link ChannelBackPressure#release()} is notified by unlink of message queue's nodes. Blocking producers are signaled,
+ * pending messages are linked by executor of dispatcher.
+ *
+ * @author Sebastian Palarus
+ *
+ */
+public class ChannelBackPressure
+{
+	private volatile long releaseCount = 0L;
+	private AtomicInteger waitingProducerCount = null;
+	private ReentrantLock lock = null;
+	private Condition released = null;
+	
+	private ConcurrentLinkedQueue<PendingMessage> pendingMessageQueue = null;
+	private AtomicInteger pendingMessageCount = null;
+	private AtomicBoolean processingScheduled = null;
+	private Executor executor = null;
+	private Runnable pendingMessageProcessor = null;
+	
+	/**
+	 * Constructor of back-pressure.
+	 *
+	 * @param executor executor to link pending messages
+	 * @param pendingMessageProcessor procedure to link pending messages
+	 */
+	protected ChannelBackPressure(Executor executor, Runnable pendingMessageProcessor)
+	{
+		super();
+		this.waitingProducerCount = new AtomicInteger();
+		this.lock = new ReentrantLock();
+		this.released = this.lock.newCondition();
+		this.pendingMessageQueue = new ConcurrentLinkedQueue<PendingMessage>();
+		this.pendingMessageCount = new AtomicInteger();
+		this.processingScheduled = new AtomicBoolean(false);
+		this.executor = executor;
+		this.pendingMessageProcessor = pendingMessageProcessor;
+	}
+	
+	/**
+	 *
+	 * @return count of releases, used as token for {@link ChannelBackPressure#await(long, long, TimeUnit)}
+	 */
+	protected long getReleaseCount()
+	{
+		return this.releaseCount;
+	}
+	
+	/**
+	 * Notify if capacity of message queue is released. Invoked inside write lock of message queue.
+	 */
+	protected void release()
+	{
+		this.releaseCount++;
+		if(this.waitingProducerCount.get() > 0)
+		{
+			this.lock.lock();
+			try
+			{
+				this.released.signalAll();
+			}
+			finally
+			{
+				this.lock.unlock();
+			}
+		}
+		if(this.pendingMessageCount.get() > 0)
+		{
+			this.schedulePendingMessageProcessing();
+		}
+	}
+	
+	/**
+	 * Waits until capacity is released after specified release count.
+	 *
+	 * @param releaseCount release count read before last attempt to link message
+	 * @param timeout max time to wait
+	 * @param unit unit of timeout
+	 * @return true, if capacity is released, false, if timeout elapsed
+	 * @throws InterruptedException
+	 */
+	protected boolean await(long releaseCount, long timeout, TimeUnit unit) throws InterruptedException
+	{
+		long nanos = unit.toNanos(timeout);
+		this.waitingProducerCount.incrementAndGet();
+		this.lock.lock();
+		try
+		{
+			while(this.releaseCount == releaseCount)
+			{
+				if(nanos <= 0L)
+				{
+					return false;
+				}
+				nanos = this.released.awaitNanos(nanos);
+			}
+			return true;
+		}
+		finally
+		{
+			this.lock.unlock();
+			this.waitingProducerCount.decrementAndGet();
+		}
+	}
+	
+	/**
+	 * Appends message to pending messages.
+	 *
+	 * @param message message to link, if capacity is released
+	 * @param future future to complete, if message is linked
+	 */
+	protected void addPendingMessage(MessageImpl message, CompletableFuture<Void> future)
+	{
+		this.pendingMessageQueue.add(new PendingMessage(message, future));
+		this.pendingMessageCount.incrementAndGet();
+	}
+	
+	protected PendingMessage peekPendingMessage()
+	{
+		return this.pendingMessageQueue.peek();
+	}
+	
+	protected void removePendingMessage(PendingMessage pendingMessage)
+	{
+		if(this.pendingMessageQueue.remove(pendingMessage))
+		{
+			this.pendingMessageCount.decrementAndGet();
+		}
+	}
+	
+	/**
+	 *
+	 * @return count of pending messages
+	 */
+	protected int getPendingMessageCount()
+	{
+		return this.pendingMessageCount.get();
+	}
+	
+	/**
+	 * Schedules processing of pending messages by executor, if processing is not already scheduled.
+	 */
+	protected void schedulePendingMessageProcessing()
+	{
+		if(! this.processingScheduled.compareAndSet(false, true))
+		{
+			return;
+		}
+		try
+		{
+			this.executor.execute(() ->
+			{
+				this.processingScheduled.set(false);
+				this.pendingMessageProcessor.run();
+			});
+		}
+		catch (RejectedExecutionException e)
+		{
+			this.processingScheduled.set(false);
+		}
+	}
+	
+	protected static class PendingMessage
+	{
+		private MessageImpl message = null;
+		private CompletableFuture<Void> future = null;
+		
+		private PendingMessage(MessageImpl message, CompletableFuture<Void> future)
+		{
+			super();
+			this.message = message;
+			this.future = future;
+		}
+		
+		protected MessageImpl getMessage()
+		{
+			return message;
+		}
+		
+		protected CompletableFuture<Void> getFuture()
+		{
+			return future;
+		}
+	}
+}
@@ -28,6 +28,7 @@ public class ChannelConfigurationModifyListener implements IPropertyBlockModifyL
 	@Override
 	public void onModify(ModifyType type, String key, Object valueOld, Object valueNew)
 	{
+		channel.onConfigurationModify(key);
 		((MessageDispatcherImpl)channel.getDispatcher()).onConfigurationModify(this.channel, key);
 	}
 
@@ -48,6 +49,7 @@ public class ChannelConfigurationModifyListener implements IPropertyBlockModifyL
 		{
 			attributes[index++] = item.getKey();
 		}
+		channel.onConfigurationModify(attributes);
  		((MessageDispatcherImpl)channel.getDispatcher()).onConfigurationModify(this.channel,attributes);
 	}
 
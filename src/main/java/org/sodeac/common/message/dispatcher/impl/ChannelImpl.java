@@ -10,29 +10,41 @@
  *******************************************************************************/
 package org.sodeac.common.message.dispatcher.impl;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import org.sodeac.common.message.MessageHeader;
+import org.sodeac.common.message.dispatcher.api.ChannelMessage;
 import org.sodeac.common.message.dispatcher.api.ComponentBindingSetup;
 import org.sodeac.common.message.dispatcher.api.IDispatcherChannel;
 import org.sodeac.common.message.dispatcher.api.IDispatcherChannelService;
 import org.sodeac.common.message.dispatcher.api.IDispatcherChannelTask;
 import org.sodeac.common.message.dispatcher.api.IMessage;
 import org.sodeac.common.message.dispatcher.api.IMessageDispatcher;
+import org.sodeac.common.message.dispatcher.api.IMessagePayloadCodec;
 import org.sodeac.common.message.dispatcher.api.IOnChannelAttach;
 import org.sodeac.common.message.dispatcher.api.IOnChannelDetach;
 import org.sodeac.common.message.dispatcher.api.IOnMessageStoreResult;
@@ -46,6 +58,7 @@ import org.sodeac.common.message.dispatcher.impl.TaskControlImpl.ScheduleTimesta
 import org.sodeac.common.snapdeque.CapacityExceededException;
 import org.sodeac.common.snapdeque.DequeNode;
 import org.sodeac.common.snapdeque.DequeSnapshot;
+import org.sodeac.common.snapdeque.INodeEventHandler;
 import org.sodeac.common.snapdeque.SnapshotableDeque;
 
 public class ChannelImpl<T> implements IDispatcherChannel<T>
@@ -87,6 +100,10 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 		this.channelServiceListWriteLock = this.channelServiceListLock.writeLock();
 		
 		this.messageQueue = new SnapshotableDeque<>(Integer.MAX_VALUE, true);
+		this.messageIndex = new ConcurrentHashMap<UUID,DequeNode<MessageImpl>>();
+		this.messageQueue.registerEventHandler(new MessageQueueHandler());
+		this.messageTimer = new ChannelMessageTimer();
+		this.backPressure = new ChannelBackPressure(messageDispatcher.getExecutor(), this::processPendingMessages);
 		this.newPublishedMessageQueue = new SnapshotableDeque<>();
 		this.removedMessageQueue = new SnapshotableDeque<>();
 		
@@ -128,11 +145,14 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 		
 		this.channelConfigurationModifyListener = new ChannelConfigurationModifyListener(this);
 		this.configurationPropertyBlock.addModifyListener(this.channelConfigurationModifyListener);
+		this.updatePriorityLanes();
 		
 		this.snapshotsByWorkerThread = new LinkedList<DequeSnapshot<IMessage<T>>>();
 		this.sharedMessageLock = new ReentrantLock(true);
 		
 		this.registrationTypes = new RegistrationTypes();
+		this.updateJournal();
+		this.updateSpillover();
 	}
 	
 	// TODO values in TaskContainer ???
@@ -163,6 +183,14 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 	protected WriteLock channelServiceListWriteLock;
 	
 	protected SnapshotableDeque<MessageImpl> messageQueue = null;
+	protected Map<UUID,DequeNode<MessageImpl>> messageIndex = null;
+	protected volatile ChannelPriorityLanes priorityLanes = null;
+	protected ChannelMessageTimer messageTimer = null;
+	protected int reservedCapacity = 0;
+	protected volatile ChannelJournal journal = null;
+	protected volatile ChannelSpillover spillover = null;
+	protected volatile int spillHighWatermark = -1;
+	protected ChannelBackPressure backPressure = null;
 	protected SnapshotableDeque<MessageImpl> newPublishedMessageQueue = null;
 	protected SnapshotableDeque<MessageImpl> removedMessageQueue = null;
 	
@@ -231,23 +259,164 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 	    }
 		
 	    MessageImpl message = new MessageImpl(messagePayload,this, messageHeader);
+	    if(! this.prepareMessage(message, dummyPublishMessageResult))
+	    {
+	    	return;
+	    }
 	    try
 	    {
-	    	DequeNode<MessageImpl> node = this.messageQueue.link(SnapshotableDeque.LinkMode.APPEND,message, n -> 
-	    	{
-	    		message.setNode(n);
-	    		message.setScheduleResultObject(dummyPublishMessageResult);
-	    	});
+	    	this.queueMessage(message, dummyPublishMessageResult);
 	    }
 	    catch (CapacityExceededException e) 
 	    {
-	    	try
-	    	{
-	    		message.dispose();
-	    	}
-	    	catch (Exception ex) {}
+	    	this.discardMessage(message);
+	    	throw e;
+		}
+	}
+	
+	@Override
+	public boolean sendMessage(T messagePayload, MessageHeader messageHeader, long timeout, TimeUnit unit) throws InterruptedException
+	{
+	    if(this.disposed)
+		{
+			return false;
+		}
+	    
+	    if(messageHeader == null)
+	    {
+	    	messageHeader = MessageHeader.newInstance()
+	    		.setTimestamp(System.currentTimeMillis())
+	    		.lockHeader(MessageHeader.MESSAGE_HEADER_TIMESTAMP);
+	    }
+	    
+	    MessageImpl message = new MessageImpl(messagePayload,this, messageHeader);
+	    if(! this.prepareMessage(message, dummyPublishMessageResult))
+	    {
+	    	return true;
+	    }
+	    
+	    long deadline = System.nanoTime() + unit.toNanos(timeout);
+	    try
+	    {
+		    while(true)
+		    {
+		    	long releaseCount = this.backPressure.getReleaseCount();
+		    	try
+		    	{
+		    		this.queueMessage(message, dummyPublishMessageResult);
+		    		return true;
+		    	}
+		    	catch (CapacityExceededException e) {}
+		    	
+		    	if(this.disposed || (! this.backPressure.await(releaseCount, deadline - System.nanoTime(), TimeUnit.NANOSECONDS)))
+		    	{
+		    		this.discardMessage(message);
+		    		return false;
+		    	}
+		    }
+	    }
+	    catch (InterruptedException e) 
+	    {
+	    	this.discardMessage(message);
 	    	throw e;
 		}
+	}
+	
+	@Override
+	public CompletableFuture<Void> sendMessageAsync(T messagePayload, MessageHeader messageHeader)
+	{
+		CompletableFuture<Void> future = new CompletableFuture<Void>();
+	    if(this.disposed)
+		{
+	    	future.completeExceptionally(new IllegalStateException("channel is disposed"));
+			return future;
+		}
+	    
+	    if(messageHeader == null)
+	    {
+	    	messageHeader = MessageHeader.newInstance()
+	    		.setTimestamp(System.currentTimeMillis())
+	    		.lockHeader(MessageHeader.MESSAGE_HEADER_TIMESTAMP);
+	    }
+	    
+	    MessageImpl message = new MessageImpl(messagePayload,this, messageHeader);
+	    try
+	    {
+		    if(! this.prepareMessage(message, dummyPublishMessageResult))
+		    {
+		    	future.complete(null);
+		    	return future;
+		    }
+		    if(this.backPressure.getPendingMessageCount() == 0)
+		    {
+		    	this.queueMessage(message, dummyPublishMessageResult);
+		    	future.complete(null);
+		    	return future;
+		    }
+	    }
+	    catch (CapacityExceededException e) {}
+	    catch (RuntimeException e) 
+	    {
+	    	this.discardMessage(message);
+	    	future.completeExceptionally(e);
+	    	return future;
+		}
+	    
+	    // pending messages are linked in order of send
+	    this.backPressure.addPendingMessage(message, future);
+	    if(this.messageQueue.remainingCapacity() > 0L)
+	    {
+	    	this.backPressure.schedulePendingMessageProcessing();
+	    }
+	    return future;
+	}
+	
+	@Override
+	public int getRemainingCapacity()
+	{
+		return (int)Math.max(0L, this.messageQueue.remainingCapacity() - this.backPressure.getPendingMessageCount());
+	}
+	
+	/**
+	 * Writes new message to journal and spills message exceeding high watermark.
+	 * 
+	 * @param message new message
+	 * @param scheduleResult result object of message
+	 * @return true, if message has to be queued, otherwise false
+	 */
+	private boolean prepareMessage(MessageImpl message, PublishMessageResultImpl scheduleResult)
+	{
+		this.writeToJournal(Collections.singletonList(message));
+		message.setScheduleResultObject(scheduleResult);
+		if(this.spillMessages(Collections.singletonList(message)) == 0)
+		{
+			this.pageInSpilledMessages();
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Holds prepared message with future delivery time or links prepared message into message queue and notifies channel managers.
+	 * 
+	 * @param message prepared message
+	 * @param scheduleResult result object of message
+	 * @throws CapacityExceededException if capacity of message queue is exceeded
+	 */
+	private void queueMessage(MessageImpl message, PublishMessageResultImpl scheduleResult)
+	{
+		if(this.holdTimedMessage(message, scheduleResult))
+		{
+			return;
+		}
+		this.linkMessage(message, n -> 
+		{
+			message.setNode(n);
+			message.setScheduleResultObject(scheduleResult);
+			this.registerExpiration(message);
+		});
+		
+		this.notifyExpiration(message);
 		
 		if(this.registrationTypes.onQueuedMessage)
 		{
@@ -257,6 +426,54 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 		}
 	}
 	
+	/**
+	 * Links pending messages of asynchronous sends into message queue, as long as capacity is not exceeded. Invoked by executor of dispatcher.
+	 */
+	private void processPendingMessages()
+	{
+		ChannelBackPressure backPressure = this.backPressure;
+		synchronized (backPressure)
+		{
+			ChannelBackPressure.PendingMessage pendingMessage;
+			while((pendingMessage = backPressure.peekPendingMessage()) != null)
+			{
+				if(this.disposed)
+				{
+					backPressure.removePendingMessage(pendingMessage);
+					pendingMessage.getFuture().completeExceptionally(new IllegalStateException("channel is disposed"));
+					continue;
+				}
+				try
+				{
+					this.queueMessage(pendingMessage.getMessage(), dummyPublishMessageResult);
+				}
+				catch (CapacityExceededException e) 
+				{
+					return; // wait for next release
+				}
+				catch (RuntimeException e) 
+				{
+					backPressure.removePendingMessage(pendingMessage);
+					this.discardMessage(pendingMessage.getMessage());
+					pendingMessage.getFuture().completeExceptionally(e);
+					continue;
+				}
+				backPressure.removePendingMessage(pendingMessage);
+				pendingMessage.getFuture().complete(null);
+			}
+		}
+	}
+	
+	private void discardMessage(MessageImpl message)
+	{
+		try
+		{
+			this.removeFromJournal(message);
+			message.dispose();
+		}
+		catch (Exception e) {}
+	}
+	
 	@Override
 	public void sendMessages(Collection<T> messagePayloadCollection, MessageHeader messageHeaderTemplate)
 	{
@@ -283,13 +500,89 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 		    
 	    	messageList.add(new MessageImpl(messagePayload,this, messageHeader));
 	    }
+	    this.sendMessageList(messageList);
+	}
+	
+	/**
+	 * Sends messages of dispatcher's batch publish, addressed to this channel. 
+	 * 
+	 * @param channelMessageList messages addressed to this channel
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected void sendChannelMessages(List<ChannelMessage<?>> channelMessageList)
+	{
+	    if(this.disposed)
+		{
+			return;
+		}
+	    
+	    List<MessageImpl<T>> messageList = new ArrayList<>(channelMessageList.size());
+	    for(ChannelMessage<?> channelMessage : channelMessageList)
+	    {
+	    	MessageHeader messageHeader = channelMessage.getMessageHeader();
+		    if(messageHeader == null)
+		    {
+		    	messageHeader = MessageHeader.newInstance()
+		    		.setTimestamp(System.currentTimeMillis())
+		    		.lockHeader(MessageHeader.MESSAGE_HEADER_TIMESTAMP);
+		    }
+	    	
+	    	messageList.add(new MessageImpl(channelMessage.getPayload(),this, messageHeader));
+	    }
+	    this.sendMessageList(messageList);
+	}
+	
+	/**
+	 * Writes messages to journal and links messages into message queue with one lock acquisition. Channel worker is notified once.
+	 * 
+	 * @param messageList new messages
+	 * @throws CapacityExceededException if capacity of message queue is exceeded
+	 */
+	private void sendMessageList(List<MessageImpl<T>> messageList)
+	{
+	    this.writeToJournal(messageList);
+	    for(ListIterator<MessageImpl<T>> iterator = messageList.listIterator(); iterator.hasNext();)
+	    {
+	    	try
+	    	{
+		    	if(this.holdTimedMessage(iterator.next(), dummyPublishMessageResult))
+		    	{
+		    		iterator.remove();
+		    	}
+	    	}
+	    	catch (CapacityExceededException e) 
+	    	{
+	    		// messages held before remain accepted
+	    		for(MessageImpl<T> message : messageList.subList(iterator.previousIndex(), messageList.size()))
+	    		{
+	    			this.discardMessage(message);
+	    		}
+	    		throw e;
+			}
+	    }
+	    if(messageList.isEmpty())
+	    {
+	    	return;
+	    }
+	    int linkCount = this.spillMessages(messageList);
+	    boolean spilled = linkCount < messageList.size();
+	    if(spilled)
+	    {
+	    	messageList = new ArrayList<>(messageList.subList(0, linkCount));
+	    	if(messageList.isEmpty())
+	    	{
+	    		this.pageInSpilledMessages();
+	    		return;
+	    	}
+	    }
 	    try
 	    {
-	    	this.messageQueue.linkAll(SnapshotableDeque.LinkMode.APPEND,messageList, n -> 
+	    	this.linkMessages(messageList, n -> 
 	    	{
 	    		MessageImpl message = n.getElement();
 	    		message.setNode(n);
 	    		message.setScheduleResultObject(dummyPublishMessageResult);
+	    		this.registerExpiration(message);
 	    	});
 	    }
 	    catch (CapacityExceededException e) 
@@ -298,6 +591,7 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 	    	{
 	    		for(MessageImpl<T> message : messageList)
 	    		{
+	    			this.removeFromJournal(message);
 	    			message.dispose();
 	    		}
 	    	}
@@ -305,6 +599,801 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 	    	throw e;
 		}
 		
+		for(MessageImpl<T> message : messageList)
+		{
+			this.notifyExpiration(message);
+		}
+		
+		if(this.registrationTypes.onQueuedMessage)
+		{
+			this.newPublishedMessageQueue.addAll(messageList);
+			this.newScheduledListUpdate = true; 
+			this.notifyOrCreateWorker(-1);
+		}
+		
+		if(spilled)
+		{
+			this.pageInSpilledMessages();
+		}
+	}
+	
+	@Override
+	public Future<IOnMessageStoreResult> sendMessageWithResult(T messagePayload, MessageHeader messageHeader)
+	{
+	    if(this.disposed)
+		{
+			return this.messageDispatcher.createFutureOfScheduleResult(new PublishMessageResultImpl());
+		}
+	    
+	    if(messageHeader == null)
+	    {
+	    	messageHeader = MessageHeader.newInstance()
+	    		.setTimestamp(System.currentTimeMillis())
+	    		.lockHeader(MessageHeader.MESSAGE_HEADER_TIMESTAMP);
+	    }
+		
+		PublishMessageResultImpl resultImpl = new PublishMessageResultImpl();
+		
+		MessageImpl message = new MessageImpl(messagePayload,this, messageHeader);
+		this.writeToJournal(Collections.singletonList(message));
+		try
+		{
+			if(this.holdTimedMessage(message, resultImpl))
+			{
+				return this.messageDispatcher.createFutureOfScheduleResult(resultImpl);
+			}
+		}
+		catch (CapacityExceededException e) 
+		{
+			this.discardMessage(message);
+			throw e;
+		}
+		message.setScheduleResultObject(resultImpl);
+		if(this.spillMessages(Collections.singletonList(message)) == 0)
+		{
+			this.pageInSpilledMessages();
+			return this.messageDispatcher.createFutureOfScheduleResult(resultImpl);
+		}
+	    try
+	    {
+	    	DequeNode<MessageImpl> node = this.linkMessage(message, n -> 
+	    	{
+	    		message.setScheduleResultObject(resultImpl);
+		    	message.setNode(n);
+		    	this.registerExpiration(message);
+	    	});
+	    
+	    }
+	    catch (CapacityExceededException e) 
+	    {
+	    	try
+	    	{
+	    		this.removeFromJournal(message);
+	    		message.dispose();
+	    	}
+	    	catch (Exception ex) {}
+	    	throw e;
+		}
+		
+		this.notifyExpiration(message);
+		
+		if(this.registrationTypes.onQueuedMessage)
+		{
+			this.newPublishedMessageQueue.addLast(message);
+			this.newScheduledListUpdate = true;
+			this.notifyOrCreateWorker(-1);
+		}
+		
+		return this.messageDispatcher.createFutureOfScheduleResult(resultImpl);
+	}
+	
+	/**
+	 * Holds message with future delivery time in message timer and drops expired message. Held messages are counted against 
+	 * capacity of channel: the capacity of message queue is reduced until held message is linked.
+	 * 
+	 * @param message new message
+	 * @param scheduleResult result object of message
+	 * @return true, if message is held or dropped, false, if message has to be linked into message queue
+	 * @throws CapacityExceededException if capacity of channel is exceeded
+	 */
+	private boolean holdTimedMessage(MessageImpl message, PublishMessageResultImpl scheduleResult)
+	{
+		MessageHeader messageHeader = message.getMessageHeader();
+		Long deliveryTime = messageHeader.getDeliveryTime();
+		Long expiration = messageHeader.getExpiration();
+		if((deliveryTime == null) && (expiration == null))
+		{
+			return false;
+		}
+		
+		long timestamp = System.currentTimeMillis();
+		if((expiration != null) && (expiration.longValue() <= timestamp))
+		{
+			this.dropExpiredMessage(message, scheduleResult);
+			return true;
+		}
+		
+		if((deliveryTime != null) && (deliveryTime.longValue() > timestamp))
+		{
+			message.setScheduleResultObject(scheduleResult);
+			this.messageQueue.computeProcedure(q -> 
+			{
+				if(q.remainingCapacity() <= 0L)
+				{
+					throw new CapacityExceededException(this.capacity, "Can not hold message, because max size of channel is " + this.capacity);
+				}
+				q.setCapacity(q.getCapacity() - 1L);
+				this.reservedCapacity++;
+				this.messageTimer.schedule(message, ChannelMessageTimer.TimerType.DELIVERY, deliveryTime.longValue());
+			});
+			this.notifyOrCreateWorker(deliveryTime.longValue());
+			return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Registers expiration of message in message timer. Has to be invoked by link consumer inside write lock of message queue, 
+	 * so unlink of message always cancels registered expiration.
+	 * 
+	 * @param message linked message
+	 */
+	private void registerExpiration(MessageImpl message)
+	{
+		Long expiration = message.getMessageHeader() == null ? null : message.getMessageHeader().getExpiration();
+		if(expiration != null)
+		{
+			this.messageTimer.schedule(message, ChannelMessageTimer.TimerType.EXPIRATION, expiration.longValue());
+		}
+	}
+	
+	private void notifyExpiration(MessageImpl message)
+	{
+		Long expiration = message.getMessageHeader() == null ? null : message.getMessageHeader().getExpiration();
+		if(expiration != null)
+		{
+			this.notifyOrCreateWorker(expiration.longValue());
+		}
+	}
+	
+	private void dropExpiredMessage(MessageImpl message, PublishMessageResultImpl scheduleResult)
+	{
+		this.removeFromJournal(message);
+		this.finishScheduleResult(scheduleResult);
+		try
+		{
+			message.dispose();
+		}
+		catch (Exception e) {}
+	}
+	
+	/**
+	 * Links due messages of message timer into message queue and removes expired messages. Invoked by channel worker.
+	 */
+	protected void processTimedMessages()
+	{
+		long timestamp = System.currentTimeMillis();
+		if(this.messageTimer.getNextDue() > timestamp)
+		{
+			return;
+		}
+		
+		List<MessageImpl> publishedMessageList = null;
+		List<MessageImpl> expiredMessageList = null;
+		for(ChannelMessageTimer.Entry entry : this.messageTimer.pollDue(timestamp))
+		{
+			MessageImpl message = entry.getMessage();
+			if(entry.getType() == ChannelMessageTimer.TimerType.DELIVERY)
+			{
+				Long expiration = message.getMessageHeader().getExpiration();
+				boolean expired = (expiration != null) && (expiration.longValue() <= timestamp);
+				try
+				{
+					// reserved capacity is passed to linked message
+					this.messageQueue.computeProcedure(q -> 
+					{
+						q.setCapacity(q.getCapacity() + 1L);
+						this.reservedCapacity--;
+						if(! expired)
+						{
+							this.linkMessage(message, n -> 
+							{
+								message.setNode(n);
+								this.registerExpiration(message);
+							});
+						}
+					});
+				}
+				catch (CapacityExceededException e) 
+				{
+					messageDispatcher.logError("link delayed message",e);
+					this.dropExpiredMessage(message, (PublishMessageResultImpl)message.getScheduleResultObject());
+					this.backPressure.release();
+					continue;
+				}
+				if(expired)
+				{
+					this.dropExpiredMessage(message, (PublishMessageResultImpl)message.getScheduleResultObject());
+					this.backPressure.release();
+					continue;
+				}
+				this.notifyExpiration(message);
+				if(publishedMessageList == null)
+				{
+					publishedMessageList = new ArrayList<MessageImpl>();
+				}
+				publishedMessageList.add(message);
+			}
+			else if(message.getId() != null)
+			{
+				UUID id = message.getId();
+				MessageImpl[] expiredHolder = new MessageImpl[1];
+				this.messageQueue.computeProcedure(q -> expiredHolder[0] = unlinkIndexedMessage(id));
+				if(expiredHolder[0] == null)
+				{
+					continue; // already removed
+				}
+				if(expiredMessageList == null)
+				{
+					expiredMessageList = new ArrayList<MessageImpl>();
+				}
+				expiredMessageList.add(expiredHolder[0]);
+			}
+		}
+		
+		if((publishedMessageList != null) && this.registrationTypes.onQueuedMessage)
+		{
+			this.newPublishedMessageQueue.addAll(publishedMessageList);
+			this.newScheduledListUpdate = true;
+		}
+		
+		if(expiredMessageList != null)
+		{
+			for(MessageImpl message : expiredMessageList)
+			{
+				this.acknowledgeMessage(message);
+			}
+			if(this.registrationTypes.onRemoveMessage)
+			{
+				this.removedMessageQueue.addAll(expiredMessageList);
+				this.removedEventListUpdate = true;
+			}
+			else
+			{
+				for(MessageImpl message : expiredMessageList)
+				{
+					message.dispose();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Links message into message queue. If priority lanes are configured, message is ordered by priority, otherwise appended.
+	 * 
+	 * @param message message to link
+	 * @param synchronizedConsumer consumer accept new node inside inside write lock
+	 * @return new node
+	 */
+	private DequeNode<MessageImpl> linkMessage(MessageImpl message, Consumer<DequeNode<MessageImpl>> synchronizedConsumer)
+	{
+		if(this.priorityLanes == null)
+		{
+			return this.messageQueue.link(SnapshotableDeque.LinkMode.APPEND,message, synchronizedConsumer);
+		}
+		
+		List<DequeNode<MessageImpl>> nodeList = new ArrayList<DequeNode<MessageImpl>>(1);
+		this.messageQueue.computeProcedure(q -> 
+		{
+			ChannelPriorityLanes priorityLanes = this.priorityLanes;
+			nodeList.add(priorityLanes == null ? q.link(SnapshotableDeque.LinkMode.APPEND,message, synchronizedConsumer) : priorityLanes.link(q, message, synchronizedConsumer));
+		});
+		return nodeList.get(0);
+	}
+	
+	/**
+	 * Links messages into message queue. If priority lanes are configured, messages are ordered by priority, otherwise appended.
+	 * 
+	 * @param messageList messages to link
+	 * @param synchronizedConsumer consumer accept new nodes inside inside write lock
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private void linkMessages(List<? extends MessageImpl> messageList, Consumer<DequeNode<MessageImpl>> synchronizedConsumer)
+	{
+		if(this.priorityLanes == null)
+		{
+			this.messageQueue.linkAll(SnapshotableDeque.LinkMode.APPEND,messageList, synchronizedConsumer);
+			return;
+		}
+		
+		this.messageQueue.computeProcedure(q -> 
+		{
+			ChannelPriorityLanes priorityLanes = this.priorityLanes;
+			if(priorityLanes == null)
+			{
+				q.linkAll(SnapshotableDeque.LinkMode.APPEND,(List)messageList, synchronizedConsumer);
+				return;
+			}
+			if(q.remainingCapacity() < messageList.size())
+			{
+				throw new CapacityExceededException(q.getCapacity(), "Can not link nodes, becase max size of deque is " + q.getCapacity());
+			}
+			for(MessageImpl message : messageList)
+			{
+				priorityLanes.link(q, message, synchronizedConsumer);
+			}
+		});
+	}
+	
+	/**
+	 * Notify if configuration of channel is modified.
+	 * 
+	 * @param attributes modified configuration keys
+	 */
+	protected void onConfigurationModify(String... attributes)
+	{
+		boolean updatePriorityLanes = false;
+		boolean updateJournal = false;
+		boolean updateSpillover = false;
+		for(String attribute : attributes)
+		{
+			if(IDispatcherChannel.CONFIGURATION_KEY_PRIORITY_LANES.equals(attribute) || IDispatcherChannel.CONFIGURATION_KEY_PRIORITY_LANE_WEIGHTS.equals(attribute))
+			{
+				updatePriorityLanes = true;
+			}
+			else if(IDispatcherChannel.CONFIGURATION_KEY_JOURNAL_DIRECTORY.equals(attribute))
+			{
+				updateJournal = true;
+			}
+			else if(IDispatcherChannel.CONFIGURATION_KEY_SPILL_DIRECTORY.equals(attribute) || IDispatcherChannel.CONFIGURATION_KEY_SPILL_HIGH_WATERMARK.equals(attribute))
+			{
+				updateSpillover = true;
+			}
+		}
+		if(updatePriorityLanes)
+		{
+			this.updatePriorityLanes();
+		}
+		if(updateJournal)
+		{
+			this.updateJournal();
+		}
+		if(updateSpillover)
+		{
+			this.updateSpillover();
+		}
+	}
+	
+	private void updatePriorityLanes()
+	{
+		Object lanes = this.configurationPropertyBlock.getProperty(IDispatcherChannel.CONFIGURATION_KEY_PRIORITY_LANES);
+		Object weights = this.configurationPropertyBlock.getProperty(IDispatcherChannel.CONFIGURATION_KEY_PRIORITY_LANE_WEIGHTS);
+		
+		int laneCount = 0;
+		if(lanes instanceof Number)
+		{
+			laneCount = ((Number)lanes).intValue();
+		}
+		else if((lanes instanceof String) && (! ((String)lanes).trim().isEmpty()))
+		{
+			laneCount = Integer.parseInt(((String)lanes).trim());
+		}
+		
+		int[] laneWeights = null;
+		if(weights instanceof int[])
+		{
+			laneWeights = (int[])weights;
+		}
+		else if((weights instanceof String) && (! ((String)weights).trim().isEmpty()))
+		{
+			String[] values = ((String)weights).split(",");
+			laneWeights = new int[values.length];
+			for(int i = 0; i < values.length; i++)
+			{
+				laneWeights[i] = Integer.parseInt(values[i].trim());
+			}
+		}
+		
+		ChannelPriorityLanes newPriorityLanes = ChannelPriorityLanes.create(laneCount, laneWeights);
+		this.messageQueue.computeProcedure(q -> 
+		{
+			if((newPriorityLanes == null) || (! newPriorityLanes.isConfiguredAs(this.priorityLanes)))
+			{
+				this.priorityLanes = newPriorityLanes;
+			}
+		});
+	}
+	
+	/**
+	 * Opens or closes journal according to configuration. Messages of opened journal are replayed into channel.
+	 */
+	private void updateJournal()
+	{
+		File journalDirectory = this.getConfiguredDirectory(IDispatcherChannel.CONFIGURATION_KEY_JOURNAL_DIRECTORY);
+		Object segmentSize = this.configurationPropertyBlock.getProperty(IDispatcherChannel.CONFIGURATION_KEY_JOURNAL_SEGMENT_SIZE);
+		
+		ChannelJournal journal = this.journal;
+		if((journal != null) && journal.getDirectory().equals(journalDirectory))
+		{
+			return;
+		}
+		if(journal != null)
+		{
+			this.journal = null;
+			journal.close();
+		}
+		if((journalDirectory == null) || this.disposed)
+		{
+			return;
+		}
+		
+		journal = new ChannelJournal
+		(
+			journalDirectory, 
+			segmentSize instanceof Number ? ((Number)segmentSize).intValue() : ChannelJournal.DEFAULT_SEGMENT_SIZE, 
+			this.getConfiguredPayloadCodec()
+		);
+		List<ChannelJournal.Entry> entryList = null;
+		try
+		{
+			entryList = journal.open();
+		}
+		catch (IOException e) 
+		{
+			journal.close();
+			messageDispatcher.logError("open journal " + journalDirectory, e);
+			return;
+		}
+		this.journal = journal;
+		this.replayJournal(entryList);
+	}
+	
+	/**
+	 * Queues messages read from journal.
+	 * 
+	 * @param entryList journaled messages
+	 */
+	private void replayJournal(List<ChannelJournal.Entry> entryList)
+	{
+		List<MessageImpl> messageList = new ArrayList<MessageImpl>(entryList.size());
+		for(ChannelJournal.Entry entry : entryList)
+		{
+			try
+			{
+				MessageImpl message = new MessageImpl(entry.getPayload(), this, entry.getMessageHeader());
+				message.setJournalId(entry.getId());
+				if(! this.holdTimedMessage(message, dummyPublishMessageResult))
+				{
+					messageList.add(message);
+				}
+			}
+			catch (IOException e) 
+			{
+				messageDispatcher.logError("read message from journal", e);
+			}
+			catch (CapacityExceededException e) 
+			{
+				// message remains in journal
+				messageDispatcher.logError("hold message from journal", e);
+			}
+		}
+		if(messageList.isEmpty())
+		{
+			return;
+		}
+		
+		try
+		{
+			this.linkMessages(messageList, n -> 
+			{
+				MessageImpl message = n.getElement();
+				message.setNode(n);
+				message.setScheduleResultObject(dummyPublishMessageResult);
+				this.registerExpiration(message);
+			});
+		}
+		catch (CapacityExceededException e) 
+		{
+			// messages remain in journal
+			messageDispatcher.logError("replay journal", e);
+			for(MessageImpl message : messageList)
+			{
+				message.dispose();
+			}
+			return;
+		}
+		
+		for(MessageImpl message : messageList)
+		{
+			this.notifyExpiration(message);
+		}
+		
+		if(this.registrationTypes.onQueuedMessage)
+		{
+			this.newPublishedMessageQueue.addAll(messageList);
+			this.newScheduledListUpdate = true; 
+			this.notifyOrCreateWorker(-1);
+		}
+	}
+	
+	/**
+	 * Writes messages with guaranteed delivery to journal, if journal is configured, and waits until journal is forced.
+	 * 
+	 * @param messageList new messages
+	 */
+	private void writeToJournal(List<? extends MessageImpl> messageList)
+	{
+		ChannelJournal journal = this.journal;
+		if(journal == null)
+		{
+			return;
+		}
+		
+		boolean appended = false;
+		try
+		{
+			for(MessageImpl message : messageList)
+			{
+				MessageHeader messageHeader = message.getMessageHeader();
+				if(Boolean.TRUE.equals(messageHeader.getGuaranteedDelivery()))
+				{
+					message.setJournalId(journal.append(messageHeader, message.getPayload()));
+					appended = true;
+				}
+			}
+			if(appended)
+			{
+				journal.sync(journal.getWritePosition());
+			}
+		}
+		catch (IOException e) 
+		{
+			for(MessageImpl message : messageList)
+			{
+				this.removeFromJournal(message);
+				message.dispose();
+			}
+			throw new RuntimeException("Can not write message to journal: " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Removes message from journal, if message is journaled. Remove is queued and written by journal thread.
+	 * 
+	 * @param message message to remove from journal
+	 */
+	private void removeFromJournal(MessageImpl message)
+	{
+		ChannelJournal journal = this.journal;
+		Long journalId = message.getJournalId();
+		if((journal != null) && (journalId != null))
+		{
+			message.setJournalId(null);
+			journal.remove(journalId.longValue());
+		}
+	}
+	
+	/**
+	 * Notify if processing of message is completed, i.e. message is removed from channel or marked as processed.
+	 * Journaled message is removed from journal, so it is not replayed anymore.
+	 * 
+	 * @param message completed message
+	 */
+	protected void acknowledgeMessage(MessageImpl message)
+	{
+		this.removeFromJournal(message);
+	}
+	
+	/**
+	 * Creates or drains spillover according to configuration. If spill directory is removed, spilled messages are paged in 
+	 * up to capacity of message queue and new messages are spilled behind them to keep order, until spillover is empty and closed. 
+	 * If spill directory is configured again while draining, draining is stopped and previous spill file is used further.
+	 */
+	private void updateSpillover()
+	{
+		File spillDirectory = this.getConfiguredDirectory(IDispatcherChannel.CONFIGURATION_KEY_SPILL_DIRECTORY);
+		Object highWatermark = this.configurationPropertyBlock.getProperty(IDispatcherChannel.CONFIGURATION_KEY_SPILL_HIGH_WATERMARK);
+		this.spillHighWatermark = highWatermark instanceof Number ? ((Number)highWatermark).intValue() : -1;
+		
+		ChannelSpillover spillover = this.spillover;
+		if((spillDirectory != null) && (spillover != null))
+		{
+			synchronized (spillover)
+			{
+				// draining spillover is resumed, unless it is closed meanwhile
+				if(this.spillover == spillover)
+				{
+					spillover.setDraining(false);
+				}
+				else
+				{
+					spillover = null;
+				}
+			}
+		}
+		if((spillDirectory != null) == (spillover != null))
+		{
+			this.pageInSpilledMessages();
+			return;
+		}
+		
+		if(spillover != null)
+		{
+			spillover.setDraining(true);
+			this.pageInSpilledMessages();
+			return;
+		}
+		
+		if(this.disposed)
+		{
+			return;
+		}
+		
+		try
+		{
+			this.spillover = new ChannelSpillover(spillDirectory, this.getConfiguredPayloadCodec());
+		}
+		catch (IOException e) 
+		{
+			messageDispatcher.logError("create spill file in " + spillDirectory, e);
+		}
+	}
+	
+	/**
+	 * Writes messages exceeding high watermark of message queue to spill file, if spillover is configured. 
+	 * If spill file contains messages, all new messages are spilled to keep order.
+	 * 
+	 * @param messageList new messages
+	 * @return count of leading messages to link into message queue
+	 */
+	private int spillMessages(List<? extends MessageImpl> messageList)
+	{
+		ChannelSpillover spillover = this.spillover;
+		if(spillover == null)
+		{
+			return messageList.size();
+		}
+		
+		// check inside lock of spillover, so new messages are not linked ahead of messages currently paged in
+		synchronized (spillover)
+		{
+			if(spillover.isEmpty() && (spillover.isDraining() || (this.spillover != spillover)))
+			{
+				return messageList.size();
+			}
+			int linkCount = spillover.isEmpty() ? Math.max(0, Math.min(messageList.size(), this.getSpillHighWatermark() - this.messageQueue.size())) : 0;
+			if(linkCount == messageList.size())
+			{
+				return linkCount;
+			}
+			
+			try
+			{
+				spillover.write(messageList.subList(linkCount, messageList.size()));
+			}
+			catch (IOException e) 
+			{
+				messageDispatcher.logError("spill messages", e);
+				return messageList.size();
+			}
+			return linkCount;
+		}
+	}
+	
+	/**
+	 * Links spilled messages into message queue, as long as high watermark is not reached. Draining spillover is paged in up to capacity 
+	 * of message queue and closed, if it is empty.
+	 */
+	protected void pageInSpilledMessages()
+	{
+		ChannelSpillover spillover = this.spillover;
+		if(spillover == null)
+		{
+			return;
+		}
+		if(! spillover.isEmpty())
+		{
+			this.pageInSpilledMessages(spillover, spillover.isDraining() ? this.capacity : this.getSpillHighWatermark());
+		}
+		if(spillover.isDraining())
+		{
+			synchronized (spillover)
+			{
+				if(spillover.isDraining() && spillover.isEmpty() && (this.spillover == spillover))
+				{
+					this.spillover = null;
+					this.closeSpillover(spillover);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Reads spilled messages and links them into message queue. Check, read and link are performed inside lock of spillover, 
+	 * so spilled messages remain in order of send. Messages not fitting into capacity are pushed back to head of spillover.
+	 * 
+	 * @param spillover spillover to read from
+	 * @param highWatermark max size of message queue
+	 */
+	private void pageInSpilledMessages(ChannelSpillover spillover, int highWatermark)
+	{
+		List<MessageImpl> messageList = new ArrayList<MessageImpl>();
+		synchronized (spillover)
+		{
+			int count = (int)Math.min(highWatermark - this.messageQueue.size(), this.messageQueue.remainingCapacity());
+			if((count <= 0) || spillover.isEmpty())
+			{
+				return;
+			}
+			
+			List<MessageImpl> readList = null;
+			try
+			{
+				readList = spillover.read(this, count, dummyPublishMessageResult);
+			}
+			catch (IOException e) 
+			{
+				messageDispatcher.logError("read spilled messages", e);
+				return;
+			}
+			
+			List<MessageImpl> pushBackList = new ArrayList<MessageImpl>();
+			for(MessageImpl message : readList)
+			{
+				if(! pushBackList.isEmpty())
+				{
+					pushBackList.add(message);
+					continue;
+				}
+				try
+				{
+					if(! this.holdTimedMessage(message, (PublishMessageResultImpl)message.getScheduleResultObject()))
+					{
+						messageList.add(message);
+					}
+				}
+				catch (CapacityExceededException e) 
+				{
+					pushBackList.add(message);
+				}
+			}
+			
+			// capacity is checked inside write lock of message queue, messages exceeding capacity are pushed back
+			this.messageQueue.computeProcedure(q -> 
+			{
+				int linkCount = (int)Math.max(0L, Math.min(messageList.size(), q.remainingCapacity()));
+				if(linkCount < messageList.size())
+				{
+					List<MessageImpl> exceedingList = messageList.subList(linkCount, messageList.size());
+					pushBackList.addAll(0, exceedingList);
+					exceedingList.clear();
+				}
+				if(! messageList.isEmpty())
+				{
+					this.linkMessages(messageList, n -> 
+					{
+						n.getElement().setNode(n);
+						this.registerExpiration(n.getElement());
+					});
+				}
+			});
+			
+			if(! pushBackList.isEmpty())
+			{
+				spillover.pushBack(pushBackList);
+			}
+			if(messageList.isEmpty())
+			{
+				return;
+			}
+		}
+		
+		for(MessageImpl message : messageList)
+		{
+			this.notifyExpiration(message);
+		}
+		
 		if(this.registrationTypes.onQueuedMessage)
 		{
 			this.newPublishedMessageQueue.addAll(messageList);
@@ -313,51 +1402,51 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 		}
 	}
 	
-	@Override
-	public Future<IOnMessageStoreResult> sendMessageWithResult(T messagePayload, MessageHeader messageHeader)
+	private void closeSpillover(ChannelSpillover spillover)
 	{
-	    if(this.disposed)
+		for(PublishMessageResultImpl scheduleResult : spillover.close())
 		{
-			return this.messageDispatcher.createFutureOfScheduleResult(new PublishMessageResultImpl());
+			this.finishScheduleResult(scheduleResult);
 		}
-	    
-	    if(messageHeader == null)
-	    {
-	    	messageHeader = MessageHeader.newInstance()
-	    		.setTimestamp(System.currentTimeMillis())
-	    		.lockHeader(MessageHeader.MESSAGE_HEADER_TIMESTAMP);
-	    }
-		
-		PublishMessageResultImpl resultImpl = new PublishMessageResultImpl();
-		
-		MessageImpl message = new MessageImpl(messagePayload,this, messageHeader);
-	    try
-	    {
-	    	DequeNode<MessageImpl> node = this.messageQueue.link(SnapshotableDeque.LinkMode.APPEND,message, n -> 
-	    	{
-	    		message.setScheduleResultObject(resultImpl);
-		    	message.setNode(n);
-	    	});
-	    	
-	    }
-	    catch (CapacityExceededException e) 
-	    {
-	    	try
-	    	{
-	    		message.dispose();
-	    	}
-	    	catch (Exception ex) {}
-	    	throw e;
+	}
+	
+	private void finishScheduleResult(PublishMessageResultImpl scheduleResult)
+	{
+		if((scheduleResult != null) && (scheduleResult != dummyPublishMessageResult))
+		{
+			scheduleResult.processPhaseIsFinished();
 		}
-		
-		if(this.registrationTypes.onQueuedMessage)
+	}
+	
+	private int getSpillHighWatermark()
+	{
+		int highWatermark = this.spillHighWatermark;
+		return highWatermark < 0 ? this.capacity : Math.min(highWatermark, this.capacity);
+	}
+	
+	private File getConfiguredDirectory(String key)
+	{
+		Object directory = this.configurationPropertyBlock.getProperty(key);
+		if(directory instanceof File)
 		{
-			this.newPublishedMessageQueue.addLast(message);
-			this.newScheduledListUpdate = true;
-			this.notifyOrCreateWorker(-1);
+			return (File)directory;
 		}
-		
-		return this.messageDispatcher.createFutureOfScheduleResult(resultImpl);
+		if(directory instanceof Path)
+		{
+			return ((Path)directory).toFile();
+		}
+		if((directory instanceof String) && (! ((String)directory).trim().isEmpty()))
+		{
+			return new File(((String)directory).trim());
+		}
+		return null;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private IMessagePayloadCodec<Object> getConfiguredPayloadCodec()
+	{
+		Object payloadCodec = this.configurationPropertyBlock.getProperty(IDispatcherChannel.CONFIGURATION_KEY_PAYLOAD_CODEC);
+		return payloadCodec instanceof IMessagePayloadCodec ? (IMessagePayloadCodec<Object>)payloadCodec : null;
 	}
 	
 	// Controller
@@ -973,7 +2062,7 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 			taskListReadLock.unlock();
 		}
 		
-		return nextRun;
+		return Math.min(nextRun, this.messageTimer.getNextDue());
 	}
 	
 	protected long getNextRun()
@@ -1002,7 +2091,7 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 			taskListReadLock.unlock();
 		}
 		
-		return nextRun;
+		return Math.min(nextRun, this.messageTimer.getNextDue());
 	}
 	
 	@Override
@@ -1290,30 +2379,13 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 			return null;
 		}
 		
-		DequeSnapshot<MessageImpl> snapshot = this.messageQueue.createSnapshot();
-		try
-		{
-			for(IMessage queuedEvent : snapshot)
-			{
-				if(id.equals(queuedEvent.getId()))
-				{
-					return queuedEvent;
-				}
-			}
-		}
-		finally 
+		DequeNode<MessageImpl> node = this.messageIndex.get(id);
+		if(node == null)
 		{
-			try
-			{
-				snapshot.close();
-			}
-			catch (Exception e) 
-			{
-				messageDispatcher.logError("close multichain snapshot",e);
-			}
+			return null;
 		}
 		
-		return null;
+		return node.getElement();
 	}
 
 	
@@ -1344,13 +2416,30 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 			return null;
 		}
 		
+		DequeSnapshot snaphot = (DequeSnapshot)this.messageQueue.createSnapshotPoll();
+		this.pageInSpilledMessages();
 		if(Thread.currentThread() == this.channelWorker)
 		{
-			DequeSnapshot snaphot = (DequeSnapshot)this.messageQueue.createSnapshotPoll();
 			snapshotsByWorkerThread.add(snaphot);
-			return snaphot;
 		}
-		return (DequeSnapshot)this.messageQueue.createSnapshotPoll();
+		return snaphot;
+	}
+	
+	@Override
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public List<IMessage<T>> pollMessages(int maxMessages)
+	{
+	    if(this.disposed)
+		{
+			return Collections.emptyList();
+		}
+		
+		List messageList = this.messageQueue.pollBatch(maxMessages);
+		if(! messageList.isEmpty())
+		{
+			this.pageInSpilledMessages();
+		}
+		return messageList;
 	}
 	
 	public void closeWorkerSnapshots()
@@ -1392,7 +2481,9 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 		if(node != null)
 		{
 			node.unlink();
+			this.pageInSpilledMessages();
 		}
+		this.acknowledgeMessage(message);
 		
 		if(this.registrationTypes.onRemoveMessage)
 		{
@@ -1421,42 +2512,19 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 			return false;
 		}
 		
-		MessageImpl removed = null;
-		DequeSnapshot<MessageImpl> snapshot = this.messageQueue.createSnapshot();
+		MessageImpl[] removedHolder = new MessageImpl[1];
 		
-		try
-		{
-			for(MessageImpl event : snapshot)
-			{
-				if(uuid.equals(event.getId()))
-				{
-					DequeNode<MessageImpl> node = event.getNode();
-					if(node != null)
-					{
-						node.unlink();
-						event.setNode(null);
-					}
-					removed = event;
-					break;
-				}
-			}
-			if(removed == null)
-			{
-				return false;
-			}
-		}
-		finally 
+		// lookup and unlink inside write lock of deque, so node can not be disposed concurrently
+		this.messageQueue.computeProcedure(q -> removedHolder[0] = unlinkIndexedMessage(uuid));
+		
+		MessageImpl removed = removedHolder[0];
+		if(removed == null)
 		{
-			try
-			{
-				snapshot.close();
-			}
-			catch (Exception e) 
-			{
-				messageDispatcher.logError("close deque snapshot",e);
-			}
+			return false;
 		}
-		
+		this.acknowledgeMessage(removed);
+		this.pageInSpilledMessages();
+
 		if(this.registrationTypes.onRemoveMessage)
 		{
 			this.removedMessageQueue.addLast(removed);
@@ -1485,57 +2553,113 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 			return false;
 		}
 	
-		boolean removed = false;
-		List<MessageImpl> removeMessageList = null;
+		List<MessageImpl> removeMessageList = new ArrayList<MessageImpl>(uuidList.size());
+		
+		// lookup and unlink inside write lock of deque, so nodes can not be disposed concurrently
+		this.messageQueue.computeProcedure(q -> 
+		{
+			for(UUID uuid : uuidList)
+			{
+				if(uuid == null)
+				{
+					continue;
+				}
+				MessageImpl message = unlinkIndexedMessage(uuid);
+				if(message != null)
+				{
+					removeMessageList.add(message);
+				}
+			}
+		});
+		
+		if(removeMessageList.isEmpty())
+		{
+			return false;
+		}
+		for(MessageImpl message : removeMessageList)
+		{
+			this.acknowledgeMessage(message);
+		}
+		this.pageInSpilledMessages();
+		
 		if(this.registrationTypes.onRemoveMessage)
 		{
-			 removeMessageList = new ArrayList<MessageImpl>(uuidList.size());
+			this.removedMessageQueue.addAll(removeMessageList);
+			this.removedEventListUpdate = true;
+			this.notifyOrCreateWorker(-1);
+			
+			removeMessageList.clear();
+		}
+		
+		return true;
+	}
+
+	@Override
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public boolean removeMessages(Predicate<? super IMessage<T>> filter)
+	{
+	    if(this.disposed)
+		{
+			return false;
+		}
+		
+		if(filter == null)
+		{
+			return false;
 		}
+		
+		List<DequeNode<MessageImpl>> matchingNodeList = new ArrayList<DequeNode<MessageImpl>>();
+		
+		// evaluate filter on snapshot, so user code does not run inside write lock of deque
 		DequeSnapshot<MessageImpl> snapshot = this.messageQueue.createSnapshot();
 		try
 		{
-			for(MessageImpl message : snapshot)
+			snapshot.forEachNode(node -> 
 			{
-				for(UUID uuid : uuidList)
+				MessageImpl message = node.getElement();
+				if((message != null) && ((Predicate)filter).test(message))
 				{
-					if(uuid == null)
-					{
-						continue;
-					}
-					if(uuid.equals(message.getId()))
-					{
-						removed = true;
-						DequeNode<MessageImpl> node = message.getNode();
-						if(node != null)
-						{
-							node.unlink();
-						}
-						message.setNode(null);
-						if(removeMessageList != null)
-						{
-							removeMessageList.add(message);
-						}
-					}
+					matchingNodeList.add(node);
 				}
-			}
-			if(! removed)
-			{
-				return false;
-			}
+			});
 		}
 		finally 
 		{
-			try
-			{
-				snapshot.close();
-			}
-			catch (Exception e) 
+			snapshot.close();
+		}
+		
+		if(matchingNodeList.isEmpty())
+		{
+			return false;
+		}
+		
+		List<MessageImpl> removeMessageList = new ArrayList<MessageImpl>(matchingNodeList.size());
+		
+		// unlink matching nodes inside write lock of deque, nodes unlinked concurrently are skipped
+		this.messageQueue.computeProcedure(q -> 
+		{
+			for(DequeNode<MessageImpl> node : matchingNodeList)
 			{
-				messageDispatcher.logError("close deque snapshot",e);
+				MessageImpl message = node.getElement();
+				if(node.unlink())
+				{
+					removeMessageList.add(message);
+				}
 			}
+		});
+		
+		if(removeMessageList.isEmpty())
+		{
+			return false;
+		}
+		for(MessageImpl message : removeMessageList)
+		{
+			message.setNode(null);
+			this.acknowledgeMessage(message);
 		}
+		this.pageInSpilledMessages();
 		
-		if(removeMessageList != null)
+		if(this.registrationTypes.onRemoveMessage)
 		{
 			this.removedMessageQueue.addAll(removeMessageList);
 			this.removedEventListUpdate = true;
@@ -1546,7 +2670,29 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 		
 		return true;
 	}
-
+	
+	/**
+	 * Unlinks message with requested id from message queue. Requires write lock of message queue.
+	 * 
+	 * @param uuid id of message
+	 * @return unlinked message, or null, if message queue does not contain message with requested id
+	 */
+	private MessageImpl unlinkIndexedMessage(UUID uuid)
+	{
+		DequeNode<MessageImpl> node = this.messageIndex.get(uuid);
+		if(node == null)
+		{
+			return null;
+		}
+		MessageImpl message = node.getElement();
+		if((message == null) || (! node.unlink()))
+		{
+			return null;
+		}
+		message.setNode(null);
+		return message;
+	}
+	
 	protected List<ChannelManagerContainer> getManagerContainerList()
 	{
 		List<ChannelManagerContainer> list = controllerListCopy;
@@ -1651,6 +2797,25 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 		}
 		this.disposed = true;
 		
+		ChannelJournal journal = this.journal;
+		this.journal = null;
+		if(journal != null)
+		{
+			// journaled messages remain for replay
+			journal.close();
+		}
+		
+		ChannelSpillover spillover = this.spillover;
+		this.spillover = null;
+		if(spillover != null)
+		{
+			this.closeSpillover(spillover);
+		}
+		
+		// wake up blocking producers and cancel pending messages
+		this.backPressure.release();
+		this.processPendingMessages();
+		
 		this.queueScopeListWriteLock.lock();
 		try
 		{
@@ -1744,6 +2909,17 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 		}
 		catch (Exception e) { messageDispatcher.logError( "dispose event queue", e);}
 		
+		messageIndex.clear();
+		
+		try
+		{
+			for(MessageImpl message : messageTimer.clear())
+			{
+				this.dropExpiredMessage(message, (PublishMessageResultImpl)message.getScheduleResultObject());
+			}
+		}
+		catch (Exception e) {messageDispatcher.logError( "dispose message timer", e);}
+		
 		try
 		{
 			removedMessageQueue .dispose();
@@ -1852,15 +3028,15 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 		return messageDispatcher;
 	}
 
-	protected DequeSnapshot<String> getSignalsSnapshot()
+	protected List<String> pollSignals()
 	{
 		if(! signalListUpdate)
 		{
-			return null;
+			return Collections.emptyList();
 		}
 		
 		this.signalListUpdate = false;
-		return this.channelSignalList.createSnapshotPoll();
+		return this.channelSignalList.pollBatch(Integer.MAX_VALUE);
 	}
 	
 	protected DequeSnapshot<? extends IMessage> getNewScheduledEventsSnaphot()
@@ -2090,6 +3266,11 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 				taskListReadLock.unlock();
 			}
 			
+			if(! this.messageTimer.isEmpty())
+			{
+				return false;
+			}
+			
 			if(this.currentSpooledChannelWorker != null)
 			{
 				this.currentSpooledChannelWorker.setValid(false);
@@ -2281,7 +3462,7 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 	protected void setCapacity(int eventListLimit)
 	{
 		this.capacity = eventListLimit;
-		this.messageQueue.setCapacity(eventListLimit);
+		this.messageQueue.computeProcedure(q -> q.setCapacity((long)eventListLimit - this.reservedCapacity));
 	}
 	
 	
@@ -2337,4 +3518,45 @@ public class ChannelImpl<T> implements IDispatcherChannel<T>
 		boolean onRemoveMessage = false;
 		boolean onSignal = false;
 	}
+	
+	/**
+	 * Maintains index of queued messages by id, state of priority lanes and message timer. Handler is notified inside write lock of message queue.
+	 * Journal is not updated by handler, journaled messages are removed from journal on acknowledge.
+	 * 
+	 * @author Sebastian Palarus
+	 *
+	 */
+	private class MessageQueueHandler implements INodeEventHandler<MessageImpl>
+	{
+		@Override
+		public void onLink(DequeNode<MessageImpl> node, SnapshotableDeque.LinkMode linkMode, long version)
+		{
+			if(node.getId() != null)
+			{
+				messageIndex.put(node.getId(), node);
+			}
+		}
+		
+		@Override
+		public void onUnlink(DequeNode<MessageImpl> node, long version)
+		{
+			if(node.getId() != null)
+			{
+				messageIndex.remove(node.getId(), node);
+			}
+			MessageImpl message = node.getElement();
+			if((message != null) && (message.getPriorityLanes() != null))
+			{
+				message.getPriorityLanes().onUnlink(node);
+			}
+			if(message != null)
+			{
+				messageTimer.cancelExpiration(message);
+			}
+			backPressure.release();
+		}
+		
+		@Override
+		public void onDisposeNode(SnapshotableDeque<MessageImpl> deque, MessageImpl payload){}
+	}
 }
@@ -0,0 +1,782 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.message.dispatcher.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sodeac.common.message.MessageHeader;
+import org.sodeac.common.message.dispatcher.api.IMessagePayloadCodec;
+
+/**
+ * Write-ahead journal of guaranteed delivery messages of a channel.
+ *
+ * <p>Records are appended to segmented, memory-mapped files. Appending a record only copies the record into mapped buffer.
+ * Records are keyed by an internal id, assigned by journal in increasing order on append.
+ * Records are made durable by {@link ChannelJournal#sync(long)}. Concurrent producers waiting for sync are served by a single force of all modified segments (group commit).
+ * 
+ * <p>Removes are queued and written by journal thread, so removing a message never blocks caller with journal I/O.
+ * Remove records are not forced. After a crash a consumed message can be replayed again.
+ *
+ * <p>Segments are deleted as soon as all their messages are removed and no remove record of segment refers to a message of another remaining segment.
+ * Remaining messages of a sparse segment are copied into current segment, before the segment is deleted.
+ *
+ * @author Sebastian Palarus
+ *
+ */
+public class ChannelJournal
+{
+	protected static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+	
+	private static final byte RECORD_TYPE_APPEND = 1;
+	private static final byte RECORD_TYPE_REMOVE = 2;
+	private static final int RECORD_PREFIX_SIZE = 4 + 4; // length + checksum
+	private static final int RECORD_KEY_SIZE = 1 + 8 + 8; // type + sequence + id
+	private static final String SEGMENT_FILE_SUFFIX = ".journal";
+	private static final Long STOP_JOURNAL_THREAD = Long.valueOf(-1L);
+	
+	private Logger logger = LoggerFactory.getLogger(ChannelJournal.class);
+	
+	private File directory = null;
+	private int segmentSize;
+	private IMessagePayloadCodec<Object> payloadCodec = null;
+	
+	private LinkedList<Segment> segmentList = null;
+	private Segment currentSegment = null;
+	private Map<Long,Record> recordIndex = null;
+	private long sequence = 0L;
+	private long nextId = 0L;
+	private long writePosition = 0L;
+	private volatile long forcePosition = 0L;
+	private ReentrantLock forceLock = null;
+	private boolean closed = false;
+	
+	private LinkedBlockingQueue<Long> removeQueue = null;
+	private Thread journalThread = null;
+	
+	protected ChannelJournal(File directory, int segmentSize, IMessagePayloadCodec<Object> payloadCodec)
+	{
+		super();
+		this.directory = directory;
+		this.segmentSize = segmentSize > 0 ? segmentSize : DEFAULT_SEGMENT_SIZE;
+		this.payloadCodec = payloadCodec == null ? IMessagePayloadCodec.SERIALIZABLE : payloadCodec;
+		this.segmentList = new LinkedList<Segment>();
+		this.recordIndex = new HashMap<Long,Record>();
+		this.forceLock = new ReentrantLock();
+		this.removeQueue = new LinkedBlockingQueue<Long>();
+	}
+	
+	/**
+	 * Opens journal and reads existing segments.
+	 *
+	 * @return journaled messages in order of append
+	 * @throws IOException
+	 */
+	protected synchronized List<Entry> open() throws IOException
+	{
+		if((! this.directory.isDirectory()) && (! this.directory.mkdirs()))
+		{
+			throw new IOException("Can not create journal directory " + this.directory);
+		}
+		
+		File[] files = this.directory.listFiles((dir, name) -> name.endsWith(SEGMENT_FILE_SUFFIX));
+		Arrays.sort(files, (f1, f2) -> Long.compare(getSegmentIndex(f1), getSegmentIndex(f2)));
+		
+		long nextSegmentIndex = 0L;
+		for(File file : files)
+		{
+			long index = getSegmentIndex(file);
+			if(index < 0L)
+			{
+				continue;
+			}
+			Segment segment = new Segment(file, index, (int)file.length());
+			this.segmentList.add(segment);
+			this.readSegment(segment);
+			nextSegmentIndex = index + 1L;
+		}
+		this.removeObsoleteSegments();
+		
+		List<Record> recordList = new ArrayList<Record>(this.recordIndex.values());
+		Collections.sort(recordList, (r1, r2) -> Long.compare(r1.sequence, r2.sequence));
+		
+		List<Entry> entryList = new ArrayList<Entry>(recordList.size());
+		for(Record record : recordList)
+		{
+			ByteBuffer buffer = record.segment.buffer.duplicate();
+			buffer.position(record.offset + RECORD_PREFIX_SIZE + RECORD_KEY_SIZE);
+			byte[] headerData = new byte[buffer.getInt()];
+			buffer.get(headerData);
+			byte[] payloadData = new byte[buffer.getInt()];
+			buffer.get(payloadData);
+			entryList.add(new Entry(record.id, headerData, payloadData));
+		}
+		
+		this.currentSegment = this.createSegment(nextSegmentIndex, this.segmentSize);
+		
+		this.journalThread = new Thread(this::processRemoveQueue, "ChannelJournal " + this.directory.getName());
+		this.journalThread.setDaemon(true);
+		this.journalThread.start();
+		return entryList;
+	}
+	
+	/**
+	 * Appends message to journal. Message is durable after {@link ChannelJournal#sync(long)} is invoked with {@link ChannelJournal#getWritePosition()}.
+	 *
+	 * @param messageHeader header of message
+	 * @param payload payload of message
+	 * @return journal id of message
+	 * @throws IOException
+	 */
+	protected long append(MessageHeader messageHeader, Object payload) throws IOException
+	{
+		byte[] headerData = serializeMessageHeader(messageHeader);
+		byte[] payloadData = this.payloadCodec.encode(payload);
+		
+		ByteBuffer body = ByteBuffer.allocate(RECORD_KEY_SIZE + 4 + headerData.length + 4 + payloadData.length);
+		body.put(RECORD_TYPE_APPEND);
+		body.putLong(0L); // sequence
+		body.putLong(0L); // id
+		body.putInt(headerData.length);
+		body.put(headerData);
+		body.putInt(payloadData.length);
+		body.put(payloadData);
+		
+		synchronized (this)
+		{
+			if(this.closed)
+			{
+				throw new IOException("journal is closed");
+			}
+			long id = this.nextId++;
+			body.putLong(1 + 8, id);
+			Record record = this.writeRecord(body, id);
+			this.recordIndex.put(id, record);
+			record.segment.liveCount++;
+			record.segment.appendCount++;
+			return id;
+		}
+	}
+	
+	/**
+	 *
+	 * @return current write position, used as position for {@link ChannelJournal#sync(long)}
+	 */
+	protected synchronized long getWritePosition()
+	{
+		return this.writePosition;
+	}
+	
+	/**
+	 * Queues remove of message. Remove is written by journal thread. Remove records are not forced.
+	 *
+	 * @param id journal id of message
+	 */
+	protected void remove(long id)
+	{
+		this.removeQueue.add(id);
+	}
+	
+	private void processRemoveQueue()
+	{
+		while(true)
+		{
+			Long id;
+			try
+			{
+				id = this.removeQueue.take();
+			}
+			catch (InterruptedException e) 
+			{
+				return;
+			}
+			if(id == STOP_JOURNAL_THREAD)
+			{
+				return;
+			}
+			try
+			{
+				this.removeRecord(id);
+			}
+			catch (Exception e) 
+			{
+				logger.error("remove message from journal " + this.directory, e);
+			}
+		}
+	}
+	
+	private synchronized void removeRecord(long id)
+	{
+		if(this.closed)
+		{
+			return;
+		}
+		Record record = this.recordIndex.remove(id);
+		if(record == null)
+		{
+			return;
+		}
+		
+		ByteBuffer body = ByteBuffer.allocate(RECORD_KEY_SIZE);
+		body.put(RECORD_TYPE_REMOVE);
+		body.putLong(0L); // sequence
+		body.putLong(id);
+		try
+		{
+			this.writeRecord(body, id);
+		}
+		catch (IOException e)
+		{
+			logger.error("write remove record to journal " + this.directory + ", message will be replayed again", e);
+		}
+		
+		record.segment.liveCount--;
+		this.addTombstone(record.segment, this.currentSegment);
+		this.removeObsoleteSegments();
+	}
+	
+	/**
+	 * Forces all records up to specified write position. If another producer already forces the segments,
+	 * this call waits and returns without additional force, if position is covered.
+	 *
+	 * @param position write position returned by {@link ChannelJournal#getWritePosition()} after {@link ChannelJournal#append(MessageHeader, Object)}
+	 * @throws IOException
+	 */
+	protected void sync(long position) throws IOException
+	{
+		if(this.forcePosition >= position)
+		{
+			return;
+		}
+		
+		this.forceLock.lock();
+		try
+		{
+			if(this.forcePosition >= position)
+			{
+				return;
+			}
+			
+			long targetPosition;
+			List<Segment> dirtySegmentList = new ArrayList<Segment>();
+			synchronized (this)
+			{
+				if(this.closed)
+				{
+					return;
+				}
+				targetPosition = this.writePosition;
+				for(Segment segment : this.segmentList)
+				{
+					if(segment.dirty)
+					{
+						segment.dirty = false;
+						dirtySegmentList.add(segment);
+					}
+				}
+			}
+			
+			for(Segment segment : dirtySegmentList)
+			{
+				segment.force();
+			}
+			this.forcePosition = targetPosition;
+		}
+		finally
+		{
+			this.forceLock.unlock();
+		}
+	}
+	
+	/**
+	 * Stops journal thread, writes queued removes, forces and closes all segments. Segment files remain for replay.
+	 */
+	protected void close()
+	{
+		Thread journalThread = this.journalThread;
+		if((journalThread != null) && (journalThread != Thread.currentThread()))
+		{
+			this.removeQueue.add(STOP_JOURNAL_THREAD);
+			try
+			{
+				journalThread.join();
+			}
+			catch (InterruptedException e) 
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		synchronized (this)
+		{
+			Long id;
+			while((id = this.removeQueue.poll()) != null)
+			{
+				if(id != STOP_JOURNAL_THREAD)
+				{
+					this.removeRecord(id);
+				}
+			}
+			this.closeSegments();
+		}
+	}
+	
+	private void closeSegments()
+	{
+		if(this.closed)
+		{
+			return;
+		}
+		this.closed = true;
+		
+		for(Segment segment : this.segmentList)
+		{
+			if(segment.dirty)
+			{
+				try
+				{
+					segment.buffer.force();
+				}
+				catch (Exception e) {}
+			}
+			segment.close();
+		}
+		this.segmentList.clear();
+		this.recordIndex.clear();
+		this.currentSegment = null;
+	}
+	
+	/**
+	 *
+	 * @return directory of segment files
+	 */
+	protected File getDirectory()
+	{
+		return directory;
+	}
+	
+	private Record writeRecord(ByteBuffer body, long id) throws IOException
+	{
+		int size = RECORD_PREFIX_SIZE + body.capacity();
+		if(this.currentSegment.buffer.capacity() - this.currentSegment.writeOffset < size)
+		{
+			this.roll(size);
+		}
+		
+		long recordSequence = this.sequence++;
+		body.putLong(1, recordSequence);
+		body.rewind();
+		CRC32 crc = new CRC32();
+		crc.update(body);
+		body.rewind();
+		
+		Segment segment = this.currentSegment;
+		Record record = new Record(segment, segment.writeOffset, size, recordSequence, id);
+		MappedByteBuffer buffer = segment.buffer;
+		buffer.position(segment.writeOffset);
+		buffer.putInt(body.capacity());
+		buffer.putInt((int)crc.getValue());
+		buffer.put(body);
+		
+		segment.writeOffset += size;
+		segment.dirty = true;
+		this.writePosition += size;
+		return record;
+	}
+	
+	private void roll(int recordSize) throws IOException
+	{
+		this.currentSegment = this.createSegment(this.currentSegment.index + 1L, Math.max(this.segmentSize, recordSize + RECORD_PREFIX_SIZE));
+		this.compact();
+	}
+	
+	/**
+	 * Copies remaining messages of oldest sparse segment into current segment. A segment is sparse, if less than a quarter of its messages are not removed.
+	 *
+	 * @throws IOException
+	 */
+	private void compact() throws IOException
+	{
+		this.removeObsoleteSegments();
+		
+		Segment head = null;
+		for(Segment segment : this.segmentList)
+		{
+			if((segment != this.currentSegment) && (segment.tombstoneCount == 0) && ((segment.liveCount * 4) < segment.appendCount))
+			{
+				head = segment;
+				break;
+			}
+		}
+		if(head == null)
+		{
+			return;
+		}
+		
+		List<Record> recordList = new ArrayList<Record>(head.liveCount);
+		int size = 0;
+		for(Record record : this.recordIndex.values())
+		{
+			if(record.segment == head)
+			{
+				recordList.add(record);
+				size += record.size;
+			}
+		}
+		Segment segment = this.currentSegment;
+		if(segment.buffer.capacity() - segment.writeOffset < size)
+		{
+			return;
+		}
+		
+		for(Record record : recordList)
+		{
+			ByteBuffer source = head.buffer.duplicate();
+			source.position(record.offset);
+			source.limit(record.offset + record.size);
+			segment.buffer.position(segment.writeOffset);
+			segment.buffer.put(source);
+			
+			record.segment = segment;
+			record.offset = segment.writeOffset;
+			segment.writeOffset += record.size;
+			segment.liveCount++;
+			segment.appendCount++;
+			head.liveCount--;
+			this.writePosition += record.size;
+		}
+		
+		// copies have to be durable before oldest segment is deleted
+		segment.buffer.force();
+		this.removeObsoleteSegments();
+	}
+	
+	private void removeObsoleteSegments()
+	{
+		for(Iterator<Segment> iterator = this.segmentList.iterator(); iterator.hasNext();)
+		{
+			Segment segment = iterator.next();
+			if((segment == this.currentSegment) || (segment.liveCount > 0) || (segment.tombstoneCount > 0))
+			{
+				continue;
+			}
+			iterator.remove();
+			for(Segment tombstoneSegment : segment.tombstoneSegmentList)
+			{
+				tombstoneSegment.tombstoneCount--;
+			}
+			segment.close();
+			if((! segment.file.delete()) && segment.file.exists())
+			{
+				logger.error("can not delete journal segment " + segment.file);
+			}
+		}
+	}
+	
+	/**
+	 * Registers remove record, that refers to a message of another segment. Segment of remove record must not be deleted before segment of message.
+	 *
+	 * @param segment segment of removed message
+	 * @param tombstoneSegment segment of remove record
+	 */
+	private void addTombstone(Segment segment, Segment tombstoneSegment)
+	{
+		if(segment != tombstoneSegment)
+		{
+			tombstoneSegment.tombstoneCount++;
+			segment.tombstoneSegmentList.add(tombstoneSegment);
+		}
+	}
+	
+	private void readSegment(Segment segment)
+	{
+		ByteBuffer buffer = segment.buffer.duplicate();
+		CRC32 crc = new CRC32();
+		while(buffer.remaining() >= RECORD_PREFIX_SIZE)
+		{
+			int offset = buffer.position();
+			int length = buffer.getInt();
+			int checksum = buffer.getInt();
+			if((length < RECORD_KEY_SIZE) || (length > buffer.remaining()))
+			{
+				break; // end of segment
+			}
+			ByteBuffer body = buffer.slice();
+			body.limit(length);
+			crc.reset();
+			crc.update(body);
+			if((int)crc.getValue() != checksum)
+			{
+				break; // incomplete record
+			}
+			
+			byte type = buffer.get();
+			long recordSequence = buffer.getLong();
+			long id = buffer.getLong();
+			buffer.position(offset + RECORD_PREFIX_SIZE + length);
+			segment.writeOffset = buffer.position();
+			this.sequence = Math.max(this.sequence, recordSequence + 1L);
+			this.nextId = Math.max(this.nextId, id + 1L);
+			
+			if(type == RECORD_TYPE_APPEND)
+			{
+				Record previous = this.recordIndex.put(id, new Record(segment, offset, RECORD_PREFIX_SIZE + length, recordSequence, id));
+				if(previous != null)
+				{
+					previous.segment.liveCount--; // copied by compaction
+				}
+				segment.liveCount++;
+				segment.appendCount++;
+			}
+			else if(type == RECORD_TYPE_REMOVE)
+			{
+				Record previous = this.recordIndex.remove(id);
+				if(previous != null)
+				{
+					previous.segment.liveCount--;
+					this.addTombstone(previous.segment, segment);
+				}
+			}
+		}
+	}
+	
+	private Segment createSegment(long index, int size) throws IOException
+	{
+		Segment segment = new Segment(new File(this.directory, String.format("%016x", index) + SEGMENT_FILE_SUFFIX), index, size);
+		this.segmentList.add(segment);
+		return segment;
+	}
+	
+	private static long getSegmentIndex(File file)
+	{
+		String name = file.getName();
+		try
+		{
+			return Long.parseLong(name.substring(0, name.length() - SEGMENT_FILE_SUFFIX.length()), 16);
+		}
+		catch (NumberFormatException e)
+		{
+			return -1L;
+		}
+	}
+	
+	protected static byte[] serializeMessageHeader(MessageHeader messageHeader) throws IOException
+	{
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
+		try
+		{
+			objectOutputStream.writeObject(messageHeader);
+		}
+		finally
+		{
+			objectOutputStream.close();
+		}
+		return byteArrayOutputStream.toByteArray();
+	}
+	
+	protected static MessageHeader deserializeMessageHeader(byte[] data) throws IOException
+	{
+		ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(data));
+		try
+		{
+			return (MessageHeader)objectInputStream.readObject();
+		}
+		catch (ClassNotFoundException e)
+		{
+			throw new IOException(e.getMessage(), e);
+		}
+		finally
+		{
+			objectInputStream.close();
+		}
+	}
+	
+	/**
+	 * Journaled message read on open of journal.
+	 *
+	 * @author Sebastian Palarus
+	 *
+	 */
+	protected class Entry
+	{
+		private long id;
+		private byte[] headerData = null;
+		private byte[] payloadData = null;
+		
+		private Entry(long id, byte[] headerData, byte[] payloadData)
+		{
+			super();
+			this.id = id;
+			this.headerData = headerData;
+			this.payloadData = payloadData;
+		}
+		
+		protected long getId()
+		{
+			return id;
+		}
+				
+		protected MessageHeader getMessageHeader() throws IOException
+		{
+			return deserializeMessageHeader(this.headerData);
+		}
+		
+		protected Object getPayload() throws IOException
+		{
+			return payloadCodec.decode(this.payloadData);
+		}
+	}
+	
+	private static class Record
+	{
+		private Segment segment = null;
+		private int offset;
+		private int size;
+		private long sequence;
+		private long id;
+		
+		private Record(Segment segment, int offset, int size, long sequence, long id)
+		{
+			super();
+			this.segment = segment;
+			this.offset = offset;
+			this.size = size;
+			this.sequence = sequence;
+			this.id = id;
+		}
+	}
+	
+	private static class Segment
+	{
+		private File file = null;
+		private long index;
+		private RandomAccessFile randomAccessFile = null;
+		private MappedByteBuffer buffer = null;
+		private int writeOffset = 0;
+		private int liveCount = 0;
+		private int appendCount = 0;
+		private int tombstoneCount = 0;
+		private List<Segment> tombstoneSegmentList = new ArrayList<Segment>();
+		private boolean dirty = false;
+		private boolean deleted = false;
+		
+		private Segment(File file, long index, int size) throws IOException
+		{
+			super();
+			this.file = file;
+			this.index = index;
+			this.randomAccessFile = new RandomAccessFile(file, "rw");
+			try
+			{
+				this.buffer = this.randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0L, size);
+			}
+			catch (IOException e)
+			{
+				this.randomAccessFile.close();
+				throw e;
+			}
+		}
+		
+		/**
+		 * Forces segment outside lock of journal. Synchronized with {@link Segment#close()}, so buffer is not unmapped while forced.
+		 */
+		private synchronized void force()
+		{
+			if(! this.deleted)
+			{
+				this.buffer.force();
+			}
+		}
+		
+		private synchronized void close()
+		{
+			this.deleted = true;
+			try
+			{
+				this.randomAccessFile.close();
+			}
+			catch (Exception e) {}
+			MappedByteBuffer buffer = this.buffer;
+			this.buffer = null;
+			unmap(buffer);
+		}
+	}
+	
+	/**
+	 * Releases mapping of segment explicitly. Otherwise the mapping remains until buffer is garbage collected, 
+	 * and file of segment can not be deleted on some platforms.
+	 *
+	 * @param buffer mapped buffer of closed segment
+	 */
+	private static void unmap(MappedByteBuffer buffer)
+	{
+		if(buffer == null)
+		{
+			return;
+		}
+		try
+		{
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Method invokeCleaner = null;
+			try
+			{
+				invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			}
+			catch (NoSuchMethodException e) {}
+			
+			if(invokeCleaner != null)
+			{
+				Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+				theUnsafe.setAccessible(true);
+				invokeCleaner.invoke(theUnsafe.get(null), buffer);
+			}
+			else
+			{
+				// Java 8
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+				if(cleaner != null)
+				{
+					cleaner.getClass().getMethod("clean").invoke(cleaner);
+				}
+			}
+		}
+		catch (Exception e) 
+		{
+			LoggerFactory.getLogger(ChannelJournal.class).error("unmap journal segment", e);
+		}
+	}
+}
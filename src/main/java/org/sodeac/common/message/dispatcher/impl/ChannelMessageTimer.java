@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.message.dispatcher.impl;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Time index of channel messages. Holds messages with future delivery time and tracks expiration of queued messages.
+ *
+ * <p>Expiration entries are indexed by message, so the entry of a message removed from channel before expiration is cancelled
+ * by {@link ChannelMessageTimer#cancelExpiration(MessageImpl)} in O(log n).
+ *
+ * @author Sebastian Palarus
+ *
+ */
+public class ChannelMessageTimer
+{
+	protected enum TimerType {DELIVERY,EXPIRATION};
+	
+	private TreeSet<Entry> queue = null;
+	private Map<MessageImpl,Entry> expirationIndex = null;
+	private long sequence = 0L;
+	
+	protected ChannelMessageTimer()
+	{
+		super();
+		this.queue = new TreeSet<Entry>();
+		this.expirationIndex = new IdentityHashMap<MessageImpl,Entry>();
+	}
+	
+	/**
+	 * Schedules message.
+	 *
+	 * @param message message
+	 * @param type type of timer
+	 * @param dueTimestamp timestamp when message is due
+	 */
+	protected synchronized void schedule(MessageImpl message, TimerType type, long dueTimestamp)
+	{
+		Entry entry = new Entry(message, type, dueTimestamp, this.sequence++);
+		if(type == TimerType.EXPIRATION)
+		{
+			Entry replaced = this.expirationIndex.put(message, entry);
+			if(replaced != null)
+			{
+				this.queue.remove(replaced);
+			}
+		}
+		this.queue.add(entry);
+	}
+	
+	/**
+	 * Cancels expiration entry of message. Invoked if message is removed from message queue.
+	 *
+	 * @param message message removed from message queue
+	 */
+	protected synchronized void cancelExpiration(MessageImpl message)
+	{
+		if(this.expirationIndex.isEmpty())
+		{
+			return;
+		}
+		Entry entry = this.expirationIndex.remove(message);
+		if(entry != null)
+		{
+			this.queue.remove(entry);
+		}
+	}
+	
+	/**
+	 *
+	 * @return timestamp of next due entry, or {@link Long#MAX_VALUE} if there is no entry
+	 */
+	protected synchronized long getNextDue()
+	{
+		return this.queue.isEmpty() ? Long.MAX_VALUE : this.queue.first().dueTimestamp;
+	}
+	
+	/**
+	 *
+	 * @return true, if there is no entry, otherwise false
+	 */
+	protected synchronized boolean isEmpty()
+	{
+		return this.queue.isEmpty();
+	}
+	
+	/**
+	 * Removes all due entries in due order.
+	 *
+	 * @param timestamp current timestamp
+	 * @return due entries
+	 */
+	protected synchronized List<Entry> pollDue(long timestamp)
+	{
+		List<Entry> dueList = new ArrayList<Entry>();
+		while((! this.queue.isEmpty()) && (this.queue.first().dueTimestamp <= timestamp))
+		{
+			Entry entry = this.queue.pollFirst();
+			if(entry.type == TimerType.EXPIRATION)
+			{
+				this.expirationIndex.remove(entry.message, entry);
+			}
+			dueList.add(entry);
+		}
+		return dueList;
+	}
+	
+	/**
+	 * Removes all entries.
+	 *
+	 * @return messages held for delayed delivery
+	 */
+	protected synchronized List<MessageImpl> clear()
+	{
+		List<MessageImpl> heldList = new ArrayList<MessageImpl>();
+		for(Entry entry : this.queue)
+		{
+			if(entry.type == TimerType.DELIVERY)
+			{
+				heldList.add(entry.message);
+			}
+		}
+		this.queue.clear();
+		this.expirationIndex.clear();
+		return heldList;
+	}
+	
+	protected static class Entry implements Comparable<Entry>
+	{
+		private MessageImpl message = null;
+		private TimerType type = null;
+		private long dueTimestamp;
+		private long sequence;
+		
+		private Entry(MessageImpl message, TimerType type, long dueTimestamp, long sequence)
+		{
+			super();
+			this.message = message;
+			this.type = type;
+			this.dueTimestamp = dueTimestamp;
+			this.sequence = sequence;
+		}
+		
+		protected MessageImpl getMessage()
+		{
+			return message;
+		}
+		
+		protected TimerType getType()
+		{
+			return type;
+		}
+		
+		@Override
+		public int compareTo(Entry o)
+		{
+			if(this.dueTimestamp != o.dueTimestamp)
+			{
+				return this.dueTimestamp < o.dueTimestamp ? -1 : 1;
+			}
+			return Long.compare(this.sequence, o.sequence);
+		}
+	}
+}
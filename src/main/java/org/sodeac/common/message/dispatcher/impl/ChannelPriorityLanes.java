@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.message.dispatcher.impl;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.sodeac.common.message.MessageHeader;
+import org.sodeac.common.snapdeque.DequeNode;
+import org.sodeac.common.snapdeque.SnapshotableDeque;
+
+/**
+ * Orders messages of channel's message queue by priority lanes.
+ *
+ * <p>Each message is assigned to a lane by {@link MessageHeader#getPriority()}. Higher lane index means higher priority.
+ * The message queue is drained in rounds. In each round a lane delivers up to weight messages,
+ * higher lanes before lower lanes. So messages of higher lanes overtake bulk traffic of lower lanes,
+ * but lower lanes do not starve.
+ *
+ * <p>All methods require write lock of message queue.
+ *
+ * @author Sebastian Palarus
+ *
+ */
+public class ChannelPriorityLanes
+{
+	private int[] weights = null;
+	private DequeNode<MessageImpl>[] tail = null;
+	private int[] tailRoundSize = null;
+	private long[] size = null;
+	
+	@SuppressWarnings("unchecked")
+	protected ChannelPriorityLanes(int[] weights)
+	{
+		super();
+		this.weights = weights;
+		this.tail = new DequeNode[weights.length];
+		this.tailRoundSize = new int[weights.length];
+		this.size = new long[weights.length];
+	}
+	
+	/**
+	 * Creates priority lanes with specified weights.
+	 *
+	 * @param lanes count of lanes
+	 * @param weights weights of lanes, or null to use default weights (lane index + 1)
+	 * @return priority lanes, or null, if less than two lanes are requested
+	 */
+	protected static ChannelPriorityLanes create(int lanes, int[] weights)
+	{
+		if(lanes < 2)
+		{
+			return null;
+		}
+		int[] laneWeights = new int[lanes];
+		for(int i = 0; i < lanes; i++)
+		{
+			laneWeights[i] = ((weights != null) && (i < weights.length) && (weights[i] > 0)) ? weights[i] : i + 1;
+		}
+		return new ChannelPriorityLanes(laneWeights);
+	}
+	
+	/**
+	 *
+	 * @param other other priority lanes
+	 * @return true, if other priority lanes are configured with same weights, otherwise false
+	 */
+	protected boolean isConfiguredAs(ChannelPriorityLanes other)
+	{
+		return (other != null) && Arrays.equals(this.weights, other.weights);
+	}
+	
+	/**
+	 * Links message into message queue behind all messages with same or higher precedence.
+	 *
+	 * @param messageQueue message queue of channel
+	 * @param message message to link
+	 * @param synchronizedConsumer consumer accept new node inside inside write lock
+	 * @return new node
+	 */
+	protected DequeNode<MessageImpl> link(SnapshotableDeque<MessageImpl> messageQueue, MessageImpl message, Consumer<DequeNode<MessageImpl>> synchronizedConsumer)
+	{
+		int lane = getLane(message.getMessageHeader());
+		
+		DequeNode<MessageImpl> predecessor = this.tail[lane];
+		if((predecessor != null) && (! predecessor.isLinked()))
+		{
+			predecessor = null;
+		}
+		if((predecessor == null) && (this.size[lane] > 0L))
+		{
+			// last message of lane is removed, but lane is not empty
+			predecessor = findLastNode(messageQueue, lane);
+			this.tailRoundSize[lane] = this.weights[lane];
+		}
+		
+		long round;
+		if(predecessor == null)
+		{
+			// empty lane joins current round
+			DequeNode<MessageImpl> first = messageQueue.getFirstNode();
+			MessageImpl firstMessage = first == null ? null : first.getElement();
+			round = ((firstMessage != null) && (firstMessage.getPriorityLanes() == this)) ? firstMessage.getPriorityRound() : 0L;
+			this.tailRoundSize[lane] = 1;
+		}
+		else if(this.tailRoundSize[lane] < this.weights[lane])
+		{
+			round = predecessor.getElement().getPriorityRound();
+			this.tailRoundSize[lane]++;
+		}
+		else
+		{
+			round = predecessor.getElement().getPriorityRound() + 1L;
+			this.tailRoundSize[lane] = 1;
+		}
+		
+		// skip messages with same or higher precedence
+		DequeNode<MessageImpl> next = predecessor == null ? messageQueue.getFirstNode() : predecessor.getNextNode();
+		while((next != null) && precedes(next.getElement(), round, lane))
+		{
+			predecessor = next;
+			next = next.getNextNode();
+		}
+		
+		message.setPriorityLanes(this, lane, round);
+		DequeNode<MessageImpl> node = messageQueue.linkAfter(predecessor, message, synchronizedConsumer);
+		
+		this.tail[lane] = node;
+		this.size[lane]++;
+		
+		return node;
+	}
+	
+	/**
+	 * Notify if node is unlinked from message queue.
+	 *
+	 * @param node unlinked node
+	 */
+	protected void onUnlink(DequeNode<MessageImpl> node)
+	{
+		MessageImpl message = node.getElement();
+		if((message == null) || (message.getPriorityLanes() != this))
+		{
+			return;
+		}
+		int lane = message.getPriorityLane();
+		this.size[lane]--;
+		if(this.tail[lane] == node)
+		{
+			this.tail[lane] = null;
+		}
+	}
+	
+	private int getLane(MessageHeader messageHeader)
+	{
+		Integer priority = messageHeader == null ? null : messageHeader.getPriority();
+		if((priority == null) || (priority.intValue() < 0))
+		{
+			return 0;
+		}
+		return Math.min(priority.intValue(), this.weights.length - 1);
+	}
+	
+	private boolean precedes(MessageImpl message, long round, int lane)
+	{
+		if((message == null) || (message.getPriorityLanes() != this))
+		{
+			// queued before priority lanes are configured
+			return true;
+		}
+		if(message.getPriorityRound() != round)
+		{
+			return message.getPriorityRound() < round;
+		}
+		return message.getPriorityLane() >= lane;
+	}
+	
+	private DequeNode<MessageImpl> findLastNode(SnapshotableDeque<MessageImpl> messageQueue, int lane)
+	{
+		DequeNode<MessageImpl> node = messageQueue.getLastNode();
+		while(node != null)
+		{
+			MessageImpl message = node.getElement();
+			if((message != null) && (message.getPriorityLanes() == this) && (message.getPriorityLane() == lane))
+			{
+				return node;
+			}
+			node = node.getPreviousNode();
+		}
+		return null;
+	}
+}
@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.message.dispatcher.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sodeac.common.message.dispatcher.api.IMessagePayloadCodec;
+
+/**
+ * Append-only spill file for messages exceeding high watermark of channel's message queue.
+ *
+ * <p>Messages are read back in order of write. Result objects of spilled messages remain on heap. Messages read, 
+ * but not linked into message queue, are pushed back to head of spillover. If all spilled messages are read, the file is truncated.
+ * If read position exceeds unread content, unread content is moved to begin of file. Spill file is not replayed, it is deleted on close.
+ *
+ * @author Sebastian Palarus
+ *
+ */
+public class ChannelSpillover
+{
+	private File file = null;
+	private RandomAccessFile randomAccessFile = null;
+	private FileChannel fileChannel = null;
+	private IMessagePayloadCodec<Object> payloadCodec = null;
+	
+	private long readPosition = 0L;
+	private long writePosition = 0L;
+	private volatile int size = 0;
+	private volatile boolean draining = false;
+	private ArrayDeque<PublishMessageResultImpl> resultQueue = null;
+	private ArrayDeque<MessageImpl> pushedBackQueue = null;
+	
+	protected static final long COMPACT_THRESHOLD = 1024L * 1024L;
+	
+	protected ChannelSpillover(File directory, IMessagePayloadCodec<Object> payloadCodec) throws IOException
+	{
+		super();
+		if((! directory.isDirectory()) && (! directory.mkdirs()))
+		{
+			throw new IOException("Can not create spill directory " + directory);
+		}
+		this.payloadCodec = payloadCodec == null ? IMessagePayloadCodec.SERIALIZABLE : payloadCodec;
+		this.resultQueue = new ArrayDeque<PublishMessageResultImpl>();
+		this.pushedBackQueue = new ArrayDeque<MessageImpl>();
+		this.file = File.createTempFile("channel-", ".spill", directory);
+		this.randomAccessFile = new RandomAccessFile(this.file, "rw");
+		this.fileChannel = this.randomAccessFile.getChannel();
+	}
+	
+	/**
+	 *
+	 * @return true, if there is no spilled message, otherwise false
+	 */
+	protected boolean isEmpty()
+	{
+		return this.size == 0;
+	}
+	
+	/**
+	 *
+	 * @return count of spilled messages
+	 */
+	protected int size()
+	{
+		return this.size;
+	}
+	
+	/**
+	 *
+	 * @return true, if spillover is drained, because spill directory is not configured anymore
+	 */
+	protected boolean isDraining()
+	{
+		return this.draining;
+	}
+	
+	/**
+	 * Starts or stops draining. Draining spillover is closed by channel, if all spilled messages are paged in.
+	 * 
+	 * @param draining true, to drain spillover
+	 */
+	protected void setDraining(boolean draining)
+	{
+		this.draining = draining;
+	}
+	
+	/**
+	 * Appends messages to spill file.
+	 *
+	 * @param messageList messages to spill
+	 * @throws IOException
+	 */
+	protected synchronized void write(List<? extends MessageImpl> messageList) throws IOException
+	{
+		List<ByteBuffer> bufferList = new ArrayList<ByteBuffer>(messageList.size());
+		for(MessageImpl message : messageList)
+		{
+			byte[] headerData = ChannelJournal.serializeMessageHeader(message.getMessageHeader());
+			byte[] payloadData = this.payloadCodec.encode(message.getPayload());
+			Long journalId = message.getJournalId();
+			PublishMessageResultImpl result = (PublishMessageResultImpl)message.getScheduleResultObject();
+			boolean hasResult = (result != null) && (! (result instanceof DummyPublishMessageResult));
+			
+			ByteBuffer buffer = ByteBuffer.allocate(4 + 1 + 8 + 1 + 4 + headerData.length + 4 + payloadData.length);
+			buffer.putInt(buffer.capacity() - 4);
+			buffer.put(journalId == null ? (byte)0 : (byte)1);
+			buffer.putLong(journalId == null ? 0L : journalId.longValue());
+			buffer.put(hasResult ? (byte)1 : (byte)0);
+			buffer.putInt(headerData.length);
+			buffer.put(headerData);
+			buffer.putInt(payloadData.length);
+			buffer.put(payloadData);
+			buffer.flip();
+			bufferList.add(buffer);
+		}
+		
+		long position = this.writePosition;
+		for(ByteBuffer buffer : bufferList)
+		{
+			while(buffer.hasRemaining())
+			{
+				position += this.fileChannel.write(buffer, position);
+			}
+		}
+		this.writePosition = position;
+		
+		for(MessageImpl message : messageList)
+		{
+			PublishMessageResultImpl result = (PublishMessageResultImpl)message.getScheduleResultObject();
+			if((result != null) && (! (result instanceof DummyPublishMessageResult)))
+			{
+				this.resultQueue.addLast(result);
+			}
+		}
+		this.size += messageList.size();
+	}
+	
+	/**
+	 * Reads spilled messages in order of write.
+	 *
+	 * @param channel channel of messages
+	 * @param count max count of messages to read
+	 * @param dummyResult result object for messages spilled without result object
+	 * @return messages
+	 * @throws IOException
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected synchronized List<MessageImpl> read(ChannelImpl channel, int count, PublishMessageResultImpl dummyResult) throws IOException
+	{
+		List<MessageImpl> messageList = new ArrayList<MessageImpl>(Math.min(count, this.size));
+		while((messageList.size() < count) && (! this.pushedBackQueue.isEmpty()))
+		{
+			messageList.add(this.pushedBackQueue.pollFirst());
+			this.size--;
+		}
+		
+		ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+		while((messageList.size() < count) && (this.size > 0))
+		{
+			lengthBuffer.clear();
+			this.readFully(lengthBuffer, this.readPosition);
+			lengthBuffer.flip();
+			ByteBuffer buffer = ByteBuffer.allocate(lengthBuffer.getInt());
+			this.readFully(buffer, this.readPosition + 4L);
+			buffer.flip();
+			
+			this.readPosition += 4L + buffer.capacity();
+			this.size--;
+			
+			boolean hasJournalId = buffer.get() == (byte)1;
+			long journalId = buffer.getLong();
+			boolean hasResult = buffer.get() == (byte)1;
+			byte[] headerData = new byte[buffer.getInt()];
+			buffer.get(headerData);
+			byte[] payloadData = new byte[buffer.getInt()];
+			buffer.get(payloadData);
+			
+			PublishMessageResultImpl result = hasResult ? this.resultQueue.pollFirst() : dummyResult;
+			MessageImpl message = new MessageImpl(this.payloadCodec.decode(payloadData), channel, ChannelJournal.deserializeMessageHeader(headerData));
+			message.setJournalId(hasJournalId ? Long.valueOf(journalId) : null);
+			message.setScheduleResultObject(result);
+			messageList.add(message);
+		}
+		
+		if(this.size == 0)
+		{
+			this.fileChannel.truncate(0L);
+			this.readPosition = 0L;
+			this.writePosition = 0L;
+		}
+		else if((this.readPosition >= COMPACT_THRESHOLD) && (this.readPosition >= this.writePosition - this.readPosition))
+		{
+			this.compact();
+		}
+		return messageList;
+	}
+	
+	/**
+	 * Pushes back messages to head of spillover. Pushed back messages are read first.
+	 *
+	 * @param messageList messages read by {@link ChannelSpillover#read(ChannelImpl, int, PublishMessageResultImpl)}, but not linked into message queue
+	 */
+	protected synchronized void pushBack(List<? extends MessageImpl> messageList)
+	{
+		for(int i = messageList.size() - 1; i >= 0; i--)
+		{
+			this.pushedBackQueue.addFirst(messageList.get(i));
+		}
+		this.size += messageList.size();
+	}
+	
+	/**
+	 * Moves unread content to begin of spill file and truncates file. Copying advances from low to high positions, 
+	 * so unread content is not overwritten before it is copied.
+	 *
+	 * @throws IOException
+	 */
+	private void compact() throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+		long sourcePosition = this.readPosition;
+		long targetPosition = 0L;
+		while(sourcePosition < this.writePosition)
+		{
+			buffer.clear();
+			if(buffer.remaining() > this.writePosition - sourcePosition)
+			{
+				buffer.limit((int)(this.writePosition - sourcePosition));
+			}
+			this.readFully(buffer, sourcePosition);
+			buffer.flip();
+			sourcePosition += buffer.remaining();
+			while(buffer.hasRemaining())
+			{
+				targetPosition += this.fileChannel.write(buffer, targetPosition);
+			}
+		}
+		this.fileChannel.truncate(targetPosition);
+		this.readPosition = 0L;
+		this.writePosition = targetPosition;
+	}
+	
+	/**
+	 * Closes and deletes spill file.
+	 *
+	 * @return result objects of spilled messages
+	 */
+	protected synchronized List<PublishMessageResultImpl> close()
+	{
+		List<PublishMessageResultImpl> resultList = new ArrayList<PublishMessageResultImpl>(this.pushedBackQueue.size() + this.resultQueue.size());
+		for(MessageImpl message : this.pushedBackQueue)
+		{
+			PublishMessageResultImpl result = (PublishMessageResultImpl)message.getScheduleResultObject();
+			if((result != null) && (! (result instanceof DummyPublishMessageResult)))
+			{
+				resultList.add(result);
+			}
+			message.dispose();
+		}
+		this.pushedBackQueue.clear();
+		resultList.addAll(this.resultQueue);
+		this.resultQueue.clear();
+		this.size = 0;
+		try
+		{
+			this.randomAccessFile.close();
+		}
+		catch (Exception e) {}
+		this.file.delete();
+		return resultList;
+	}
+	
+	private void readFully(ByteBuffer buffer, long position) throws IOException
+	{
+		while(buffer.hasRemaining())
+		{
+			int read = this.fileChannel.read(buffer, position);
+			if(read < 0)
+			{
+				throw new IOException("unexpected end of spill file " + this.file);
+			}
+			position += read;
+		}
+	}
+}
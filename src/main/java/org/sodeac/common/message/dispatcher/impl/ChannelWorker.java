@@ -125,6 +125,7 @@ public class ChannelWorker extends Thread
 	{
 		Set<IOnMessageStoreResult> scheduledResultSet = new HashSet<IOnMessageStoreResult>();
 		Set<String> signalProcessed = new HashSet<String>();
+		DequeSnapshot.Cursor<MessageImpl<?>> messageCursor = new DequeSnapshot.Cursor<MessageImpl<?>>();
 		DequeSnapshot<? extends IMessage> newMessagesSnapshot;
 		DequeSnapshot<? extends IMessage> removedMessagesSnapshot;
 		while(go)
@@ -156,6 +157,32 @@ public class ChannelWorker extends Thread
 				logger.error("Exception while worker go init",e);
 			}
 			
+			try
+			{
+				channel.processTimedMessages();
+			}
+			catch (Exception e) 
+			{
+				logger.error("Exception while process timed messages",e);
+			}
+			catch (Error e) 
+			{
+				logger.error("Error while process timed messages",e);
+			}
+			
+			try
+			{
+				channel.pageInSpilledMessages();
+			}
+			catch (Exception e) 
+			{
+				logger.error("Exception while page in spilled messages",e);
+			}
+			catch (Error e) 
+			{
+				logger.error("Error while page in spilled messages",e);
+			}
+			
 			try
 			{
 				removedMessagesSnapshot = channel.getRemovedMessagesSnapshot();
@@ -187,8 +214,10 @@ public class ChannelWorker extends Thread
 							catch (Error e) {}
 						}
 						
-						for(MessageImpl message : (DequeSnapshot<MessageImpl>)removedMessagesSnapshot)
+						messageCursor.reset((DequeSnapshot<MessageImpl<?>>)removedMessagesSnapshot);
+						while(messageCursor.next())
 						{
+							MessageImpl<?> message = messageCursor.getElement();
 							channel.touchLastWorkerAction();
 							for(ChannelManagerContainer conf : channel.getManagerContainerList())
 							{
@@ -204,8 +233,10 @@ public class ChannelWorker extends Thread
 							}
 						}
 						
-						for(MessageImpl message : (DequeSnapshot<MessageImpl>)removedMessagesSnapshot)
+						messageCursor.reset((DequeSnapshot<MessageImpl<?>>)removedMessagesSnapshot);
+						while(messageCursor.next())
 						{
+							MessageImpl<?> message = messageCursor.getElement();
 							try
 							{
 								message.dispose();
@@ -271,8 +302,10 @@ public class ChannelWorker extends Thread
 						if(onMessageStoredSingle || onMessageStoredSnapshot)
 						{
 							scheduledResultSet.clear();
-							for(IMessage<?> event : newMessagesSnapshot)
+							messageCursor.reset((DequeSnapshot<MessageImpl<?>>)newMessagesSnapshot);
+							while(messageCursor.next())
 							{
+								MessageImpl<?> event = messageCursor.getElement();
 								try
 								{
 									scheduledResultSet.add(event.getScheduleResultObject());
@@ -301,8 +334,10 @@ public class ChannelWorker extends Thread
 							
 							if(onMessageStoredSingle)
 							{
-								for(MessageImpl<?> message : (DequeSnapshot<MessageImpl<?>>)newMessagesSnapshot)
+								messageCursor.reset((DequeSnapshot<MessageImpl<?>>)newMessagesSnapshot);
+								while(messageCursor.next())
 								{
+									MessageImpl<?> message = messageCursor.getElement();
 									channel.touchLastWorkerAction();
 									for(ChannelManagerContainer conf : channel.getManagerContainerList())
 									{
@@ -341,8 +376,10 @@ public class ChannelWorker extends Thread
 								}
 								catch (Exception ie) {}										
 							}
-							for(MessageImpl<?> event : (DequeSnapshot<MessageImpl<?>>)newMessagesSnapshot)
+							messageCursor.reset((DequeSnapshot<MessageImpl<?>>)newMessagesSnapshot);
+							while(messageCursor.next())
 							{
+								MessageImpl<?> event = messageCursor.getElement();
 								try
 								{
 									event.setScheduleResultObject(null);
@@ -381,62 +418,48 @@ public class ChannelWorker extends Thread
 			
 			try
 			{
-				DequeSnapshot<String> signalSnapshot = channel.getSignalsSnapshot();
-				try
+				List<String> signalList = channel.pollSignals();
+				if(! signalList.isEmpty())
 				{
-					if((signalSnapshot != null) && (! signalSnapshot.isEmpty()))
+					
+					try
 					{
-	
-						try
+						checkQueueAttach();
+					}
+					catch(Exception ex) {}
+					catch(Error ex) {}
+					
+					signalProcessed.clear();
+					for(String signal : signalList)
+					{
+						if(signalProcessed.contains(signal))
 						{
-							checkQueueAttach();
+							continue;
 						}
-						catch(Exception ex) {}
-						catch(Error ex) {}
-						
-						signalProcessed.clear();
-						for(String signal : signalSnapshot)
+						channel.touchLastWorkerAction();
+						for(ChannelManagerContainer conf : channel.getManagerContainerList())
 						{
-							if(signalProcessed.contains(signal))
-							{
-								continue;
-							}
-							channel.touchLastWorkerAction();
-							for(ChannelManagerContainer conf : channel.getManagerContainerList())
+							try
 							{
-								try
-								{
-									
-									if(go && conf.isImplementingIOnChannelSignal())
-									{
-										((IOnChannelSignal)conf.getChannelManager()).onChannelSignal(channel, signal);
-									}
-								}
-								catch (Exception e) 
-								{
-									logger.error("Exception while process signal",e);
-								}
-								catch (Error e) 
+								
+								if(go && conf.isImplementingIOnChannelSignal())
 								{
-									logger.error("Error while process signal",e);
+									((IOnChannelSignal)conf.getChannelManager()).onChannelSignal(channel, signal);
 								}
 							}
-							
-							signalProcessed.add(signal);
-						}
-						signalProcessed.clear();
-					}
-				}
-				finally 
-				{
-					if(signalSnapshot != null)
-					{
-						try
-						{
-							signalSnapshot.close();
+							catch (Exception e) 
+							{
+								logger.error("Exception while process signal",e);
+							}
+							catch (Error e) 
+							{
+								logger.error("Error while process signal",e);
+							}
 						}
-						catch (Exception e) {}
+						
+						signalProcessed.add(signal);
 					}
+					signalProcessed.clear();
 				}
 			}
 			catch (Exception e) 
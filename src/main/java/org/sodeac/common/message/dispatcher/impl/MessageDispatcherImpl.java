@@ -11,9 +11,11 @@
 package org.sodeac.common.message.dispatcher.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +24,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -32,6 +35,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sodeac.common.message.dispatcher.api.ChannelMessage;
 import org.sodeac.common.message.dispatcher.api.ChannelNotFoundException;
 import org.sodeac.common.message.dispatcher.api.ComponentBindingSetup;
 import org.sodeac.common.message.dispatcher.api.IDispatcherChannel;
@@ -49,6 +53,7 @@ import org.sodeac.common.message.dispatcher.api.ComponentBindingSetup.BoundedByC
 import org.sodeac.common.message.dispatcher.api.ComponentBindingSetup.BoundedByChannelId;
 import org.sodeac.common.message.dispatcher.api.IDispatcherChannelManager.IChannelManagerPolicy;
 import org.sodeac.common.message.dispatcher.api.IDispatcherChannelService.IChannelServicePolicy;
+import org.sodeac.common.snapdeque.CapacityExceededException;
 import org.sodeac.common.snapdeque.DequeNode;
 import org.sodeac.common.snapdeque.DequeSnapshot;
 import org.sodeac.common.snapdeque.SnapshotableDeque;
@@ -174,6 +179,78 @@ public class MessageDispatcherImpl implements IMessageDispatcher
 		}
 	}
 	
+	@Override
+	public void sendMessages(Collection<? extends ChannelMessage<?>> messages)
+	{
+		if((messages == null) || messages.isEmpty())
+		{
+			return;
+		}
+		
+		lifecycleReadLock.lock();
+		try
+		{		
+			if(! activated)
+			{
+				return;
+			}
+			
+			// group by channel with one lookup lock
+			Map<ChannelImpl<?>, List<ChannelMessage<?>>> messagesByChannel = new LinkedHashMap<>();
+			this.channelIndexReadLock.lock();
+			try
+			{
+				ChannelImpl<?> channel = null;
+				String channelId = null;
+				for(ChannelMessage<?> message : messages)
+				{
+					if((channel == null) || (! Objects.equals(message.getChannelId(), channelId)))
+					{
+						channelId = message.getChannelId();
+						channel = this.channelIndex.get(channelId);
+						if(channel == null)
+						{
+							throw new ChannelNotFoundException(channelId);
+						}
+					}
+					messagesByChannel.computeIfAbsent(channel, c -> new ArrayList<>()).add(message);
+				}
+			}
+			finally 
+			{
+				this.channelIndexReadLock.unlock();
+			}
+			
+			CapacityExceededException capacityExceededException = null;
+			for(Entry<ChannelImpl<?>, List<ChannelMessage<?>>> entry : messagesByChannel.entrySet())
+			{
+				try
+				{
+					entry.getKey().sendChannelMessages(entry.getValue());
+				}
+				catch (CapacityExceededException e) 
+				{
+					if(capacityExceededException == null)
+					{
+						capacityExceededException = e;
+					}
+					else
+					{
+						capacityExceededException.addSuppressed(e);
+					}
+				}
+			}
+			if(capacityExceededException != null)
+			{
+				throw capacityExceededException;
+			}
+		}
+		finally 
+		{
+			lifecycleReadLock.unlock();
+		}
+	}
+	
 	
 	@Override
 	public List<String> getChannelIdList()
@@ -1164,6 +1241,11 @@ public class MessageDispatcherImpl implements IMessageDispatcher
 		catch (Exception e) {}
 	}
 	
+	protected Executor getExecutor()
+	{
+		return this.executorService;
+	}
+	
 	protected Future<IOnMessageStoreResult> createFutureOfScheduleResult(PublishMessageResultImpl scheduleResult)
 	{
 		Callable<IOnMessageStoreResult> call = new Callable<IOnMessageStoreResult>()
@@ -38,6 +38,12 @@ public class MessageImpl<T> implements IMessage<T>
 	private volatile Boolean consumed = null;
 	private volatile Boolean processed = null;
 	
+	private ChannelPriorityLanes priorityLanes = null;
+	private int priorityLane = 0;
+	private long priorityRound = 0L;
+	
+	private volatile Long journalId = null;
+	
 	protected MessageImpl(T payload,ChannelImpl channel, MessageHeader messageHeader)
 	{
 		super();
@@ -61,6 +67,38 @@ public class MessageImpl<T> implements IMessage<T>
 		this.node = node;
 	}
 
+	protected ChannelPriorityLanes getPriorityLanes()
+	{
+		return priorityLanes;
+	}
+	
+	protected int getPriorityLane()
+	{
+		return priorityLane;
+	}
+	
+	protected long getPriorityRound()
+	{
+		return priorityRound;
+	}
+	
+	protected void setPriorityLanes(ChannelPriorityLanes priorityLanes, int priorityLane, long priorityRound)
+	{
+		this.priorityLanes = priorityLanes;
+		this.priorityLane = priorityLane;
+		this.priorityRound = priorityRound;
+	}
+	
+	protected Long getJournalId()
+	{
+		return journalId;
+	}
+	
+	protected void setJournalId(Long journalId)
+	{
+		this.journalId = journalId;
+	}
+	
 	@Override
 	public T getPayload()
 	{
@@ -269,6 +307,12 @@ public class MessageImpl<T> implements IMessage<T>
 	public void setProcessed(Boolean processed) 
 	{
 		this.processed = processed;
+		
+		ChannelImpl channel = this.channel;
+		if(Boolean.TRUE.equals(processed) && (channel != null))
+		{
+			channel.acknowledgeMessage(this);
+		}
 	}
 	
 }
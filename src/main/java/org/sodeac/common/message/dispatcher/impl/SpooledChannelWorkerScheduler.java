@@ -172,25 +172,7 @@ public class SpooledChannelWorkerScheduler extends Thread
 				logger.error("Error running SpooledChannelWorkerScheduler",e);
 			}
 		}
-		DequeSnapshot<SpooledChannelWorker> snapshot = this.scheduledChain.createSnapshot();
-		try
-		{
-			for(DequeNode<SpooledChannelWorker> workerNode : snapshot.nodeIterable())
-			{
-				workerNode.unlink();
-			}
-		}
-		finally 
-		{
-			try
-			{
-				snapshot.close();
-			}
-			catch (Exception e) 
-			{
-				logger.error("Error close snapshot",e);
-			}
-		}
+		this.scheduledChain.clear();
 		
 	}
 	public void stopScheduler()
@@ -22,6 +22,8 @@ public class StringConverter
 {
 	private static Map<String,Function<Object, String>> toStringIndex = null;
 	private static Map<String,Function<String, Object>> fromStringIndex = null;
+	private static Map<Class<?>,Function<Object, String>> toStringByClassIndex = null;
+	private static Map<Class<?>,Function<String, Object>> fromStringByClassIndex = null;
 	
 	static
 	{
@@ -57,6 +59,18 @@ public class StringConverter
 		
 		StringConverter.fromStringIndex = Collections.unmodifiableMap(fromString);
 		StringConverter.toStringIndex = Collections.unmodifiableMap(toString);
+		
+		Map<Class<?>,Function<Object, String>> toStringByClass = new HashMap<Class<?>,Function<Object, String>>();
+		Map<Class<?>,Function<String, Object>> fromStringByClass = new HashMap<Class<?>,Function<String, Object>>();
+		
+		for(Class<?> clazz : new Class<?>[] {String.class, Long.class, Integer.class, Double.class, Boolean.class, Date.class, UUID.class, Version.class, Class.class})
+		{
+			toStringByClass.put(clazz, toString.get(clazz.getCanonicalName()));
+			fromStringByClass.put(clazz, fromString.get(clazz.getCanonicalName()));
+		}
+		
+		StringConverter.toStringByClassIndex = Collections.unmodifiableMap(toStringByClass);
+		StringConverter.fromStringByClassIndex = Collections.unmodifiableMap(fromStringByClass);
 	}
 
 	public static Map<String, Function<Object, String>> toStringIndex()
@@ -68,4 +82,36 @@ public class StringConverter
 	{
 		return fromStringIndex;
 	}
+	
+	/**
+	 * Getter for converter from value to string, resolved by type class instead of canonical class name.
+	 * 
+	 * @param clazz type of value
+	 * @return converter or null, if no converter is registered for <code>clazz</code>
+	 */
+	public static Function<Object, String> toStringFunction(Class<?> clazz)
+	{
+		Function<Object, String> function = toStringByClassIndex.get(clazz);
+		if((function == null) && (clazz != null))
+		{
+			function = toStringIndex.get(clazz.getCanonicalName());
+		}
+		return function;
+	}
+	
+	/**
+	 * Getter for converter from string to value, resolved by type class instead of canonical class name.
+	 * 
+	 * @param clazz type of value
+	 * @return converter or null, if no converter is registered for <code>clazz</code>
+	 */
+	public static Function<String, Object> fromStringFunction(Class<?> clazz)
+	{
+		Function<String, Object> function = fromStringByClassIndex.get(clazz);
+		if((function == null) && (clazz != null))
+		{
+			function = fromStringIndex.get(clazz.getCanonicalName());
+		}
+		return function;
+	}
 }
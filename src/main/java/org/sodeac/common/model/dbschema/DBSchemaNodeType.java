@@ -34,6 +34,7 @@ public class DBSchemaNodeType extends BranchNodeMetaModel
 	public static volatile LeafNodeType<DBSchemaNodeType,String> tableSpaceIndex;
 	public static volatile LeafNodeType<DBSchemaNodeType,Boolean> skipChecks;
 	public static volatile LeafNodeType<DBSchemaNodeType,Boolean> logUpdates;
+	public static volatile LeafNodeType<DBSchemaNodeType,String> fingerprintTable;
 	public static volatile BranchNodeListType<DBSchemaNodeType,TableNodeType> tables;
 	public static volatile BranchNodeListType<DBSchemaNodeType,EventConsumerNodeType> consumers;
 	
@@ -86,6 +86,64 @@ public class DequeNode<E>
 		return this.head != null;
 	}
 	
+	/**
+	 * getter for next node in current version of deque
+	 * 
+	 * @return next node, or null, if node is last node or not linked
+	 */
+	public final DequeNode<E> getNextNode()
+	{
+		SnapshotableDeque<E> snapshotableDeque = this.snapshotableDeque;
+		if(snapshotableDeque == null)
+		{
+			return null;
+		}
+		Lock lock = snapshotableDeque.readLock;
+		lock.lock();
+		try
+		{
+			Link<E> link = getLink();
+			if((link == null) || (link.nextLink == null) || (link.nextLink.node == null))
+			{
+				return null;
+			}
+			return link.nextLink.node.isPayload() ? link.nextLink.node : null;
+		}
+		finally 
+		{
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * getter for previews node in current version of deque
+	 * 
+	 * @return previews node, or null, if node is first node or not linked
+	 */
+	public final DequeNode<E> getPreviousNode()
+	{
+		SnapshotableDeque<E> snapshotableDeque = this.snapshotableDeque;
+		if(snapshotableDeque == null)
+		{
+			return null;
+		}
+		Lock lock = snapshotableDeque.readLock;
+		lock.lock();
+		try
+		{
+			Link<E> link = getLink();
+			if((link == null) || (link.previewsLink == null) || (link.previewsLink.node == null))
+			{
+				return null;
+			}
+			return link.previewsLink.node.isPayload() ? link.previewsLink.node : null;
+		}
+		finally 
+		{
+			lock.unlock();
+		}
+	}
+	
 	/**
 	 * Unlink node
 	 * 
@@ -14,8 +14,12 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
 import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -307,7 +311,69 @@ public class DequeSnapshot<E> implements AutoCloseable, Collection<E>
 	 */
 	public Stream<DequeNode<E>> nodeStream()
 	{
-		return StreamSupport.stream(nodeIterable().spliterator(), false);
+		return StreamSupport.stream(nodeSpliterator(), false);
+	}
+	
+	/**
+	 * Returns splittable node spliterator with characteristics {@link Spliterator#ORDERED}, {@link Spliterator#SIZED} 
+	 * and {@link Spliterator#IMMUTABLE}. Required for parallel streams over large snapshots.
+	 * 
+	 * @return node spliterator
+	 */
+	public Spliterator<DequeNode<E>> nodeSpliterator()
+	{
+		checkClosed();
+		return new SnapshotSpliterator<DequeNode<E>>(l -> l.node, Spliterator.NONNULL, false);
+	}
+	
+	@Override
+	public Spliterator<E> spliterator()
+	{
+		return spliterator(false);
+	}
+	
+	/**
+	 * Returns splittable element spliterator
+	 * 
+	 * @param closeSnapshot close snapshot, if all elements are traversed
+	 * @return element spliterator
+	 */
+	protected Spliterator<E> spliterator(boolean closeSnapshot)
+	{
+		checkClosed();
+		return new SnapshotSpliterator<E>(l -> l.element, 0, closeSnapshot);
+	}
+	
+	/**
+	 * Performs action for each node of snapshot. Unlike {@link DequeSnapshot#nodeIterable()} no iterator is created.
+	 * 
+	 * @param action action to perform for each node
+	 */
+	public void forEachNode(Consumer<? super DequeNode<E>> action)
+	{
+		Objects.requireNonNull(action);
+		checkClosed();
+		Link<E> link = this.firstLink;
+		for(long index = 0; (index < this.size) && (link != null); index++)
+		{
+			action.accept(link.node);
+			checkClosed();
+			link = (index + 1L) < this.size ? getNextLink(link) : null;
+		}
+	}
+	
+	@Override
+	public void forEach(Consumer<? super E> action)
+	{
+		Objects.requireNonNull(action);
+		checkClosed();
+		Link<E> link = this.firstLink;
+		for(long index = 0; (index < this.size) && (link != null); index++)
+		{
+			action.accept(link.element);
+			checkClosed();
+			link = (index + 1L) < this.size ? getNextLink(link) : null;
+		}
 	}
 	
 	@Override
@@ -692,6 +758,274 @@ public class DequeSnapshot<E> implements AutoCloseable, Collection<E>
 		}
 	}
 	
+	/**
+	 * Internal helper method to get link of successor node valid for version of snapshot
+	 * 
+	 * @param previews link of predecessor node
+	 * @return link of successor node, or null, if predecessor is last node of snapshot
+	 */
+	private Link<E> getNextLink(Link<E> previews)
+	{
+		Link<E> next = previews.nextLink;
+		if(next == null)
+		{
+			return null;
+		}
+		
+		if(next.createOnVersion.getSequence() > this.version.getSequence())
+		{
+			while(next.createOnVersion.getSequence() > this.version.getSequence())
+			{
+				next = next.olderVersion;
+				if(next == null)
+				{
+					throw new RuntimeException("missing link with version " + this.version.getSequence() );
+				}
+				if(next.createOnVersion  == null)
+				{
+					throw new RuntimeException("missing link with version " + this.version.getSequence() + " (older is cleared)");
+				}
+			}
+		}
+		else if(next.createOnVersion.getSequence() < this.version.getSequence())
+		{
+			while(next.newerVersion != null)
+			{
+				if(next.newerVersion.createOnVersion == null)
+				{
+					break;
+				}
+				if(next.newerVersion.createOnVersion.getSequence() >  this.version.getSequence())
+				{
+					break;
+				}
+				next = next.newerVersion;
+			}
+		}
+		if(!  next.node.isPayload())
+		{
+			return null;
+		}
+		return next;
+	}
+	
+	/**
+	 * Reusable cursor to traverse snapshots without creating iterators. A cursor is not threadsafe.
+	 * 
+	 * <pre>
+	 * cursor.reset(snapshot);
+	 * while(cursor.next())
+	 * {
+	 *     E element = cursor.getElement();
+	 * }
+	 * </pre>
+	 * 
+	 * @author Sebastian Palarus
+	 *
+	 * @param <E> the type of elements in snapshot
+	 */
+	public static class Cursor<E>
+	{
+		private DequeSnapshot<E> snapshot = null;
+		private Link<E> link = null;
+		private long index = -1L;
+		
+		/**
+		 * Positions cursor before first node of snapshot.
+		 * 
+		 * @param snapshot snapshot to traverse, or null to release current snapshot
+		 * @return this cursor
+		 */
+		public Cursor<E> reset(DequeSnapshot<E> snapshot)
+		{
+			this.snapshot = snapshot;
+			this.link = null;
+			this.index = -1L;
+			return this;
+		}
+		
+		/**
+		 * Moves cursor to next node of snapshot. If there is no next node, the snapshot is released.
+		 * 
+		 * @return true, if cursor is positioned on next node, false, if all nodes are traversed
+		 */
+		public boolean next()
+		{
+			DequeSnapshot<E> snapshot = this.snapshot;
+			if(snapshot == null)
+			{
+				return false;
+			}
+			snapshot.checkClosed();
+			
+			Link<E> next = null;
+			if((this.index + 1L) < snapshot.size)
+			{
+				next = this.link == null ? snapshot.firstLink : snapshot.getNextLink(this.link);
+			}
+			if(next == null)
+			{
+				this.reset(null);
+				return false;
+			}
+			this.link = next;
+			this.index++;
+			return true;
+		}
+		
+		/**
+		 * 
+		 * @return index of current node in snapshot
+		 */
+		public long getIndex()
+		{
+			return this.index;
+		}
+		
+		/**
+		 * 
+		 * @return current node
+		 */
+		public DequeNode<E> getNode()
+		{
+			if(this.link == null)
+			{
+				throw new NoSuchElementException();
+			}
+			return this.link.node;
+		}
+		
+		/**
+		 * 
+		 * @return element of current node
+		 */
+		public E getElement()
+		{
+			if(this.link == null)
+			{
+				throw new NoSuchElementException();
+			}
+			return this.link.element;
+		}
+	}
+	
+	/**
+	 * private helper class
+	 * 
+	 * @author Sebastian Palarus
+	 *
+	 */
+	protected class SnapshotSpliterator<T> implements Spliterator<T>
+	{
+		private static final int BATCH_UNIT = 1 << 10;
+		private static final int MAX_BATCH = 1 << 25;
+		
+		private Function<Link<E>, T> mapper = null;
+		private int additionalCharacteristics;
+		private Link<E> next = null;
+		private long remaining;
+		private int batch = 0;
+		private boolean closeSnapshot;
+		
+		private SnapshotSpliterator(Function<Link<E>, T> mapper, int additionalCharacteristics, boolean closeSnapshot)
+		{
+			super();
+			this.mapper = mapper;
+			this.additionalCharacteristics = additionalCharacteristics;
+			this.closeSnapshot = closeSnapshot;
+			this.next = DequeSnapshot.this.firstLink;
+			this.remaining = this.next == null ? 0L : DequeSnapshot.this.size;
+			if((this.remaining == 0L) && closeSnapshot)
+			{
+				DequeSnapshot.this.close();
+			}
+		}
+		
+		private Link<E> advance()
+		{
+			if(this.remaining <= 0L)
+			{
+				return null;
+			}
+			checkClosed();
+			Link<E> link = this.next;
+			this.remaining--;
+			this.next = this.remaining > 0L ? getNextLink(link) : null;
+			if(this.next == null)
+			{
+				this.remaining = 0L;
+				if(this.closeSnapshot)
+				{
+					DequeSnapshot.this.close();
+				}
+			}
+			return link;
+		}
+		
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action)
+		{
+			Objects.requireNonNull(action);
+			Link<E> link = advance();
+			if(link == null)
+			{
+				return false;
+			}
+			action.accept(this.mapper.apply(link));
+			return true;
+		}
+		
+		@Override
+		public void forEachRemaining(Consumer<? super T> action)
+		{
+			Objects.requireNonNull(action);
+			Link<E> link;
+			while((link = advance()) != null)
+			{
+				action.accept(this.mapper.apply(link));
+			}
+		}
+		
+		@Override
+		public Spliterator<T> trySplit()
+		{
+			if(this.remaining <= 1L)
+			{
+				return null;
+			}
+			int size = this.batch + BATCH_UNIT;
+			if(size > this.remaining)
+			{
+				size = (int)this.remaining;
+			}
+			if(size > MAX_BATCH)
+			{
+				size = MAX_BATCH;
+			}
+			Object[] array = new Object[size];
+			int count = 0;
+			Link<E> link;
+			while((count < size) && ((link = advance()) != null))
+			{
+				array[count++] = this.mapper.apply(link);
+			}
+			this.batch = count;
+			return Spliterators.spliterator(array, 0, count, characteristics());
+		}
+		
+		@Override
+		public long estimateSize()
+		{
+			return this.remaining;
+		}
+		
+		@Override
+		public int characteristics()
+		{
+			return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE | this.additionalCharacteristics;
+		}
+	}
+	
 	/**
 	 * private helper class
 	 * 
@@ -845,51 +1179,14 @@ public class DequeSnapshot<E> implements AutoCloseable, Collection<E>
 				this.next = null;
 				return false;
 			}
-			this.next = this.previews.nextLink;
+			Link<E> previews = this.previews;
+			this.previews = null;
+			this.next = DequeSnapshot.this.getNextLink(previews);
 			if( this.next == null)
 			{
-				this.previews = null;
-				return false;
-			}
-			
-			if(this.next.createOnVersion.getSequence() > DequeSnapshot.this.version.getSequence())
-			{
-				while(this.next.createOnVersion.getSequence() > DequeSnapshot.this.version.getSequence())
-				{
-					this.next = this.next.olderVersion;
-					if(this.next == null)
-					{
-						this.previews = null;
-						throw new RuntimeException("missing link with version " + DequeSnapshot.this.version.getSequence() );
-					}
-					if(this.next.createOnVersion  == null)
-					{
-						this.previews = null;
-						throw new RuntimeException("missing link with version " + DequeSnapshot.this.version.getSequence() + " (older is cleared)");
-					}
-				}
-			}
-			else if(this.next.createOnVersion.getSequence() < DequeSnapshot.this.version.getSequence())
-			{
-				while(this.next.newerVersion != null)
-				{
-					if(this.next.newerVersion.createOnVersion == null)
-					{
-						break;
-					}
-					if(this.next.newerVersion.createOnVersion.getSequence() >  DequeSnapshot.this.version.getSequence())
-					{
-						break;
-					}
-					this.next = this.next.newerVersion;
-				}
-			}
-			if(!  this.next.node.isPayload())
-			{
-				this.previews = null;
-				this.next = null;
 				return false;
 			}
+			this.previews = previews;
 			return true;
 		}
 		
@@ -10,21 +10,29 @@
  *******************************************************************************/
 package org.sodeac.common.snapdeque;
 
+import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.sodeac.common.snapdeque.DequeNode.Link;
 
@@ -145,7 +153,7 @@ public class SnapshotableDeque<E> implements AutoCloseable,Deque<E>
 		lock.lock();
 		try
 		{
-			return this.nodeSize - capacity;
+			return this.capacity - this.nodeSize;
 		}
 		finally 
 		{
@@ -718,6 +726,64 @@ public class SnapshotableDeque<E> implements AutoCloseable,Deque<E>
 		return nodes;
 	}
 
+	/**
+	 * link new element directly behind predecessor node.
+	 * 
+	 * @param predecessor linked node of this deque to link new element behind, or null to prepend new element
+	 * @param element item to link
+	 * @param synchronizedConsumer consumer accept new node inside inside write lock
+	 * @return node
+	 */
+	public DequeNode<E> linkAfter(DequeNode<E> predecessor, E element, Consumer<DequeNode<E>> synchronizedConsumer)
+	{
+		DequeNode<E> node = null;
+		
+		Lock lock = this.writeLock;
+		lock.lock();
+		try
+		{
+			Link<E> predecessorLink = null;
+			if(predecessor != null)
+			{
+				predecessorLink = predecessor.getLink();
+				if((predecessor.snapshotableDeque != this) || (predecessorLink == null))
+				{
+					throw new IllegalStateException("predecessor is not linked to this deque");
+				}
+			}
+			
+			this.getModificationVersion();
+			
+			if(generateMetadata)
+			{
+				node = new DequeNode<E>(element,this, UUID.randomUUID(), System.currentTimeMillis(), ++this.sequence);
+			}
+			else
+			{
+				node = new DequeNode<E>(element,this, null, null, null);
+			}
+			
+			if(predecessorLink == null)
+			{
+				this.prependNode(node, this.modificationVersion);
+			}
+			else
+			{
+				this.insertNode(node, predecessorLink, this.modificationVersion);
+			}
+			
+			if(synchronizedConsumer != null)
+			{
+				synchronizedConsumer.accept(node);
+			}
+		}
+		finally 
+		{
+			lock.unlock();
+		}
+		return node;
+	}
+	
 	/**
 	 * Internal method to append node.
 	 * 
@@ -842,6 +908,73 @@ public class SnapshotableDeque<E> implements AutoCloseable,Deque<E>
 		linkEnd.incrementSize();
 	}
 	
+	/**
+	 * Internal method to insert node behind other payload link.
+	 * 
+	 * @param node node to insert
+	 * @param prev current link of predecessor node
+	 * @param currentVersion current version of deque
+	 */
+	private void insertNode(DequeNode<E> node, Link<E> prev, SnapshotVersion<E> currentVersion)
+	{
+		Link<E> link = node.getLink();
+		if(link != null)
+		{
+			throw new IllegalStateException("Internal Error: link already exists");
+		}
+		Eyebolt<E> linkBegin = begin.getLink();
+		Eyebolt<E> linkEnd = end.getLink();
+		
+		link = node.createHead(currentVersion, LinkMode.APPEND);
+		
+		Link<E> next = prev.nextLink;
+		
+		Link<E> nextOfNext = null;
+		Link<E> previewsOfPreviews = null;
+		if(next != linkEnd)
+		{
+			if(next.createOnVersion.getSequence() < currentVersion.getSequence())
+			{
+				if(! this.openSnapshotVersionList.isEmpty())
+				{
+					nextOfNext = next.nextLink;
+					next = next.createNewerLink(currentVersion, null);
+					next.nextLink = nextOfNext;
+					nextOfNext.previewsLink = next;
+				}
+			}
+		}
+		
+		if(prev.createOnVersion.getSequence() < currentVersion.getSequence())
+		{
+			if(! this.openSnapshotVersionList.isEmpty())
+			{
+				previewsOfPreviews = prev.previewsLink;
+				prev = prev.createNewerLink(currentVersion, null);
+				prev.previewsLink = previewsOfPreviews;
+			}
+		}
+		
+		// link new link with next link
+		next.previewsLink = link;
+		link.nextLink = next;
+		
+		// link new link with previews link
+		link.previewsLink = prev;
+		
+		// set new route
+		prev.nextLink = link;
+		
+		if(previewsOfPreviews != null)
+		{
+			// set new route, if previews creates a new version
+			previewsOfPreviews.nextLink = prev;
+		}
+		
+		linkBegin.incrementSize();
+		linkEnd.incrementSize();
+	}
+	
 	/**
 	 *  create a snapshot 
 	 * 
@@ -880,6 +1013,66 @@ public class SnapshotableDeque<E> implements AutoCloseable,Deque<E>
 		}
 	}
 	
+	/**
+	 * Removes up to {@code maxElements} elements from head of deque and passes them to consumer. 
+	 * 
+	 * <p>All elements are removed inside one write lock without creating a snapshot. The consumer is invoked inside write lock, 
+	 * after element is unlinked.
+	 * 
+	 * @param consumer consumer of removed elements
+	 * @param maxElements max count of elements to remove
+	 * @return count of removed elements
+	 */
+	public int drainTo(Consumer<? super E> consumer, int maxElements)
+	{
+		Objects.requireNonNull(consumer);
+		if((this.nodeSize == 0L) || (maxElements <= 0))
+		{
+			return 0;
+		}
+		Lock lock = this.writeLock;
+		lock.lock();
+		try
+		{
+			int count = 0;
+			while(count < maxElements)
+			{
+				Eyebolt<E> beginLink = begin.getLink();
+				if(beginLink == null)
+				{
+					break;
+				}
+				Link<E> firstLink = beginLink.nextLink;
+				if((firstLink == null) || (firstLink == end.getLink()))
+				{
+					break;
+				}
+				E element = firstLink.element;
+				firstLink.node.unlink();
+				count++;
+				consumer.accept(element);
+			}
+			return count;
+		}
+		finally 
+		{
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Removes up to {@code maxElements} elements from head of deque without creating a snapshot.
+	 * 
+	 * @param maxElements max count of elements to remove
+	 * @return removed elements in order of deque
+	 */
+	public List<E> pollBatch(int maxElements)
+	{
+		List<E> elementList = new ArrayList<E>((int)Math.max(0L, Math.min((long)maxElements, this.nodeSize)));
+		this.drainTo(elementList::add, maxElements);
+		return elementList;
+	}
+	
 	/**
 	 * Internal helper class to reference begin or end of branch. This is the non-payload variant of {@link DequeNode}.
 	 * 
@@ -980,7 +1173,7 @@ public class SnapshotableDeque<E> implements AutoCloseable,Deque<E>
 	@Override
 	public void clear() 
 	{
-		createSnapshotPoll().close();
+		while(this.drainTo(e -> {}, Integer.MAX_VALUE) == Integer.MAX_VALUE){}
 	}
 	
 	@Override
@@ -1067,18 +1260,49 @@ public class SnapshotableDeque<E> implements AutoCloseable,Deque<E>
 		}
 	}
 
+	/**
+	 * Checks in one pass inside read lock, whether all elements of collection are contained in current version. 
+	 * Like {@link SnapshotableDeque#removeAll(Collection)} a set is used with its own membership, other collections are copied into a {@link HashSet} before.
+	 * 
+	 * @param c collection to check
+	 * @return true, if all elements of collection are contained
+	 */
 	@Override
 	public boolean containsAll(Collection<?> c) 
 	{
 		Objects.requireNonNull(c);
-		DequeSnapshot<E> snapshot = createSnapshot();
+		if(c.isEmpty())
+		{
+			return true;
+		}
+		Set<?> set = c instanceof Set ? (Set<?>)c : null;
+		Set<Object> missing = set == null ? new HashSet<Object>(c) : null;
+		Set<Object> found = set == null ? null : new HashSet<Object>();
+		Lock lock = this.readLock;
+		lock.lock();
 		try
 		{
-			return snapshot.containsAll(c);
+			Link<E> link = getFirstLink();
+			while(link != null)
+			{
+				if(set == null)
+				{
+					if(missing.remove(link.element) && missing.isEmpty())
+					{
+						return true;
+					}
+				}
+				else if(set.contains(link.element) && found.add(link.element) && (found.size() >= set.size()))
+				{
+					return true;
+				}
+				link = getNextLink(link);
+			}
+			return false;
 		}
 		finally 
 		{
-			snapshot.close();
+			lock.unlock();
 		}
 	}
 
@@ -1108,63 +1332,175 @@ public class SnapshotableDeque<E> implements AutoCloseable,Deque<E>
 		return this.size() == 0;
 	}
 
+	/**
+	 * Removes all elements of current version contained in collection by {@link SnapshotableDeque#removeIf(Predicate)}. 
+	 * A set is used with its own membership, other collections are copied into a {@link HashSet} once before write lock is acquired.
+	 * 
+	 * @param c collection of elements to remove
+	 * @return true, if any element was removed
+	 */
 	@Override
 	public boolean removeAll(Collection<?> c) 
 	{
-		Objects.requireNonNull(c);
-		
-		DequeSnapshot<E> snapshot = createSnapshot();
-		try
-		{
-			return snapshot.removeAll(c);
-		}
-		finally 
-		{
-			snapshot.close();
-		}
+		Collection<?> lookup = toLookup(c);
+		return this.removeIf(e -> lookup.contains(e));
 	}
-
+	
+	/**
+	 * Removes all elements of current version not contained in collection by {@link SnapshotableDeque#removeIf(Predicate)}. 
+	 * A set is used with its own membership, other collections are copied into a {@link HashSet} once before write lock is acquired.
+	 * 
+	 * @param c collection of elements to retain
+	 * @return true, if any element was removed
+	 */
 	@Override
 	public boolean retainAll(Collection<?> c) 
 	{
-		Objects.requireNonNull(c);
-		
-		DequeSnapshot<E> snapshot = createSnapshot();
+		Collection<?> lookup = toLookup(c);
+		return this.removeIf(e -> ! lookup.contains(e));
+	}
+	
+	/**
+	 * Removes all elements of current version matching the filter. All nodes are unlinked in one pass 
+	 * inside one write lock without creating a snapshot. The filter is invoked inside write lock, so it is caller code 
+	 * running under lock of deque: it must be fast and must not wait for other threads accessing this deque.
+	 * 
+	 * @param filter predicate returns true for elements to remove
+	 * @return true, if any element was removed
+	 */
+	@Override
+	public boolean removeIf(Predicate<? super E> filter)
+	{
+		Objects.requireNonNull(filter);
+		if(this.nodeSize == 0L)
+		{
+			return false;
+		}
+		Lock lock = this.writeLock;
+		lock.lock();
 		try
 		{
-			return snapshot.retainAll(c);
+			boolean modified = false;
+			Link<E> link = getFirstLink();
+			while(link != null)
+			{
+				// unlink may replace link of successor by newer version, head of successor node remains valid
+				Link<E> nextLink = getNextLink(link);
+				DequeNode<E> next = nextLink == null ? null : nextLink.node;
+				if(filter.test(link.element))
+				{
+					link.node.unlink();
+					modified = true;
+				}
+				link = next == null ? null : next.getLink();
+			}
+			return modified;
 		}
 		finally 
 		{
-			snapshot.close();
+			lock.unlock();
 		}
 	}
 
+	/**
+	 * Creates a spliterator over a copy of current version. No snapshot is created, so an abandoned spliterator holds no resources. 
+	 * Use {@link DequeSnapshot#spliterator()} to split large snapshots without copying.
+	 * 
+	 * @return spliterator with characteristics {@link Spliterator#ORDERED}, {@link Spliterator#SIZED} and {@link Spliterator#IMMUTABLE}
+	 */
 	@Override
-	public Object[] toArray() 
+	public Spliterator<E> spliterator()
+	{
+		return Spliterators.spliterator(toArray(), Spliterator.ORDERED | Spliterator.IMMUTABLE);
+	}
+	
+	/**
+	 * Creates a stream over a snapshot of current version. The snapshot is closed, if all elements are traversed or stream is closed. 
+	 * 
+	 * <p>Callers must close the stream, if the stream is not traversed completely, e.g. by short-circuiting operations like 
+	 * {@link Stream#findFirst()} or {@link Stream#anyMatch(Predicate)}. Otherwise the snapshot remains open. Use try-with-resources:
+	 * 
+	 * <pre>
+	 * try(Stream&lt;E&gt; stream = deque.stream())
+	 * {
+	 * 	return stream.anyMatch(filter);
+	 * }
+	 * </pre>
+	 * 
+	 * @return stream of elements, closes snapshot on {@link Stream#close()}
+	 */
+	@Override
+	public Stream<E> stream()
+	{
+		DequeSnapshot<E> snapshot = createSnapshot();
+		return StreamSupport.stream(snapshot.spliterator(true), false).onClose(snapshot::close);
+	}
+	
+	/**
+	 * Creates a parallel stream over a snapshot of current version. The snapshot is closed, if all elements are traversed or stream is closed. 
+	 * Callers must close the stream, if the stream is not traversed completely (see {@link SnapshotableDeque#stream()}).
+	 * 
+	 * @return parallel stream of elements, closes snapshot on {@link Stream#close()}
+	 */
+	@Override
+	public Stream<E> parallelStream()
 	{
 		DequeSnapshot<E> snapshot = createSnapshot();
+		return StreamSupport.stream(snapshot.spliterator(true), true).onClose(snapshot::close);
+	}
+	
+	@Override
+	public Object[] toArray() 
+	{
+		Lock lock = this.readLock;
+		lock.lock();
 		try
 		{
-			return snapshot.toArray();
+			Object[] array = new Object[this.size()];
+			int index = 0;
+			Link<E> link = getFirstLink();
+			while(link != null)
+			{
+				array[index++] = link.element;
+				link = getNextLink(link);
+			}
+			return array;
 		}
 		finally 
 		{
-			snapshot.close();
+			lock.unlock();
 		}
 	}
 
+	@SuppressWarnings("unchecked")
 	@Override
 	public <T> T[] toArray(T[] a) 
 	{
-		DequeSnapshot<E> snapshot = createSnapshot();
+		Lock lock = this.readLock;
+		lock.lock();
 		try
 		{
-			return snapshot.toArray(a);
+			int size = this.size();
+			if (a.length < size)
+			{
+				a = (T[]) Array.newInstance(a.getClass().getComponentType(), size);
+			}
+			int index = 0;
+			Link<E> link = getFirstLink();
+			while(link != null)
+			{
+				a[index++] = (T)link.element;
+				link = getNextLink(link);
+			}
+			if (a.length > size)
+			{
+				a[size] = null;
+			}
+			return a;
 		}
 		finally 
 		{
-			snapshot.close();
+			lock.unlock();
 		}
 	}
 
@@ -1175,6 +1511,53 @@ public class SnapshotableDeque<E> implements AutoCloseable,Deque<E>
 		return true;
 	}
 	
+	/**
+	 * Internal helper method to get first link of current version. Requires read lock or write lock.
+	 * 
+	 * @return first link, or null, if deque is empty
+	 */
+	private Link<E> getFirstLink()
+	{
+		Eyebolt<E> beginLink = begin.getLink();
+		if(beginLink == null)
+		{
+			return null;
+		}
+		return getNextLink(beginLink);
+	}
+	
+	/**
+	 * Internal helper method to get successor link of current version. Requires read lock or write lock.
+	 * 
+	 * @param link link of predecessor
+	 * @return successor link, or null, if predecessor is last link
+	 */
+	private Link<E> getNextLink(Link<E> link)
+	{
+		Link<E> nextLink = link.nextLink;
+		if((nextLink == null) || (nextLink.node == null) || (! nextLink.node.isPayload()))
+		{
+			return null;
+		}
+		return nextLink;
+	}
+	
+	/**
+	 * Internal helper method to provide a collection with fast lookup for bulk operations
+	 * 
+	 * @param c collection
+	 * @return set itself, or a {@link HashSet} copy of other collections
+	 */
+	protected static Collection<?> toLookup(Collection<?> c)
+	{
+		Objects.requireNonNull(c);
+		if(c instanceof Set)
+		{
+			return c;
+		}
+		return new HashSet<Object>(c);
+	}
+	
 	// Implements queue
 	
 	@Override
@@ -1378,6 +1761,70 @@ public class SnapshotableDeque<E> implements AutoCloseable,Deque<E>
 		}
 	}
 	
+	/**
+	 * getter for first node of current version of deque
+	 * 
+	 * @return first node, or null, if deque is empty
+	 */
+	public DequeNode<E> getFirstNode()
+	{
+		if(this.nodeSize == 0L)
+		{
+			return null;
+		}
+		Lock lock = this.readLock;
+		lock.lock();
+		try
+		{
+			Eyebolt<E> beginLink = begin.getLink();
+			if(beginLink == null)
+			{
+				return null;
+			}
+			if((beginLink.nextLink == null) || (beginLink.nextLink == end.getLink()))
+			{
+				return null;
+			}
+			return beginLink.nextLink.node;
+		}
+		finally 
+		{
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * getter for last node of current version of deque
+	 * 
+	 * @return last node, or null, if deque is empty
+	 */
+	public DequeNode<E> getLastNode()
+	{
+		if(this.nodeSize == 0L)
+		{
+			return null;
+		}
+		Lock lock = this.readLock;
+		lock.lock();
+		try
+		{
+			Eyebolt<E> endLink = end.getLink();
+			if(endLink == null)
+			{
+				return null;
+			}
+			if((endLink.previewsLink == null) || (endLink.previewsLink == begin.getLink()))
+			{
+				return null;
+			}
+			return endLink.previewsLink.node;
+		}
+		finally 
+		{
+			lock.unlock();
+		}
+	}
+	
 	@Override
 	public Iterator<E> iterator() 
 	{
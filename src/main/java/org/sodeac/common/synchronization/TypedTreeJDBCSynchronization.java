@@ -10,12 +10,22 @@
  *******************************************************************************/
 package org.sodeac.common.synchronization;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -162,6 +172,18 @@ public class TypedTreeJDBCSynchronization<T extends BranchNodeMetaModel> impleme
 		{
 			return session;
 		}
+
+		/**
+		 * Persists all nodes of update list with multi-row insert and upsert statements.
+		 * 
+		 * @throws SQLException
+		 * @throws InstantiationException
+		 * @throws IllegalAccessException
+		 */
+		public void persistAll() throws SQLException, InstantiationException, IllegalAccessException
+		{
+			this.session.persistAll(this.updateList);
+		}
 	}
 	
 	public static class DisposeChunkPhaseContext<T extends BranchNodeMetaModel>
@@ -217,6 +239,11 @@ public class TypedTreeJDBCSynchronization<T extends BranchNodeMetaModel> impleme
 	private Consumer<UpdateLocalNodeContext<T>> update = null;
 	private Consumer<PersistLocalNodesContext<T>> persist = null;
 	private Consumer<DisposeChunkPhaseContext<T>> dispose = null;
+	private int pipelineWorkerCount = 0;
+	private int pipelineCapacity = 0;
+	private volatile ChunkPipeline pipeline = null;
+	private AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+	private AtomicLongArray phaseCount = new AtomicLongArray(Phase.values().length);
 	
 	private void checkSession()
 	{
@@ -233,6 +260,13 @@ public class TypedTreeJDBCSynchronization<T extends BranchNodeMetaModel> impleme
 	}
 	
 	
+	/**
+	 * Synchronizes a chunk of remote nodes with local nodes. In pipelined mode the chunk is queued and processed asynchronously, 
+	 * this method blocks, if maximum count of pending chunks is reached. 
+	 * 
+	 * @param chunk remote nodes
+	 * @return synchronization
+	 */
 	public TypedTreeJDBCSynchronization<T> pushChunk(Collection<BranchNode<? extends BranchNodeMetaModel,T>> chunk)
 	{
 		if(chunk == null)
@@ -244,113 +278,159 @@ public class TypedTreeJDBCSynchronization<T extends BranchNodeMetaModel> impleme
 			return this;
 		}
 		
+		if(this.pipelineWorkerCount > 0)
+		{
+			getPipeline().push(chunk);
+			return this;
+		}
+		
 		this.checkSession();
 		
 		List<BranchNode<? extends BranchNodeMetaModel,T>> updateList = new ArrayList<>();
 		List<BranchNode<? extends BranchNodeMetaModel,T>> createdList = new ArrayList<>();
-		Map<BranchNode<? extends BranchNodeMetaModel,T>,BranchNode<? extends BranchNodeMetaModel,T>> pairs = null;
+		Map<BranchNode<? extends BranchNodeMetaModel,T>,BranchNode<? extends BranchNodeMetaModel,T>> pairs = findLocalNodes(this.finderContext, this.session, chunk);
+		
+		long start = System.nanoTime();
+		updateLocalNodes(this.checkUpToDateContext, this.locaNodeFactoryContext, this.updateLocalNodeContext, chunk, pairs, updateList, createdList);
+		recordPhase(Phase.UPDATE_LOCAL_NODES, start);
+		
+		this.checkSession();
+		persistLocalNodes(this.persistLocalNodesContext, this.session, updateList);
 		
-		this.finderContext.close();
-		this.finderContext.chunk = chunk;
-		this.finderContext.session = this.session;
+		disposeChunkPhase(this.disposeChunkPhaseContext, chunk, pairs, updateList, createdList);
+		
+		return this;
+	}
+	
+	private Map<BranchNode<? extends BranchNodeMetaModel,T>,BranchNode<? extends BranchNodeMetaModel,T>> findLocalNodes(FindLocalNodesContext<T> finderContext, Session session, Collection<BranchNode<? extends BranchNodeMetaModel,T>> chunk)
+	{
+		long start = System.nanoTime();
+		
+		finderContext.close();
+		finderContext.chunk = chunk;
+		finderContext.session = session;
 		try
 		{
-			this.finder.accept(this.finderContext);
-			pairs = this.finderContext.pairs == null ? new HashMap<>() : new HashMap<>(this.finderContext.pairs);
-			
-			for(BranchNode<? extends BranchNodeMetaModel,T> remote : chunk)
+			this.finder.accept(finderContext);
+			return finderContext.pairs == null ? new HashMap<>() : new HashMap<>(finderContext.pairs);
+		}
+		finally
+		{
+			finderContext.close();
+			recordPhase(Phase.FIND_LOCAL_NODES, start);
+		}
+	}
+	
+	private void updateLocalNodes
+	(
+		CheckUpToDateContext<T> checkUpToDateContext, LocalNodeFactoryContext<T> locaNodeFactoryContext, UpdateLocalNodeContext<T> updateLocalNodeContext,
+		Collection<BranchNode<? extends BranchNodeMetaModel,T>> chunk, Map<BranchNode<? extends BranchNodeMetaModel,T>,BranchNode<? extends BranchNodeMetaModel,T>> pairs,
+		List<BranchNode<? extends BranchNodeMetaModel,T>> updateList, List<BranchNode<? extends BranchNodeMetaModel,T>> createdList
+	)
+	{
+		for(BranchNode<? extends BranchNodeMetaModel,T> remote : chunk)
+		{
+			try
 			{
-				try
+				BranchNode<? extends BranchNodeMetaModel,T> local = pairs.get(remote);
+				if(local != null)
 				{
-					BranchNode<? extends BranchNodeMetaModel,T> local = pairs.get(remote);
-					if(local != null)
+					checkUpToDateContext.close();
+					try
 					{
-						this.checkUpToDateContext.close();
-						try
+						checkUpToDateContext.local = local;
+						checkUpToDateContext.remote = remote;
+						if(checker.apply(checkUpToDateContext).booleanValue())
 						{
-							this.checkUpToDateContext.local = local;
-							this.checkUpToDateContext.remote = remote;
-							if(checker.apply(this.checkUpToDateContext).booleanValue())
-							{
-								continue;
-							}
-						}
-						finally 
-						{
-							this.checkUpToDateContext.close();
+							continue;
 						}
 					}
-					else
+					finally 
 					{
-						this.locaNodeFactoryContext.close();
-						this.locaNodeFactoryContext.remote = remote;
-						try
-						{
-							local = this.factory.apply(this.locaNodeFactoryContext);
-						}
-						finally
-						{
-							this.locaNodeFactoryContext.close();
-						}
-						if(local != null)
-						{
-							createdList.add(local);
-						}
+						checkUpToDateContext.close();
 					}
-					this.updateLocalNodeContext.close();
-					this.updateLocalNodeContext.local = local;
-					this.updateLocalNodeContext.remote = remote;
+				}
+				else
+				{
+					locaNodeFactoryContext.close();
+					locaNodeFactoryContext.remote = remote;
 					try
 					{
-						this.update.accept(this.updateLocalNodeContext);
-						if(this.updateLocalNodeContext.local != null)
-						{
-							updateList.add(this.updateLocalNodeContext.local);
-						}
+						local = this.factory.apply(locaNodeFactoryContext);
 					}
-					finally 
+					finally
 					{
-						this.updateLocalNodeContext.close();
+						locaNodeFactoryContext.close();
+					}
+					if(local != null)
+					{
+						createdList.add(local);
 					}
 				}
-				catch (Exception e) 
+				updateLocalNodeContext.close();
+				updateLocalNodeContext.local = local;
+				updateLocalNodeContext.remote = remote;
+				try
 				{
-					// TODO: handle exception
-					e.printStackTrace();
+					this.update.accept(updateLocalNodeContext);
+					if(updateLocalNodeContext.local != null)
+					{
+						updateList.add(updateLocalNodeContext.local);
+					}
+				}
+				finally 
+				{
+					updateLocalNodeContext.close();
 				}
 			}
-			
-			this.checkSession();
-			this.persistLocalNodesContext.close();
-			this.persistLocalNodesContext.updateList = updateList;
-			this.persistLocalNodesContext.session = this.session;
-			try
-			{
-				this.persist.accept(this.persistLocalNodesContext);
-			}
-			finally 
+			catch (Exception e) 
 			{
-				this.persistLocalNodesContext.close();
+				// TODO: handle exception
+				e.printStackTrace();
 			}
 		}
-		finally
+	}
+	
+	private void persistLocalNodes(PersistLocalNodesContext<T> persistLocalNodesContext, Session session, List<BranchNode<? extends BranchNodeMetaModel,T>> updateList)
+	{
+		long start = System.nanoTime();
+		
+		persistLocalNodesContext.close();
+		persistLocalNodesContext.updateList = updateList;
+		persistLocalNodesContext.session = session;
+		try
 		{
-			this.finderContext.close();
+			this.persist.accept(persistLocalNodesContext);
 		}
+		finally 
+		{
+			persistLocalNodesContext.close();
+			recordPhase(Phase.PERSIST_LOCAL_NODES, start);
+		}
+	}
+	
+	private void disposeChunkPhase
+	(
+		DisposeChunkPhaseContext<T> disposeChunkPhaseContext, Collection<BranchNode<? extends BranchNodeMetaModel,T>> chunk, 
+		Map<BranchNode<? extends BranchNodeMetaModel,T>,BranchNode<? extends BranchNodeMetaModel,T>> pairs,
+		List<BranchNode<? extends BranchNodeMetaModel,T>> updateList, List<BranchNode<? extends BranchNodeMetaModel,T>> createdList
+	)
+	{
+		long start = System.nanoTime();
 		
-		this.disposeChunkPhaseContext.close();
+		disposeChunkPhaseContext.close();
 		try
 		{
-			this.disposeChunkPhaseContext.pairs = pairs;
-			this.disposeChunkPhaseContext.chunk = chunk;
-			this.disposeChunkPhaseContext.updateList = updateList;
-			this.disposeChunkPhaseContext.createdList = createdList;
+			disposeChunkPhaseContext.pairs = pairs;
+			disposeChunkPhaseContext.chunk = chunk;
+			disposeChunkPhaseContext.updateList = updateList;
+			disposeChunkPhaseContext.createdList = createdList;
 			
-			this.dispose.accept(this.disposeChunkPhaseContext);
+			this.dispose.accept(disposeChunkPhaseContext);
 		}
 		finally 
 		{
-			this.disposeChunkPhaseContext.close();
+			disposeChunkPhaseContext.close();
 			
 			try
 			{
@@ -372,26 +452,423 @@ public class TypedTreeJDBCSynchronization<T extends BranchNodeMetaModel> impleme
 				}
 			}
 			catch (Exception | Error e) {}
+			
+			recordPhase(Phase.DISPOSE_CHUNK, start);
+		}
+	}
+	
+	/**
+	 * Phases of chunk synchronization
+	 */
+	public enum Phase {FIND_LOCAL_NODES,UPDATE_LOCAL_NODES,PERSIST_LOCAL_NODES,DISPOSE_CHUNK}
+	
+	private void recordPhase(Phase phase, long start)
+	{
+		this.phaseNanos.addAndGet(phase.ordinal(), System.nanoTime() - start);
+		this.phaseCount.incrementAndGet(phase.ordinal());
+	}
+	
+	/**
+	 * 
+	 * @param phase phase of chunk synchronization
+	 * @return accumulated time of phase in nanoseconds
+	 */
+	public long getPhaseNanos(Phase phase)
+	{
+		return this.phaseNanos.get(phase.ordinal());
+	}
+	
+	/**
+	 * 
+	 * @param phase phase of chunk synchronization
+	 * @return count of completed executions of phase
+	 */
+	public long getPhaseCount(Phase phase)
+	{
+		return this.phaseCount.get(phase.ordinal());
+	}
+	
+	/**
+	 * Waits until all chunks pushed in pipelined mode are processed. 
+	 * 
+	 * @return synchronization
+	 * @throws RuntimeException if processing of a chunk failed
+	 */
+	public TypedTreeJDBCSynchronization<T> flush()
+	{
+		ChunkPipeline pipeline = this.pipeline;
+		if(pipeline != null)
+		{
+			pipeline.flush();
 		}
 		return this;
 	}
-
-
+	
+	private ChunkPipeline getPipeline()
+	{
+		ChunkPipeline pipeline = this.pipeline;
+		if(pipeline == null)
+		{
+			synchronized (this) 
+			{
+				if(this.pipeline == null)
+				{
+					this.pipeline = new ChunkPipeline();
+				}
+				pipeline = this.pipeline;
+			}
+		}
+		return pipeline;
+	}
+	
+	private static final AtomicInteger PIPELINE_COUNTER = new AtomicInteger();
+	
+	/**
+	 * Pipeline to process chunks in pipelined mode. Local nodes of next chunk are found with a separate session, while current chunk 
+	 * is compared, updated and persisted. Compare and update of a chunk run in parallel on worker pool. Each chunk is committed separately.
+	 * 
+	 * <p>If processing of a chunk fails, its transaction is rolled back and all chunks queued behind are cancelled. 
+	 * The failure is reported by next {@link ChunkPipeline#flush()}.
+	 * 
+	 * @author Sebastian Palarus
+	 *
+	 */
+	private class ChunkPipeline
+	{
+		private ExecutorService findExecutor = null;
+		private ExecutorService persistExecutor = null;
+		private ExecutorService workerPool = null;
+		private Semaphore pendingChunks = null;
+		private CompletableFuture<Void> tail = null;
+		private Session finderSession = null;
+		private volatile long createdCommits = 0L;
+		private int cancelledChunks = 0;
+		
+		private ChunkPipeline()
+		{
+			super();
+			String threadNamePrefix = "SynchronizationPipeline-" + PIPELINE_COUNTER.incrementAndGet() + "-";
+			this.findExecutor = Executors.newSingleThreadExecutor(newThreadFactory(threadNamePrefix + "find-"));
+			this.persistExecutor = Executors.newSingleThreadExecutor(newThreadFactory(threadNamePrefix + "persist-"));
+			this.workerPool = Executors.newFixedThreadPool(TypedTreeJDBCSynchronization.this.pipelineWorkerCount, newThreadFactory(threadNamePrefix + "worker-"));
+			this.pendingChunks = new Semaphore(TypedTreeJDBCSynchronization.this.pipelineCapacity);
+			this.tail = CompletableFuture.completedFuture(null);
+		}
+		
+		/*
+		 * daemon threads do not keep JVM alive, if synchronization is not closed
+		 */
+		private ThreadFactory newThreadFactory(String threadNamePrefix)
+		{
+			AtomicInteger threadCount = new AtomicInteger();
+			return runnable -> 
+			{
+				Thread thread = new Thread(runnable, threadNamePrefix + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			};
+		}
+		
+		private void push(Collection<BranchNode<? extends BranchNodeMetaModel,T>> chunk)
+		{
+			CompletableFuture<Void> previous = null;
+			synchronized (this) 
+			{
+				previous = this.tail;
+			}
+			if(previous.isCompletedExceptionally())
+			{
+				flush();
+			}
+			
+			try
+			{
+				this.pendingChunks.acquire();
+			}
+			catch (InterruptedException e) 
+			{
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+			
+			try
+			{
+				synchronized (this) 
+				{
+					long[] createdCommits = new long[1];
+					boolean[] started = new boolean[1];
+					CompletableFuture<Map<BranchNode<? extends BranchNodeMetaModel,T>,BranchNode<? extends BranchNodeMetaModel,T>>> found = CompletableFuture.supplyAsync(() -> 
+					{
+						createdCommits[0] = this.createdCommits;
+						try
+						{
+							return find(chunk);
+						}
+						catch (RuntimeException | Error e) 
+						{
+							started[0] = true; // failed chunk is not cancelled
+							throw e;
+						}
+					}, this.findExecutor);
+					CompletableFuture<Void> processed = this.tail.thenCombineAsync(found, (v,pairs) -> 
+					{
+						started[0] = true;
+						return process(chunk, pairs, createdCommits[0]);
+					}, this.persistExecutor);
+					this.tail = processed.whenComplete((v,e) -> 
+					{
+						if((e != null) && (! started[0]))
+						{
+							// chunk is not processed, because previous chunk failed
+							
+							synchronized (this)
+							{
+								this.cancelledChunks++;
+							}
+						}
+						this.pendingChunks.release();
+					});
+				}
+			}
+			catch (RuntimeException | Error e) 
+			{
+				this.pendingChunks.release();
+				throw e;
+			}
+		}
+		
+		private Map<BranchNode<? extends BranchNodeMetaModel,T>,BranchNode<? extends BranchNodeMetaModel,T>> find(Collection<BranchNode<? extends BranchNodeMetaModel,T>> chunk)
+		{
+			if(this.finderSession == null)
+			{
+				this.finderSession = TypedTreeJDBCSynchronization.this.cruder.openSession(TypedTreeJDBCSynchronization.this.dataSource);
+			}
+			try
+			{
+				return findLocalNodes(new FindLocalNodesContext<>(), this.finderSession, chunk);
+			}
+			finally 
+			{
+				// finder session only reads, end transaction to see chunks committed meanwhile
+				
+				try
+				{
+					this.finderSession.rollback();
+				}
+				catch (Exception e) {}
+			}
+		}
+		
+		private Void process(Collection<BranchNode<? extends BranchNodeMetaModel,T>> chunk, Map<BranchNode<? extends BranchNodeMetaModel,T>,BranchNode<? extends BranchNodeMetaModel,T>> pairs, long createdCommits)
+		{
+			checkSession();
+			Session session = TypedTreeJDBCSynchronization.this.session;
+			
+			List<BranchNode<? extends BranchNodeMetaModel,T>> updateList = new ArrayList<>();
+			List<BranchNode<? extends BranchNodeMetaModel,T>> createdList = new ArrayList<>();
+			try
+			{
+				// chunks committed while finder was running could create local nodes of remote nodes without pair
+				
+				if(createdCommits != this.createdCommits)
+				{
+					List<BranchNode<? extends BranchNodeMetaModel,T>> unpaired = new ArrayList<>();
+					for(BranchNode<? extends BranchNodeMetaModel,T> remote : chunk)
+					{
+						if(! pairs.containsKey(remote))
+						{
+							unpaired.add(remote);
+						}
+					}
+					if(! unpaired.isEmpty())
+					{
+						pairs.putAll(findLocalNodes(new FindLocalNodesContext<>(), session, unpaired));
+					}
+				}
+				
+				updateChunk(chunk, pairs, updateList, createdList);
+				
+				// persist chunk in one transaction
+				
+				persistLocalNodes(new PersistLocalNodesContext<>(), session, updateList);
+				session.commit();
+			}
+			catch (SQLException e) 
+			{
+				rollback(session);
+				throw new RuntimeException(e);
+			}
+			catch (RuntimeException | Error e) 
+			{
+				rollback(session);
+				throw e;
+			}
+			
+			if(! createdList.isEmpty())
+			{
+				this.createdCommits++; // only written by persist executor
+			}
+			
+			disposeChunkPhase(new DisposeChunkPhaseContext<>(), chunk, pairs, updateList, createdList);
+			return null;
+		}
+		
+		private void rollback(Session session)
+		{
+			try
+			{
+				session.rollback();
+			}
+			catch (Exception e) {}
+		}
+		
+		private void updateChunk
+		(
+			Collection<BranchNode<? extends BranchNodeMetaModel,T>> chunk, Map<BranchNode<? extends BranchNodeMetaModel,T>,BranchNode<? extends BranchNodeMetaModel,T>> pairs,
+			List<BranchNode<? extends BranchNodeMetaModel,T>> updateList, List<BranchNode<? extends BranchNodeMetaModel,T>> createdList
+		)
+		{
+			long start = System.nanoTime();
+			
+			// compare and update slices of chunk in parallel, results are merged in order of chunk
+			
+			List<BranchNode<? extends BranchNodeMetaModel,T>> remoteList = new ArrayList<>(chunk);
+			int sliceCount = Math.min(TypedTreeJDBCSynchronization.this.pipelineWorkerCount, remoteList.size());
+			int sliceSize = (remoteList.size() + sliceCount - 1) / sliceCount;
+			
+			List<CompletableFuture<List<BranchNode<? extends BranchNodeMetaModel,T>>[]>> slices = new ArrayList<>();
+			for(int i = 0; i < remoteList.size(); i += sliceSize)
+			{
+				List<BranchNode<? extends BranchNodeMetaModel,T>> slice = remoteList.subList(i, Math.min(i + sliceSize, remoteList.size()));
+				slices.add(CompletableFuture.supplyAsync(() -> 
+				{
+					@SuppressWarnings("unchecked")
+					List<BranchNode<? extends BranchNodeMetaModel,T>>[] result = new List[] {new ArrayList<>(), new ArrayList<>()};
+					updateLocalNodes(new CheckUpToDateContext<>(), new LocalNodeFactoryContext<>(), new UpdateLocalNodeContext<>(), slice, pairs, result[0], result[1]);
+					return result;
+				}, this.workerPool));
+			}
+			
+			try
+			{
+				for(CompletableFuture<List<BranchNode<? extends BranchNodeMetaModel,T>>[]> slice : slices)
+				{
+					List<BranchNode<? extends BranchNodeMetaModel,T>>[] result = slice.join();
+					updateList.addAll(result[0]);
+					createdList.addAll(result[1]);
+				}
+			}
+			catch (CompletionException e) 
+			{
+				if(e.getCause() instanceof RuntimeException)
+				{
+					throw (RuntimeException)e.getCause();
+				}
+				if(e.getCause() instanceof Error)
+				{
+					throw (Error)e.getCause();
+				}
+				throw e;
+			}
+			recordPhase(Phase.UPDATE_LOCAL_NODES, start);
+		}
+		
+		private void flush()
+		{
+			CompletableFuture<Void> tail = null;
+			synchronized (this) 
+			{
+				tail = this.tail;
+			}
+			try
+			{
+				tail.join();
+			}
+			catch (CompletionException e) 
+			{
+				// failed chunk is rolled back and queued chunks are cancelled, pipeline is reusable after failure is reported
+				
+				int cancelledChunks = 0;
+				synchronized (this) 
+				{
+					if(this.tail == tail)
+					{
+						this.tail = CompletableFuture.completedFuture(null);
+					}
+					cancelledChunks = this.cancelledChunks;
+					this.cancelledChunks = 0;
+				}
+				throw new RuntimeException("synchronization of chunk failed, " + cancelledChunks + " queued chunk(s) cancelled", e.getCause());
+			}
+		}
+		
+		private void close()
+		{
+			try
+			{
+				flush();
+			}
+			finally 
+			{
+				this.findExecutor.shutdown();
+				this.persistExecutor.shutdown();
+				this.workerPool.shutdown();
+				
+				try
+				{
+					this.findExecutor.awaitTermination(1, TimeUnit.MINUTES);
+				}
+				catch (InterruptedException e) 
+				{
+					Thread.currentThread().interrupt();
+				}
+				
+				try
+				{
+					if(this.finderSession != null)
+					{
+						this.finderSession.close();
+					}
+				}
+				catch (Exception e) {}
+				this.finderSession = null;
+			}
+		}
+	}
+	
+	
 	@Override
 	public void close() throws Exception 
 	{
 		try
 		{
-			Session session = this.session;
-			
-			if(session != null)
+			ChunkPipeline pipeline = this.pipeline;
+			if(pipeline != null)
 			{
-				this.session = null;
-				session.close();
+				this.pipeline = null;
+				pipeline.close();
 			}
 		}
-		catch (Exception | Error e) {}
-		
+		finally 
+		{
+			try
+			{
+				Session session = this.session;
+				
+				if(session != null)
+				{
+					this.session = null;
+					session.close();
+				}
+			}
+			catch (Exception | Error e) {}
+			
+			closeContexts();
+		}
+	}
+	
+	private void closeContexts()
+	{
 		try
 		{
 			this.finderContext.close();
@@ -442,6 +919,8 @@ public class TypedTreeJDBCSynchronization<T extends BranchNodeMetaModel> impleme
 		private Consumer<UpdateLocalNodeContext<T>> update = null;
 		private Consumer<PersistLocalNodesContext<T>> persist = null;
 		private Consumer<DisposeChunkPhaseContext<T>> dispose = null;
+		private int pipelineWorkerCount = 0;
+		private int pipelineCapacity = 0;
 		
 		public TTSBuilder2 findLocalNodes(Consumer<FindLocalNodesContext<T>> finder)
 		{
@@ -478,7 +957,7 @@ public class TypedTreeJDBCSynchronization<T extends BranchNodeMetaModel> impleme
 				TTSBuilder.this.factory = factory;
 				return new TTSBuilder4();
 			}
-			
+		
 		}
 		
 		public class TTSBuilder4
@@ -509,6 +988,31 @@ public class TypedTreeJDBCSynchronization<T extends BranchNodeMetaModel> impleme
 				TTSBuilder.this.persist = persist;
 				return new TTSBuilder6();
 			}
+			
+			/**
+			 * Persists local nodes of chunk with multi-row insert and upsert statements.
+			 * 
+			 * @return builder
+			 */
+			public TTSBuilder6 persistLocalNodesInBulk()
+			{
+				TTSBuilder.this.persist = c -> 
+				{
+					try
+					{
+						c.persistAll();
+					}
+					catch (RuntimeException e) 
+					{
+						throw e;
+					}
+					catch (Exception e) 
+					{
+						throw new RuntimeException(e);
+					}
+				};
+				return new TTSBuilder6();
+			}
 		}
 		
 		public class TTSBuilder6
@@ -536,6 +1040,30 @@ public class TypedTreeJDBCSynchronization<T extends BranchNodeMetaModel> impleme
 				super();
 			}
 			
+			/**
+			 * Enables pipelined mode. Pushed chunks are processed asynchronously in order of push: local nodes of next chunk are found with a separate session, 
+			 * while current chunk is compared, updated and persisted. Each chunk is committed after persist phase. If a chunk fails, its transaction is rolled back, 
+			 * chunks queued behind are cancelled and the failure is thrown by next push, {@link TypedTreeJDBCSynchronization#flush()} or close.
+			 * 
+			 * <p>Thread-safety: checker, local node factory and update callback run concurrently on worker threads for different remote nodes of the same chunk, 
+			 * so they must not share unsynchronized mutable state. Finder runs concurrently with persist and dispose callbacks of previous chunk. 
+			 * Remote nodes without pair are looked up again, if previous chunks created local nodes meanwhile, so consecutive chunks may contain the same keys.
+			 * 
+			 * @param workerCount count of worker threads to compare and update local nodes
+			 * @param maxPendingChunks maximum count of pushed chunks in process, {@link TypedTreeJDBCSynchronization#pushChunk(Collection)} blocks if limit is reached
+			 * @return builder
+			 */
+			public PreparedTTSBuilder pipelined(int workerCount, int maxPendingChunks)
+			{
+				if((workerCount < 1) || (maxPendingChunks < 1))
+				{
+					throw new IllegalArgumentException("worker count and max pending chunks must be greater than 0");
+				}
+				TTSBuilder.this.pipelineWorkerCount = workerCount;
+				TTSBuilder.this.pipelineCapacity = maxPendingChunks;
+				return this;
+			}
+			
 			public TypedTreeJDBCSynchronization<T> buildForDatasource(DataSource dataSource)
 			{
 				Objects.requireNonNull(dataSource);
@@ -548,6 +1076,8 @@ public class TypedTreeJDBCSynchronization<T extends BranchNodeMetaModel> impleme
 				synchronization.update = TTSBuilder.this.update;
 				synchronization.persist = TTSBuilder.this.persist;
 				synchronization.dispose = TTSBuilder.this.dispose;
+				synchronization.pipelineWorkerCount = TTSBuilder.this.pipelineWorkerCount;
+				synchronization.pipelineCapacity = TTSBuilder.this.pipelineCapacity;
 				
 				synchronization.cruder = TypedTreeJDBCCruder.get();
 				
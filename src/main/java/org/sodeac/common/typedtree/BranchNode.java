@@ -56,6 +56,7 @@ public class BranchNode<P extends BranchNodeMetaModel, T extends BranchNodeMetaM
 	private volatile ModifyListenerRegistration<T> modifyListenerRegistration = null;
 	private BranchNodeToObjectWrapper bow = null;
 	private volatile Node.PayloadLevel payloadLevel = null;
+	private BranchNode<?,?> snapshotCopy = null;
 	
 	protected static final Function<BranchNode,BranchNodeToObjectWrapper> FnBowFromBranchNode = n -> n.getBow();
 	
@@ -244,6 +245,7 @@ public class BranchNode<P extends BranchNodeMetaModel, T extends BranchNodeMetaM
 				this.positionInList = -1;
 				this.referenceNodeType = null;
 				this.bow = null;
+				this.snapshotCopy = null;
 				this.setRootLinked(false);
 			}
 		}
@@ -254,6 +256,16 @@ public class BranchNode<P extends BranchNodeMetaModel, T extends BranchNodeMetaM
 	{
 		return this.referenceNodeType;
 	}
+	
+	/**
+	 * Getter for position of node in child node list of parent node.
+	 * 
+	 * @return position in list, or -1, if node is not item of a list
+	 */
+	protected int getPositionInList()
+	{
+		return this.positionInList;
+	}
 
 	@Override
 	protected void setRootLinked(boolean rootLinked)
@@ -1094,13 +1106,14 @@ public class BranchNode<P extends BranchNodeMetaModel, T extends BranchNodeMetaM
 				return this;
 			}
 			
-			nodeContainer.listComparator = comparator;
-			
 			if(this.rootNode.isImmutable())
 			{
+				nodeContainer.listComparator = comparator;
 				return this;
 			}
 			
+			this.rootNode.prepareSnapshotModify(this);
+			nodeContainer.listComparator = comparator;
 			Collections.sort(nodeContainer.nodeList, nodeContainer.listComparator);
 			nodeContainer.unmodifiableNodeListSnapshot = null;
 			nodeContainer.unmodifiableBowListSnapshot = null;
@@ -1972,7 +1985,7 @@ public class BranchNode<P extends BranchNodeMetaModel, T extends BranchNodeMetaM
 		
 		for(NodeSelector<?, ?> selector : selectorList)
 		{
-			NodeContainer container = this.nodeContainerList.get(this.model.getNodeTypeIndexByClass().get(selector.getType()));
+			NodeContainer container = this.nodeContainerList.get(selector.getNodeTypeIndex(this.model));
 				
 			// ensure  BranchNode.ModifyListenerContainer is registered as IChildNodeListener
 										
@@ -2628,6 +2641,79 @@ public class BranchNode<P extends BranchNodeMetaModel, T extends BranchNodeMetaM
 		return this;
 	}
 	
+	/*
+	 * Path copying for snapshots: copies state of this node into immutable version node by direct access to node containers. 
+	 * Child nodes unmodified since latest snapshot are not copied, but shared with previous snapshot.
+	 * Unlike copyFrom() this has no side effects to source tree (auto create).
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	protected void copySnapshotStateTo(BranchNode<?,?> version)
+	{
+		for(int i = 0; i < this._nodeContainerList.size(); i++)
+		{
+			NodeContainer nodeContainer = this._nodeContainerList.get(i);
+			NodeContainer versionContainer = version._nodeContainerList.get(i);
+			
+			if(nodeContainer.nodeType instanceof LeafNodeType)
+			{
+				((LeafNode)versionContainer.node).setValue(((LeafNode)nodeContainer.node).getValue());
+			}
+			else if(nodeContainer.nodeType instanceof BranchNodeType)
+			{
+				BranchNode<?,?> child = (BranchNode)nodeContainer.node;
+				if(child == null)
+				{
+					continue;
+				}
+				if(child.snapshotCopy != null)
+				{
+					versionContainer.node = child.snapshotCopy;
+				}
+				else
+				{
+					child.copySnapshotStateTo(version.create(i, (BranchNodeType)nodeContainer.nodeType, null));
+				}
+			}
+			else if(nodeContainer.nodeType instanceof BranchNodeListType)
+			{
+				for(BranchNode<?,?> child : nodeContainer.nodeList)
+				{
+					if(child.snapshotCopy != null)
+					{
+						versionContainer.nodeList.add(child.snapshotCopy);
+					}
+					else
+					{
+						child.copySnapshotStateTo(version.create(i, (BranchNodeListType)nodeContainer.nodeType));
+					}
+				}
+				versionContainer.listComparator = nodeContainer.listComparator;
+			}
+		}
+		this.snapshotCopy = version;
+	}
+	
+	/*
+	 * Immutable version of this node in latest snapshot, or null, if node or one of its descendants is modified since then
+	 */
+	protected BranchNode<?,?> getSnapshotCopy()
+	{
+		return this.snapshotCopy;
+	}
+	
+	/*
+	 * invalidates versions of modified node and all its ancestors. Ancestors of a node without version have no version either.
+	 */
+	protected void invalidateSnapshotCopy()
+	{
+		BranchNode<?,?> node = this;
+		while((node != null) && (node.snapshotCopy != null))
+		{
+			node.snapshotCopy = null;
+			node = node.parentNode;
+		}
+	}
+	
 	public BranchNodeToObjectWrapper getBow()
 	{
 		return bow;
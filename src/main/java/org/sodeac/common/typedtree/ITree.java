@@ -113,6 +113,46 @@ public interface ITree<P extends TypedTreeMetaModel,R  extends BranchNodeMetaMod
 	 */
 	public RootBranchNode<P,R> removeTreeModifyListener(ITreeModifyListener modifyListener);
 	
+	/**
+	 * Getter for change tracking option.
+	 * 
+	 * @return true, if modifications of tree are recorded in {@link TreeChangeSet}, otherwise false
+	 */
+	public boolean isChangeTracking();
+	
+	/**
+	 * Setter for change tracking option. If enabled, all modifications of tree are recorded in a {@link TreeChangeSet}, 
+	 * even if all listeners are disabled. Disabling discards recorded modifications.
+	 * 
+	 * @param changeTracking change tracking option to set
+	 * @return root node
+	 */
+	public RootBranchNode<P,R> setChangeTracking(boolean changeTracking);
+	
+	/**
+	 * Getter for change set of tree.
+	 * 
+	 * @return change set, or null, if change tracking is disabled
+	 */
+	public TreeChangeSet getChangeSet();
+	
+	/**
+	 * Creates a snapshot of current tree state. Creating a snapshot does not copy the tree. The tree is copied once, if it is modified
+	 * while the snapshot is still referenced, or if the snapshot is accessed. Snapshots created between two modifications share the same copy.
+	 * 
+	 * @return snapshot of tree
+	 */
+	public TreeSnapshot<P,R> createSnapshot();
+	
+	/**
+	 * Starts a modify batch. Until the batch is closed, modifications of tree do not invoke modify listeners. 
+	 * On close one coalesced event per modified node is delivered.
+	 * The batch is bound to the current thread, modifications of other threads are not collected.
+	 * 
+	 * @return opened batch, to close after modifications
+	 */
+	public TreeModifyBatch startModifyBatch();
+	
 	public boolean isDisableAllListener();
 	
 	public RootBranchNode<P,R> setDisableAllListener(boolean disableAllListener);
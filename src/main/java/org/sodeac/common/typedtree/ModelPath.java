@@ -11,17 +11,20 @@
 package org.sodeac.common.typedtree;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
 import org.sodeac.common.expression.BooleanFunction.LogicalOperator;
 import org.sodeac.common.function.ConplierBean;
+import org.sodeac.common.typedtree.BranchNode.NodeContainer;
 import org.sodeac.common.typedtree.ModelPath.ModelPathBuilder.RootModelPathBuilder;
 import org.sodeac.common.typedtree.ModelPath.NodeSelector.Axis;
 import org.sodeac.common.typedtree.ModelPath.NodeSelector.NodeSelectorPredicate;
@@ -39,6 +42,7 @@ public class ModelPath<R extends BranchNodeMetaModel,T>
 	private LinkedList<NodeSelector<?,?>> selectorList = new LinkedList<>();
 	private Class<T> clazz = null;
 	private boolean indisposable = false;
+	private volatile CompiledModelPath compiledModelPath = null;
 	
 	private ModelPath()
 	{
@@ -82,6 +86,60 @@ public class ModelPath<R extends BranchNodeMetaModel,T>
 	{
 		return selectorList;
 	}
+	
+	/**
+	 * Selects all nodes or node's values addressed by this path.
+	 * 
+	 * @param node start node
+	 * @return list of selected nodes or values
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> select(BranchNode<?,R> node)
+	{
+		if(node == null)
+		{
+			return Collections.emptyList();
+		}
+		List<Object> collector = new ArrayList<Object>();
+		compile().select(node, collector, false);
+		return (List<T>)collector;
+	}
+	
+	/**
+	 * Selects first node or node's value addressed by this path.
+	 * 
+	 * @param node start node
+	 * @return first selected node or value, or null, if nothing is selected
+	 */
+	@SuppressWarnings("unchecked")
+	public T selectFirst(BranchNode<?,R> node)
+	{
+		if(node == null)
+		{
+			return null;
+		}
+		List<Object> collector = new ArrayList<Object>(1);
+		compile().select(node, collector, true);
+		return collector.isEmpty() ? null : (T)collector.get(0);
+	}
+	
+	/**
+	 * Getter for evaluation plan of this path. The plan is compiled once on first request.
+	 * 
+	 * @return compiled path
+	 */
+	protected CompiledModelPath compile()
+	{
+		CompiledModelPath compiledModelPath = this.compiledModelPath;
+		if(compiledModelPath != null)
+		{
+			return compiledModelPath;
+		}
+		Objects.requireNonNull(this.selectorList, "Model path is disposed");
+		compiledModelPath = new CompiledModelPath(this.selectorList);
+		this.compiledModelPath = compiledModelPath;
+		return compiledModelPath;
+	}
 
 	
 	public boolean isIndisposable()
@@ -108,6 +166,7 @@ public class ModelPath<R extends BranchNodeMetaModel,T>
 		selectorList.clear();
 		selectorList = null;
 		clazz = null;
+		compiledModelPath = null;
 	}
 	
 	@Override
@@ -179,7 +238,275 @@ public class ModelPath<R extends BranchNodeMetaModel,T>
 		clonedModelPath.clazz = this.clazz;
 		return clonedModelPath;
 	}
-
+	
+	/**
+	 * Evaluation plan of model path. All node types are resolved to index positions of {@link BranchNodeMetaModel}, 
+	 * and the predicate trees are flattened to arrays.
+	 * 
+	 * @author Sebastian Palarus
+	 *
+	 */
+	protected static class CompiledModelPath
+	{
+		private static final byte KIND_VALUE = 1;
+		private static final byte KIND_LEAF_NODE = 2;
+		private static final byte KIND_BRANCH_NODE = 3;
+		private static final byte KIND_BRANCH_NODE_LIST = 4;
+		
+		private CompiledPredicate rootPredicate = null;
+		private int[] nodeTypeIndexes = null;
+		private INodeType<?,?>[] nodeTypes = null;
+		private byte[] kinds = null;
+		private CompiledPredicate[] predicates = null;
+		
+		protected CompiledModelPath(List<NodeSelector<?,?>> selectorList)
+		{
+			super();
+			
+			int size = selectorList.size() -1;
+			this.nodeTypeIndexes = new int[size];
+			this.nodeTypes = new INodeType<?,?>[size];
+			this.kinds = new byte[size];
+			this.predicates = new CompiledPredicate[size];
+			
+			int step = -1;
+			for(NodeSelector<?,?> selector : selectorList)
+			{
+				if(step == -1)
+				{
+					this.rootPredicate = CompiledPredicate.compile(selector.getPredicate());
+					step++;
+					continue;
+				}
+				
+				INodeType<?,?> type = selector.getType();
+				this.nodeTypes[step] = type;
+				this.nodeTypeIndexes[step] = resolveNodeTypeIndex(type);
+				this.predicates[step] = CompiledPredicate.compile(selector.getPredicate());
+				
+				if(selector.getAxis() == Axis.VALUE)
+				{
+					this.kinds[step] = KIND_VALUE;
+				}
+				else if(type instanceof LeafNodeType)
+				{
+					this.kinds[step] = KIND_LEAF_NODE;
+				}
+				else if(type instanceof BranchNodeListType)
+				{
+					this.kinds[step] = KIND_BRANCH_NODE_LIST;
+				}
+				else
+				{
+					this.kinds[step] = KIND_BRANCH_NODE;
+				}
+				step++;
+			}
+		}
+		
+		protected static int resolveNodeTypeIndex(INodeType<?,?> type)
+		{
+			BranchNodeMetaModel model = ModelRegistry.DEFAULT_INSTANCE.getCachedBranchNodeMetaModel(type.getParentNodeClass());
+			Integer index = model.getNodeTypeIndexByClass().get(type);
+			if(index == null)
+			{
+				throw new IllegalStateException("node type " + type + " not found in " + type.getParentNodeClass());
+			}
+			return index.intValue();
+		}
+		
+		protected void select(BranchNode<?,?> node, List<Object> collector, boolean firstOnly)
+		{
+			Lock lock = node.getRootNode().isSynchronized() ? node.getRootNode().getReadLock() : null;
+			if(lock != null)
+			{
+				lock.lock();
+			}
+			try
+			{
+				if((this.rootPredicate != null) && (! this.rootPredicate.test(node)))
+				{
+					return;
+				}
+				select(node, 0, collector, firstOnly);
+			}
+			finally 
+			{
+				if(lock != null)
+				{
+					lock.unlock();
+				}
+			}
+		}
+		
+		/*
+		 * returns true, if selection is complete
+		 */
+		private boolean select(BranchNode<?,?> node, int step, List<Object> collector, boolean firstOnly)
+		{
+			if(step == this.kinds.length)
+			{
+				collector.add(node);
+				return firstOnly;
+			}
+			
+			NodeContainer container = node.getNodeContainer(this.nodeTypeIndexes[step], this.nodeTypes[step]);
+			switch (this.kinds[step])
+			{
+				case KIND_VALUE:
+					
+					collector.add(((LeafNode<?,?>)container.getNode()).getValue());
+					return firstOnly;
+				
+				case KIND_LEAF_NODE:
+					
+					collector.add(container.getNode());
+					return firstOnly;
+				
+				case KIND_BRANCH_NODE:
+					
+					BranchNode<?,?> child = (BranchNode<?,?>)container.getNode();
+					if(child == null)
+					{
+						return false;
+					}
+					if((this.predicates[step] != null) && (! this.predicates[step].test(child)))
+					{
+						return false;
+					}
+					return select(child, step + 1, collector, firstOnly);
+				
+				default:
+					
+					for(BranchNode<?,?> item : container.getNodeList())
+					{
+						if((this.predicates[step] != null) && (! this.predicates[step].test(item)))
+						{
+							continue;
+						}
+						if(select(item, step + 1, collector, firstOnly))
+						{
+							return true;
+						}
+					}
+					return false;
+			}
+		}
+	}
+	
+	/**
+	 * Flattened {@link NodeSelectorPredicate}.
+	 * 
+	 * @author Sebastian Palarus
+	 *
+	 */
+	protected static class CompiledPredicate
+	{
+		private boolean or = false;
+		private boolean invert = false;
+		private int[] leafNodeTypeIndexes = null;
+		private LeafNodeType<?,?>[] leafNodeTypes = null;
+		private Predicate<Object>[] leafNodePredicates = null;
+		private CompiledModelPath[] paths = null;
+		private Predicate<Object>[] pathPredicates = null;
+		private CompiledPredicate[] childPredicates = null;
+		
+		@SuppressWarnings("unchecked")
+		protected static CompiledPredicate compile(NodeSelectorPredicate<?> predicate)
+		{
+			if(predicate == null)
+			{
+				return null;
+			}
+			
+			CompiledPredicate compiledPredicate = new CompiledPredicate();
+			compiledPredicate.or = predicate.getLogicalOperator() == LogicalOperator.OR;
+			compiledPredicate.invert = predicate.isInvert();
+			
+			int size = predicate.leafNodePredicateList == null ? 0 : predicate.leafNodePredicateList.size();
+			compiledPredicate.leafNodeTypeIndexes = new int[size];
+			compiledPredicate.leafNodeTypes = new LeafNodeType<?,?>[size];
+			compiledPredicate.leafNodePredicates = new Predicate[size];
+			for(int i = 0; i < size; i++)
+			{
+				NodeSelector.LeafNodePredicate<?,?> leafNodePredicate = predicate.leafNodePredicateList.get(i);
+				compiledPredicate.leafNodeTypes[i] = leafNodePredicate.getField();
+				compiledPredicate.leafNodeTypeIndexes[i] = CompiledModelPath.resolveNodeTypeIndex(leafNodePredicate.getField());
+				compiledPredicate.leafNodePredicates[i] = (Predicate<Object>)leafNodePredicate.getPredicate();
+			}
+			
+			size = predicate.pathPredicateList == null ? 0 : predicate.pathPredicateList.size();
+			compiledPredicate.paths = new CompiledModelPath[size];
+			compiledPredicate.pathPredicates = new Predicate[size];
+			for(int i = 0; i < size; i++)
+			{
+				NodeSelector.PathPredicate<?,?> pathPredicate = predicate.pathPredicateList.get(i);
+				compiledPredicate.paths[i] = pathPredicate.getPath().compile();
+				compiledPredicate.pathPredicates[i] = (Predicate<Object>)pathPredicate.getPredicate();
+			}
+			
+			size = predicate.childPredicateList == null ? 0 : predicate.childPredicateList.size();
+			compiledPredicate.childPredicates = new CompiledPredicate[size];
+			for(int i = 0; i < size; i++)
+			{
+				compiledPredicate.childPredicates[i] = compile((NodeSelectorPredicate<?>)predicate.childPredicateList.get(i));
+			}
+			
+			return compiledPredicate;
+		}
+		
+		protected boolean test(BranchNode<?,?> node)
+		{
+			boolean empty = true;
+			
+			for(int i = 0; i < this.leafNodeTypeIndexes.length; i++)
+			{
+				NodeContainer container = node.getNodeContainer(this.leafNodeTypeIndexes[i], this.leafNodeTypes[i]);
+				boolean result = this.leafNodePredicates[i].test(((LeafNode<?,?>)container.getNode()).getValue());
+				if(result == this.or)
+				{
+					return result != this.invert;
+				}
+				empty = false;
+			}
+			
+			for(int i = 0; i < this.paths.length; i++)
+			{
+				List<Object> collector = new ArrayList<Object>();
+				this.paths[i].select(node, 0, collector, false);
+				boolean result = false;
+				for(Object value : collector)
+				{
+					if(this.pathPredicates[i].test(value))
+					{
+						result = true;
+						break;
+					}
+				}
+				if(result == this.or)
+				{
+					return result != this.invert;
+				}
+				empty = false;
+			}
+			
+			for(int i = 0; i < this.childPredicates.length; i++)
+			{
+				boolean result = this.childPredicates[i].test(node);
+				if(result == this.or)
+				{
+					return result != this.invert;
+				}
+				empty = false;
+			}
+			
+			// AND: all true or empty, OR: all false
+			
+			boolean result = empty || (! this.or);
+			return result != this.invert;
+		}
+	}
+	
 	public static class ModelPathBuilder<R extends BranchNodeMetaModel,S extends BranchNodeMetaModel>
 	{
 		private BranchNodeMetaModel root = null;
@@ -398,6 +725,7 @@ public class ModelPath<R extends BranchNodeMetaModel,T>
 		private BranchNodeMetaModel root = null;
 		private Axis axis = null;
 		private volatile boolean disposed = false;
+		private volatile NodeTypeIndex nodeTypeIndexCache = null;
 		
 		protected NodeSelector(BranchNodeMetaModel root)
 		{
@@ -482,6 +810,37 @@ public class ModelPath<R extends BranchNodeMetaModel,T>
 		{
 			return type;
 		}
+		
+		/**
+		 * Getter for index position of selector's node type in model. The index is resolved once per model.
+		 * 
+		 * @param model model of branch node which contains selected node
+		 * @return index position of node type
+		 */
+		protected int getNodeTypeIndex(BranchNodeMetaModel model)
+		{
+			NodeTypeIndex nodeTypeIndexCache = this.nodeTypeIndexCache;
+			if((nodeTypeIndexCache != null) && (nodeTypeIndexCache.model == model))
+			{
+				return nodeTypeIndexCache.index;
+			}
+			int index = model.getNodeTypeIndexByClass().get(this.type);
+			this.nodeTypeIndexCache = new NodeTypeIndex(model, index);
+			return index;
+		}
+		
+		private static class NodeTypeIndex
+		{
+			private final BranchNodeMetaModel model;
+			private final int index;
+			
+			private NodeTypeIndex(BranchNodeMetaModel model, int index)
+			{
+				super();
+				this.model = model;
+				this.index = index;
+			}
+		}
 
 		protected BranchNodeMetaModel getRootType()
 		{
@@ -11,6 +11,7 @@
 package org.sodeac.common.typedtree;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -38,12 +39,14 @@ public class ModelRegistry
 		this.writeLock = lock.writeLock();
 		this.typedTreeModelIndex = new HashMap<Class<?>,TypedTreeMetaModel>();
 		this.branchNodeModelIndex = new HashMap<Class<?>,BranchNodeMetaModel>();
+		this.parsePlanIndex = new HashMap<Object,ParsePlan>();
 	}
 	
 	private Lock readLock = null;
 	private Lock writeLock = null;
 	private Map<Class<?>,TypedTreeMetaModel> typedTreeModelIndex = null;
 	private Map<Class<?>,BranchNodeMetaModel> branchNodeModelIndex = null;
+	private Map<Object,ParsePlan> parsePlanIndex = null;
 	
 	public static <M extends TypedTreeMetaModel> M getTypedTreeMetaModel(Class<M> clazz)
 	{
@@ -165,6 +168,73 @@ public class ModelRegistry
 			return;
 		}
 		
+		ParsePlan parsePlan = ModelRegistry.DEFAULT_INSTANCE.getCachedParsePlan(clazz, parentNodeType);
+		
+		if(handler != null)
+		{
+			for(int i = 0; i < parsePlan.orderedModelList.size(); i++)
+			{
+				BranchNodeMetaModel modelInstance = parsePlan.orderedModelList.get(i);
+				Set<INodeType<BranchNodeMetaModel, ?>> references = parsePlan.orderedReferenceList.get(i);
+				
+				handler.startModel(modelInstance,references);
+				
+				for(INodeType<BranchNodeMetaModel, ?> staticNodeTypeInstance : modelInstance.getNodeTypeList())
+				{
+					handler.onNodeType(modelInstance, staticNodeTypeInstance);
+				}
+				
+				handler.endModel(modelInstance,references);
+			}
+		}
+	}
+	
+	/**
+	 * Returns resolved model hierarchy of <code>clazz</code>. The hierarchy is resolved once and reused by all following parser runs.
+	 * 
+	 * @param clazz class of model to parse
+	 * @param parentNodeType node type referencing model class or null
+	 * @return resolved model hierarchy
+	 */
+	protected ParsePlan getCachedParsePlan(Class<? extends BranchNodeMetaModel> clazz, INodeType parentNodeType)
+	{
+		Object key = parentNodeType == null ? clazz : parentNodeType;
+		
+		this.readLock.lock();
+		try
+		{
+			ParsePlan parsePlan = this.parsePlanIndex.get(key);
+			if(parsePlan != null)
+			{
+				return parsePlan;
+			}
+		}
+		finally 
+		{
+			this.readLock.unlock();
+		}
+		
+		ParsePlan parsePlan = createParsePlan(clazz, parentNodeType);
+		
+		this.writeLock.lock();
+		try
+		{
+			ParsePlan existingParsePlan = this.parsePlanIndex.get(key);
+			if(existingParsePlan != null)
+			{
+				return existingParsePlan;
+			}
+			this.parsePlanIndex.put(key, parsePlan);
+			return parsePlan;
+		}
+		finally 
+		{
+			this.writeLock.unlock();
+		}
+	}
+	
+	private ParsePlan createParsePlan(Class<? extends BranchNodeMetaModel> clazz, INodeType parentNodeType)
+	{
 		Map<Class<? extends BranchNodeMetaModel>,Set<INodeType<BranchNodeMetaModel, ?>>> toParseSet = new HashMap<Class<? extends BranchNodeMetaModel>,Set<INodeType<BranchNodeMetaModel, ?>>>();
 		List<Class<? extends BranchNodeMetaModel>> orderedParseClassList = new ArrayList<Class<? extends BranchNodeMetaModel>>();
 		Set<Class<? extends BranchNodeMetaModel>> doneSet = new HashSet<Class<? extends BranchNodeMetaModel>>();
@@ -190,7 +260,7 @@ public class ModelRegistry
 					}
 					
 					doneSet.add(toParse);
-					BranchNodeMetaModel modelInstance = ModelRegistry.DEFAULT_INSTANCE.getCachedBranchNodeMetaModel(toParse);
+					BranchNodeMetaModel modelInstance = getCachedBranchNodeMetaModel(toParse);
 					
 					boolean toParseModify = false;
 					for(INodeType<BranchNodeMetaModel, ?> staticNodeTypeInstance : modelInstance.getNodeTypeList())
@@ -224,42 +294,38 @@ public class ModelRegistry
 					}
 				}
 			}
-			if(handler != null)
+			
+			List<BranchNodeMetaModel> orderedModelList = new ArrayList<BranchNodeMetaModel>();
+			List<Set<INodeType<BranchNodeMetaModel, ?>>> orderedReferenceList = new ArrayList<Set<INodeType<BranchNodeMetaModel, ?>>>();
+			for(Class<? extends BranchNodeMetaModel> toParse : orderedParseClassList)
 			{
-				for(Class<? extends BranchNodeMetaModel> toParse : orderedParseClassList)
-				{
-					BranchNodeMetaModel modelInstance = ModelRegistry.DEFAULT_INSTANCE.getCachedBranchNodeMetaModel(toParse);
-					
-					handler.startModel(modelInstance,toParseSet.get(toParse));
-					
-					for(INodeType<BranchNodeMetaModel, ?> staticNodeTypeInstance : modelInstance.getNodeTypeList())
-					{
-						if(handler != null)
-						{
-							handler.onNodeType(modelInstance, staticNodeTypeInstance);
-						}
-					}
-					
-					handler.endModel(modelInstance,toParseSet.get(toParse));
-				}
+				orderedModelList.add(getCachedBranchNodeMetaModel(toParse));
+				orderedReferenceList.add(Collections.unmodifiableSet(toParseSet.get(toParse)));
 			}
+			
+			return new ParsePlan(Collections.unmodifiableList(orderedModelList), Collections.unmodifiableList(orderedReferenceList));
 		}
 		finally 
 		{
-			if(toParseSet != null)
-			{
-				toParseSet.clear();
-			}
-			
-			if(orderedParseClassList != null)
-			{
-				orderedParseClassList.clear();
-			}
-			
-			if(doneSet != null)
-			{
-				doneSet.clear();
-			}
+			orderedParseClassList.clear();
+			doneSet.clear();
+		}
+	}
+	
+	/**
+	 * Resolved model hierarchy with all models in parse order and the node types referencing each model.
+	 *
+	 */
+	protected static class ParsePlan
+	{
+		private List<BranchNodeMetaModel> orderedModelList = null;
+		private List<Set<INodeType<BranchNodeMetaModel, ?>>> orderedReferenceList = null;
+		
+		protected ParsePlan(List<BranchNodeMetaModel> orderedModelList, List<Set<INodeType<BranchNodeMetaModel, ?>>> orderedReferenceList)
+		{
+			super();
+			this.orderedModelList = orderedModelList;
+			this.orderedReferenceList = orderedReferenceList;
 		}
 	}
 }
@@ -0,0 +1,771 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.typedtree;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+
+import org.sodeac.common.typedtree.TypedTreeMetaModel.RootBranchNode;
+
+/**
+ * A tree change set records modifications of a typed tree since activation of change tracking or last {@link TreeChangeSet#clear()}.
+ *
+ * <p>Modifications are coalesced: for each branch node only the modified child node types and their original values are stored,
+ * a value set back to its original value is not modified anymore, and a node created and removed in same change set disappears completely.
+ *
+ * <p>{@link TreeChangeSet#getDetachedChanges()} returns the change set as delta without references to tracked tree, 
+ * which can be shipped and applied to a copy of tree by {@link TreeChangeSet#applyDetachedChanges(BranchNode, List)}.
+ *
+ * @author Sebastian Palarus
+ *
+ */
+public class TreeChangeSet
+{
+	private RootBranchNode<?,?> rootNode = null;
+	private Map<BranchNode<?,?>,Map<INodeType<?,?>,Object[]>> modifiedNodes = null;
+	private Set<BranchNode<?,?>> createdNodes = null;
+	private Map<BranchNode<?,?>,Change> removedNodes = null;
+	private Set<BranchNode<?,?>> clearedNodes = null;
+	private boolean cleared = false;
+	
+	protected TreeChangeSet(RootBranchNode<?,?> rootNode)
+	{
+		super();
+		this.rootNode = rootNode;
+		this.modifiedNodes = new LinkedHashMap<>();
+		this.createdNodes = new LinkedHashSet<>();
+		this.removedNodes = new LinkedHashMap<>();
+		this.clearedNodes = new HashSet<>();
+	}
+	
+	/**
+	 * Type of recorded change
+	 */
+	public enum ChangeType {CREATE,MODIFY,REMOVE}
+	
+	/**
+	 * Record modification notified by root node.
+	 *
+	 * @param parentNode parent node of modified node
+	 * @param nodeType static node type instance of modified node
+	 * @param oldValue old value
+	 * @param newValue new value
+	 */
+	protected synchronized void record(BranchNode<?,?> parentNode, INodeType<?,?> nodeType, Object oldValue, Object newValue)
+	{
+		if(nodeType instanceof LeafNodeType)
+		{
+			recordModify(parentNode, nodeType, oldValue, newValue);
+			return;
+		}
+		
+		if(oldValue == newValue)
+		{
+			return; // reorder in list
+		}
+		
+		if(oldValue != null)
+		{
+			recordRemove(parentNode, nodeType, (BranchNode<?,?>)oldValue);
+		}
+		if(newValue != null)
+		{
+			this.createdNodes.add((BranchNode<?,?>)newValue);
+		}
+		if(nodeType instanceof BranchNodeType)
+		{
+			recordModify(parentNode, nodeType, oldValue, newValue);
+		}
+	}
+	
+	private void recordModify(BranchNode<?,?> parentNode, INodeType<?,?> nodeType, Object oldValue, Object newValue)
+	{
+		Map<INodeType<?,?>,Object[]> values = this.modifiedNodes.get(parentNode);
+		if(values == null)
+		{
+			if(Objects.equals(oldValue, newValue))
+			{
+				return;
+			}
+			values = new LinkedHashMap<>();
+			this.modifiedNodes.put(parentNode, values);
+		}
+		Object[] originalAndCurrent = values.get(nodeType);
+		if(originalAndCurrent == null)
+		{
+			values.put(nodeType, new Object[] {oldValue, newValue});
+		}
+		else if(Objects.equals(originalAndCurrent[0], newValue))
+		{
+			values.remove(nodeType);
+			if(values.isEmpty())
+			{
+				this.modifiedNodes.remove(parentNode);
+			}
+		}
+		else
+		{
+			originalAndCurrent[1] = newValue;
+		}
+	}
+	
+	private void recordRemove(BranchNode<?,?> parentNode, INodeType<?,?> nodeType, BranchNode<?,?> node)
+	{
+		this.modifiedNodes.remove(node);
+		this.clearedNodes.remove(node);
+		if(this.createdNodes.remove(node))
+		{
+			return;
+		}
+		Change change = new Change(ChangeType.REMOVE, parentNode, nodeType, node, null, null);
+		change.path = getPath(node, true); // node is not disposed yet
+		this.removedNodes.put(node, change);
+	}
+	
+	/**
+	 * Creates path from root node to <code>node</code>.
+	 * 
+	 * @param node node
+	 * @param original true, to address list items by position in tree state of last {@link #clear()}, false to address by current position
+	 * @return path
+	 */
+	private List<PathElement> getPath(BranchNode<?,?> node, boolean original)
+	{
+		LinkedList<PathElement> path = new LinkedList<>();
+		for(BranchNode<?,?> current = node; current.getParentNode() != null; current = current.getParentNode())
+		{
+			path.addFirst(new PathElement(current.getNodeType().getNodeName(), original ? getOriginalPosition(current) : getPosition(current)));
+		}
+		return new ArrayList<>(path);
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private int getPosition(BranchNode<?,?> node)
+	{
+		if(! (node.getNodeType() instanceof BranchNodeListType))
+		{
+			return -1;
+		}
+		return node.getParentNode().getUnmodifiableNodeList((BranchNodeListType)node.getNodeType()).indexOf(node);
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private int getOriginalPosition(BranchNode<?,?> node)
+	{
+		if(! (node.getNodeType() instanceof BranchNodeListType))
+		{
+			return -1;
+		}
+		
+		// node may be removed from list already, but all positions in list are still in same order
+		
+		int position = 0;
+		for(BranchNode<?,?> sibling : (List<BranchNode<?,?>>)node.getParentNode().getUnmodifiableNodeList((BranchNodeListType)node.getNodeType()))
+		{
+			if((sibling != node) && (sibling.getPositionInList() < node.getPositionInList()) && (! this.createdNodes.contains(sibling)))
+			{
+				position++;
+			}
+		}
+		
+		// add siblings removed before
+		
+		List<Integer> removedPositions = new ArrayList<>();
+		for(Change removed : this.removedNodes.values())
+		{
+			if((removed.parentNode == node.getParentNode()) && (removed.nodeType == node.getNodeType()))
+			{
+				removedPositions.add(removed.path.get(removed.path.size() - 1).index);
+			}
+		}
+		Collections.sort(removedPositions);
+		for(int removedPosition : removedPositions)
+		{
+			if(removedPosition > position)
+			{
+				break;
+			}
+			position++;
+		}
+		return position;
+	}
+	
+	private void purgeDisposed()
+	{
+		this.modifiedNodes.keySet().removeIf(n -> n.isDisposed());
+		this.createdNodes.removeIf(n -> n.isDisposed());
+		this.clearedNodes.removeIf(n -> n.isDisposed());
+	}
+	
+	/**
+	 * Getter for root node of tracked tree.
+	 *
+	 * @return root node
+	 */
+	public RootBranchNode<?, ?> getRootNode()
+	{
+		return rootNode;
+	}
+	
+	/**
+	 *
+	 * @return true, if no modification is recorded, otherwise false
+	 */
+	public synchronized boolean isEmpty()
+	{
+		purgeDisposed();
+		return this.modifiedNodes.isEmpty() && this.createdNodes.isEmpty() && this.removedNodes.isEmpty();
+	}
+	
+	/**
+	 *
+	 * @param node branch node to check
+	 * @return true, if node is created since change tracking is started, otherwise false
+	 */
+	public synchronized boolean isCreated(BranchNode<?,?> node)
+	{
+		return this.createdNodes.contains(node);
+	}
+	
+	/**
+	 * A node is tracked, if its recorded modifications are complete in relation to a known state: 
+	 * node is created since change tracking is started, or its modifications are cleared (e.g. after loading or persisting node).
+	 * Modifications of a node, which is modified before change tracking is started, are not known.
+	 *
+	 * @param node branch node to check
+	 * @return true, if all modifications of node since known state are recorded, otherwise false
+	 */
+	public synchronized boolean isTracked(BranchNode<?,?> node)
+	{
+		return this.cleared || this.createdNodes.contains(node) || this.clearedNodes.contains(node);
+	}
+	
+	/**
+	 *
+	 * @param node branch node to check
+	 * @return true, if any leaf node or single child node of <code>node</code> is modified, otherwise false
+	 */
+	public synchronized boolean isModified(BranchNode<?,?> node)
+	{
+		return this.modifiedNodes.containsKey(node);
+	}
+	
+	/**
+	 *
+	 * @param node branch node to check
+	 * @param nodeType static child node type instance
+	 * @return true, if child node of <code>node</code> is modified, otherwise false
+	 */
+	public synchronized boolean isModified(BranchNode<?,?> node, INodeType<?,?> nodeType)
+	{
+		Map<INodeType<?,?>,Object[]> values = this.modifiedNodes.get(node);
+		return (values != null) && values.containsKey(nodeType);
+	}
+	
+	/**
+	 * Returns modified leaf node types and single child node types of <code>node</code>.
+	 *
+	 * @param node modified branch node
+	 * @return set of modified node types, or empty set, if node is not modified
+	 */
+	public synchronized Set<INodeType<?,?>> getModifiedNodeTypes(BranchNode<?,?> node)
+	{
+		Map<INodeType<?,?>,Object[]> values = this.modifiedNodes.get(node);
+		if(values == null)
+		{
+			return Collections.emptySet();
+		}
+		return Collections.unmodifiableSet(new LinkedHashSet<>(values.keySet()));
+	}
+	
+	/**
+	 *
+	 * @param node modified branch node
+	 * @param nodeType static child node type instance
+	 * @return value of child node before first modification
+	 */
+	public synchronized Object getOriginalValue(BranchNode<?,?> node, INodeType<?,?> nodeType)
+	{
+		Map<INodeType<?,?>,Object[]> values = this.modifiedNodes.get(node);
+		if(values == null)
+		{
+			return null;
+		}
+		Object[] originalAndCurrent = values.get(nodeType);
+		return originalAndCurrent == null ? null : originalAndCurrent[0];
+	}
+	
+	/**
+	 *
+	 * @return list of modified branch nodes
+	 */
+	public synchronized List<BranchNode<?,?>> getModifiedNodes()
+	{
+		purgeDisposed();
+		return Collections.unmodifiableList(new ArrayList<>(this.modifiedNodes.keySet()));
+	}
+	
+	/**
+	 *
+	 * @return list of created branch nodes
+	 */
+	public synchronized List<BranchNode<?,?>> getCreatedNodes()
+	{
+		purgeDisposed();
+		return Collections.unmodifiableList(new ArrayList<>(this.createdNodes));
+	}
+	
+	/**
+	 *
+	 * @return list of removed branch nodes
+	 */
+	public synchronized List<BranchNode<?,?>> getRemovedNodes()
+	{
+		return Collections.unmodifiableList(new ArrayList<>(this.removedNodes.keySet()));
+	}
+	
+	/**
+	 * Returns recorded modifications as flat delta list. Removals are listed first, followed by creations and modifications.
+	 *
+	 * @return list of changes
+	 */
+	public synchronized List<Change> getChanges()
+	{
+		purgeDisposed();
+		
+		List<Change> changes = new ArrayList<>(this.removedNodes.values());
+		for(BranchNode<?,?> node : this.createdNodes)
+		{
+			changes.add(new Change(ChangeType.CREATE, node.getParentNode(), node.getNodeType(), node, null, null));
+		}
+		for(Entry<BranchNode<?,?>,Map<INodeType<?,?>,Object[]>> entry : this.modifiedNodes.entrySet())
+		{
+			for(Entry<INodeType<?,?>,Object[]> modified : entry.getValue().entrySet())
+			{
+				changes.add(new Change(ChangeType.MODIFY, entry.getKey(), modified.getKey(), entry.getKey(), modified.getValue()[0], modified.getValue()[1]));
+			}
+		}
+		return changes;
+	}
+	
+	/**
+	 * Returns recorded modifications as delta, which addresses nodes by path and contains leaf node values only. 
+	 * Removals are listed first, followed by creations and modifications of leaf nodes.
+	 * 
+	 * <p>Removed nodes are addressed by their position in tree state of activation of change tracking or last {@link #clear()}, 
+	 * created and modified nodes by their current position. Reordering of list items is not recorded.
+	 *
+	 * @return list of detached changes
+	 */
+	public synchronized List<DetachedChange> getDetachedChanges()
+	{
+		purgeDisposed();
+		
+		List<DetachedChange> changes = new ArrayList<>();
+		for(Change change : this.removedNodes.values())
+		{
+			changes.add(new DetachedChange(ChangeType.REMOVE, change.path, null, null));
+		}
+		
+		List<List<PathElement>> createdPaths = new ArrayList<>();
+		for(BranchNode<?,?> node : this.createdNodes)
+		{
+			createdPaths.add(getPath(node, false));
+		}
+		createdPaths.sort(PATH_ORDER); // parent nodes first, list items in ascending order
+		for(List<PathElement> path : createdPaths)
+		{
+			changes.add(new DetachedChange(ChangeType.CREATE, path, null, null));
+		}
+		
+		for(Entry<BranchNode<?,?>,Map<INodeType<?,?>,Object[]>> entry : this.modifiedNodes.entrySet())
+		{
+			List<PathElement> path = null;
+			for(Entry<INodeType<?,?>,Object[]> modified : entry.getValue().entrySet())
+			{
+				if(! (modified.getKey() instanceof LeafNodeType))
+				{
+					continue; // covered by create and remove
+				}
+				if(path == null)
+				{
+					path = getPath(entry.getKey(), false);
+				}
+				changes.add(new DetachedChange(ChangeType.MODIFY, path, modified.getKey().getNodeName(), modified.getValue()[1]));
+			}
+		}
+		return changes;
+	}
+	
+	/**
+	 * Applies detached changes to a tree with same state as tracked tree at activation of change tracking or last {@link #clear()}.
+	 * 
+	 * @param rootNode root node of tree to modify
+	 * @param changes detached changes returned by {@link #getDetachedChanges()}
+	 * @throws IllegalStateException if a node addressed by change does not exist
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static void applyDetachedChanges(BranchNode<?,?> rootNode, List<DetachedChange> changes)
+	{
+		// removed nodes are addressed by original position, all of them are resolved before first remove
+		
+		List<BranchNode<?,?>> removeList = new ArrayList<>();
+		for(DetachedChange change : changes)
+		{
+			if(change.getChangeType() == ChangeType.REMOVE)
+			{
+				removeList.add(resolve(rootNode, change.getPath(), change.getPath().size()));
+			}
+		}
+		for(BranchNode node : removeList)
+		{
+			if(node.isDisposed())
+			{
+				continue; // removed with parent node
+			}
+			if(node.getNodeType() instanceof BranchNodeListType)
+			{
+				node.getParentNode().remove((BranchNodeListType)node.getNodeType(), node);
+			}
+			else
+			{
+				node.getParentNode().remove((BranchNodeType)node.getNodeType());
+			}
+		}
+		
+		for(DetachedChange change : changes)
+		{
+			if(change.getChangeType() == ChangeType.CREATE)
+			{
+				List<PathElement> path = change.getPath();
+				BranchNode parentNode = resolve(rootNode, path, path.size() - 1);
+				PathElement element = path.get(path.size() - 1);
+				INodeType<?,?> nodeType = getNodeType(parentNode, element.getNodeTypeName());
+				if(nodeType instanceof BranchNodeListType)
+				{
+					BranchNode<?,?> node = parentNode.create((BranchNodeListType)nodeType);
+					if(parentNode.getUnmodifiableNodeList((BranchNodeListType)nodeType).indexOf(node) != element.getIndex())
+					{
+						throw new IllegalStateException("position of created node does not match " + path);
+					}
+				}
+				else
+				{
+					parentNode.create((BranchNodeType)nodeType);
+				}
+			}
+			else if(change.getChangeType() == ChangeType.MODIFY)
+			{
+				BranchNode node = resolve(rootNode, change.getPath(), change.getPath().size());
+				node.setValue((LeafNodeType)getNodeType(node, change.getNodeTypeName()), change.getValue());
+			}
+		}
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static BranchNode<?,?> resolve(BranchNode<?,?> rootNode, List<PathElement> path, int length)
+	{
+		BranchNode node = rootNode;
+		for(int i = 0; i < length; i++)
+		{
+			PathElement element = path.get(i);
+			INodeType<?,?> nodeType = getNodeType(node, element.getNodeTypeName());
+			BranchNode child = null;
+			if(nodeType instanceof BranchNodeListType)
+			{
+				List<BranchNode> nodeList = node.getUnmodifiableNodeList((BranchNodeListType)nodeType);
+				child = (element.getIndex() >= 0) && (element.getIndex() < nodeList.size()) ? nodeList.get(element.getIndex()) : null;
+			}
+			else if(nodeType instanceof BranchNodeType)
+			{
+				child = node.get((BranchNodeType)nodeType);
+			}
+			if(child == null)
+			{
+				throw new IllegalStateException("node not found: " + path.subList(0, i + 1));
+			}
+			node = child;
+		}
+		return node;
+	}
+	
+	@SuppressWarnings("rawtypes")
+	private static INodeType<?,?> getNodeType(BranchNode<?,?> node, String nodeTypeName)
+	{
+		for(List<? extends INodeType> nodeTypeList : Arrays.asList(node.getLeafNodeTypeList(), node.getBranchNodeTypeList(), node.getBranchNodeListTypeList()))
+		{
+			for(INodeType<?,?> nodeType : nodeTypeList)
+			{
+				if(nodeType.getNodeName().equals(nodeTypeName))
+				{
+					return nodeType;
+				}
+			}
+		}
+		throw new IllegalStateException("node type " + nodeTypeName + " not found in " + node.getNodeType().getNodeName());
+	}
+	
+	private static final Comparator<List<PathElement>> PATH_ORDER = (path1, path2) -> 
+	{
+		if(path1.size() != path2.size())
+		{
+			return Integer.compare(path1.size(), path2.size());
+		}
+		for(int i = 0; i < path1.size(); i++)
+		{
+			int compare = Integer.compare(path1.get(i).index, path2.get(i).index);
+			if(compare != 0)
+			{
+				return compare;
+			}
+		}
+		return 0;
+	};
+	
+	/**
+	 * Removes all recorded modifications of <code>node</code>, e.g. after node is persisted.
+	 *
+	 * @param node branch node
+	 */
+	public synchronized void clear(BranchNode<?,?> node)
+	{
+		this.modifiedNodes.remove(node);
+		this.createdNodes.remove(node);
+		if(this.removedNodes.remove(node) == null)
+		{
+			this.clearedNodes.add(node);
+		}
+	}
+	
+	/**
+	 * Removes all recorded modifications.
+	 */
+	public synchronized void clear()
+	{
+		this.modifiedNodes.clear();
+		this.createdNodes.clear();
+		this.removedNodes.clear();
+		this.clearedNodes.clear();
+		this.cleared = true;
+	}
+	
+	protected synchronized void dispose()
+	{
+		clear();
+		this.rootNode = null;
+	}
+	
+	/**
+	 * A single entry of change set.
+	 *
+	 * @author Sebastian Palarus
+	 *
+	 */
+	public static class Change
+	{
+		private ChangeType changeType = null;
+		private BranchNode<?,?> parentNode = null;
+		private INodeType<?,?> nodeType = null;
+		private BranchNode<?,?> node = null;
+		private Object originalValue = null;
+		private Object value = null;
+		private List<PathElement> path = null;
+		
+		protected Change(ChangeType changeType, BranchNode<?,?> parentNode, INodeType<?,?> nodeType, BranchNode<?,?> node, Object originalValue, Object value)
+		{
+			super();
+			this.changeType = changeType;
+			this.parentNode = parentNode;
+			this.nodeType = nodeType;
+			this.node = node;
+			this.originalValue = originalValue;
+			this.value = value;
+		}
+		
+		/**
+		 *
+		 * @return type of change
+		 */
+		public ChangeType getChangeType()
+		{
+			return changeType;
+		}
+		
+		/**
+		 *
+		 * @return parent node of created or removed node, or modified node itself
+		 */
+		public BranchNode<?, ?> getParentNode()
+		{
+			return parentNode;
+		}
+		
+		/**
+		 *
+		 * @return static node type of created, removed or modified child node
+		 */
+		public INodeType<?, ?> getNodeType()
+		{
+			return nodeType;
+		}
+		
+		/**
+		 *
+		 * @return created, removed or modified branch node
+		 */
+		public BranchNode<?, ?> getNode()
+		{
+			return node;
+		}
+		
+		/**
+		 *
+		 * @return value before modification (only for {@link ChangeType#MODIFY})
+		 */
+		public Object getOriginalValue()
+		{
+			return originalValue;
+		}
+		
+		/**
+		 *
+		 * @return current value (only for {@link ChangeType#MODIFY})
+		 */
+		public Object getValue()
+		{
+			return value;
+		}
+	}
+	
+	/**
+	 * A single entry of change set without references to tracked tree. 
+	 *
+	 * @author Sebastian Palarus
+	 *
+	 */
+	public static class DetachedChange implements Serializable
+	{
+		private static final long serialVersionUID = -3057187447311853614L;
+		
+		private ChangeType changeType = null;
+		private List<PathElement> path = null;
+		private String nodeTypeName = null;
+		private Object value = null;
+		
+		public DetachedChange(ChangeType changeType, List<PathElement> path, String nodeTypeName, Object value)
+		{
+			super();
+			this.changeType = changeType;
+			this.path = path;
+			this.nodeTypeName = nodeTypeName;
+			this.value = value;
+		}
+		
+		/**
+		 *
+		 * @return type of change
+		 */
+		public ChangeType getChangeType()
+		{
+			return changeType;
+		}
+		
+		/**
+		 *
+		 * @return path of created, removed or modified branch node
+		 */
+		public List<PathElement> getPath()
+		{
+			return path;
+		}
+		
+		/**
+		 *
+		 * @return name of modified leaf node type (only for {@link ChangeType#MODIFY})
+		 */
+		public String getNodeTypeName()
+		{
+			return nodeTypeName;
+		}
+		
+		/**
+		 *
+		 * @return new value of leaf node (only for {@link ChangeType#MODIFY})
+		 */
+		public Object getValue()
+		{
+			return value;
+		}
+		
+		@Override
+		public String toString()
+		{
+			return changeType + " " + path + (nodeTypeName == null ? "" : " " + nodeTypeName + "=" + value);
+		}
+	}
+	
+	/**
+	 * Element of node path: name of child node type and position in list, or -1 for single child node.
+	 *
+	 * @author Sebastian Palarus
+	 *
+	 */
+	public static class PathElement implements Serializable
+	{
+		private static final long serialVersionUID = 6012640187720574113L;
+		
+		private String nodeTypeName = null;
+		private int index = -1;
+		
+		public PathElement(String nodeTypeName, int index)
+		{
+			super();
+			this.nodeTypeName = nodeTypeName;
+			this.index = index;
+		}
+		
+		/**
+		 *
+		 * @return name of child node type
+		 */
+		public String getNodeTypeName()
+		{
+			return nodeTypeName;
+		}
+		
+		/**
+		 *
+		 * @return position in child node list, or -1 for single child node
+		 */
+		public int getIndex()
+		{
+			return index;
+		}
+		
+		@Override
+		public String toString()
+		{
+			return index < 0 ? nodeTypeName : nodeTypeName + "[" + index + "]";
+		}
+	}
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.typedtree;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+
+import org.sodeac.common.typedtree.BranchNode.NodeContainer;
+import org.sodeac.common.typedtree.TypedTreeMetaModel.RootBranchNode;
+
+/**
+ * A modify batch collects modifications of a typed tree. While a batch is open, modifications are applied without invoking
+ * {@link ITreeModifyListener}s and {@link IModifyListener}s. On {@link TreeModifyBatch#close()} one coalesced event per modified node
+ * is delivered outside the tree lock.
+ *
+ * <p>Listeners can not veto modifications inside a batch. Batches can be nested, the events are delivered on close of outermost batch.
+ * 
+ * <p>A batch is owned by the thread, that started it. Only modifications of owner thread are collected, modifications of other threads
+ * are notified immediately or collected by their own batches. The batch has to be closed by owner thread.
+ *
+ * @author Sebastian Palarus
+ *
+ */
+public class TreeModifyBatch implements AutoCloseable
+{
+	private RootBranchNode<?,?> rootNode = null;
+	private Thread owner = null;
+	private volatile int depth = 0;
+	private Map<EventKey,Event> events = null;
+	
+	protected TreeModifyBatch(RootBranchNode<?,?> rootNode)
+	{
+		super();
+		this.rootNode = rootNode;
+		this.owner = Thread.currentThread();
+		this.events = new LinkedHashMap<>();
+	}
+	
+	/*
+	 * Requires exclusive access to tree
+	 */
+	protected TreeModifyBatch open()
+	{
+		this.depth++;
+		return this;
+	}
+	
+	/**
+	 * Getter for owner thread.
+	 * 
+	 * @return thread, that started this batch
+	 */
+	public Thread getOwner()
+	{
+		return owner;
+	}
+	
+	/**
+	 * Record modification notified by root node.
+	 *
+	 * @param parentNode parent node of modified node
+	 * @param nodeContainer container of modified node
+	 * @param oldValue old value
+	 * @param newValue new value
+	 */
+	protected void record(BranchNode<?,?> parentNode, NodeContainer nodeContainer, Object oldValue, Object newValue)
+	{
+		EventKey key = new EventKey(nodeContainer, nodeContainer.getNodeType() instanceof BranchNodeListType ? (oldValue == null ? newValue : oldValue) : null);
+		Event event = this.events.get(key);
+		if(event == null)
+		{
+			this.events.put(key, new Event(parentNode, nodeContainer, oldValue, newValue));
+		}
+		else
+		{
+			event.newValue = newValue;
+		}
+	}
+	
+	/**
+	 * Closes batch. If this is the outermost batch, the coalesced events are delivered to listeners of tree.
+	 */
+	@Override
+	public void close()
+	{
+		if(this.depth == 0)
+		{
+			return;
+		}
+		if(this.owner != Thread.currentThread())
+		{
+			throw new IllegalStateException("modify batch is owned by thread " + this.owner.getName());
+		}
+		
+		RootBranchNode<?,?> rootNode = this.rootNode;
+		List<Event> events = null;
+		
+		// drain events and remove batch atomically, otherwise modifications in between would be lost
+		
+		Lock lock = rootNode.isSynchronized() ? rootNode.getWriteLock() : null;
+		if(lock != null)
+		{
+			lock.lock();
+		}
+		try
+		{
+			if(--this.depth > 0)
+			{
+				return;
+			}
+			rootNode.removeModifyBatch(this);
+			events = new ArrayList<>(this.events.values());
+			this.events.clear();
+		}
+		finally 
+		{
+			if(lock != null)
+			{
+				lock.unlock();
+			}
+		}
+		
+		for(Event event : events)
+		{
+			if(event.parentNode.isDisposed())
+			{
+				continue;
+			}
+			if((event.nodeContainer.getNodeType() instanceof BranchNodeListType) ? (event.oldValue == null) && (event.newValue == null) : Objects.equals(event.oldValue, event.newValue))
+			{
+				continue; // no effective modification
+			}
+			rootNode.dispatchAfterModify(event.parentNode, event.nodeContainer, event.oldValue, event.newValue);
+		}
+	}
+	
+	/**
+	 *
+	 * @return true, if batch is open, otherwise false
+	 */
+	public boolean isOpen()
+	{
+		return this.depth > 0;
+	}
+	
+	private static class EventKey
+	{
+		private NodeContainer nodeContainer = null;
+		private Object node = null;
+		
+		private EventKey(NodeContainer nodeContainer, Object node)
+		{
+			super();
+			this.nodeContainer = nodeContainer;
+			this.node = node;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return (31 * System.identityHashCode(nodeContainer)) + System.identityHashCode(node);
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if(! (obj instanceof EventKey))
+			{
+				return false;
+			}
+			EventKey other = (EventKey)obj;
+			return (this.nodeContainer == other.nodeContainer) && (this.node == other.node);
+		}
+	}
+	
+	private static class Event
+	{
+		private BranchNode<?,?> parentNode = null;
+		private NodeContainer nodeContainer = null;
+		private Object oldValue = null;
+		private Object newValue = null;
+		
+		private Event(BranchNode<?,?> parentNode, NodeContainer nodeContainer, Object oldValue, Object newValue)
+		{
+			super();
+			this.parentNode = parentNode;
+			this.nodeContainer = nodeContainer;
+			this.oldValue = oldValue;
+			this.newValue = newValue;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.typedtree;
+
+import java.util.concurrent.locks.Lock;
+
+import org.sodeac.common.typedtree.TypedTreeMetaModel.RootBranchNode;
+
+/**
+ * A tree snapshot provides a stable, immutable version of a typed tree.
+ *
+ * <p>The copy of tree is created on demand: by writer before first modification of tree after snapshot is created,
+ * or by reader on first access to {@link TreeSnapshot#getRootNode()}. Snapshots of an unmodified tree share the same copy.
+ * 
+ * <p>Copies are created by path copying: only nodes modified since previous snapshot and their ancestors are copied,
+ * unmodified subtrees are shared with previous snapshot. Only the first snapshot of a tree copies all nodes. 
+ * As a consequence {@link BranchNode#getParentNode()} and {@link BranchNode#getRootNode()} of a shared node 
+ * return the parent and root of the snapshot, the node was copied for. The tree keeps its latest snapshot version until it is disposed.
+ *
+ * @author Sebastian Palarus
+ *
+ * @param <P> type of parent model
+ * @param <R> type of root node
+ */
+public class TreeSnapshot<P extends TypedTreeMetaModel,R extends BranchNodeMetaModel>
+{
+	private volatile RootBranchNode<P,R> tree = null;
+	private volatile RootBranchNode<P,R> snapshotTree = null;
+	
+	protected TreeSnapshot(RootBranchNode<P,R> tree)
+	{
+		super();
+		this.tree = tree;
+	}
+	
+	/**
+	 * Getter for immutable root node of snapshot. Readers can access returned tree without locks.
+	 *
+	 * @return immutable root node
+	 */
+	public RootBranchNode<P,R> getRootNode()
+	{
+		RootBranchNode<P,R> snapshotTree = this.snapshotTree;
+		if(snapshotTree != null)
+		{
+			return snapshotTree;
+		}
+		
+		RootBranchNode<P,R> tree = this.tree;
+		if(tree == null)
+		{
+			return this.snapshotTree;
+		}
+		
+		Lock lock = tree.isSynchronized() ? tree.getReadLock() : null;
+		if(lock != null)
+		{
+			lock.lock();
+		}
+		try
+		{
+			return materialize();
+		}
+		finally
+		{
+			if(lock != null)
+			{
+				lock.unlock();
+			}
+		}
+	}
+	
+	/**
+	 *
+	 * @return true, if tree is already copied, otherwise false
+	 */
+	public boolean isMaterialized()
+	{
+		return this.snapshotTree != null;
+	}
+	
+	/**
+	 * Copies tree, if not already done. Requires exclusive or read access to tree.
+	 *
+	 * @return immutable root node
+	 */
+	protected synchronized RootBranchNode<P,R> materialize()
+	{
+		if(this.snapshotTree == null)
+		{
+			this.snapshotTree = this.tree.copySnapshot();
+			this.tree = null;
+		}
+		return this.snapshotTree;
+	}
+}
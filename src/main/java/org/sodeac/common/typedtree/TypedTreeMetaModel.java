@@ -10,11 +10,15 @@
  *******************************************************************************/
 package org.sodeac.common.typedtree;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
@@ -119,6 +123,10 @@ public class TypedTreeMetaModel<T extends TypedTreeMetaModel> extends BranchNode
 		private volatile boolean disableAllListener = false;
 		private Class<? extends TypedTreeMetaModel<?>> modelClass = null;
 		private boolean childs = false;
+		private volatile TreeChangeSet changeSet = null;
+		private volatile WeakReference<TreeSnapshot<P,R>> currentSnapshot = null;
+		private boolean snapshotTree = false;
+		private volatile Map<Thread,TreeModifyBatch> modifyBatches = null;
 		
 		/**
 		 * Constructor of root node.
@@ -178,15 +186,26 @@ public class TypedTreeMetaModel<T extends TypedTreeMetaModel> extends BranchNode
 		@Override
 		public void dispose()
 		{
-			super.disposeNode();
+			materializeSnapshot();
+			if(! this.snapshotTree)
+			{
+				// nodes of snapshot tree can be shared with other snapshots
+				super.disposeNode();
+			}
 
 			if(this.modifyListeners != null)
 			{
 				this.modifyListeners.clear();
 			}
+			if(this.changeSet != null)
+			{
+				this.changeSet.dispose();
+			}
 			this.readLock = null;
 			this.writeLock = null;
 			this.modifyListeners = null;
+			this.changeSet = null;
+			this.modifyBatches = null;
 			this.sharedDoit = null;
 			this.modelClass = null;
 		}
@@ -243,6 +262,177 @@ public class TypedTreeMetaModel<T extends TypedTreeMetaModel> extends BranchNode
 			return this;
 		}
 		
+		@Override
+		public boolean isChangeTracking()
+		{
+			return this.changeSet != null;
+		}
+		
+		@Override
+		public RootBranchNode<P,R> setChangeTracking(boolean changeTracking)
+		{
+			if(changeTracking && (this.changeSet == null))
+			{
+				this.changeSet = new TreeChangeSet(this);
+			}
+			else if((! changeTracking) && (this.changeSet != null))
+			{
+				this.changeSet.dispose();
+				this.changeSet = null;
+			}
+			return this;
+		}
+		
+		@Override
+		public TreeChangeSet getChangeSet()
+		{
+			return this.changeSet;
+		}
+		
+		@Override
+		public TreeSnapshot<P,R> createSnapshot()
+		{
+			Lock lock = isSynchronized() ? getWriteLock() : null;
+			if(lock != null)
+			{
+				lock.lock();
+			}
+			try
+			{
+				WeakReference<TreeSnapshot<P,R>> currentSnapshot = this.currentSnapshot;
+				TreeSnapshot<P,R> snapshot = currentSnapshot == null ? null : currentSnapshot.get();
+				if(snapshot == null)
+				{
+					snapshot = new TreeSnapshot<P,R>(this);
+					this.currentSnapshot = new WeakReference<TreeSnapshot<P,R>>(snapshot);
+				}
+				return snapshot;
+			}
+			finally 
+			{
+				if(lock != null)
+				{
+					lock.unlock();
+				}
+			}
+		}
+		
+		@Override
+		public TreeModifyBatch startModifyBatch()
+		{
+			Lock lock = isSynchronized() ? getWriteLock() : null;
+			if(lock != null)
+			{
+				lock.lock();
+			}
+			try
+			{
+				TreeModifyBatch modifyBatch = getModifyBatch();
+				if(modifyBatch == null)
+				{
+					modifyBatch = new TreeModifyBatch(this);
+					if(this.modifyBatches == null)
+					{
+						this.modifyBatches = new HashMap<Thread,TreeModifyBatch>();
+					}
+					this.modifyBatches.put(modifyBatch.getOwner(), modifyBatch);
+				}
+				return modifyBatch.open();
+			}
+			finally 
+			{
+				if(lock != null)
+				{
+					lock.unlock();
+				}
+			}
+		}
+		
+		/*
+		 * batch opened by current thread, or null. Requires exclusive access to tree
+		 */
+		private TreeModifyBatch getModifyBatch()
+		{
+			Map<Thread,TreeModifyBatch> modifyBatches = this.modifyBatches;
+			if(modifyBatches == null)
+			{
+				return null;
+			}
+			return modifyBatches.get(Thread.currentThread());
+		}
+		
+		/*
+		 * invoked by outermost batch on close, while batch drains its events. Requires exclusive access to tree
+		 */
+		protected void removeModifyBatch(TreeModifyBatch modifyBatch)
+		{
+			Map<Thread,TreeModifyBatch> modifyBatches = this.modifyBatches;
+			if(modifyBatches == null)
+			{
+				return;
+			}
+			if(modifyBatches.get(modifyBatch.getOwner()) == modifyBatch)
+			{
+				modifyBatches.remove(modifyBatch.getOwner());
+			}
+			if(modifyBatches.isEmpty())
+			{
+				this.modifyBatches = null;
+			}
+		}
+		
+		/*
+		 * copy on write: latest snapshot still in use is materialized before node is modified, 
+		 * and versions of modified node and its ancestors are invalidated
+		 */
+		protected void prepareSnapshotModify(BranchNode<?,?> node)
+		{
+			if(this.currentSnapshot != null)
+			{
+				materializeSnapshot();
+			}
+			node.invalidateSnapshotCopy();
+		}
+		
+		/*
+		 * materializes latest snapshot still in use
+		 */
+		private void materializeSnapshot()
+		{
+			WeakReference<TreeSnapshot<P,R>> currentSnapshot = this.currentSnapshot;
+			if(currentSnapshot == null)
+			{
+				return;
+			}
+			this.currentSnapshot = null;
+			TreeSnapshot<P,R> snapshot = currentSnapshot.get();
+			if(snapshot != null)
+			{
+				snapshot.materialize();
+			}
+		}
+		
+		/**
+		 * Creates an immutable version of this tree. Only nodes modified since latest snapshot and their ancestors are copied, 
+		 * unmodified subtrees are shared with previous snapshot. Requires exclusive or read access to this tree.
+		 * 
+		 * @return immutable version
+		 */
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		protected synchronized RootBranchNode<P,R> copySnapshot()
+		{
+			RootBranchNode<P,R> copy = (RootBranchNode<P,R>)getSnapshotCopy();
+			if(copy != null)
+			{
+				return copy;
+			}
+			copy = new RootBranchNode<P,R>((BranchNodeType)getNodeType(), this.modelClass);
+			copy.snapshotTree = true;
+			copySnapshotStateTo(copy);
+			copy.setImmutable();
+			return copy;
+		}
+		
 		/**
 		 * Sequencer for tree's object-ID
 		 * 
@@ -333,7 +523,8 @@ public class TypedTreeMetaModel<T extends TypedTreeMetaModel> extends BranchNode
 		
 		protected <C extends INodeType<?,?>, T> boolean notifyBeforeModify(BranchNode<?, ?> parentNode, NodeContainer nodeContainer, T oldValue, T newValue)
 		{
-			if(this.disableAllListener)
+			prepareSnapshotModify(parentNode);
+			if(this.disableAllListener || (getModifyBatch() != null))
 			{
 				return true;
 			}
@@ -365,10 +556,26 @@ public class TypedTreeMetaModel<T extends TypedTreeMetaModel> extends BranchNode
 		
 		protected <C extends INodeType<?,?>, T> void notifyAfterModify(BranchNode<?, ?> parentNode, NodeContainer nodeContainer, T oldValue, T newValue)
 		{
+			TreeChangeSet changeSet = this.changeSet;
+			if(changeSet != null)
+			{
+				changeSet.record(parentNode, nodeContainer.getNodeType(), oldValue, newValue);
+			}
 			if(this.disableAllListener)
 			{
 				return;
 			}
+			TreeModifyBatch modifyBatch = getModifyBatch();
+			if(modifyBatch != null)
+			{
+				modifyBatch.record(parentNode, nodeContainer, oldValue, newValue);
+				return;
+			}
+			dispatchAfterModify(parentNode, nodeContainer, oldValue, newValue);
+		}
+		
+		protected <T> void dispatchAfterModify(BranchNode<?, ?> parentNode, NodeContainer nodeContainer, T oldValue, T newValue)
+		{
 			if((modifyListeners != null) && (! modifyListeners.isEmpty()))
 			{
 				for(ITreeModifyListener modifyListener : this.modifyListeners)
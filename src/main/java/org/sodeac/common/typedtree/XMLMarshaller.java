@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -50,8 +51,9 @@ public class XMLMarshaller
 	private String mainNamespace;
 	
 	private Map<Class<? extends BranchNodeMetaModel>,XMLNodeMarshaller> nodeMarshallerIndex;
-	private Map<String,Function<Object, String>> toStringIndex = StringConverter.toStringIndex();
-	private Map<String,Function<String, Object>> fromStringIndex = StringConverter.fromStringIndex();
+	private Map<INodeType<?,?>,String> rootElementNameIndex = new ConcurrentHashMap<INodeType<?,?>,String>();
+	private volatile XMLInputFactory xmlInputFactory = null;
+	private volatile XMLOutputFactory xmlOutputFactory = null;
 	
 	
 	protected XMLMarshaller(String namespace)
@@ -80,8 +82,11 @@ public class XMLMarshaller
 		for(Entry<Class<? extends BranchNodeMetaModel>,XMLNodeMarshaller> entry : this.nodeMarshallerIndex.entrySet())
 		{
 			BranchNodeMetaModel metaModel = ModelRegistry.getBranchNodeMetaModel(entry.getValue().nodeModelClass);
+			int nodeTypeIndex = -1;
 			for(INodeType nodeType : metaModel.getNodeTypeList())
 			{
+				nodeTypeIndex++;
+				
 				if(nodeType instanceof LeafNodeType)
 				{
 					XmlAttribute xmlAttribute = nodeType.referencedByField().getAnnotation(XmlAttribute.class);
@@ -95,9 +100,10 @@ public class XMLMarshaller
 					
 					SubUnmarshallerContainer unmarshalContainer = new SubUnmarshallerContainer();
 					unmarshalContainer.nodeType = nodeType;
+					unmarshalContainer.nodeTypeIndex = nodeTypeIndex;
 					unmarshalContainer.parseTextOnly = true;
 					unmarshalContainer.nodeName = nodeType.getNodeName();
-					unmarshalContainer.stringToValue = fromStringIndex.get(nodeType.getTypeClass().getCanonicalName());
+					unmarshalContainer.stringToValue = StringConverter.fromStringFunction(nodeType.getTypeClass());
 					unmarshalContainer.marshaller =  this.nodeMarshallerIndex.get(nodeType.getTypeClass());
 					
 					if(unmarshalContainer.stringToValue == null)
@@ -107,7 +113,8 @@ public class XMLMarshaller
 					
 					SubMarshallerContainer marshalContainer = new SubMarshallerContainer();
 					marshalContainer.nodeType = nodeType;
-					marshalContainer.valueToString = toStringIndex.get(nodeType.getTypeClass().getCanonicalName());
+					marshalContainer.nodeTypeIndex = nodeTypeIndex;
+					marshalContainer.valueToString = StringConverter.toStringFunction(nodeType.getTypeClass());
 					
 					marshalContainer.ignoreIfNull = nodeType.referencedByField().getAnnotation(IgnoreIfNull.class) != null;
 					
@@ -158,15 +165,15 @@ public class XMLMarshaller
 					
 					if(marshalContainer.ignoreIfTrue)
 					{
-						entry.getValue().defaultSetterUnmarshalling.add(b -> b.setValue((LeafNodeType)nodeType, true));
+						entry.getValue().defaultSetterUnmarshalling.add(b -> b.setLeafNodeValue(unmarshalContainer.nodeTypeIndex, (LeafNodeType)nodeType, true));
 					}
 					else if(marshalContainer.ignoreIfFalse)
 					{
-						entry.getValue().defaultSetterUnmarshalling.add(b -> b.setValue((LeafNodeType)nodeType, false));
+						entry.getValue().defaultSetterUnmarshalling.add(b -> b.setLeafNodeValue(unmarshalContainer.nodeTypeIndex, (LeafNodeType)nodeType, false));
 					}
 					if((!marshalContainer.ignoreIfNull) && marshalContainer.ignoreIfEmpty)
 					{
-						entry.getValue().defaultSetterUnmarshalling.add(b -> b.setValue((LeafNodeType)nodeType, ""));
+						entry.getValue().defaultSetterUnmarshalling.add(b -> b.setLeafNodeValue(unmarshalContainer.nodeTypeIndex, (LeafNodeType)nodeType, ""));
 					}
 					
 					
@@ -178,10 +185,12 @@ public class XMLMarshaller
 					
 					SubUnmarshallerContainer unmarshalContainer = new SubUnmarshallerContainer();
 					unmarshalContainer.nodeType = nodeType;
+					unmarshalContainer.nodeTypeIndex = nodeTypeIndex;
 					unmarshalContainer.nodeName = nodeType.getNodeName();
 					unmarshalContainer.marshaller =  this.nodeMarshallerIndex.get(nodeType.getTypeClass());
 					
 					SubMarshallerContainer container = new SubMarshallerContainer();
+					container.nodeTypeIndex = nodeTypeIndex;
 					container.ignoreIfNull = nodeType.referencedByField().getAnnotation(IgnoreIfNull.class) != null;
 					
 					container.nodeType = nodeType;
@@ -215,10 +224,12 @@ public class XMLMarshaller
 					
 					SubUnmarshallerContainer unmarshalContainer = new SubUnmarshallerContainer();
 					unmarshalContainer.nodeType = nodeType;
+					unmarshalContainer.nodeTypeIndex = nodeTypeIndex;
 					unmarshalContainer.nodeName = nodeType.getNodeName();
 					unmarshalContainer.marshaller =  this.nodeMarshallerIndex.get(nodeType.getTypeClass());
 					
 					SubMarshallerContainer container = new SubMarshallerContainer();
+					container.nodeTypeIndex = nodeTypeIndex;
 					container.ignoreIfEmpty = nodeType.referencedByField().getAnnotation(IgnoreIfEmpty.class) != null;
 					
 					container.nodeType = nodeType;
@@ -281,15 +292,10 @@ public class XMLMarshaller
 			{
 				throw new IllegalStateException("Marshaller not found for " + node.getNodeType().getTypeClass());
 			}
-			XMLStreamWriter out = XMLOutputFactory.newInstance().createXMLStreamWriter( new OutputStreamWriter(os, "UTF-8"));
+			XMLStreamWriter out = getXMLOutputFactory().createXMLStreamWriter( new OutputStreamWriter(os, "UTF-8"));
 			try
 			{
-				String rootName = node.getNodeType().getNodeName();
-				XmlElement xmlElement = node.getNodeType().referencedByField().getAnnotation(XmlElement.class);
-				if((xmlElement != null) &&  (xmlElement.name() != null) && (! xmlElement.name().isEmpty()) && (! "##default".equals(xmlElement.name())))
-				{
-					rootName = xmlElement.name();
-				}
+				String rootName = getRootElementName(node.getNodeType());
 				out.setDefaultNamespace(this.mainNamespace);
 				out.writeStartDocument("UTF-8", "1.0");
 				out.writeStartElement(rootName);
@@ -324,8 +330,7 @@ public class XMLMarshaller
 				throw new IllegalStateException("Marshaller not found for " + node.getNodeType().getTypeClass());
 			}
 			
-			XMLInputFactory factory = XMLInputFactory.newInstance();
-			XMLStreamReader reader = factory.createXMLStreamReader(is);
+			XMLStreamReader reader = getXMLInputFactory().createXMLStreamReader(is);
 			ReaderInput readerInput = new ReaderInput();
 			readerInput.setReader(reader);
 			try
@@ -372,6 +377,45 @@ public class XMLMarshaller
 		}
 	}
 	
+	private String getRootElementName(INodeType<?,?> nodeType)
+	{
+		String rootName = this.rootElementNameIndex.get(nodeType);
+		if(rootName != null)
+		{
+			return rootName;
+		}
+		rootName = nodeType.getNodeName();
+		XmlElement xmlElement = nodeType.referencedByField().getAnnotation(XmlElement.class);
+		if((xmlElement != null) &&  (xmlElement.name() != null) && (! xmlElement.name().isEmpty()) && (! "##default".equals(xmlElement.name())))
+		{
+			rootName = xmlElement.name();
+		}
+		this.rootElementNameIndex.put(nodeType, rootName);
+		return rootName;
+	}
+	
+	private XMLInputFactory getXMLInputFactory()
+	{
+		XMLInputFactory xmlInputFactory = this.xmlInputFactory;
+		if(xmlInputFactory == null)
+		{
+			xmlInputFactory = XMLInputFactory.newInstance();
+			this.xmlInputFactory = xmlInputFactory;
+		}
+		return xmlInputFactory;
+	}
+	
+	private XMLOutputFactory getXMLOutputFactory()
+	{
+		XMLOutputFactory xmlOutputFactory = this.xmlOutputFactory;
+		if(xmlOutputFactory == null)
+		{
+			xmlOutputFactory = XMLOutputFactory.newInstance();
+			this.xmlOutputFactory = xmlOutputFactory;
+		}
+		return xmlOutputFactory;
+	}
+	
 	private class XMLNodeMarshaller
 	{
 		protected XMLNodeMarshaller(Class<? extends BranchNodeMetaModel> nodeModelClass)
@@ -542,6 +586,7 @@ public class XMLMarshaller
 	private class SubUnmarshallerContainer
 	{
 		protected INodeType nodeType;
+		protected int nodeTypeIndex = -1;
 		protected boolean parseTextOnly = false;
 		protected Function<String,Object> stringToValue = null;
 		protected BiConsumer<ReaderInput, BranchNode> runner = null;
@@ -552,12 +597,12 @@ public class XMLMarshaller
 		
 		protected void runLeafNodeAsAttribute(ReaderInput readerInput, BranchNode node)
 		{
-			node.setValue((LeafNodeType)nodeType, stringToValue.apply(readerInput.getValue()));
+			node.setLeafNodeValue(nodeTypeIndex, (LeafNodeType)nodeType, stringToValue.apply(readerInput.getValue()));
 		}
 		
 		protected void runLeafNodeAsElement(ReaderInput readerInput, BranchNode node)
 		{
-			node.setValue((LeafNodeType)nodeType, stringToValue.apply(readerInput.getValue()));
+			node.setLeafNodeValue(nodeTypeIndex, (LeafNodeType)nodeType, stringToValue.apply(readerInput.getValue()));
 		}
 		
 		protected void runBranchNode(ReaderInput readerInput, BranchNode node)
@@ -597,7 +642,7 @@ public class XMLMarshaller
 						return;
 					}
 				}
-				BranchNode child = node.create((BranchNodeType)nodeType);
+				BranchNode child = node.create(nodeTypeIndex, (BranchNodeType)nodeType, null);
 				marshaller.defaultSetterUnmarshalling.forEach( d -> d.accept(child));
 				
 				for(int i = 0; i < attributeCount; i++)
@@ -630,7 +675,7 @@ public class XMLMarshaller
 					switch (readerInput.getReader().next()) 
 					{
 						case XMLStreamConstants.START_ELEMENT:
-							BranchNode child = node.create((BranchNodeListType)nodeType);
+							BranchNode child = node.create(nodeTypeIndex, (BranchNodeListType)nodeType);
 							marshaller.defaultSetterUnmarshalling.forEach( d -> d.accept(child));
 							int attributeCount = readerInput.getReader().getAttributeCount();
 							for(int i = 0; i < attributeCount; i++)
@@ -664,7 +709,7 @@ public class XMLMarshaller
 		{
 			try
 			{
-				BranchNode child = node.create((BranchNodeListType)nodeType);
+				BranchNode child = node.create(nodeTypeIndex, (BranchNodeListType)nodeType);
 				marshaller.defaultSetterUnmarshalling.forEach( d -> d.accept(child));
 				int attributeCount = readerInput.getReader().getAttributeCount();
 				for(int i = 0; i < attributeCount; i++)
@@ -692,6 +737,7 @@ public class XMLMarshaller
 	private class SubMarshallerContainer
 	{
 		protected INodeType nodeType;
+		protected int nodeTypeIndex = -1;
 		protected BiConsumer<XMLStreamWriter, BranchNode> runner = null;
 		protected Function<Object, String> valueToString = null;
 		protected XMLNodeMarshaller marshaller = null;
@@ -709,8 +755,8 @@ public class XMLMarshaller
 			try
 			{
 				
-				LeafNode<?,?> leafNode = node.get((LeafNodeType)nodeType);
-				if(leafNode.getValue() == null)
+				Object value = node.getLeafNodeValue(nodeTypeIndex, (LeafNodeType)nodeType);
+				if(value == null)
 				{
 					if(ignoreIfNull)
 					{
@@ -722,16 +768,16 @@ public class XMLMarshaller
 				}
 				else
 				{
-					if((ignoreIfFalse) && (!((Boolean)leafNode.getValue()).booleanValue()))
+					if((ignoreIfFalse) && (!((Boolean)value).booleanValue()))
 					{
 						return;
 					}
-					if((ignoreIfTrue) && ((Boolean)leafNode.getValue()).booleanValue())
+					if((ignoreIfTrue) && ((Boolean)value).booleanValue())
 					{
 						return;
 					}
 					out.writeStartElement(nodeName);
-					out.writeCharacters(this.valueToString.apply(leafNode.getValue()));
+					out.writeCharacters(this.valueToString.apply(value));
 					out.writeEndElement();
 				}
 				
@@ -746,8 +792,8 @@ public class XMLMarshaller
 		{
 			try
 			{
-				LeafNode<?,?> leafNode = node.get((LeafNodeType)nodeType);
-				if(leafNode.getValue() == null)
+				Object value = node.getLeafNodeValue(nodeTypeIndex, (LeafNodeType)nodeType);
+				if(value == null)
 				{
 					if(ignoreIfNull)
 					{
@@ -757,15 +803,15 @@ public class XMLMarshaller
 				}
 				else
 				{
-					if((ignoreIfFalse) && (!((Boolean)leafNode.getValue()).booleanValue()))
+					if((ignoreIfFalse) && (!((Boolean)value).booleanValue()))
 					{
 						return;
 					}
-					if((ignoreIfTrue) && ((Boolean)leafNode.getValue()).booleanValue())
+					if((ignoreIfTrue) && ((Boolean)value).booleanValue())
 					{
 						return;
 					}
-					out.writeAttribute(this.nodeName, this.valueToString.apply(leafNode.getValue()));
+					out.writeAttribute(this.nodeName, this.valueToString.apply(value));
 				}
 			}
 			catch (Exception e) 
@@ -778,7 +824,7 @@ public class XMLMarshaller
 		{
 			try
 			{
-				BranchNode<?,?> branchNode = node.get((BranchNodeType)nodeType);
+				BranchNode<?,?> branchNode = node.get(nodeTypeIndex, (BranchNodeType)nodeType);
 				if(branchNode == null)
 				{
 					if(ignoreIfNull)
@@ -807,7 +853,7 @@ public class XMLMarshaller
 		{
 			try
 			{
-				List<BranchNode<?,?>> branchNodeList = node.getUnmodifiableNodeList((BranchNodeListType)nodeType);
+				List<BranchNode<?,?>> branchNodeList = node.getUnmodifiableNodeList(nodeTypeIndex, (BranchNodeListType)nodeType);
 				
 				if(ignoreIfEmpty && branchNodeList.isEmpty())
 				{
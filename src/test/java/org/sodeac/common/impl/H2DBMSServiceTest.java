@@ -15,7 +15,9 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -450,6 +452,121 @@ public class H2DBMSServiceTest
 			connection.close();
 		}
 	}
+	
+	@Test
+	public void test00041BackupRestoreClone() throws Exception
+	{
+		IDatabaseManagementSystemService databaseManagementSystemService = getService();
+		
+		File directory = new File("./target");
+		File tempDirectory = new File(directory, "h2-test-backupclone-tmp");
+		
+		H2PropertyBuilder propertyBuilder = H2PropertyBuilder.newInstance(directory.getCanonicalPath(), "h2-test-backupclone-origin").setConnectionUsername("sa").setConnectionPassword("sa").setBackupClone(true);
+		
+		Connection connection = createBackupTestDatabase(databaseManagementSystemService, propertyBuilder, "h2-test-backupclone-backup");
+		try
+		{
+			File backupFile = databaseManagementSystemService.backup(null, propertyBuilder.getConnectionProperties(), directory, tempDirectory, null);
+			
+			File[] tempFiles = tempDirectory.listFiles();
+			assertTrue("temporary clone should be removed", (tempFiles == null) || (tempFiles.length == 0));
+			
+			databaseManagementSystemService.restore(null, propertyBuilder.getConnectionProperties().copy().setDbname("h2-test-backupclone-backup"), backupFile, null);
+			
+			Connection restoredConnection = databaseManagementSystemService.getConnection(propertyBuilder.getConnectionProperties().copy().setDbname("h2-test-backupclone-backup"));
+			try
+			{
+				compareTables(connection, restoredConnection, "MY_TABLE");
+			}
+			finally 
+			{
+				restoredConnection.close();
+			}
+		}
+		finally
+		{
+			connection.close();
+		}
+	}
+	
+	@Test
+	public void test00042BackupRestoreProgress() throws Exception
+	{
+		IDatabaseManagementSystemService databaseManagementSystemService = getService();
+		
+		File directory = new File("./target");
+		
+		H2PropertyBuilder propertyBuilder = H2PropertyBuilder.newInstance(directory.getCanonicalPath(), "h2-test-backupprogress-origin").setConnectionUsername("sa").setConnectionPassword("sa").setBackupClone(false);
+		
+		Connection connection = createBackupTestDatabase(databaseManagementSystemService, propertyBuilder, "h2-test-backupprogress-backup");
+		try
+		{
+			List<Long> backupProgress = new ArrayList<Long>();
+			List<Long> restoreProgress = new ArrayList<Long>();
+			
+			File backupFile = databaseManagementSystemService.backupWithProgress(null, propertyBuilder.getConnectionProperties(), directory, null, "geheim", backupProgress::add);
+			databaseManagementSystemService.restoreWithProgress(null, propertyBuilder.getConnectionProperties().copy().setDbname("h2-test-backupprogress-backup"), backupFile, "geheim", restoreProgress::add);
+			
+			assertFalse("backup progress should be reported", backupProgress.isEmpty());
+			assertEquals("backup progress should end with size of backup file", backupFile.length(), backupProgress.get(backupProgress.size() - 1).longValue());
+			assertProgressIncreases(backupProgress);
+			
+			assertFalse("restore progress should be reported", restoreProgress.isEmpty());
+			assertTrue("restore progress should not exceed size of backup file", restoreProgress.get(restoreProgress.size() - 1) <= backupFile.length());
+			assertTrue("restore progress should be reported", restoreProgress.get(restoreProgress.size() - 1) > 0L);
+			assertProgressIncreases(restoreProgress);
+			
+			Connection restoredConnection = databaseManagementSystemService.getConnection(propertyBuilder.getConnectionProperties().copy().setDbname("h2-test-backupprogress-backup"));
+			try
+			{
+				compareTables(connection, restoredConnection, "MY_TABLE");
+			}
+			finally 
+			{
+				restoredConnection.close();
+			}
+		}
+		finally
+		{
+			connection.close();
+		}
+	}
+	
+	private Connection createBackupTestDatabase(IDatabaseManagementSystemService databaseManagementSystemService, H2PropertyBuilder propertyBuilder, String dbNameBackup) throws SQLException, IOException
+	{
+		databaseManagementSystemService.removeDatabase(propertyBuilder.getSystemProperties(), propertyBuilder.getDatabaseProperties(), propertyBuilder.getConnectionProperties());
+		databaseManagementSystemService.removeDatabase(propertyBuilder.getSystemProperties(), propertyBuilder.getDatabaseProperties(), propertyBuilder.getConnectionProperties().copy().setDbname(dbNameBackup));
+		
+		Connection connection = databaseManagementSystemService.getConnection(propertyBuilder.getConnectionProperties());
+		try
+		{
+			Statement statement = connection.createStatement();
+			try
+			{
+				statement.executeUpdate("CREATE TABLE MY_TABLE (ID BIGINT PRIMARY KEY, NAME VARCHAR(128))");
+				statement.executeUpdate("INSERT INTO MY_TABLE (ID, NAME) SELECT X, 'NAME ' || X FROM SYSTEM_RANGE(1, 1000)");
+			}
+			finally 
+			{
+				statement.close();
+			}
+		}
+		catch (SQLException | RuntimeException e) 
+		{
+			connection.close();
+			throw e;
+		}
+		return connection;
+	}
+	
+	private void assertProgressIncreases(List<Long> progress)
+	{
+		for(int i = 1; i < progress.size(); i++)
+		{
+			assertTrue("progress should not decrease", progress.get(i - 1) <= progress.get(i));
+		}
+	}
+	
 	public IDatabaseManagementSystemService getService()
 	{
 		Map<String,Object> properties = new HashMap<String, Object>();
@@ -1,26 +1,44 @@
 package org.sodeac.common.jdbc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+import javax.sql.DataSource;
+
 import org.h2.jdbcx.JdbcDataSource;
 import org.junit.After;
 import org.junit.Before;
@@ -30,6 +48,8 @@ import org.junit.runner.RunWith;
 import org.junit.runners.MethodSorters;
 import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
+import org.sodeac.common.jdbc.TypedTreeJDBCCruder.AsyncSession;
+import org.sodeac.common.jdbc.TypedTreeJDBCCruder.PreparedStatementCache;
 import org.sodeac.common.jdbc.TypedTreeJDBCCruder.Session;
 import org.sodeac.common.jdbc.classicmodelcars.CustomerNodeType;
 import org.sodeac.common.jdbc.classicmodelcars.OfficeTreeModel;
@@ -354,6 +374,607 @@ public class CruderTest
 		cruder.close();
 	}
 	
+	@Test
+	public void t00120LoadReferencedChildNodesOfManyNodes() throws Exception
+	{
+		if(! this.testConnection.enabled)
+		{
+			return;
+		}
+		
+		TypedTreeJDBCCruder cruder = TypedTreeJDBCCruder.get();
+		Session session = cruder.openSession(this.testConnection.getDataSource());
+		
+		List<BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType>> groups = new ArrayList<>();
+		for(int i = 0; i < 5; i++)
+		{
+			BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType> group = session.persist(ArticleGroupNodeType.newNode()
+					.setValue(ArticleGroupNodeType.number, 1200L + i)
+					.setValue(ArticleGroupNodeType.name, "Group" + i)
+					.setValue(ArticleGroupNodeType.tax, 1.0));
+			for(int j = 0; j < i; j++)
+			{
+				session.persist(group.create(ArticleGroupNodeType.propertyList)
+					.setValue(CommonGenericPropertyNodeType.type, "org.sodeac.property.generic")
+					.setValue(CommonGenericPropertyNodeType.key, "KEY" + j)
+					.setValue(CommonGenericPropertyNodeType.value, "VALUE" + j));
+			}
+			groups.add(group);
+		}
+		session.flush();
+		session.commit();
+		
+		List<BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType>> loadedGroups = new ArrayList<>();
+		for(BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType> group : groups)
+		{
+			loadedGroups.add(ArticleGroupNodeType.newNode().setValue(ArticleGroupNodeType.id, group.getValue(ArticleGroupNodeType.id)));
+		}
+		
+		session.loadReferencedChildNodes(loadedGroups, new TypedTreeJDBCCruder.FetchPlan().add(ArticleGroupNodeType.propertyList).setChunkSize(2));
+		
+		for(int i = 0; i < 5; i++)
+		{
+			List<BranchNode<ArticleGroupNodeType, CommonGenericPropertyNodeType>> propertyList = loadedGroups.get(i).getUnmodifiableNodeList(ArticleGroupNodeType.propertyList);
+			assertEquals("list size should be correct", i, propertyList.size());
+			for(BranchNode<ArticleGroupNodeType, CommonGenericPropertyNodeType> property : propertyList)
+			{
+				assertTrue("value should be correct", property.getValue(CommonGenericPropertyNodeType.key).startsWith("KEY"));
+			}
+		}
+		
+		session.close();
+		cruder.close();
+	}
+	
+	@Test
+	public void t00130StreamReferencedNodes() throws Exception
+	{
+		if(! this.testConnection.enabled)
+		{
+			return;
+		}
+		
+		TypedTreeJDBCCruder cruder = TypedTreeJDBCCruder.get();
+		Session session = cruder.openSession(this.testConnection.getDataSource());
+		
+		BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType> group = session.persist(ArticleGroupNodeType.newNode()
+				.setValue(ArticleGroupNodeType.number, 1300L)
+				.setValue(ArticleGroupNodeType.name, "StreamGroup")
+				.setValue(ArticleGroupNodeType.tax, 1.0));
+		for(int i = 0; i < 5; i++)
+		{
+			session.persist(group.create(ArticleGroupNodeType.propertyList)
+				.setValue(CommonGenericPropertyNodeType.type, "org.sodeac.property.generic")
+				.setValue(CommonGenericPropertyNodeType.key, "KEY" + i)
+				.setValue(CommonGenericPropertyNodeType.value, "VALUE" + i));
+		}
+		session.flush();
+		session.commit();
+		
+		BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType> loadedGroup = ArticleGroupNodeType.newNode();
+		List<String> keys = new ArrayList<>();
+		try(Stream<BranchNode<?, CommonGenericPropertyNodeType>> stream = session.streamListByReferencedNode(ArticleGroupNodeType.propertyList, new Object[] {group.getValue(ArticleGroupNodeType.id)}, v -> Collections.singletonList(loadedGroup.create(ArticleGroupNodeType.propertyList)), 2))
+		{
+			stream.forEach(n -> keys.add(n.getValue(CommonGenericPropertyNodeType.key)));
+		}
+		
+		assertEquals("size of streamed nodes should be correct", 5, keys.size());
+		assertTrue("streamed nodes should be correct", keys.contains("KEY0") && keys.contains("KEY4"));
+		
+		session.close();
+		cruder.close();
+	}
+	
+	@Test
+	public void t00140PersistAll() throws Exception
+	{
+		if(! this.testConnection.enabled)
+		{
+			return;
+		}
+		
+		TypedTreeJDBCCruder cruder = TypedTreeJDBCCruder.get();
+		Session session = cruder.openSession(this.testConnection.getDataSource());
+		
+		List<BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType>> groups = new ArrayList<>();
+		for(int i = 0; i < 7; i++)
+		{
+			groups.add(ArticleGroupNodeType.newNode()
+					.setValue(ArticleGroupNodeType.number, 1400L + i)
+					.setValue(ArticleGroupNodeType.name, "BulkGroup" + i)
+					.setValue(ArticleGroupNodeType.tax, 1.0));
+		}
+		session.persistAll(groups);
+		session.commit();
+		
+		Object[] numbers = new Object[groups.size()];
+		for(int i = 0; i < groups.size(); i++)
+		{
+			assertNotNull("id should be generated", groups.get(i).getValue(ArticleGroupNodeType.id));
+			numbers[i] = groups.get(i).getValue(ArticleGroupNodeType.number);
+			groups.get(i).setValue(ArticleGroupNodeType.name, "UpsertGroup" + i);
+		}
+		groups.get(0).setValue(ArticleGroupNodeType.number, 1498L); // not updatable
+		groups.add(ArticleGroupNodeType.newNode()
+				.setValue(ArticleGroupNodeType.number, 1499L)
+				.setValue(ArticleGroupNodeType.name, "BulkGroupNew")
+				.setValue(ArticleGroupNodeType.tax, 1.0));
+		session.persistAll(groups);
+		session.commit();
+		
+		List<BranchNode<?, ArticleGroupNodeType>> loadedGroups = session.loadList(ArticleNodeType.group, ArticleGroupNodeType.number, numbers, v -> Collections.singletonList(ArticleGroupNodeType.newNode()));
+		assertEquals("size of loaded nodes should be correct", 7, loadedGroups.size());
+		for(BranchNode<?, ArticleGroupNodeType> loadedGroup : loadedGroups)
+		{
+			assertTrue("value should be correct", loadedGroup.getValue(ArticleGroupNodeType.name).startsWith("UpsertGroup"));
+		}
+		
+		// existing nodes with tracked modifications are updated partially
+		
+		UUID id = groups.get(1).getValue(ArticleGroupNodeType.id);
+		RootBranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType> trackedGroup = ArticleGroupNodeType.newNode().setChangeTracking(true);
+		session.loadItem(trackedGroup.setValue(ArticleGroupNodeType.id, id));
+		
+		String tableName = ArticleGroupNodeType.class.getAnnotation(SQLTable.class).name();
+		PreparedStatement preparedStatement = this.testConnection.connection.prepareStatement("update " + tableName + " set group_tax = ? where id = ?");
+		try
+		{
+			preparedStatement.setDouble(1, 2.0);
+			preparedStatement.setObject(2, id);
+			assertEquals("size of updated rows should be correct", 1, preparedStatement.executeUpdate());
+			if(! this.testConnection.connection.getAutoCommit())
+			{
+				this.testConnection.connection.commit();
+			}
+		}
+		finally 
+		{
+			preparedStatement.close();
+		}
+		
+		trackedGroup.setValue(ArticleGroupNodeType.name, "TrackedGroup");
+		session.persistAll(Collections.singletonList(trackedGroup));
+		session.commit();
+		
+		BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType> loadedGroup = session.loadItem(ArticleGroupNodeType.newNode().setValue(ArticleGroupNodeType.id, id));
+		assertEquals("modified column should be written", "TrackedGroup", loadedGroup.getValue(ArticleGroupNodeType.name));
+		assertEquals("unmodified column should not be written", 2.0, loadedGroup.getValue(ArticleGroupNodeType.tax).doubleValue(), 0.0);
+		
+		session.close();
+		cruder.close();
+	}
+	
+	@Test
+	public void t00150IdentityCache() throws Exception
+	{
+		if(! this.testConnection.enabled)
+		{
+			return;
+		}
+		
+		TypedTreeJDBCCruder.IdentityCache identityCache = new TypedTreeJDBCCruder.IdentityCache(100, 60000L).addNodeType(ArticleNodeType.group);
+		TypedTreeJDBCCruder cruder = TypedTreeJDBCCruder.get().setIdentityCache(identityCache);
+		Session session = cruder.openSession(this.testConnection.getDataSource());
+		
+		BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType> group = session.persist(ArticleGroupNodeType.newNode()
+				.setValue(ArticleGroupNodeType.number, 1500L)
+				.setValue(ArticleGroupNodeType.name, "CachedGroup")
+				.setValue(ArticleGroupNodeType.tax, 1.0));
+		session.commit();
+		
+		UUID id = group.getValue(ArticleGroupNodeType.id);
+		BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType> loadedGroup1 = session.loadItem(ArticleGroupNodeType.newNode().setValue(ArticleGroupNodeType.id, id));
+		long hitCount = identityCache.getHitCount();
+		BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType> loadedGroup2 = session.loadItem(ArticleGroupNodeType.newNode().setValue(ArticleGroupNodeType.id, id));
+		
+		assertEquals("hit count should be correct", hitCount + 1, identityCache.getHitCount());
+		assertNotSame("cached node should be copied", loadedGroup1, loadedGroup2);
+		assertEquals("value should be correct", "CachedGroup", loadedGroup2.getValue(ArticleGroupNodeType.name));
+		
+		loadedGroup2.setValue(ArticleGroupNodeType.name, "ModifiedCachedGroup");
+		session.persist(loadedGroup2);
+		session.commit();
+		
+		assertEquals("value should be correct", "ModifiedCachedGroup", session.loadItem(ArticleGroupNodeType.newNode().setValue(ArticleGroupNodeType.id, id)).getValue(ArticleGroupNodeType.name));
+		
+		session.close();
+		cruder.close();
+	}
+	
+	@Test
+	public void t00151IdentityCacheStalePut() throws Exception
+	{
+		TypedTreeJDBCCruder.IdentityCache identityCache = new TypedTreeJDBCCruder.IdentityCache(2, 0L);
+		TypedTreeJDBCCruder.IdentityCache.CacheKey key1 = new TypedTreeJDBCCruder.IdentityCache.CacheKey("table", 1);
+		TypedTreeJDBCCruder.IdentityCache.CacheKey key2 = new TypedTreeJDBCCruder.IdentityCache.CacheKey("table", 2);
+		
+		// row selected before invalidation is outdated
+		
+		long generation = identityCache.getGeneration();
+		identityCache.invalidate(key1);
+		identityCache.put(key1, new Object[] {"old"}, generation);
+		assertNull("outdated row should not be cached", identityCache.get(key1));
+		
+		// row selected after invalidation is current
+		
+		generation = identityCache.getGeneration();
+		identityCache.put(key1, new Object[] {"new"}, generation);
+		assertEquals("current row should be cached", "new", identityCache.get(key1)[0]);
+		
+		// invalidation of other key does not affect row
+		
+		generation = identityCache.getGeneration();
+		identityCache.invalidate(key2);
+		identityCache.put(key1, new Object[] {"new2"}, generation);
+		assertEquals("row should be cached", "new2", identityCache.get(key1)[0]);
+		
+		// evicted generations reject all older rows
+		
+		generation = identityCache.getGeneration();
+		for(int i = 3; i < 6; i++)
+		{
+			identityCache.invalidate(new TypedTreeJDBCCruder.IdentityCache.CacheKey("table", i));
+		}
+		identityCache.put(key2, new Object[] {"old"}, generation);
+		assertNull("row should not be cached, if generation of key is evicted", identityCache.get(key2));
+		
+		// clear rejects rows selected before
+		
+		generation = identityCache.getGeneration();
+		identityCache.clear();
+		identityCache.put(key1, new Object[] {"old"}, generation);
+		assertNull("outdated row should not be cached", identityCache.get(key1));
+	}
+	
+	@Test
+	public void t00160AsyncSession() throws Exception
+	{
+		if(! this.testConnection.enabled)
+		{
+			return;
+		}
+		
+		TypedTreeJDBCCruder cruder = TypedTreeJDBCCruder.get();
+		AsyncSession session = cruder.openAsyncSession(this.testConnection.getDataSource(), 4);
+		
+		List<CompletableFuture<BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType>>> futures = new ArrayList<>();
+		Object[] numbers = new Object[10];
+		for(int i = 0; i < numbers.length; i++)
+		{
+			numbers[i] = 1600L + i;
+			futures.add(session.persist(ArticleGroupNodeType.newNode()
+					.setValue(ArticleGroupNodeType.number, 1600L + i)
+					.setValue(ArticleGroupNodeType.name, "AsyncGroup" + i)
+					.setValue(ArticleGroupNodeType.tax, 1.0)));
+		}
+		session.commit().get();
+		
+		for(CompletableFuture<BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType>> future : futures)
+		{
+			assertTrue("future should be completed", future.isDone());
+			assertNotNull("id should be generated", future.get().getValue(ArticleGroupNodeType.id));
+		}
+		
+		List<BranchNode<?, ArticleGroupNodeType>> loadedGroups = session.loadList(ArticleNodeType.group, ArticleGroupNodeType.number, numbers, v -> Collections.singletonList(ArticleGroupNodeType.newNode())).get();
+		assertEquals("size of loaded nodes should be correct", numbers.length, loadedGroups.size());
+		
+		session.close();
+		cruder.close();
+	}
+	
+	@Test
+	public void t00161AsyncSessionCoalescing() throws Exception
+	{
+		if(! this.testConnection.enabled)
+		{
+			return;
+		}
+		
+		TypedTreeJDBCCruder cruder = TypedTreeJDBCCruder.get();
+		AsyncSession session = cruder.openAsyncSession(this.testConnection.getDataSource(), 8);
+		
+		Thread workerThread = session.execute(s -> Thread.currentThread()).get();
+		assertTrue("worker thread should be daemon", workerThread.isDaemon());
+		assertTrue("worker thread should be named", workerThread.getName().startsWith("AsyncSession-"));
+		
+		// nodes submitted while worker is blocked are coalesced to one batch, failure of batch is propagated to all nodes
+		
+		CountDownLatch blockWorker = new CountDownLatch(1);
+		session.execute(s -> blockWorker.await(10, TimeUnit.SECONDS));
+		
+		CompletableFuture<BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType>> future1 = session.persist(ArticleGroupNodeType.newNode()
+				.setValue(ArticleGroupNodeType.number, 1610L)
+				.setValue(ArticleGroupNodeType.name, "AsyncGroup10")
+				.setValue(ArticleGroupNodeType.tax, 1.0));
+		CompletableFuture<BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType>> futureInvalid = session.persist(ArticleGroupNodeType.newNode()
+				.setValue(ArticleGroupNodeType.number, 1611L)
+				.setValue(ArticleGroupNodeType.tax, 1.0)); // name is not nullable
+		CompletableFuture<BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType>> future2 = session.persist(ArticleGroupNodeType.newNode()
+				.setValue(ArticleGroupNodeType.number, 1612L)
+				.setValue(ArticleGroupNodeType.name, "AsyncGroup12")
+				.setValue(ArticleGroupNodeType.tax, 1.0));
+		
+		// other operation closes batch
+		
+		session.rollback();
+		CompletableFuture<BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType>> future3 = session.persist(ArticleGroupNodeType.newNode()
+				.setValue(ArticleGroupNodeType.number, 1613L)
+				.setValue(ArticleGroupNodeType.name, "AsyncGroup13")
+				.setValue(ArticleGroupNodeType.tax, 1.0));
+		CompletableFuture<Void> commit = session.commit();
+		
+		assertFalse("batch should wait for blocked worker", future1.isDone());
+		blockWorker.countDown();
+		commit.get();
+		
+		Throwable failure = getFailure(futureInvalid);
+		assertNotNull("failure should be reported", failure);
+		assertSame("failure should be propagated to all nodes of batch", failure, getFailure(future1));
+		assertSame("failure should be propagated to all nodes of batch", failure, getFailure(future2));
+		assertNotNull("node of next batch should be persisted", future3.get().getValue(ArticleGroupNodeType.id));
+		
+		List<BranchNode<?, ArticleGroupNodeType>> loadedGroups = session.loadList(ArticleNodeType.group, ArticleGroupNodeType.number, new Object[] {1610L, 1611L, 1612L, 1613L}, v -> Collections.singletonList(ArticleGroupNodeType.newNode())).get();
+		assertEquals("size of loaded nodes should be correct", 1, loadedGroups.size());
+		assertEquals("value should be correct", Long.valueOf(1613L), loadedGroups.get(0).getValue(ArticleGroupNodeType.number));
+		
+		// close by own operation would deadlock
+		
+		assertTrue("close by worker thread should be rejected", getFailure(session.execute(s -> 
+		{
+			session.close();
+			return null;
+		})) instanceof IllegalStateException);
+		
+		session.close();
+		cruder.close();
+	}
+	
+	@Test
+	public void t00170PartialUpdate() throws Exception
+	{
+		if(! this.testConnection.enabled)
+		{
+			return;
+		}
+		
+		TypedTreeJDBCCruder cruder = TypedTreeJDBCCruder.get();
+		Session session = cruder.openSession(this.testConnection.getDataSource());
+		
+		BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType> group = session.persist(ArticleGroupNodeType.newNode()
+				.setValue(ArticleGroupNodeType.number, 1700L)
+				.setValue(ArticleGroupNodeType.name, "DirtyGroup")
+				.setValue(ArticleGroupNodeType.tax, 1.0));
+		session.commit();
+		
+		UUID id = group.getValue(ArticleGroupNodeType.id);
+		String tableName = ArticleGroupNodeType.class.getAnnotation(SQLTable.class).name();
+		
+		RootBranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType> trackedGroup = ArticleGroupNodeType.newNode().setChangeTracking(true);
+		session.loadItem(trackedGroup.setValue(ArticleGroupNodeType.id, id));
+		
+		// modify other column outside of tree
+		
+		PreparedStatement preparedStatement = this.testConnection.connection.prepareStatement("update " + tableName + " set group_tax = ? where id = ?");
+		try
+		{
+			preparedStatement.setDouble(1, 2.0);
+			preparedStatement.setObject(2, id);
+			assertEquals("size of updated rows should be correct", 1, preparedStatement.executeUpdate());
+			if(! this.testConnection.connection.getAutoCommit())
+			{
+				this.testConnection.connection.commit();
+			}
+		}
+		finally 
+		{
+			preparedStatement.close();
+		}
+		
+		trackedGroup.setValue(ArticleGroupNodeType.name, "DirtyGroupModified");
+		session.persist(trackedGroup);
+		session.commit();
+		
+		BranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType> loadedGroup = session.loadItem(ArticleGroupNodeType.newNode().setValue(ArticleGroupNodeType.id, id));
+		assertEquals("modified column should be written", "DirtyGroupModified", loadedGroup.getValue(ArticleGroupNodeType.name));
+		assertEquals("unmodified column should not be written", 2.0, loadedGroup.getValue(ArticleGroupNodeType.tax).doubleValue(), 0.0);
+		
+		// modifications before change tracking is started are unknown => full update
+		
+		RootBranchNode<MiniMerchandiseManagementModel, ArticleGroupNodeType> untrackedGroup = ArticleGroupNodeType.newNode();
+		session.loadItem(untrackedGroup.setValue(ArticleGroupNodeType.id, id));
+		untrackedGroup.setValue(ArticleGroupNodeType.tax, 3.0);
+		untrackedGroup.setChangeTracking(true);
+		session.persist(untrackedGroup);
+		session.commit();
+		
+		loadedGroup = session.loadItem(ArticleGroupNodeType.newNode().setValue(ArticleGroupNodeType.id, id));
+		assertEquals("column of node in unknown state should be written", 3.0, loadedGroup.getValue(ArticleGroupNodeType.tax).doubleValue(), 0.0);
+		
+		session.close();
+		cruder.close();
+	}
+	
+	@Test
+	public void t00180PreparedStatementCache() throws Exception
+	{
+		if(! this.testConnection.enabled)
+		{
+			return;
+		}
+		
+		// data source handing out counting proxies of connection
+		
+		DataSource dataSource = this.testConnection.getDataSource();
+		AtomicInteger prepareCount = new AtomicInteger();
+		DataSource proxyDataSource = (DataSource)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {DataSource.class}, (dataSourceProxy, dataSourceMethod, dataSourceArgs) -> 
+		{
+			Object result = invoke(dataSource, dataSourceMethod, dataSourceArgs);
+			if(! (result instanceof Connection))
+			{
+				return result;
+			}
+			Connection connection = (Connection)result;
+			return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {Connection.class}, (connectionProxy, connectionMethod, connectionArgs) -> 
+			{
+				if(connectionMethod.getName().equals("prepareStatement"))
+				{
+					prepareCount.incrementAndGet();
+				}
+				return invoke(connection, connectionMethod, connectionArgs);
+			});
+		});
+		
+		TypedTreeJDBCCruder cruder = TypedTreeJDBCCruder.get().setPreparedStatementCacheSize(2);
+		Session session = cruder.openSession(proxyDataSource);
+		
+		session.persist(ArticleGroupNodeType.newNode()
+				.setValue(ArticleGroupNodeType.number, 1800L)
+				.setValue(ArticleGroupNodeType.name, "CachedStatementGroup")
+				.setValue(ArticleGroupNodeType.tax, 1.0));
+		session.commit();
+		
+		String tableName = ArticleGroupNodeType.class.getAnnotation(SQLTable.class).name();
+		String sql1 = "select group_name from " + tableName + " where group_number = ?";
+		String sql2 = "select group_name from " + tableName + " where group_tax = ?";
+		String sql3 = "select group_name from " + tableName + " where group_name = ?";
+		
+		PreparedStatementCache cache = session.getPreparedStatementCache();
+		int prepareCountBefore = prepareCount.get();
+		long hitCount = cache.getHitCount();
+		
+		PreparedStatement statement1 = session.getCachedPreparedStatement(sql1, false);
+		assertEquals("statement should be prepared by connection of data source", prepareCountBefore + 1, prepareCount.get());
+		assertSame("cached statement should be reused", statement1, session.getCachedPreparedStatement(sql1, false));
+		assertEquals("hit count should be correct", hitCount + 1, cache.getHitCount());
+		assertEquals("cached statement should not be prepared again", prepareCountBefore + 1, prepareCount.get());
+		
+		cache.acquire(statement1);
+		statement1.setLong(1, 1800L);
+		ResultSet resultSet = statement1.executeQuery();
+		try
+		{
+			session.getCachedPreparedStatement(sql2, false);
+			session.getCachedPreparedStatement(sql3, false);
+			
+			assertEquals("size of cache should be correct", 2, cache.size());
+			assertFalse("evicted statement with open result set should not be closed", statement1.isClosed());
+			assertTrue("open result set of evicted statement should be readable", resultSet.next());
+			assertEquals("value should be correct", "CachedStatementGroup", resultSet.getString(1));
+		}
+		finally 
+		{
+			resultSet.close();
+		}
+		cache.release(statement1);
+		assertTrue("evicted statement should be closed on release", statement1.isClosed());
+		
+		PreparedStatement statement1Prepared = session.getCachedPreparedStatement(sql1, false);
+		assertNotSame("evicted statement should be prepared again", statement1, statement1Prepared);
+		assertEquals("prepare count should be correct", prepareCountBefore + 4, prepareCount.get());
+		
+		PreparedStatement statement3 = session.getCachedPreparedStatement(sql3, false);
+		session.getCachedPreparedStatement(sql2, false);
+		assertTrue("evicted statement should be closed immediately", statement1Prepared.isClosed());
+		assertFalse("cached statement should not be closed", statement3.isClosed());
+		
+		session.close();
+		cruder.close();
+		
+		assertTrue("cached statement should be closed with cruder", statement3.isClosed());
+	}
+	
+	@Test
+	public void t00181PreparedStatementCacheOfPooledConnection() throws Exception
+	{
+		if(! this.testConnection.enabled)
+		{
+			return;
+		}
+		
+		// data source handing out a new logical connection of same physical connection for each checkout, like a connection pool
+		
+		Connection physicalConnection = this.testConnection.getDataSource().getConnection();
+		AtomicInteger prepareCount = new AtomicInteger();
+		DataSource pooledDataSource = (DataSource)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {DataSource.class}, (dataSourceProxy, dataSourceMethod, dataSourceArgs) -> 
+		{
+			if(! dataSourceMethod.getName().equals("getConnection"))
+			{
+				throw new UnsupportedOperationException(dataSourceMethod.getName());
+			}
+			return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {Connection.class}, (connectionProxy, connectionMethod, connectionArgs) -> 
+			{
+				if(connectionMethod.getName().equals("close"))
+				{
+					return null; // return to pool
+				}
+				if(connectionMethod.getName().equals("prepareStatement"))
+				{
+					prepareCount.incrementAndGet();
+				}
+				return invoke(physicalConnection, connectionMethod, connectionArgs);
+			});
+		});
+		
+		String sql = "select group_name from " + ArticleGroupNodeType.class.getAnnotation(SQLTable.class).name() + " where group_number = ?";
+		TypedTreeJDBCCruder cruder = TypedTreeJDBCCruder.get();
+		
+		Session session1 = cruder.openSession(pooledDataSource);
+		PreparedStatement statement = session1.getCachedPreparedStatement(sql, false);
+		PreparedStatementCache cache = session1.getPreparedStatementCache();
+		session1.close();
+		
+		int prepareCountBefore = prepareCount.get();
+		long hitCount = cache.getHitCount();
+		
+		Session session2 = cruder.openSession(pooledDataSource);
+		assertSame("cached statement should be reused by next session", statement, session2.getCachedPreparedStatement(sql, false));
+		assertSame("cache of physical connection should be reused", cache, session2.getPreparedStatementCache());
+		assertEquals("statement should not be prepared again", prepareCountBefore, prepareCount.get());
+		assertEquals("hit count should be correct", hitCount + 1, cache.getHitCount());
+		session2.close();
+		
+		// statement closed by pool with logical connection is prepared again on demand
+		
+		statement.close();
+		Session session3 = cruder.openSession(pooledDataSource);
+		assertNotSame("closed statement should be prepared again", statement, session3.getCachedPreparedStatement(sql, false));
+		assertEquals("prepare count should be correct", prepareCountBefore + 1, prepareCount.get());
+		session3.close();
+		
+		cruder.close();
+		physicalConnection.close();
+	}
+	
+	private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable
+	{
+		try
+		{
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException e) 
+		{
+			throw e.getTargetException();
+		}
+	}
+	
+	private static Throwable getFailure(CompletableFuture<?> future) throws InterruptedException
+	{
+		try
+		{
+			future.get(10, TimeUnit.SECONDS);
+		}
+		catch (ExecutionException e) 
+		{
+			return e.getCause();
+		}
+		catch (TimeoutException e) 
+		{
+			fail("future should be completed");
+		}
+		fail("future should be completed exceptionally");
+		return null;
+	}
+	
 	//@Test
 	/*public void t0000100InsertAutogenerated() throws Exception
 	{
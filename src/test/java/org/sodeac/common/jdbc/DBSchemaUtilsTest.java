@@ -1,16 +1,39 @@
 package org.sodeac.common.jdbc;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+import org.junit.FixMethodOrder;
 import org.junit.Test;
+import org.junit.runners.MethodSorters;
 import org.sodeac.common.misc.CloseableCollector;
+import org.sodeac.common.model.dbschema.ColumnNodeType;
+import org.sodeac.common.model.dbschema.DBSchemaNodeType;
+import org.sodeac.common.model.dbschema.DBSchemaTreeModel;
+import org.sodeac.common.model.dbschema.ForeignKeyNodeType;
+import org.sodeac.common.model.dbschema.TableNodeType;
+import org.sodeac.common.typedtree.BranchNode;
+import org.sodeac.common.typedtree.TypedTreeMetaModel.RootBranchNode;
 
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
 public class DBSchemaUtilsTest
 {
 	@Test
@@ -61,4 +84,230 @@ public class DBSchemaUtilsTest
 			new File(tempDir + "/" + database + ".mv.db").delete();
 		}
 	}
+	
+	@Test
+	public void t00010FingerprintSkipsUnchangedCatalog() throws Exception
+	{
+		try(Connection connection = DriverManager.getConnection("jdbc:h2:mem:fingerprintskip", "sa", ""))
+		{
+			AtomicInteger schemaEvents = new AtomicInteger();
+			AtomicInteger tableUpdates = new AtomicInteger();
+			
+			assertTrue("schema should be usable", DBSchemaUtils.get(connection).adaptSchema(newSchema(connection, "schema_fingerprint", schemaEvents, tableUpdates)));
+			assertTrue("schema should be adapted", schemaEvents.get() > 0);
+			
+			// fingerprint table is created by driver
+			
+			assertTrue("fingerprint table should exist", tableExists(connection, "SCHEMA_FINGERPRINT"));
+			assertEquals("fingerprint should be stored", 1, count(connection, "select count(*) from SCHEMA_FINGERPRINT where SPEC_NAME = 'CatalogTest'"));
+			
+			schemaEvents.set(0);
+			assertTrue("schema should be usable", DBSchemaUtils.get(connection).adaptSchema(newSchema(connection, "schema_fingerprint", schemaEvents, tableUpdates)));
+			assertEquals("adaption should be skipped", 0, schemaEvents.get());
+		}
+	}
+	
+	@Test
+	public void t00020FingerprintValidatesCatalog() throws Exception
+	{
+		try(Connection connection = DriverManager.getConnection("jdbc:h2:mem:fingerprintvalidate", "sa", ""))
+		{
+			AtomicInteger schemaEvents = new AtomicInteger();
+			AtomicInteger tableUpdates = new AtomicInteger();
+			assertTrue("schema should be usable", DBSchemaUtils.get(connection).adaptSchema(newSchema(connection, "schema_fingerprint", schemaEvents, tableUpdates)));
+			
+			// modifications outside of schema utils are not covered by fingerprint
+			
+			execute(connection, "alter table CATALOG_ITEM drop column DESCRIPTION");
+			
+			schemaEvents.set(0);
+			assertTrue("schema should be usable", DBSchemaUtils.get(connection).adaptSchema(newSchema(connection, "schema_fingerprint", schemaEvents, tableUpdates)));
+			assertTrue("schema should be adapted", schemaEvents.get() > 0);
+			assertEquals("dropped column should be recreated", 0, count(connection, "select count(DESCRIPTION) from CATALOG_ITEM"));
+			
+			execute(connection, "alter table CATALOG_ITEM drop constraint FK_CATALOG_ITEM_GROUP");
+			
+			schemaEvents.set(0);
+			assertTrue("schema should be usable", DBSchemaUtils.get(connection).adaptSchema(newSchema(connection, "schema_fingerprint", schemaEvents, tableUpdates)));
+			assertTrue("schema should be adapted", schemaEvents.get() > 0);
+			assertTrue("dropped foreign key should be recreated", foreignKeyExists(connection, "CATALOG_ITEM", "FK_CATALOG_ITEM_GROUP"));
+			
+			schemaEvents.set(0);
+			assertTrue("schema should be usable", DBSchemaUtils.get(connection).adaptSchema(newSchema(connection, "schema_fingerprint", schemaEvents, tableUpdates)));
+			assertEquals("adaption should be skipped", 0, schemaEvents.get());
+		}
+	}
+	
+	@Test
+	public void t00030KeyMetaDataLoadedOncePerTable() throws Exception
+	{
+		try(Connection connection = DriverManager.getConnection("jdbc:h2:mem:keymetadata", "sa", ""))
+		{
+			assertTrue("schema should be usable", DBSchemaUtils.get(connection).adaptSchema(newSchema(connection, null, new AtomicInteger(), new AtomicInteger())));
+			
+			Map<String,AtomicInteger> calls = new HashMap<String,AtomicInteger>();
+			Connection countingConnection = countMetaDataCalls(connection, calls);
+			AtomicInteger tableUpdates = new AtomicInteger();
+			assertTrue("schema should be usable", DBSchemaUtils.get(countingConnection).adaptSchema(newSchema(countingConnection, null, new AtomicInteger(), tableUpdates)));
+			
+			assertEquals("no table should be updated", 0, tableUpdates.get());
+			assertEquals("tables should be loaded once", 1, calls.get("getTables").get());
+			assertEquals("primary keys should be loaded once for each table", 2, calls.get("getPrimaryKeys").get());
+			assertEquals("imported keys should be loaded once for each table", 2, calls.get("getImportedKeys").get());
+			assertEquals("index info should be loaded once for each table with indices", 1, calls.get("getIndexInfo").get());
+		}
+	}
+	
+	@Test
+	public void t00040KeyMetaDataInvalidatedOnUpdate() throws Exception
+	{
+		try(Connection connection = DriverManager.getConnection("jdbc:h2:mem:keymetadatainvalidate", "sa", ""))
+		{
+			assertTrue("schema should be usable", DBSchemaUtils.get(connection).adaptSchema(newSchema(connection, null, new AtomicInteger(), new AtomicInteger())));
+			
+			execute(connection, "drop index IDX_CATALOG_ITEM_NAME");
+			execute(connection, "alter table CATALOG_ITEM drop constraint FK_CATALOG_ITEM_GROUP");
+			assertFalse("foreign key should be dropped", foreignKeyExists(connection, "CATALOG_ITEM", "FK_CATALOG_ITEM_GROUP"));
+			assertFalse("index should be dropped", indexExists(connection, "CATALOG_ITEM", "IDX_CATALOG_ITEM_NAME"));
+			
+			AtomicInteger tableUpdates = new AtomicInteger();
+			assertTrue("schema should be usable", DBSchemaUtils.get(connection).adaptSchema(newSchema(connection, null, new AtomicInteger(), tableUpdates)));
+			assertTrue("keys should be updated", tableUpdates.get() > 0);
+			assertTrue("dropped foreign key should be recreated", foreignKeyExists(connection, "CATALOG_ITEM", "FK_CATALOG_ITEM_GROUP"));
+			assertTrue("dropped index should be recreated", indexExists(connection, "CATALOG_ITEM", "IDX_CATALOG_ITEM_NAME"));
+			
+			// recreated keys are found by next adaption
+			
+			tableUpdates.set(0);
+			assertTrue("schema should be usable", DBSchemaUtils.get(connection).adaptSchema(newSchema(connection, null, new AtomicInteger(), tableUpdates)));
+			assertEquals("no table should be updated", 0, tableUpdates.get());
+		}
+	}
+	
+	private static RootBranchNode<DBSchemaTreeModel, DBSchemaNodeType> newSchema(Connection connection, String fingerprintTable, AtomicInteger schemaEvents, AtomicInteger tableUpdates) throws Exception
+	{
+		RootBranchNode<DBSchemaTreeModel, DBSchemaNodeType> schema = DBSchemaTreeModel.newSchema("CatalogTest", connection.getSchema());
+		schema.setValue(DBSchemaNodeType.logUpdates, false);
+		schema.setValue(DBSchemaNodeType.fingerprintTable, fingerprintTable);
+		DBSchemaNodeType.addConsumer(schema, e -> schemaEvents.incrementAndGet());
+		
+		BranchNode<DBSchemaNodeType, TableNodeType> group = schema.create(DBSchemaNodeType.tables).setValue(TableNodeType.name, "CATALOG_GROUP");
+		TableNodeType.createBigIntColumn(group, "ID", false).create(ColumnNodeType.primaryKey);
+		TableNodeType.createVarcharColumn(group, "NAME", true, 128);
+		
+		BranchNode<DBSchemaNodeType, TableNodeType> item = schema.create(DBSchemaNodeType.tables).setValue(TableNodeType.name, "CATALOG_ITEM");
+		TableNodeType.createBigIntColumn(item, "ID", false).create(ColumnNodeType.primaryKey);
+		TableNodeType.createBigIntColumn(item, "GROUP_ID", true).create(ColumnNodeType.foreignKey)
+			.setValue(ForeignKeyNodeType.constraintName, "FK_CATALOG_ITEM_GROUP")
+			.setValue(ForeignKeyNodeType.referencedTableName, "CATALOG_GROUP")
+			.setValue(ForeignKeyNodeType.referencedColumnName, "ID");
+		TableNodeType.createVarcharColumn(item, "NAME", true, 128);
+		TableNodeType.createVarcharColumn(item, "DESCRIPTION", true, 1024);
+		TableNodeType.createIndex(item, false, "IDX_CATALOG_ITEM_NAME", "NAME");
+		TableNodeType.createIndex(item, false, "IDX_CATALOG_ITEM_GROUP_NAME", "GROUP_ID", "NAME");
+		
+		for(BranchNode<DBSchemaNodeType, TableNodeType> table : schema.getUnmodifiableNodeList(DBSchemaNodeType.tables))
+		{
+			TableNodeType.addConsumer(table, e -> 
+			{
+				if(e.getActionType() == DBSchemaUtils.ActionType.UPDATE)
+				{
+					tableUpdates.incrementAndGet();
+				}
+			});
+		}
+		
+		return schema;
+	}
+	
+	private static Connection countMetaDataCalls(Connection connection, Map<String,AtomicInteger> calls) throws Exception
+	{
+		DatabaseMetaData databaseMetaData = connection.getMetaData();
+		DatabaseMetaData countingMetaData = (DatabaseMetaData)Proxy.newProxyInstance
+		(
+			DBSchemaUtilsTest.class.getClassLoader(), new Class<?>[] {DatabaseMetaData.class}, (proxy, method, args) -> 
+			{
+				calls.computeIfAbsent(method.getName(), k -> new AtomicInteger()).incrementAndGet();
+				return invoke(databaseMetaData, method, args);
+			}
+		);
+		return (Connection)Proxy.newProxyInstance
+		(
+			DBSchemaUtilsTest.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> 
+			{
+				if(method.getName().equals("getMetaData"))
+				{
+					return countingMetaData;
+				}
+				return invoke(connection, method, args);
+			}
+		);
+	}
+	
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable
+	{
+		try
+		{
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException e) 
+		{
+			throw e.getCause();
+		}
+	}
+	
+	private static void execute(Connection connection, String sql) throws Exception
+	{
+		try(Statement statement = connection.createStatement())
+		{
+			statement.executeUpdate(sql);
+		}
+	}
+	
+	private static int count(Connection connection, String sql) throws Exception
+	{
+		try(Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql))
+		{
+			resultSet.next();
+			return resultSet.getInt(1);
+		}
+	}
+	
+	private static boolean tableExists(Connection connection, String tableName) throws Exception
+	{
+		try(ResultSet resultSet = connection.getMetaData().getTables(null, connection.getSchema(), tableName, new String[] {"TABLE"}))
+		{
+			return resultSet.next();
+		}
+	}
+	
+	private static boolean foreignKeyExists(Connection connection, String tableName, String keyName) throws Exception
+	{
+		try(ResultSet resultSet = connection.getMetaData().getImportedKeys(null, connection.getSchema(), tableName))
+		{
+			while(resultSet.next())
+			{
+				if(keyName.equalsIgnoreCase(resultSet.getString("FK_NAME")))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+	
+	private static boolean indexExists(Connection connection, String tableName, String indexName) throws Exception
+	{
+		try(ResultSet resultSet = connection.getMetaData().getIndexInfo(null, connection.getSchema(), tableName, false, false))
+		{
+			while(resultSet.next())
+			{
+				if(indexName.equalsIgnoreCase(resultSet.getString("INDEX_NAME")))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+	}
 }
@@ -0,0 +1,309 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.jdbc.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+import org.postgresql.core.BaseConnection;
+import org.sodeac.common.jdbc.Statics;
+import org.sodeac.common.jdbc.TestConnection;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class PGLargeObjectBlobTest
+{
+	public static final Map<String,Boolean> createdSchema = new HashMap<String,Boolean>();
+	
+	private static final byte[] PATTERN = "SODEAC".getBytes(StandardCharsets.US_ASCII);
+	
+	// first match starts 3 bytes before end of first chunk, so match straddles chunk boundary
+	
+	private static final int BOUNDARY_INDEX = PGLargeObjectBlob.DEFAULT_CHUNK_SIZE - 3;
+	private static final int HEAD_INDEX = 10;
+	
+	@Test
+	public void t00010RejectInvalidChunkSize() throws Exception
+	{
+		// chunk size is checked before large object is opened, so no connection is required
+		
+		PGLargeObjectBlob blob = new PGLargeObjectBlob(null, 1L);
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		
+		for(int chunkSize : new int[] {0, -1, Integer.MIN_VALUE})
+		{
+			try
+			{
+				blob.transferTo(1L, -1L, Channels.newChannel(target), chunkSize);
+				fail("chunk size " + chunkSize + " should be rejected");
+			}
+			catch (IllegalArgumentException e) {}
+			
+			try
+			{
+				blob.transferTo(1L, -1L, target, chunkSize);
+				fail("chunk size " + chunkSize + " should be rejected");
+			}
+			catch (IllegalArgumentException e) {}
+			
+			try
+			{
+				blob.getReadableByteChannel(1L, -1L, chunkSize);
+				fail("chunk size " + chunkSize + " should be rejected");
+			}
+			catch (IllegalArgumentException e) {}
+			
+			try
+			{
+				blob.getWritableByteChannel(1L, chunkSize);
+				fail("chunk size " + chunkSize + " should be rejected");
+			}
+			catch (IllegalArgumentException e) {}
+		}
+		
+		assertEquals("nothing should be transferred", 0, target.size());
+	}
+	
+	@Test
+	public void t00020PositionAcrossChunkBoundary() throws Exception
+	{
+		if(! Statics.ENABLED_POSTGRES)
+		{
+			return;
+		}
+		
+		TestConnection testConnection = newPostgresConnection();
+		try
+		{
+			BaseConnection nativeConnection = testConnection.connection.unwrap(BaseConnection.class);
+			
+			byte[] content = new byte[PGLargeObjectBlob.DEFAULT_CHUNK_SIZE * 3];
+			System.arraycopy(PATTERN, 0, content, BOUNDARY_INDEX, PATTERN.length);
+			long oid = write(nativeConnection, content);
+			
+			assertEquals("match should be found across chunk boundary", BOUNDARY_INDEX + 1L, new PGLargeObjectBlob(nativeConnection, oid).position(PATTERN, 1L));
+		}
+		finally 
+		{
+			close(testConnection);
+		}
+	}
+	
+	@Test
+	public void t00030PositionWithStart() throws Exception
+	{
+		if(! Statics.ENABLED_POSTGRES)
+		{
+			return;
+		}
+		
+		TestConnection testConnection = newPostgresConnection();
+		try
+		{
+			BaseConnection nativeConnection = testConnection.connection.unwrap(BaseConnection.class);
+			long oid = write(nativeConnection, newContent());
+			
+			assertEquals("first match should be found", HEAD_INDEX + 1L, new PGLargeObjectBlob(nativeConnection, oid).position(PATTERN, 1L));
+			assertEquals("match at start should be found", HEAD_INDEX + 1L, new PGLargeObjectBlob(nativeConnection, oid).position(PATTERN, HEAD_INDEX + 1L));
+			assertEquals("match before start should be skipped", BOUNDARY_INDEX + 1L, new PGLargeObjectBlob(nativeConnection, oid).position(PATTERN, HEAD_INDEX + 2L));
+			assertEquals("match should be found relative to start", BOUNDARY_INDEX + 1L, new PGLargeObjectBlob(nativeConnection, oid).position(PATTERN, BOUNDARY_INDEX - 100L));
+			assertEquals("no match should be found behind last match", -1L, new PGLargeObjectBlob(nativeConnection, oid).position(PATTERN, BOUNDARY_INDEX + 2L));
+		}
+		finally 
+		{
+			close(testConnection);
+		}
+	}
+	
+	@Test
+	public void t00040PositionNotFound() throws Exception
+	{
+		if(! Statics.ENABLED_POSTGRES)
+		{
+			return;
+		}
+		
+		TestConnection testConnection = newPostgresConnection();
+		try
+		{
+			BaseConnection nativeConnection = testConnection.connection.unwrap(BaseConnection.class);
+			long oid = write(nativeConnection, newContent());
+			
+			assertEquals("pattern should not be found", -1L, new PGLargeObjectBlob(nativeConnection, oid).position("SODEAD".getBytes(StandardCharsets.US_ASCII), 1L));
+			
+			// pattern is longer than remaining content
+			
+			byte[] longPattern = new byte[PGLargeObjectBlob.DEFAULT_CHUNK_SIZE * 4];
+			assertEquals("pattern should not be found", -1L, new PGLargeObjectBlob(nativeConnection, oid).position(longPattern, 1L));
+		}
+		finally 
+		{
+			close(testConnection);
+		}
+	}
+	
+	@Test
+	public void t00050ReadWithLengthLimit() throws Exception
+	{
+		if(! Statics.ENABLED_POSTGRES)
+		{
+			return;
+		}
+		
+		TestConnection testConnection = newPostgresConnection();
+		try
+		{
+			BaseConnection nativeConnection = testConnection.connection.unwrap(BaseConnection.class);
+			long oid = write(nativeConnection, newContent());
+			
+			// chunk size is smaller than length limit, so limit is reached by more than one read
+			
+			try(ReadableByteChannel channel = new PGLargeObjectBlob(nativeConnection, oid).getReadableByteChannel(HEAD_INDEX + 1L, PATTERN.length, 4))
+			{
+				assertArrayEquals("content should be limited", PATTERN, readAll(channel, ByteBuffer.allocate(1024)));
+			}
+			
+			ByteArrayOutputStream target = new ByteArrayOutputStream();
+			assertEquals("transferred count should be limited", PATTERN.length, new PGLargeObjectBlob(nativeConnection, oid).transferTo(HEAD_INDEX + 1L, PATTERN.length, target, 4));
+			assertArrayEquals("transferred content should be limited", PATTERN, target.toByteArray());
+			
+			target = new ByteArrayOutputStream();
+			assertEquals("transferred count should be limited", PATTERN.length, new PGLargeObjectBlob(nativeConnection, oid).transferTo(HEAD_INDEX + 1L, PATTERN.length, Channels.newChannel(target), 4));
+			assertArrayEquals("transferred content should be limited", PATTERN, target.toByteArray());
+		}
+		finally 
+		{
+			close(testConnection);
+		}
+	}
+	
+	@Test
+	public void t00060ChannelRoundTrip() throws Exception
+	{
+		if(! Statics.ENABLED_POSTGRES)
+		{
+			return;
+		}
+		
+		TestConnection testConnection = newPostgresConnection();
+		try
+		{
+			BaseConnection nativeConnection = testConnection.connection.unwrap(BaseConnection.class);
+			
+			byte[] content = new byte[PGLargeObjectBlob.DEFAULT_CHUNK_SIZE * 2 + 17];
+			new Random(4711L).nextBytes(content);
+			
+			// first half from heap buffer, second half from direct buffer
+			
+			PGLargeObjectBlob blob = new PGLargeObjectBlob(nativeConnection);
+			int half = content.length / 2;
+			try(WritableByteChannel channel = blob.getWritableByteChannel(1L, 8192))
+			{
+				assertEquals("written count should be correct", half, channel.write(ByteBuffer.wrap(content, 0, half)));
+				ByteBuffer direct = ByteBuffer.allocateDirect(content.length - half);
+				direct.put(content, half, content.length - half).flip();
+				assertEquals("written count should be correct", content.length - half, channel.write(direct));
+			}
+			
+			try(ReadableByteChannel channel = new PGLargeObjectBlob(nativeConnection, blob.getOID()).getReadableByteChannel())
+			{
+				assertArrayEquals("content should be read by heap buffer", content, readAll(channel, ByteBuffer.allocate(10000)));
+			}
+			try(ReadableByteChannel channel = new PGLargeObjectBlob(nativeConnection, blob.getOID()).getReadableByteChannel(1L, -1L, 8192))
+			{
+				assertArrayEquals("content should be read by direct buffer", content, readAll(channel, ByteBuffer.allocateDirect(10000)));
+			}
+			
+			ByteArrayOutputStream target = new ByteArrayOutputStream();
+			assertEquals("transferred count should be correct", content.length, new PGLargeObjectBlob(nativeConnection, blob.getOID()).transferTo(1L, -1L, Channels.newChannel(target), 8192));
+			assertArrayEquals("transferred content should be correct", content, target.toByteArray());
+		}
+		finally 
+		{
+			close(testConnection);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static TestConnection newPostgresConnection() throws Exception
+	{
+		// second connection factory of statics connects to postgres
+		
+		TestConnection testConnection = ((Callable<TestConnection>)Statics.connections(createdSchema, "pglargeobject").get(1)[0]).call();
+		testConnection.connection.setAutoCommit(false); // large objects require transaction
+		return testConnection;
+	}
+	
+	private static void close(TestConnection testConnection)
+	{
+		// rollback drops large objects created by test
+		
+		try
+		{
+			testConnection.connection.rollback();
+		}
+		catch (Exception e) {}
+		try
+		{
+			testConnection.connection.close();
+		}
+		catch (Exception e) {}
+	}
+	
+	private static byte[] newContent()
+	{
+		byte[] content = new byte[PGLargeObjectBlob.DEFAULT_CHUNK_SIZE * 3];
+		Arrays.fill(content, (byte)'S');
+		System.arraycopy(PATTERN, 0, content, HEAD_INDEX, PATTERN.length);
+		System.arraycopy(PATTERN, 0, content, BOUNDARY_INDEX, PATTERN.length);
+		return content;
+	}
+	
+	private static long write(BaseConnection nativeConnection, byte[] content) throws Exception
+	{
+		PGLargeObjectBlob blob = new PGLargeObjectBlob(nativeConnection);
+		try(WritableByteChannel channel = blob.getWritableByteChannel(1L, PGLargeObjectBlob.DEFAULT_CHUNK_SIZE))
+		{
+			channel.write(ByteBuffer.wrap(content));
+		}
+		return blob.getOID();
+	}
+	
+	private static byte[] readAll(ReadableByteChannel channel, ByteBuffer buffer) throws Exception
+	{
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		byte[] chunk = new byte[buffer.capacity()];
+		while(channel.read(buffer) >= 0)
+		{
+			buffer.flip();
+			int length = buffer.remaining();
+			buffer.get(chunk, 0, length);
+			content.write(chunk, 0, length);
+			buffer.clear();
+		}
+		return content.toByteArray();
+	}
+}
@@ -10,20 +10,33 @@
  *******************************************************************************/
 package org.sodeac.common.message.dispatcher.impl;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
+import org.sodeac.common.message.MessageHeader;
+import org.sodeac.common.message.dispatcher.api.ChannelMessage;
+import org.sodeac.common.message.dispatcher.api.ChannelNotFoundException;
 import org.sodeac.common.message.dispatcher.api.ComponentBindingSetup;
+import org.sodeac.common.message.dispatcher.api.IDispatcherChannel;
 import org.sodeac.common.message.dispatcher.api.IDispatcherChannel.IDispatcherChannelReference;
 import org.sodeac.common.message.dispatcher.api.IDispatcherChannelManager;
 import org.sodeac.common.message.dispatcher.api.IMessage;
@@ -34,6 +47,8 @@ import org.sodeac.common.message.dispatcher.setup.MessageConsumerFeature;
 import org.sodeac.common.message.dispatcher.setup.MessageDispatcherChannelSetup;
 import org.sodeac.common.message.dispatcher.setup.MessageDispatcherChannelSetup.MessageConsumeHelper;
 import org.sodeac.common.misc.TaskDoneNotifier;
+import org.sodeac.common.snapdeque.CapacityExceededException;
+import org.sodeac.common.snapdeque.DequeSnapshot;
 
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
 public class DispatcherTest 
@@ -110,4 +125,738 @@ public class DispatcherTest
 		
 		assertNull("channel should be null", IMessageDispatcherManager.get().getOrCreateDispatcher(TEST_DISPATCHER_ID).getChannel(channelID));
 	}
+	
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void test00003MessageIndex() throws Exception
+	{
+		String channelID = "test00003MessageIndex";
+		IDispatcherChannelReference channelCloser = MessageDispatcherChannelSetup.create()
+				.preparedBuilder().inManagedDispatcher(TEST_DISPATCHER_ID).underTheName("Only a test").buildChannelWithId(channelID);
+		try
+		{
+			IDispatcherChannel<String> channel = (IDispatcherChannel)IMessageDispatcherManager.get().getOrCreateDispatcher(TEST_DISPATCHER_ID).getChannel(channelID);
+			channel.sendMessages(Arrays.asList("A","B","C","D"));
+			
+			List<UUID> idList = new ArrayList<UUID>();
+			DequeSnapshot<IMessage<String>> snapshot = channel.getMessageSnapshot();
+			try
+			{
+				for(IMessage<String> message : snapshot)
+				{
+					idList.add(message.getId());
+				}
+			}
+			finally 
+			{
+				snapshot.close();
+			}
+			assertEquals("size of message list should be correct", 4, idList.size());
+			
+			assertEquals("message should be found by id", "B", channel.getMessage(idList.get(1)).getPayload());
+			assertTrue("message should be removed", channel.removeMessage(idList.get(1)));
+			assertNull("removed message should not be found", channel.getMessage(idList.get(1)));
+			assertFalse("removed message should not be removed again", channel.removeMessage(idList.get(1)));
+			
+			assertTrue("messages should be removed", channel.removeMessageList(Arrays.asList(idList.get(0),idList.get(1),idList.get(3))));
+			assertNull("removed message should not be found", channel.getMessage(idList.get(0)));
+			assertNull("removed message should not be found", channel.getMessage(idList.get(3)));
+			assertEquals("message should be found by id", "C", channel.getMessage(idList.get(2)).getPayload());
+			
+			snapshot = channel.getMessageSnapshotPoll();
+			try
+			{
+				assertEquals("size of snapshot should be correct", 1, snapshot.size());
+			}
+			finally 
+			{
+				snapshot.close();
+			}
+			assertNull("polled message should not be found", channel.getMessage(idList.get(2)));
+		}
+		finally 
+		{
+			channelCloser.close();
+		}
+	}
+	
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void test00004PriorityLanes() throws Exception
+	{
+		String channelID = "test00004PriorityLanes";
+		IDispatcherChannelReference channelCloser = MessageDispatcherChannelSetup.create()
+				.preparedBuilder().inManagedDispatcher(TEST_DISPATCHER_ID).underTheName("Only a test").buildChannelWithId(channelID);
+		try
+		{
+			IDispatcherChannel<String> channel = (IDispatcherChannel)IMessageDispatcherManager.get().getOrCreateDispatcher(TEST_DISPATCHER_ID).getChannel(channelID);
+			channel.getConfigurationPropertyBlock().setProperty(IDispatcherChannel.CONFIGURATION_KEY_PRIORITY_LANES, 3);
+			
+			channel.sendMessages(Arrays.asList("a1","a2","a3"));
+			for(int i = 1; i <= 6; i++)
+			{
+				channel.sendMessage("h" + i, MessageHeader.newInstance().setPriority(2));
+			}
+			channel.sendMessage("m1", MessageHeader.newInstance().setPriority(1));
+			
+			List<String> payloadList = new ArrayList<String>();
+			DequeSnapshot<IMessage<String>> snapshot = channel.getMessageSnapshotPoll();
+			try
+			{
+				for(IMessage<String> message : snapshot)
+				{
+					payloadList.add(message.getPayload());
+				}
+			}
+			finally 
+			{
+				snapshot.close();
+			}
+			
+			// lane 2 delivers up to 3 messages per round, lane 1 up to 2 messages and lane 0 one message
+			assertEquals("order of messages should be correct", Arrays.asList("h1","h2","h3","m1","a1","h4","h5","h6","a2","a3"), payloadList);
+			
+			channel.sendMessage("a4");
+			channel.sendMessage("h7", MessageHeader.newInstance().setPriority(9));
+			snapshot = channel.getMessageSnapshotPoll();
+			try
+			{
+				assertEquals("high priority message should be first", "h7", snapshot.getFirstElement().getPayload());
+			}
+			finally 
+			{
+				snapshot.close();
+			}
+		}
+		finally 
+		{
+			channelCloser.close();
+		}
+	}
+	
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void test00005DeliveryTimeAndExpiration() throws Exception
+	{
+		String channelID = "test00005DeliveryTimeAndExpiration";
+		IDispatcherChannelReference channelCloser = MessageDispatcherChannelSetup.create()
+				.preparedBuilder().inManagedDispatcher(TEST_DISPATCHER_ID).underTheName("Only a test").buildChannelWithId(channelID);
+		try
+		{
+			IDispatcherChannel<String> channel = (IDispatcherChannel)IMessageDispatcherManager.get().getOrCreateDispatcher(TEST_DISPATCHER_ID).getChannel(channelID);
+			
+			channel.sendMessage("expired", MessageHeader.newInstance().setExpiration(System.currentTimeMillis() - 1L));
+			assertEquals("expired message should not be queued", 0, getQueueSize(channel));
+			
+			channel.sendMessage("delayed", MessageHeader.newInstance().setDeliveryTime(System.currentTimeMillis() + 540L));
+			channel.sendMessage("expiring", MessageHeader.newInstance().setExpiration(System.currentTimeMillis() + 540L));
+			assertEquals("only message without delivery time should be queued", 1, getQueueSize(channel));
+			
+			long timeout = System.currentTimeMillis() + 5400L;
+			DequeSnapshot<IMessage<String>> snapshot = null;
+			while(System.currentTimeMillis() < timeout)
+			{
+				Thread.sleep(27);
+				snapshot = channel.getMessageSnapshot();
+				try
+				{
+					if((snapshot.size() == 1) && "delayed".equals(snapshot.getFirstElement().getPayload()))
+					{
+						break;
+					}
+				}
+				finally 
+				{
+					snapshot.close();
+				}
+			}
+			
+			snapshot = channel.getMessageSnapshot();
+			try
+			{
+				assertEquals("size of queue should be correct", 1, snapshot.size());
+				assertEquals("delayed message should be queued", "delayed", snapshot.getFirstElement().getPayload());
+			}
+			finally 
+			{
+				snapshot.close();
+			}
+			
+			ChannelImpl channelImpl = (ChannelImpl)channel;
+			channel.getMessageSnapshotPoll().close();
+			channel.sendMessage("consumed", MessageHeader.newInstance().setExpiration(System.currentTimeMillis() + 60000L));
+			assertFalse("expiration should be scheduled", channelImpl.messageTimer.isEmpty());
+			channel.getMessageSnapshotPoll().close();
+			assertTrue("expiration of consumed message should be cancelled", channelImpl.messageTimer.isEmpty());
+			
+			channelImpl.setCapacity(2);
+			channel.sendMessage("held", MessageHeader.newInstance().setDeliveryTime(System.currentTimeMillis() + 60000L));
+			assertEquals("held message should count against capacity", 1, channel.getRemainingCapacity());
+			channel.sendMessage("queued");
+			try
+			{
+				channel.sendMessage("exceeding", MessageHeader.newInstance().setDeliveryTime(System.currentTimeMillis() + 60000L));
+				assertTrue("held message should exceed capacity", false);
+			}
+			catch (CapacityExceededException e) {}
+			try
+			{
+				channel.sendMessage("exceeding");
+				assertTrue("queued message should exceed capacity", false);
+			}
+			catch (CapacityExceededException e) {}
+			assertEquals("size of queue should be correct", 1, getQueueSize(channel));
+		}
+		finally 
+		{
+			channelCloser.close();
+		}
+	}
+	
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void test00006Journal() throws Exception
+	{
+		File journalDirectory = Files.createTempDirectory("sodeac-journal").toFile();
+		try
+		{
+			String channelID = "test00006Journal";
+			IDispatcherChannelReference channelCloser = MessageDispatcherChannelSetup.create()
+					.preparedBuilder().inManagedDispatcher(TEST_DISPATCHER_ID).underTheName("Only a test").buildChannelWithId(channelID);
+			try
+			{
+				IDispatcherChannel<String> channel = (IDispatcherChannel)IMessageDispatcherManager.get().getOrCreateDispatcher(TEST_DISPATCHER_ID).getChannel(channelID);
+				channel.getConfigurationPropertyBlock().setProperty(IDispatcherChannel.CONFIGURATION_KEY_JOURNAL_SEGMENT_SIZE, 1024);
+				channel.getConfigurationPropertyBlock().setProperty(IDispatcherChannel.CONFIGURATION_KEY_JOURNAL_DIRECTORY, journalDirectory);
+				
+				channel.sendMessages(Arrays.asList("A","B"), MessageHeader.newInstance().setGuaranteedDelivery(true));
+				channel.sendMessage("C");
+				for(int i = 0; i < 20; i++)
+				{
+					channel.sendMessage("D" + i, MessageHeader.newInstance().setGuaranteedDelivery(true));
+				}
+				
+				List<UUID> removeList = new ArrayList<UUID>();
+				DequeSnapshot<IMessage<String>> snapshot = channel.getMessageSnapshot();
+				try
+				{
+					for(IMessage<String> message : snapshot)
+					{
+						if(! "A".equals(message.getPayload()))
+						{
+							removeList.add(message.getId());
+						}
+					}
+				}
+				finally 
+				{
+					snapshot.close();
+				}
+				channel.removeMessageList(removeList);
+				
+				// removes are written by journal thread
+				long timeout = System.currentTimeMillis() + 3000L;
+				while((journalDirectory.listFiles().length > 2) && (System.currentTimeMillis() < timeout))
+				{
+					Thread.sleep(10);
+				}
+				assertTrue("journal should be compacted", journalDirectory.listFiles().length <= 2);
+			}
+			finally 
+			{
+				channelCloser.close();
+			}
+			
+			channelID = "test00006JournalReplay";
+			channelCloser = MessageDispatcherChannelSetup.create()
+					.preparedBuilder().inManagedDispatcher(TEST_DISPATCHER_ID).underTheName("Only a test").buildChannelWithId(channelID);
+			try
+			{
+				IDispatcherChannel<String> channel = (IDispatcherChannel)IMessageDispatcherManager.get().getOrCreateDispatcher(TEST_DISPATCHER_ID).getChannel(channelID);
+				channel.getConfigurationPropertyBlock().setProperty(IDispatcherChannel.CONFIGURATION_KEY_JOURNAL_DIRECTORY, journalDirectory.getPath());
+				
+				DequeSnapshot<IMessage<String>> snapshot = channel.getMessageSnapshotPoll();
+				try
+				{
+					assertEquals("size of replayed messages should be correct", 1, snapshot.size());
+					assertEquals("replayed message should be correct", "A", snapshot.getFirstElement().getPayload());
+					assertTrue("replayed message should be guaranteed", snapshot.getFirstElement().getMessageHeader().getGuaranteedDelivery());
+				}
+				finally 
+				{
+					snapshot.close();
+				}
+			}
+			finally 
+			{
+				channelCloser.close();
+			}
+		}
+		finally 
+		{
+			for(File file : journalDirectory.listFiles())
+			{
+				file.delete();
+			}
+			journalDirectory.delete();
+		}
+	}
+	
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void test00007Spillover() throws Exception
+	{
+		File spillDirectory = Files.createTempDirectory("sodeac-spill").toFile();
+		String channelID = "test00007Spillover";
+		IDispatcherChannelReference channelCloser = MessageDispatcherChannelSetup.create()
+				.preparedBuilder().inManagedDispatcher(TEST_DISPATCHER_ID).underTheName("Only a test").buildChannelWithId(channelID);
+		try
+		{
+			IDispatcherChannel<String> channel = (IDispatcherChannel)IMessageDispatcherManager.get().getOrCreateDispatcher(TEST_DISPATCHER_ID).getChannel(channelID);
+			channel.getConfigurationPropertyBlock().setProperty(IDispatcherChannel.CONFIGURATION_KEY_SPILL_HIGH_WATERMARK, 3);
+			channel.getConfigurationPropertyBlock().setProperty(IDispatcherChannel.CONFIGURATION_KEY_SPILL_DIRECTORY, spillDirectory);
+			
+			channel.sendMessages(Arrays.asList("1","2","3","4","5"));
+			for(int i = 6; i <= 10; i++)
+			{
+				channel.sendMessage(Integer.toString(i));
+			}
+			assertEquals("queue should be limited by high watermark", 3, getQueueSize(channel));
+			
+			List<String> payloadList = new ArrayList<String>();
+			for(int i = 0; i < 5; i++)
+			{
+				DequeSnapshot<IMessage<String>> snapshot = channel.getMessageSnapshotPoll();
+				try
+				{
+					for(IMessage<String> message : snapshot)
+					{
+						payloadList.add(message.getPayload());
+					}
+				}
+				finally 
+				{
+					snapshot.close();
+				}
+			}
+			assertEquals("all messages should be paged in in order", Arrays.asList("1","2","3","4","5","6","7","8","9","10"), payloadList);
+			assertEquals("queue should be empty", 0, getQueueSize(channel));
+		}
+		finally 
+		{
+			channelCloser.close();
+			spillDirectory.delete();
+		}
+		assertEquals("spill file should be deleted", 0, spillDirectory.exists() ? spillDirectory.listFiles().length : 0);
+	}
+	
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void test00007SpilloverDrainedAfterUnconfigure() throws Exception
+	{
+		File spillDirectory = Files.createTempDirectory("sodeac-spill").toFile();
+		String channelID = "test00007SpilloverDrainedAfterUnconfigure";
+		IDispatcherChannelReference channelCloser = MessageDispatcherChannelSetup.create()
+				.preparedBuilder().inManagedDispatcher(TEST_DISPATCHER_ID).underTheName("Only a test").buildChannelWithId(channelID);
+		try
+		{
+			IDispatcherChannel<String> channel = (IDispatcherChannel)IMessageDispatcherManager.get().getOrCreateDispatcher(TEST_DISPATCHER_ID).getChannel(channelID);
+			((ChannelImpl)channel).setCapacity(4);
+			channel.getConfigurationPropertyBlock().setProperty(IDispatcherChannel.CONFIGURATION_KEY_SPILL_HIGH_WATERMARK, 2);
+			channel.getConfigurationPropertyBlock().setProperty(IDispatcherChannel.CONFIGURATION_KEY_SPILL_DIRECTORY, spillDirectory);
+			
+			channel.sendMessages(Arrays.asList("1","2","3","4","5","6","7","8","9","10"));
+			assertEquals("queue should be limited by high watermark", 2, getQueueSize(channel));
+			
+			// spilled messages exceeding capacity remain in draining spillover
+			channel.getConfigurationPropertyBlock().removeProperty(IDispatcherChannel.CONFIGURATION_KEY_SPILL_DIRECTORY);
+			assertEquals("queue should be filled up to capacity", 4, getQueueSize(channel));
+			
+			channel.sendMessage("11");
+			
+			List<String> payloadList = new ArrayList<String>();
+			for(int i = 0; (i < 10) && (payloadList.size() < 11); i++)
+			{
+				for(IMessage<String> message : channel.pollMessages(3))
+				{
+					payloadList.add(message.getPayload());
+				}
+			}
+			assertEquals("no spilled message should be dropped", Arrays.asList("1","2","3","4","5","6","7","8","9","10","11"), payloadList);
+			assertEquals("spill file should be deleted after draining", 0, spillDirectory.listFiles().length);
+			
+			channel.sendMessages(Arrays.asList("12","13","14"));
+			assertEquals("messages should be queued without spillover", 3, getQueueSize(channel));
+		}
+		finally 
+		{
+			channelCloser.close();
+			spillDirectory.delete();
+		}
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void test00008BackPressure() throws Exception
+	{
+		String channelID = "test00008BackPressure";
+		IDispatcherChannelReference channelCloser = MessageDispatcherChannelSetup.create()
+				.preparedBuilder().inManagedDispatcher(TEST_DISPATCHER_ID).underTheName("Only a test").buildChannelWithId(channelID);
+		try
+		{
+			IDispatcherChannel<String> channel = (IDispatcherChannel)IMessageDispatcherManager.get().getOrCreateDispatcher(TEST_DISPATCHER_ID).getChannel(channelID);
+			((ChannelImpl)channel).setCapacity(2);
+			
+			assertEquals("remaining capacity should be equals", 2, channel.getRemainingCapacity());
+			channel.sendMessage("1");
+			channel.sendMessage("2");
+			assertEquals("remaining capacity should be equals", 0, channel.getRemainingCapacity());
+			
+			assertFalse("blocking send should time out", channel.sendMessage("x", null, 100, TimeUnit.MILLISECONDS));
+			assertEquals("queue should contain sent messages only", 2, getQueueSize(channel));
+			
+			CompletableFuture<Void> future = channel.sendMessageAsync("3");
+			assertFalse("async send should be pending", future.isDone());
+			assertEquals("remaining capacity should be equals", 0, channel.getRemainingCapacity());
+			
+			DequeSnapshot<IMessage<String>> snapshot = channel.getMessageSnapshotPoll();
+			try
+			{
+				assertEquals("poll should remove all messages", 2, snapshot.size());
+			}
+			finally 
+			{
+				snapshot.close();
+			}
+			
+			future.get(3, TimeUnit.SECONDS);
+			assertTrue("blocking send should succeed", channel.sendMessage("4", null, 3, TimeUnit.SECONDS));
+			assertEquals("queue should contain released messages", 2, getQueueSize(channel));
+			
+			CompletableFuture<Boolean> blockedSend = new CompletableFuture<Boolean>();
+			Thread sender = new Thread(() ->
+			{
+				try
+				{
+					blockedSend.complete(channel.sendMessage("6", null, 10, TimeUnit.SECONDS));
+				}
+				catch (Throwable e) 
+				{
+					blockedSend.completeExceptionally(e);
+				}
+			});
+			sender.start();
+			long waitUntil = System.currentTimeMillis() + 3000L;
+			while((sender.getState() != Thread.State.TIMED_WAITING) && (System.currentTimeMillis() < waitUntil))
+			{
+				Thread.sleep(10);
+			}
+			assertEquals("sender should block on full channel", Thread.State.TIMED_WAITING, sender.getState());
+			assertFalse("blocked send should be pending", blockedSend.isDone());
+			
+			snapshot = channel.getMessageSnapshotPoll();
+			try
+			{
+				assertEquals("poll should remove all messages", 2, snapshot.size());
+			}
+			finally 
+			{
+				snapshot.close();
+			}
+			
+			assertTrue("blocked sender should resume after poll", blockedSend.get(3, TimeUnit.SECONDS));
+			sender.join(3000L);
+			assertEquals("queue should contain message of resumed sender", Arrays.asList("6"), getPayloadList(channel));
+			channel.sendMessage("7");
+			
+			CompletableFuture<Void> disposedFuture = channel.sendMessageAsync("5");
+			channelCloser.close();
+			try
+			{
+				disposedFuture.get(3, TimeUnit.SECONDS);
+				assertTrue("pending send should fail on dispose", false);
+			}
+			catch (ExecutionException e) 
+			{
+				assertTrue("pending send should fail on dispose", e.getCause() instanceof IllegalStateException);
+			}
+		}
+		finally 
+		{
+			channelCloser.close();
+		}
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void test00009BatchPublish() throws Exception
+	{
+		String channelID1 = "test00009BatchPublish1";
+		String channelID2 = "test00009BatchPublish2";
+		IDispatcherChannelReference channelCloser1 = MessageDispatcherChannelSetup.create()
+				.preparedBuilder().inManagedDispatcher(TEST_DISPATCHER_ID).underTheName("Only a test").buildChannelWithId(channelID1);
+		IDispatcherChannelReference channelCloser2 = MessageDispatcherChannelSetup.create()
+				.preparedBuilder().inManagedDispatcher(TEST_DISPATCHER_ID).underTheName("Only a test").buildChannelWithId(channelID2);
+		try
+		{
+			IMessageDispatcher dispatcher = IMessageDispatcherManager.get().getOrCreateDispatcher(TEST_DISPATCHER_ID);
+			IDispatcherChannel<String> channel1 = (IDispatcherChannel)dispatcher.getChannel(channelID1);
+			IDispatcherChannel<String> channel2 = (IDispatcherChannel)dispatcher.getChannel(channelID2);
+			
+			try
+			{
+				dispatcher.sendMessages(Arrays.asList(ChannelMessage.of(channelID1, "1"), ChannelMessage.of("unknown", "x")));
+				assertTrue("unknown channel should be rejected", false);
+			}
+			catch (ChannelNotFoundException e) {}
+			assertEquals("no message should be sent", 0, getQueueSize(channel1));
+			
+			dispatcher.sendMessages(Arrays.asList
+			(
+				ChannelMessage.of(channelID1, "1"), 
+				ChannelMessage.of(channelID2, "a"), 
+				ChannelMessage.of(channelID1, "2"), 
+				ChannelMessage.of(channelID2, "b", MessageHeader.newInstance().setTimestamp(1L)), 
+				ChannelMessage.of(channelID1, "3")
+			));
+			
+			assertEquals("messages should be sent in order", Arrays.asList("1","2","3"), getPayloadList(channel1));
+			assertEquals("messages should be sent in order", Arrays.asList("a","b"), getPayloadList(channel2));
+			DequeSnapshot<IMessage<String>> snapshot = channel2.getMessageSnapshot();
+			try
+			{
+				assertEquals("header should be used", Long.valueOf(1L), snapshot.getLastElement().getMessageHeader().getTimestamp());
+			}
+			finally 
+			{
+				snapshot.close();
+			}
+		}
+		finally 
+		{
+			channelCloser1.close();
+			channelCloser2.close();
+		}
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void test00010SpilloverPushBackAndCompaction() throws Exception
+	{
+		File spillDirectory = Files.createTempDirectory("sodeac-spill").toFile();
+		String channelID = "test00010SpilloverPushBackAndCompaction";
+		IDispatcherChannelReference channelCloser = MessageDispatcherChannelSetup.create()
+				.preparedBuilder().inManagedDispatcher(TEST_DISPATCHER_ID).underTheName("Only a test").buildChannelWithId(channelID);
+		ChannelSpillover spillover = null;
+		try
+		{
+			ChannelImpl channel = (ChannelImpl)IMessageDispatcherManager.get().getOrCreateDispatcher(TEST_DISPATCHER_ID).getChannel(channelID);
+			spillover = new ChannelSpillover(spillDirectory, null);
+			
+			char[] filler = new char[64 * 1024];
+			Arrays.fill(filler, 'x');
+			List<MessageImpl> messageList = new ArrayList<MessageImpl>();
+			for(int i = 0; i < 32; i++)
+			{
+				messageList.add(new MessageImpl(i + new String(filler), channel, MessageHeader.newInstance()));
+			}
+			spillover.write(messageList);
+			File spillFile = spillDirectory.listFiles()[0];
+			long spillFileLength = spillFile.length();
+			
+			List<MessageImpl> readList = spillover.read(channel, 2, channel.dummyPublishMessageResult);
+			spillover.pushBack(readList);
+			assertEquals("pushed back messages should be counted", 32, spillover.size());
+			
+			List<Integer> indexList = new ArrayList<Integer>();
+			for(MessageImpl message : spillover.read(channel, 24, channel.dummyPublishMessageResult))
+			{
+				indexList.add(Integer.parseInt(((String)message.getPayload()).substring(0, ((String)message.getPayload()).indexOf('x'))));
+			}
+			assertTrue("spill file should be compacted", spillFile.length() < spillFileLength / 2);
+			for(MessageImpl message : spillover.read(channel, 32, channel.dummyPublishMessageResult))
+			{
+				indexList.add(Integer.parseInt(((String)message.getPayload()).substring(0, ((String)message.getPayload()).indexOf('x'))));
+			}
+			
+			List<Integer> expectedList = new ArrayList<Integer>();
+			for(int i = 0; i < 32; i++)
+			{
+				expectedList.add(i);
+			}
+			assertEquals("messages should be read in order of write", expectedList, indexList);
+			assertTrue("spillover should be empty", spillover.isEmpty());
+			assertEquals("spill file should be truncated", 0L, spillFile.length());
+		}
+		finally 
+		{
+			if(spillover != null)
+			{
+				spillover.close();
+			}
+			channelCloser.close();
+			spillDirectory.delete();
+		}
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void test00011JournalAcknowledge() throws Exception
+	{
+		File journalDirectory = Files.createTempDirectory("sodeac-journal").toFile();
+		try
+		{
+			String channelID = "test00011JournalAcknowledge";
+			IDispatcherChannelReference channelCloser = MessageDispatcherChannelSetup.create()
+					.preparedBuilder().inManagedDispatcher(TEST_DISPATCHER_ID).underTheName("Only a test").buildChannelWithId(channelID);
+			try
+			{
+				IDispatcherChannel<String> channel = (IDispatcherChannel)IMessageDispatcherManager.get().getOrCreateDispatcher(TEST_DISPATCHER_ID).getChannel(channelID);
+				channel.getConfigurationPropertyBlock().setProperty(IDispatcherChannel.CONFIGURATION_KEY_JOURNAL_DIRECTORY, journalDirectory);
+				
+				// header with same message id is reused
+				MessageHeader messageHeader = MessageHeader.newInstance().setGuaranteedDelivery(true);
+				channel.sendMessage("processed", messageHeader);
+				channel.sendMessage("polled", messageHeader);
+				channel.sendMessage("removed", messageHeader);
+				
+				DequeSnapshot<IMessage<String>> snapshot = channel.getMessageSnapshot();
+				try
+				{
+					channel.removeMessage(snapshot.getLastElement().getId());
+				}
+				finally 
+				{
+					snapshot.close();
+				}
+				
+				snapshot = channel.getMessageSnapshotPoll();
+				try
+				{
+					assertEquals("all messages should be polled", Arrays.asList("processed","polled"), snapshot.stream().map(IMessage::getPayload).collect(Collectors.toList()));
+					snapshot.getFirstElement().setProcessed(true);
+				}
+				finally 
+				{
+					snapshot.close();
+				}
+			}
+			finally 
+			{
+				channelCloser.close();
+			}
+			
+			channelID = "test00011JournalAcknowledgeReplay";
+			channelCloser = MessageDispatcherChannelSetup.create()
+					.preparedBuilder().inManagedDispatcher(TEST_DISPATCHER_ID).underTheName("Only a test").buildChannelWithId(channelID);
+			try
+			{
+				IDispatcherChannel<String> channel = (IDispatcherChannel)IMessageDispatcherManager.get().getOrCreateDispatcher(TEST_DISPATCHER_ID).getChannel(channelID);
+				channel.getConfigurationPropertyBlock().setProperty(IDispatcherChannel.CONFIGURATION_KEY_JOURNAL_DIRECTORY, journalDirectory);
+				
+				assertEquals("polled message without acknowledge should be replayed", Arrays.asList("polled"), getPayloadList(channel));
+			}
+			finally 
+			{
+				channelCloser.close();
+			}
+		}
+		finally 
+		{
+			for(File file : journalDirectory.listFiles())
+			{
+				file.delete();
+			}
+			journalDirectory.delete();
+		}
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void test00012JournalReplayAfterPollMessages() throws Exception
+	{
+		File journalDirectory = Files.createTempDirectory("sodeac-journal").toFile();
+		try
+		{
+			String channelID = "test00012JournalReplayAfterPollMessages";
+			IDispatcherChannelReference channelCloser = MessageDispatcherChannelSetup.create()
+					.preparedBuilder().inManagedDispatcher(TEST_DISPATCHER_ID).underTheName("Only a test").buildChannelWithId(channelID);
+			try
+			{
+				IDispatcherChannel<String> channel = (IDispatcherChannel)IMessageDispatcherManager.get().getOrCreateDispatcher(TEST_DISPATCHER_ID).getChannel(channelID);
+				channel.getConfigurationPropertyBlock().setProperty(IDispatcherChannel.CONFIGURATION_KEY_JOURNAL_DIRECTORY, journalDirectory);
+				
+				MessageHeader messageHeader = MessageHeader.newInstance().setGuaranteedDelivery(true);
+				channel.sendMessage("processed", messageHeader);
+				channel.sendMessage("consumed", messageHeader);
+				channel.sendMessage("polled", messageHeader);
+				
+				List<IMessage<String>> messageList = channel.pollMessages(3);
+				assertEquals("all messages should be polled", Arrays.asList("processed","consumed","polled"), messageList.stream().map(IMessage::getPayload).collect(Collectors.toList()));
+				assertEquals("channel should be empty", 0, getQueueSize(channel));
+				
+				// consumed is not processed, so only first message is acknowledged
+				messageList.get(0).setProcessed(true);
+				messageList.get(1).setConsumed(true);
+			}
+			finally 
+			{
+				channelCloser.close();
+			}
+			
+			channelID = "test00012JournalReplayAfterPollMessagesReplay";
+			channelCloser = MessageDispatcherChannelSetup.create()
+					.preparedBuilder().inManagedDispatcher(TEST_DISPATCHER_ID).underTheName("Only a test").buildChannelWithId(channelID);
+			try
+			{
+				IDispatcherChannel<String> channel = (IDispatcherChannel)IMessageDispatcherManager.get().getOrCreateDispatcher(TEST_DISPATCHER_ID).getChannel(channelID);
+				channel.getConfigurationPropertyBlock().setProperty(IDispatcherChannel.CONFIGURATION_KEY_JOURNAL_DIRECTORY, journalDirectory);
+				
+				assertEquals("polled messages without acknowledge should be replayed", Arrays.asList("consumed","polled"), getPayloadList(channel));
+			}
+			finally 
+			{
+				channelCloser.close();
+			}
+		}
+		finally 
+		{
+			for(File file : journalDirectory.listFiles())
+			{
+				file.delete();
+			}
+			journalDirectory.delete();
+		}
+	}
+	
+	private List<String> getPayloadList(IDispatcherChannel<String> channel) throws Exception
+	{
+		List<String> payloadList = new ArrayList<String>();
+		DequeSnapshot<IMessage<String>> snapshot = channel.getMessageSnapshot();
+		try
+		{
+			for(IMessage<String> message : snapshot)
+			{
+				payloadList.add(message.getPayload());
+			}
+		}
+		finally 
+		{
+			snapshot.close();
+		}
+		return payloadList;
+	}
+	
+	private int getQueueSize(IDispatcherChannel<?> channel) throws Exception
+	{
+		DequeSnapshot<?> snapshot = channel.getMessageSnapshot();
+		try
+		{
+			return snapshot.size();
+		}
+		finally 
+		{
+			snapshot.close();
+		}
+	}
 }
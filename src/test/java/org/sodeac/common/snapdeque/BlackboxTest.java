@@ -21,9 +21,16 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.junit.FixMethodOrder;
 import org.junit.Test;
@@ -1131,7 +1138,227 @@ public class BlackboxTest
 			testEqualsNotCollection(content, deque);
 			content.removeLastOccurrence("1");
 			testEqualsCollection(content, deque);
+		
+		}
+	}
+	
+	@Test
+	public void test03001LinkAfter() throws Exception
+	{
+		try(SnapshotableDeque<String> deque = new SnapshotableDeque<String>())
+		{
+			deque.addAll(Arrays.asList(new String[] {"1","3","5"}));
+			
+			DequeNode<String> node1 = deque.getFirstNode();
+			DequeNode<String> node3 = node1.getNextNode();
+			DequeNode<String> node5 = deque.getLastNode();
+			assertEquals("element should be correct", "3", node3.getElement());
+			assertEquals("node should be correct", node3, node5.getPreviousNode());
+			assertEquals("node should be correct", null, node5.getNextNode());
+			
+			DequeSnapshot<String> snapshot = deque.createSnapshot();
+			
+			deque.linkAfter(node1, "2", null);
+			deque.linkAfter(node5, "6", null);
+			deque.linkAfter(null, "0", null);
+			DequeNode<String> node4 = deque.linkAfter(node3, "4", null);
+			
+			assertEquals("node should be correct", node3, node4.getPreviousNode());
+			assertEquals("node should be correct", node5, node4.getNextNode());
+			testEqualsCollection(Arrays.asList(new String[] {"0","1","2","3","4","5","6"}), deque);
+			assertArrayEquals("snapshot should not be changed", new String[] {"1","3","5"}, snapshot.toArray());
+			snapshot.close();
+			
+			node3.unlink();
+			deque.linkAfter(node4, "4.5", null);
+			testEqualsCollection(Arrays.asList(new String[] {"0","1","2","4","4.5","5","6"}), deque);
+			
+			try
+			{
+				deque.linkAfter(node3, "3.5", null);
+				assertTrue("unlinked predecessor should be rejected", false);
+			}
+			catch (IllegalStateException e) {}
+		}
+	}
+	
+	@Test
+	public void test03051DrainTo() throws Exception
+	{
+		try(SnapshotableDeque<String> deque = new SnapshotableDeque<String>())
+		{
+			deque.addAll(Arrays.asList(new String[] {"1","2","3","4","5"}));
+			
+			DequeSnapshot<String> snapshot = deque.createSnapshot();
+			
+			List<String> drained = new ArrayList<String>();
+			assertEquals("count of removed elements should be correct", 2, deque.drainTo(drained::add, 2));
+			assertEquals("removed elements should be correct", Arrays.asList(new String[] {"1","2"}), drained);
+			testEqualsCollection(Arrays.asList(new String[] {"3","4","5"}), deque);
+			assertArrayEquals("snapshot should not be changed", new String[] {"1","2","3","4","5"}, snapshot.toArray());
+			snapshot.close();
+			
+			assertEquals("removed elements should be correct", Arrays.asList(new String[] {"3","4","5"}), deque.pollBatch(10));
+			assertEquals("deque should be empty", 0, deque.size());
+			assertTrue("poll of empty deque should be empty", deque.pollBatch(10).isEmpty());
+			assertEquals("count of removed elements should be correct", 0, deque.drainTo(drained::add, 10));
+			
+			deque.addAll(Arrays.asList(new String[] {"6","7"}));
+			deque.clear();
+			testEqualsCollection(new ArrayList<String>(), deque);
+		}
+	}
+	
+	@Test
+	public void test03101SnapshotTraversal() throws Exception
+	{
+		try(SnapshotableDeque<Integer> deque = new SnapshotableDeque<Integer>())
+		{
+			List<Integer> content = new ArrayList<Integer>();
+			for(int i = 0; i < 10000; i++)
+			{
+				content.add(i);
+			}
+			deque.addAll(content);
 			
+			try(DequeSnapshot<Integer> snapshot = deque.createSnapshot())
+			{
+				deque.pollFirst();
+				deque.pollLast();
+				deque.addLast(10000);
+				
+				List<Integer> forEachList = new ArrayList<Integer>();
+				snapshot.forEach(forEachList::add);
+				assertEquals("forEach should traverse snapshot", content, forEachList);
+				
+				List<Integer> forEachNodeList = new ArrayList<Integer>();
+				snapshot.forEachNode(n -> forEachNodeList.add(n.getElement()));
+				assertEquals("forEachNode should traverse snapshot", content, forEachNodeList);
+				
+				DequeSnapshot.Cursor<Integer> cursor = new DequeSnapshot.Cursor<Integer>();
+				for(int run = 0; run < 2; run++)
+				{
+					cursor.reset(snapshot);
+					int index = 0;
+					while(cursor.next())
+					{
+						assertEquals("cursor index should be correct", index, cursor.getIndex());
+						assertEquals("cursor element should be correct", content.get(index), cursor.getElement());
+						index++;
+					}
+					assertEquals("cursor should traverse snapshot", content.size(), index);
+				}
+				
+				Spliterator<Integer> spliterator = snapshot.spliterator();
+				assertTrue("spliterator should be sized", spliterator.hasCharacteristics(Spliterator.SIZED));
+				assertTrue("spliterator should be ordered", spliterator.hasCharacteristics(Spliterator.ORDERED));
+				assertEquals("spliterator size should be correct", content.size(), spliterator.estimateSize());
+				
+				assertEquals("parallel stream should traverse snapshot", content, StreamSupport.stream(snapshot.spliterator(), true).collect(Collectors.toList()));
+				assertEquals("parallel node stream should traverse snapshot", content.size(), StreamSupport.stream(snapshot.nodeSpliterator(), true).count());
+				assertEquals("node stream should traverse snapshot", content, snapshot.nodeStream().map(DequeNode::getElement).collect(Collectors.toList()));
+			}
+		}
+	}
+	
+	@Test
+	public void test03151BulkOperations() throws Exception
+	{
+		try(SnapshotableDeque<Integer> deque = new SnapshotableDeque<Integer>())
+		{
+			List<Integer> content = new ArrayList<Integer>();
+			for(int i = 0; i < 1000; i++)
+			{
+				content.add(i);
+			}
+			deque.addAll(content);
+			
+			assertArrayEquals("toArray should be correct", content.toArray(), deque.toArray());
+			assertArrayEquals("toArray should be correct", content.toArray(new Integer[0]), deque.toArray(new Integer[0]));
+			assertTrue("deque should contains all", deque.containsAll(Arrays.asList(new Integer[] {999,0,500})));
+			assertFalse("deque should not contains all", deque.containsAll(Arrays.asList(new Integer[] {999,1000})));
+			
+			assertEquals("sum of parallel stream should be correct", 499500L, deque.parallelStream().mapToLong(Integer::longValue).sum());
+			assertEquals("sum of stream should be correct", 499500L, deque.stream().mapToLong(Integer::longValue).sum());
+			assertTrue("stream should close snapshot", deque.openSnapshotVersionList.isEmpty());
+			try(Stream<Integer> stream = deque.stream())
+			{
+				assertTrue("short-circuited stream should match", stream.anyMatch(i -> i == 10));
+				assertFalse("short-circuited stream should hold snapshot until close", deque.openSnapshotVersionList.isEmpty());
+			}
+			assertTrue("closed stream should close snapshot", deque.openSnapshotVersionList.isEmpty());
+			Spliterator<Integer> spliterator = deque.spliterator();
+			assertTrue("spliterator should not create snapshot", deque.openSnapshotVersionList.isEmpty());
+			assertTrue("spliterator should provide first element", spliterator.tryAdvance(i -> assertEquals("first element should be correct", Integer.valueOf(0), i)));
+			assertEquals("spliterator should be sized", content.size() - 1, spliterator.estimateSize());
+			
+			try(DequeSnapshot<Integer> snapshot = deque.createSnapshot())
+			{
+				assertTrue("removeIf should remove elements", deque.removeIf(i -> (i % 2) == 1));
+				assertFalse("removeIf should not remove elements", deque.removeIf(i -> (i % 2) == 1));
+				assertEquals("snapshot should not be changed", content.size(), snapshot.size());
+				assertArrayEquals("snapshot should not be changed", content.toArray(), snapshot.toArray());
+			}
+			content.removeIf(i -> (i % 2) == 1);
+			testEqualsCollection(content, deque);
+			
+			List<Integer> removeList = new ArrayList<Integer>();
+			for(int i = 0; i < 100; i++)
+			{
+				removeList.add(i);
+			}
+			assertTrue("removeAll should remove elements", deque.removeAll(removeList));
+			content.removeAll(removeList);
+			testEqualsCollection(content, deque);
+			
+			List<Integer> retainList = new ArrayList<Integer>();
+			for(int i = 900; i < 1000; i++)
+			{
+				retainList.add(i);
+			}
+			assertTrue("retainAll should remove elements", deque.retainAll(retainList));
+			content.retainAll(retainList);
+			testEqualsCollection(content, deque);
+			assertEquals("size should be correct", 50, deque.size());
+		}
+		
+		try(SnapshotableDeque<String> deque = new SnapshotableDeque<String>())
+		{
+			String element = new String("a");
+			deque.add(element);
+			Set<Object> identitySet = Collections.newSetFromMap(new IdentityHashMap<Object,Boolean>());
+			identitySet.add(new String("a"));
+			assertFalse("containsAll should use membership of set", deque.containsAll(identitySet));
+			assertFalse("removeAll should use membership of collection", deque.removeAll(identitySet));
+			assertFalse("retainAll should use membership of collection", deque.retainAll(Collections.singleton(new String("a"))));
+			identitySet.remove(identitySet.iterator().next());
+			identitySet.add(element);
+			assertTrue("containsAll should use membership of set", deque.containsAll(identitySet));
+			assertTrue("removeAll should use membership of collection", deque.removeAll(identitySet));
+			assertTrue("deque should be empty", deque.isEmpty());
+		}
+		
+		try(SnapshotableDeque<String> deque = new SnapshotableDeque<String>())
+		{
+			deque.addAll(Arrays.asList("a","b","c","b"));
+			
+			// list is copied before lock is acquired, contains of list is not invoked
+			List<String> list = new ArrayList<String>(Arrays.asList("b","x","b"))
+			{
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				public boolean contains(Object o)
+				{
+					throw new IllegalStateException("list should be copied");
+				}
+			};
+			assertFalse("deque should not contains all", deque.containsAll(list));
+			assertTrue("removeAll should remove elements", deque.removeAll(list));
+			assertArrayEquals("all occurrences should be removed", new String[] {"a","c"}, deque.toArray(new String[0]));
+			list.remove("x");
+			assertTrue("retainAll should remove elements", deque.retainAll(list));
+			assertTrue("deque should be empty", deque.isEmpty());
 		}
 	}
 	
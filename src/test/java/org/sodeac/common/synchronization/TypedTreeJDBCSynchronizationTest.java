@@ -0,0 +1,366 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.synchronization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+import org.sodeac.common.jdbc.DBSchemaUtils;
+import org.sodeac.common.jdbc.ParseDBSchemaHandler;
+import org.sodeac.common.jdbc.cruder.ArticleGroupNodeType;
+import org.sodeac.common.jdbc.cruder.ArticleNodeType;
+import org.sodeac.common.jdbc.cruder.MiniMerchandiseManagementModel;
+import org.sodeac.common.model.CoreTreeModel;
+import org.sodeac.common.model.dbschema.DBSchemaNodeType;
+import org.sodeac.common.synchronization.TypedTreeJDBCSynchronization.PersistLocalNodesContext;
+import org.sodeac.common.synchronization.TypedTreeJDBCSynchronization.UpdateLocalNodeContext;
+import org.sodeac.common.typedtree.BranchNode;
+import org.sodeac.common.typedtree.BranchNodeMetaModel;
+import org.sodeac.common.typedtree.ModelRegistry;
+import org.sodeac.common.typedtree.TypedTreeMetaModel.RootBranchNode;
+import org.sodeac.common.typedtree.annotation.SQLTable;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TypedTreeJDBCSynchronizationTest
+{
+	private static JdbcDataSource dataSource = null;
+	private static Connection connection = null; // keeps in-memory database open
+	
+	@BeforeClass
+	public static void setUp() throws Exception
+	{
+		dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:synchronization;DB_CLOSE_DELAY=-1");
+		dataSource.setUser("sa");
+		dataSource.setPassword("sa");
+		
+		connection = dataSource.getConnection();
+		
+		ParseDBSchemaHandler parseDBSchemaHandler = new ParseDBSchemaHandler("SynchronizationTest");
+		ModelRegistry.parse(MiniMerchandiseManagementModel.class, parseDBSchemaHandler);
+		RootBranchNode<?, DBSchemaNodeType> schemaSpec = parseDBSchemaHandler.fillSchemaSpec(MiniMerchandiseManagementModel.class, CoreTreeModel.class);
+		schemaSpec.setValue(DBSchemaNodeType.logUpdates, false);
+		schemaSpec.setValue(DBSchemaNodeType.dbmsSchemaName,connection.getSchema());
+		
+		connection.setAutoCommit(false);
+		DBSchemaUtils schemaUtils = DBSchemaUtils.get(connection);
+		schemaUtils.adaptSchema(schemaSpec);
+		connection.commit();
+		schemaSpec.dispose();
+	}
+	
+	@Test
+	public void t00010Ordering() throws Exception
+	{
+		try(TypedTreeJDBCSynchronization<ArticleGroupNodeType> synchronization = newSynchronization(c -> persistAll(c), 4))
+		{
+			for(String prefix : new String[] {"A","B","C","D"})
+			{
+				synchronization.pushChunk(newChunk(100, 20, prefix));
+			}
+			synchronization.flush();
+		}
+		
+		Map<Long,String> names = selectNames(100, 20);
+		assertEquals("size of rows should be correct", 20, names.size());
+		for(long number = 100; number < 120; number++)
+		{
+			assertEquals("last pushed chunk should win", "D" + number, names.get(number));
+		}
+	}
+	
+	@Test
+	public void t00020RepeatedKeys() throws Exception
+	{
+		// first chunk is committed after finder of second chunk has looked up local nodes
+		
+		CountDownLatch secondChunkFound = new CountDownLatch(1);
+		AtomicInteger persistCount = new AtomicInteger();
+		
+		try(TypedTreeJDBCSynchronization<ArticleGroupNodeType> synchronization = newSynchronization(c ->
+		{
+			if(persistCount.incrementAndGet() == 1)
+			{
+				await(secondChunkFound);
+			}
+			persistAll(c);
+		}, 2))
+		{
+			synchronization.pushChunk(newChunk(200, 10, "A"));
+			synchronization.pushChunk(newChunk(205, 10, "B"));
+			
+			while(synchronization.getPhaseCount(TypedTreeJDBCSynchronization.Phase.FIND_LOCAL_NODES) < 2L)
+			{
+				Thread.sleep(10);
+			}
+			secondChunkFound.countDown();
+			
+			synchronization.flush();
+		}
+		
+		Map<Long,String> names = selectNames(200, 15);
+		assertEquals("size of rows should be correct", 15, names.size());
+		assertEquals("value should be correct", "A200", names.get(200L));
+		assertEquals("value should be correct", "B205", names.get(205L));
+		assertEquals("value should be correct", "B214", names.get(214L));
+	}
+	
+	@Test
+	public void t00030FailureAndRecovery() throws Exception
+	{
+		CountDownLatch thirdChunkPushed = new CountDownLatch(1);
+		
+		try(TypedTreeJDBCSynchronization<ArticleGroupNodeType> synchronization = newSynchronization(c ->
+		{
+			persistAll(c);
+			if(c.getUpdateList().get(0).getValue(ArticleGroupNodeType.number) == 310L)
+			{
+				await(thirdChunkPushed);
+				throw new IllegalStateException("test failure");
+			}
+		}, 4))
+		{
+			synchronization.pushChunk(newChunk(300, 10, "A"));
+			synchronization.pushChunk(newChunk(310, 10, "A"));
+			synchronization.pushChunk(newChunk(320, 10, "A"));
+			thirdChunkPushed.countDown();
+			
+			try
+			{
+				synchronization.flush();
+				fail("failure should be reported");
+			}
+			catch (RuntimeException e)
+			{
+				assertTrue("cause should be correct", e.getCause() instanceof IllegalStateException);
+				assertTrue("queued chunk should be cancelled", e.getMessage().contains("1 queued chunk(s) cancelled"));
+			}
+			
+			assertEquals("first chunk should be committed", 10, selectNames(300, 10).size());
+			assertEquals("failed chunk should be rolled back", 0, selectNames(310, 10).size());
+			assertEquals("queued chunk should be cancelled", 0, selectNames(320, 10).size());
+			
+			// pipeline is reusable after failure is reported
+			
+			synchronization.pushChunk(newChunk(320, 10, "B"));
+			synchronization.flush();
+		}
+		
+		assertEquals("chunk should be committed after recovery", 10, selectNames(320, 10).size());
+	}
+	
+	@Test
+	public void t00040SequentialSkipsFailedNode() throws Exception
+	{
+		// in sequential mode a failing update callback skips the node, remaining nodes of chunk are persisted
+		
+		try(TypedTreeJDBCSynchronization<ArticleGroupNodeType> synchronization = newSynchronization(c -> 
+		{
+			if(c.getRemote().getValue(ArticleGroupNodeType.number) == 405L)
+			{
+				throw new IllegalStateException("test failure");
+			}
+			updateLocalNode(c);
+		}, c -> 
+		{
+			persistAll(c);
+			try
+			{
+				c.getSession().commit();
+			}
+			catch (Exception e)
+			{
+				throw new RuntimeException(e);
+			}
+		}, 0))
+		{
+			synchronization.pushChunk(newChunk(400, 10, "A"));
+		}
+		
+		Map<Long,String> names = selectNames(400, 10);
+		assertEquals("size of rows should be correct", 9, names.size());
+		assertFalse("failed node should be skipped", names.containsKey(405L));
+		assertEquals("value should be correct", "A406", names.get(406L));
+	}
+	
+	@Test
+	public void t00050PipelineThreads() throws Exception
+	{
+		List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+		
+		try(TypedTreeJDBCSynchronization<ArticleGroupNodeType> synchronization = newSynchronization(c -> 
+		{
+			threads.add(Thread.currentThread());
+			updateLocalNode(c);
+		}, c -> 
+		{
+			threads.add(Thread.currentThread());
+			persistAll(c);
+		}, 2))
+		{
+			synchronization.pushChunk(newChunk(500, 10, "A"));
+			synchronization.flush();
+		}
+		
+		assertFalse("callbacks should be invoked", threads.isEmpty());
+		for(Thread thread : threads)
+		{
+			assertTrue("pipeline thread should be daemon", thread.isDaemon());
+			assertTrue("pipeline thread should be named", thread.getName().startsWith("SynchronizationPipeline-"));
+		}
+	}
+	
+	private TypedTreeJDBCSynchronization<ArticleGroupNodeType> newSynchronization(Consumer<PersistLocalNodesContext<ArticleGroupNodeType>> persist, int maxPendingChunks)
+	{
+		return newSynchronization(c -> updateLocalNode(c), persist, maxPendingChunks);
+	}
+	
+	/*
+	 * maxPendingChunks < 1 builds synchronization in sequential mode
+	 */
+	private TypedTreeJDBCSynchronization<ArticleGroupNodeType> newSynchronization(Consumer<UpdateLocalNodeContext<ArticleGroupNodeType>> update, Consumer<PersistLocalNodesContext<ArticleGroupNodeType>> persist, int maxPendingChunks)
+	{
+		TypedTreeJDBCSynchronization.TTSBuilder<ArticleGroupNodeType>.PreparedTTSBuilder builder = TypedTreeJDBCSynchronization.newSynchronisationForType(ArticleGroupNodeType.class)
+			.findLocalNodes(c ->
+			{
+				Map<Long,BranchNode<? extends BranchNodeMetaModel,ArticleGroupNodeType>> remoteIndex = new HashMap<>();
+				for(BranchNode<? extends BranchNodeMetaModel,ArticleGroupNodeType> remote : c.getChunk())
+				{
+					remoteIndex.put(remote.getValue(ArticleGroupNodeType.number), remote);
+				}
+				try
+				{
+					for(BranchNode<?,ArticleGroupNodeType> local : c.getSession().loadList(ArticleNodeType.group, ArticleGroupNodeType.number, remoteIndex.keySet().toArray(), v -> Collections.singletonList(ArticleGroupNodeType.newNode())))
+					{
+						c.definePair(remoteIndex.get(local.getValue(ArticleGroupNodeType.number)), local);
+					}
+				}
+				catch (Exception e)
+				{
+					throw new RuntimeException(e);
+				}
+			})
+			.checkUpToDate(c -> Objects.equals(c.getLocal().getValue(ArticleGroupNodeType.name), c.getRemote().getValue(ArticleGroupNodeType.name)))
+			.localNodeFactory(c -> ArticleGroupNodeType.newNode().setValue(ArticleGroupNodeType.number, c.getRemote().getValue(ArticleGroupNodeType.number)))
+			.updateLocalNode(update)
+			.persistLocalNodes(persist)
+			.disposeChunkPhase(null);
+		
+		if(maxPendingChunks > 0)
+		{
+			builder.pipelined(2, maxPendingChunks);
+		}
+		return builder.buildForDatasource(dataSource);
+	}
+	
+	private static void updateLocalNode(UpdateLocalNodeContext<ArticleGroupNodeType> context)
+	{
+		context.getLocal()
+			.setValue(ArticleGroupNodeType.name, context.getRemote().getValue(ArticleGroupNodeType.name))
+			.setValue(ArticleGroupNodeType.tax, context.getRemote().getValue(ArticleGroupNodeType.tax));
+	}
+	
+	private static Collection<BranchNode<? extends BranchNodeMetaModel,ArticleGroupNodeType>> newChunk(long firstNumber, int size, String prefix)
+	{
+		List<BranchNode<? extends BranchNodeMetaModel,ArticleGroupNodeType>> chunk = new ArrayList<>();
+		for(long number = firstNumber; number < firstNumber + size; number++)
+		{
+			chunk.add(ArticleGroupNodeType.newNode()
+					.setValue(ArticleGroupNodeType.number, number)
+					.setValue(ArticleGroupNodeType.name, prefix + number)
+					.setValue(ArticleGroupNodeType.tax, 1.0));
+		}
+		return chunk;
+	}
+	
+	private static void persistAll(PersistLocalNodesContext<ArticleGroupNodeType> context)
+	{
+		try
+		{
+			context.persistAll();
+		}
+		catch (RuntimeException e)
+		{
+			throw e;
+		}
+		catch (Exception e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+	
+	private static void await(CountDownLatch latch)
+	{
+		try
+		{
+			if(! latch.await(10, TimeUnit.SECONDS))
+			{
+				throw new IllegalStateException("timeout");
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+	
+	private static Map<Long,String> selectNames(long firstNumber, int size) throws Exception
+	{
+		Map<Long,String> names = new HashMap<>();
+		connection.commit();
+		PreparedStatement preparedStatement = connection.prepareStatement("select group_number, group_name from " + ArticleGroupNodeType.class.getAnnotation(SQLTable.class).name() + " where group_number >= ? and group_number < ?");
+		try
+		{
+			preparedStatement.setLong(1, firstNumber);
+			preparedStatement.setLong(2, firstNumber + size);
+			ResultSet resultSet = preparedStatement.executeQuery();
+			try
+			{
+				while(resultSet.next())
+				{
+					names.put(resultSet.getLong(1), resultSet.getString(2));
+				}
+			}
+			finally
+			{
+				resultSet.close();
+			}
+		}
+		finally
+		{
+			preparedStatement.close();
+		}
+		return names;
+	}
+}
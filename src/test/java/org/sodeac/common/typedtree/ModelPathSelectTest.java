@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.typedtree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+import org.sodeac.common.typedtree.ModelPath.ModelPathBuilder;
+import org.sodeac.common.typedtree.TypedTreeMetaModel.RootBranchNode;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ModelPathSelectTest
+{
+	@Test
+	public void test0001SelectValue()
+	{
+		RootBranchNode<TestModel,UserType> user = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.user).setSynchronized(true);
+		user.setValue(UserType.name, "Mike");
+		
+		ModelPath<UserType,String> namePath = ModelPathBuilder.newBuilder(UserType.class).buildForValue(UserType.name);
+		ModelPath<UserType,String> cityPath = ModelPathBuilder.newBuilder(UserType.class).child(UserType.address).buildForValue(AddressType.city);
+		
+		assertEquals("selected value should be correct", "Mike", namePath.selectFirst(user));
+		assertNull("value of missing child node should not be selected", cityPath.selectFirst(user));
+		assertTrue("selection of missing child node should be empty", cityPath.select(user).isEmpty());
+		
+		user.create(UserType.address).setValue(AddressType.city, "Berlin");
+		assertEquals("selected value should be correct", "Berlin", cityPath.selectFirst(user));
+		assertSame("compiled path should be cached", cityPath.compile(), cityPath.compile());
+		
+		user.dispose();
+	}
+	
+	@Test
+	public void test0002SelectNode()
+	{
+		RootBranchNode<TestModel,UserType> user = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.user);
+		BranchNode<UserType,AddressType> address = user.create(UserType.address);
+		
+		ModelPath<UserType,BranchNode<UserType,AddressType>> addressPath = ModelPathBuilder.newBuilder(UserType.class).buildForNode(UserType.address);
+		ModelPath<UserType,UserType> selfPath = ModelPathBuilder.newBuilder(UserType.class).build();
+		
+		List<BranchNode<UserType,AddressType>> selection = addressPath.select(user);
+		assertEquals("size of selection should be correct", 1, selection.size());
+		assertSame("selected node should be correct", address, selection.get(0));
+		assertSame("selected node should be correct", user, selfPath.selectFirst(user));
+		
+		user.dispose();
+	}
+	
+	@Test
+	public void test0003SelectWithPredicates()
+	{
+		RootBranchNode<TestModel,UserType> user = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.user);
+		user.create(UserType.address).setValue(AddressType.city, "Berlin").setValue(AddressType.zip, 10115);
+		
+		ModelPath<UserType,String> berlinPath = ModelPathBuilder.newBuilder(UserType.class)
+			.childWithPredicates(UserType.address)
+				.addLeafNodePredicate(AddressType.city, c -> "Berlin".equals(c))
+				.addLeafNodePredicate(AddressType.zip, z -> z != null && z.intValue() > 10000)
+			.build()
+			.buildForValue(AddressType.city);
+		
+		ModelPath<UserType,String> hamburgPath = ModelPathBuilder.newBuilder(UserType.class)
+			.childWithPredicates(UserType.address)
+				.addLeafNodePredicate(AddressType.city, c -> "Hamburg".equals(c))
+			.build()
+			.buildForValue(AddressType.city);
+		
+		ModelPath<UserType,String> pathPredicatePath = ModelPathBuilder.newBuilder(UserType.class)
+			.childWithPredicates()
+				.addPathPredicate(b -> b.child(UserType.address).buildForValue(AddressType.city), c -> "Berlin".equals(c))
+			.build()
+			.child(UserType.address)
+			.buildForValue(AddressType.city);
+		
+		assertEquals("selected value should be correct", "Berlin", berlinPath.selectFirst(user));
+		assertNull("value should not be selected", hamburgPath.selectFirst(user));
+		assertEquals("selected value should be correct", "Berlin", pathPredicatePath.selectFirst(user));
+		
+		user.dispose();
+	}
+}
@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.typedtree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+import org.sodeac.common.typedtree.TreeChangeSet.Change;
+import org.sodeac.common.typedtree.TreeChangeSet.ChangeType;
+import org.sodeac.common.typedtree.TreeChangeSet.DetachedChange;
+import org.sodeac.common.typedtree.TypedTreeMetaModel.RootBranchNode;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TreeChangeSetTest
+{
+	@Test
+	public void test0001DisabledByDefault()
+	{
+		RootBranchNode<TestModel,UserType> user = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.user);
+		assertFalse("change tracking should be disabled", user.isChangeTracking());
+		assertNull("change set should be null", user.getChangeSet());
+		user.dispose();
+	}
+	
+	@Test
+	public void test0002ModifyLeafNode()
+	{
+		RootBranchNode<TestModel,UserType> user = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.user);
+		user.setValue(UserType.name, "Mike");
+		user.setChangeTracking(true);
+		
+		TreeChangeSet changeSet = user.getChangeSet();
+		assertTrue("change set should be empty", changeSet.isEmpty());
+		
+		user.setValue(UserType.name, "Michael");
+		user.setValue(UserType.name, "Mikkel");
+		
+		assertTrue("node should be modified", changeSet.isModified(user, UserType.name));
+		assertEquals("modified node types should be correct", 1, changeSet.getModifiedNodeTypes(user).size());
+		assertEquals("original value should be correct", "Mike", changeSet.getOriginalValue(user, UserType.name));
+		
+		List<Change> changes = changeSet.getChanges();
+		assertEquals("size of changes should be correct", 1, changes.size());
+		assertSame("change type should be correct", ChangeType.MODIFY, changes.get(0).getChangeType());
+		assertEquals("value should be correct", "Mikkel", changes.get(0).getValue());
+		
+		user.setValue(UserType.name, "Mike");
+		assertTrue("change set should be empty after reset to original value", changeSet.isEmpty());
+		
+		assertFalse("node modified before change tracking should not be tracked", changeSet.isTracked(user));
+		changeSet.clear(user);
+		assertTrue("cleared node should be tracked", changeSet.isTracked(user));
+		
+		user.dispose();
+	}
+	
+	@Test
+	public void test0003CreateAndRemoveChildNode()
+	{
+		RootBranchNode<TestModel,UserType> user = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.user).setChangeTracking(true);
+		TreeChangeSet changeSet = user.getChangeSet();
+		
+		BranchNode<UserType,AddressType> address = user.create(UserType.address);
+		address.setValue(AddressType.city, "Berlin");
+		
+		assertTrue("node should be created", changeSet.isCreated(address));
+		assertTrue("node should be modified", changeSet.isModified(address, AddressType.city));
+		assertTrue("parent should be modified", changeSet.isModified(user, UserType.address));
+		
+		user.remove(UserType.address);
+		assertTrue("change set should be empty after remove of created node", changeSet.isEmpty());
+		
+		user.dispose();
+	}
+	
+	@Test
+	public void test0004RemoveExistingChildNode()
+	{
+		RootBranchNode<TestModel,SortTestType> sortTest = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.sortTest);
+		BranchNode<SortTestType,SortTestItemType> item1 = sortTest.create(SortTestType.list).setValue(SortTestItemType.random, 1);
+		BranchNode<SortTestType,SortTestItemType> item2 = sortTest.create(SortTestType.list).setValue(SortTestItemType.random, 2);
+		
+		sortTest.setChangeTracking(true);
+		TreeChangeSet changeSet = sortTest.getChangeSet();
+		
+		item2.setValue(SortTestItemType.random, 3);
+		sortTest.remove(SortTestType.list, item1);
+		
+		assertEquals("size of removed nodes should be correct", 1, changeSet.getRemovedNodes().size());
+		assertSame("removed node should be correct", item1, changeSet.getRemovedNodes().get(0));
+		assertTrue("node should be modified", changeSet.isModified(item2));
+		
+		List<Change> changes = changeSet.getChanges();
+		assertEquals("size of changes should be correct", 2, changes.size());
+		assertSame("change type should be correct", ChangeType.REMOVE, changes.get(0).getChangeType());
+		assertSame("change type should be correct", ChangeType.MODIFY, changes.get(1).getChangeType());
+		
+		changeSet.clear(item2);
+		assertFalse("node should not be modified after clear", changeSet.isModified(item2));
+		
+		sortTest.setChangeTracking(false);
+		assertNull("change set should be null", sortTest.getChangeSet());
+		
+		sortTest.dispose();
+	}
+	
+	@Test
+	public void test0005ApplyDetachedChangesToListCopy() throws Exception
+	{
+		RootBranchNode<TestModel,SortTestType> sortTest = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.sortTest);
+		for(int i = 0; i < 5; i++)
+		{
+			sortTest.create(SortTestType.list).setValue(SortTestItemType.random, i);
+		}
+		RootBranchNode<TestModel,SortTestType> copy = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.sortTest);
+		copy.copyFrom(sortTest);
+		
+		sortTest.setChangeTracking(true);
+		
+		sortTest.remove(SortTestType.list, 3);
+		sortTest.remove(SortTestType.list, 1);
+		sortTest.getUnmodifiableNodeList(SortTestType.list).get(1).setValue(SortTestItemType.random, 20);
+		sortTest.create(SortTestType.list).setValue(SortTestItemType.random, 5);
+		sortTest.create(SortTestType.list).setValue(SortTestItemType.random, 6);
+		sortTest.remove(SortTestType.list, 0);
+		
+		List<DetachedChange> changes = shipDetachedChanges(sortTest.getChangeSet().getDetachedChanges());
+		TreeChangeSet.applyDetachedChanges(copy, changes);
+		
+		assertEquals("values of copy should be correct", getRandomValues(sortTest), getRandomValues(copy));
+		assertEquals("values of copy should be correct", "[20, 4, 5, 6]", getRandomValues(copy).toString());
+		
+		sortTest.dispose();
+		copy.dispose();
+	}
+	
+	@Test
+	public void test0006ApplyDetachedChangesToBranchCopy() throws Exception
+	{
+		RootBranchNode<TestModel,UserType> user = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.user);
+		user.setValue(UserType.name, "Mike");
+		user.create(UserType.address).setValue(AddressType.city, "Berlin").setValue(AddressType.zip, 10115);
+		RootBranchNode<TestModel,UserType> copy = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.user);
+		copy.copyFrom(user);
+		
+		user.setChangeTracking(true);
+		
+		user.setValue(UserType.name, "Michael");
+		user.get(UserType.address).setValue(AddressType.zip, null);
+		user.create(UserType.address).setValue(AddressType.city, "Hamburg").setValue(AddressType.street, "Hafenstrasse");
+		
+		List<DetachedChange> changes = shipDetachedChanges(user.getChangeSet().getDetachedChanges());
+		assertEquals("size of changes should be correct", 5, changes.size());
+		
+		TreeChangeSet.applyDetachedChanges(copy, changes);
+		
+		assertEquals("value should be correct", "Michael", copy.getValue(UserType.name));
+		assertEquals("value should be correct", "Hamburg", copy.get(UserType.address).getValue(AddressType.city));
+		assertEquals("value should be correct", "Hafenstrasse", copy.get(UserType.address).getValue(AddressType.street));
+		assertNull("value should be correct", copy.get(UserType.address).getValue(AddressType.zip));
+		
+		user.dispose();
+		copy.dispose();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static List<DetachedChange> shipDetachedChanges(List<DetachedChange> changes) throws Exception
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(ObjectOutputStream objectOutputStream = new ObjectOutputStream(out))
+		{
+			objectOutputStream.writeObject(new ArrayList<>(changes));
+		}
+		try(ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray())))
+		{
+			return (List<DetachedChange>)objectInputStream.readObject();
+		}
+	}
+	
+	private static List<Integer> getRandomValues(BranchNode<?,SortTestType> sortTest)
+	{
+		List<Integer> values = new ArrayList<>();
+		for(BranchNode<SortTestType,SortTestItemType> item : sortTest.getUnmodifiableNodeList(SortTestType.list))
+		{
+			values.add(item.getValue(SortTestItemType.random));
+		}
+		return values;
+	}
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.typedtree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+import org.sodeac.common.typedtree.TypedTreeMetaModel.RootBranchNode;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TreeModifyBatchTest
+{
+	@Test
+	public void test0001CoalescedLeafNodeEvents()
+	{
+		RootBranchNode<TestModel,UserType> user = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.user).setSynchronized(true);
+		user.setValue(UserType.name, "Mike");
+		
+		List<Object[]> events = new ArrayList<Object[]>();
+		user.addTreeModifyListener(new ITreeModifyListener()
+		{
+			@Override
+			public <C extends INodeType<?, ?>, T> void afterModify(BranchNode<?, ?> parentNode, Object staticNodeTypeInstance, T oldValue, T newValue)
+			{
+				events.add(new Object[] {staticNodeTypeInstance, oldValue, newValue});
+			}
+		});
+		
+		try(TreeModifyBatch batch = user.startModifyBatch())
+		{
+			user.setValue(UserType.name, "Michael");
+			user.setValue(UserType.name, "Mikkel");
+			
+			try(TreeModifyBatch nestedBatch = user.startModifyBatch())
+			{
+				assertSame("nested batch should be same", batch, nestedBatch);
+				user.setValue(UserType.name, "Mick");
+			}
+			assertEquals("no event should be delivered inside batch", 0, events.size());
+		}
+		
+		assertEquals("size of events should be correct", 1, events.size());
+		assertSame("node type should be correct", UserType.name, events.get(0)[0]);
+		assertEquals("old value should be correct", "Mike", events.get(0)[1]);
+		assertEquals("new value should be correct", "Mick", events.get(0)[2]);
+		
+		user.setValue(UserType.name, "Mike");
+		assertEquals("event outside of batch should be delivered immediately", 2, events.size());
+		
+		user.dispose();
+	}
+	
+	@Test
+	public void test0002CoalescedListEvents()
+	{
+		RootBranchNode<TestModel,SortTestType> sortTest = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.sortTest);
+		BranchNode<SortTestType,SortTestItemType> item1 = sortTest.create(SortTestType.list).setValue(SortTestItemType.random, 1);
+		
+		List<Object[]> events = new ArrayList<Object[]>();
+		sortTest.addTreeModifyListener(new ITreeModifyListener()
+		{
+			@Override
+			public <C extends INodeType<?, ?>, T> void afterModify(BranchNode<?, ?> parentNode, Object staticNodeTypeInstance, T oldValue, T newValue)
+			{
+				if(staticNodeTypeInstance == SortTestType.list)
+				{
+					events.add(new Object[] {oldValue, newValue});
+				}
+			}
+		});
+		
+		BranchNode<SortTestType,SortTestItemType> item3 = null;
+		try(TreeModifyBatch batch = sortTest.startModifyBatch())
+		{
+			BranchNode<SortTestType,SortTestItemType> item2 = sortTest.create(SortTestType.list).setValue(SortTestItemType.random, 2);
+			item3 = sortTest.create(SortTestType.list).setValue(SortTestItemType.random, 3);
+			sortTest.remove(SortTestType.list, item2);
+			sortTest.remove(SortTestType.list, item1);
+		}
+		
+		assertEquals("size of events should be correct", 2, events.size());
+		assertSame("created node should be correct", item3, events.get(0)[1]);
+		assertSame("removed node should be correct", item1, events.get(1)[0]);
+		assertNull("removed node should have no new value", events.get(1)[1]);
+		
+		sortTest.dispose();
+	}
+	
+	@Test
+	public void test0003BatchIsBoundToThread() throws Exception
+	{
+		RootBranchNode<TestModel,UserType> user = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.user).setSynchronized(true);
+		user.setValue(UserType.name, "Mike");
+		
+		List<Object[]> events = Collections.synchronizedList(new ArrayList<Object[]>());
+		user.addTreeModifyListener(new ITreeModifyListener()
+		{
+			@Override
+			public <C extends INodeType<?, ?>, T> void afterModify(BranchNode<?, ?> parentNode, Object staticNodeTypeInstance, T oldValue, T newValue)
+			{
+				events.add(new Object[] {staticNodeTypeInstance, oldValue, newValue});
+			}
+		});
+		
+		AtomicReference<TreeModifyBatch> otherBatch = new AtomicReference<TreeModifyBatch>();
+		AtomicReference<Exception> closeError = new AtomicReference<Exception>();
+		
+		try(TreeModifyBatch batch = user.startModifyBatch())
+		{
+			user.setValue(UserType.name, "Michael");
+			
+			Thread thread = new Thread(() -> 
+			{
+				user.setValue(UserType.name, "Mick");
+				try(TreeModifyBatch batchOfThread = user.startModifyBatch())
+				{
+					otherBatch.set(batchOfThread);
+				}
+				try
+				{
+					batch.close();
+				}
+				catch (Exception e) 
+				{
+					closeError.set(e);
+				}
+			});
+			thread.start();
+			thread.join();
+			
+			assertEquals("modification of other thread should be delivered immediately", 1, events.size());
+			assertEquals("new value of other thread should be correct", "Mick", events.get(0)[2]);
+			assertNotSame("other thread should own another batch", batch, otherBatch.get());
+			assertTrue("other thread should not close batch", closeError.get() instanceof IllegalStateException);
+			assertTrue("batch should be still open", batch.isOpen());
+			
+			user.setValue(UserType.name, "Mikkel");
+		}
+		
+		assertEquals("size of events should be correct", 2, events.size());
+		assertEquals("old value should be correct", "Mike", events.get(1)[1]);
+		assertEquals("new value should be correct", "Mikkel", events.get(1)[2]);
+		
+		user.dispose();
+	}
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Sebastian Palarus
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Sebastian Palarus - initial API and implementation
+ *******************************************************************************/
+package org.sodeac.common.typedtree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+import org.sodeac.common.typedtree.TypedTreeMetaModel.RootBranchNode;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TreeSnapshotTest
+{
+	@Test
+	public void test0001SnapshotIsLazy()
+	{
+		RootBranchNode<TestModel,UserType> user = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.user).setSynchronized(true);
+		user.setValue(UserType.name, "Mike");
+		
+		TreeSnapshot<TestModel,UserType> snapshot1 = user.createSnapshot();
+		TreeSnapshot<TestModel,UserType> snapshot2 = user.createSnapshot();
+		
+		assertSame("snapshots of unmodified tree should be same", snapshot1, snapshot2);
+		assertFalse("snapshot should not be materialized", snapshot1.isMaterialized());
+		
+		user.dispose();
+	}
+	
+	@Test
+	public void test0002CopyOnWrite()
+	{
+		RootBranchNode<TestModel,UserType> user = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.user).setSynchronized(true);
+		user.setValue(UserType.name, "Mike");
+		user.create(UserType.address).setValue(AddressType.city, "Berlin");
+		
+		TreeSnapshot<TestModel,UserType> snapshot = user.createSnapshot();
+		
+		user.setValue(UserType.name, "Michael");
+		assertTrue("snapshot should be materialized", snapshot.isMaterialized());
+		
+		user.get(UserType.address).setValue(AddressType.city, "Hamburg");
+		
+		RootBranchNode<TestModel,UserType> snapshotTree = snapshot.getRootNode();
+		assertNotSame("snapshot tree should not be live tree", user, snapshotTree);
+		assertTrue("snapshot tree should be immutable", snapshotTree.isImmutable());
+		assertEquals("name in snapshot should be correct", "Mike", snapshotTree.getValue(UserType.name));
+		assertEquals("city in snapshot should be correct", "Berlin", snapshotTree.get(UserType.address).getValue(AddressType.city));
+		assertEquals("name in tree should be correct", "Michael", user.getValue(UserType.name));
+		
+		assertNotSame("snapshot of modified tree should be new", snapshot, user.createSnapshot());
+		
+		user.dispose();
+		assertEquals("name in snapshot should be correct after dispose of tree", "Mike", snapshotTree.getValue(UserType.name));
+		snapshotTree.dispose();
+	}
+	
+	@Test
+	public void test0003SnapshotWithList()
+	{
+		RootBranchNode<TestModel,SortTestType> sortTest = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.sortTest);
+		sortTest.create(SortTestType.list).setValue(SortTestItemType.random, 1);
+		sortTest.create(SortTestType.list).setValue(SortTestItemType.random, 2);
+		
+		TreeSnapshot<TestModel,SortTestType> snapshot = sortTest.createSnapshot();
+		RootBranchNode<TestModel,SortTestType> snapshotTree = snapshot.getRootNode();
+		assertTrue("snapshot should be materialized", snapshot.isMaterialized());
+		
+		sortTest.clear(SortTestType.list);
+		
+		assertEquals("size of list in snapshot should be correct", 2, snapshotTree.getUnmodifiableNodeList(SortTestType.list).size());
+		assertEquals("value in snapshot should be correct", Integer.valueOf(2), snapshotTree.getUnmodifiableNodeList(SortTestType.list).get(1).getValue(SortTestItemType.random));
+		assertNull("snapshot tree should not be modifiable", snapshotTree.create(SortTestType.list));
+		
+		sortTest.dispose();
+		snapshotTree.dispose();
+	}
+	
+	@Test
+	public void test0004PathCopying()
+	{
+		RootBranchNode<TestModel,SortTestType> sortTest = TypedTreeMetaModel.getInstance(TestModel.class).createRootNode(TestModel.sortTest).setSynchronized(true);
+		sortTest.create(SortTestType.list).setValue(SortTestItemType.random, 1);
+		sortTest.create(SortTestType.list).setValue(SortTestItemType.random, 2);
+		sortTest.create(SortTestType.list).setValue(SortTestItemType.random, 3);
+		
+		RootBranchNode<TestModel,SortTestType> snapshotTree1 = sortTest.createSnapshot().getRootNode();
+		
+		sortTest.getUnmodifiableNodeList(SortTestType.list).get(1).setValue(SortTestItemType.random, 20);
+		
+		RootBranchNode<TestModel,SortTestType> snapshotTree2 = sortTest.createSnapshot().getRootNode();
+		assertNotSame("root of modified tree should be copied", snapshotTree1, snapshotTree2);
+		assertSame("unmodified node should be shared", snapshotTree1.getUnmodifiableNodeList(SortTestType.list).get(0), snapshotTree2.getUnmodifiableNodeList(SortTestType.list).get(0));
+		assertNotSame("modified node should be copied", snapshotTree1.getUnmodifiableNodeList(SortTestType.list).get(1), snapshotTree2.getUnmodifiableNodeList(SortTestType.list).get(1));
+		assertSame("unmodified node should be shared", snapshotTree1.getUnmodifiableNodeList(SortTestType.list).get(2), snapshotTree2.getUnmodifiableNodeList(SortTestType.list).get(2));
+		assertEquals("value in first snapshot should be correct", Integer.valueOf(2), snapshotTree1.getUnmodifiableNodeList(SortTestType.list).get(1).getValue(SortTestItemType.random));
+		assertEquals("value in second snapshot should be correct", Integer.valueOf(20), snapshotTree2.getUnmodifiableNodeList(SortTestType.list).get(1).getValue(SortTestItemType.random));
+		
+		assertSame("snapshot of unmodified tree should share copy", snapshotTree2, sortTest.createSnapshot().getRootNode());
+		
+		sortTest.setComperator(SortTestType.list, (n1,n2) -> n2.getValue(SortTestItemType.random).compareTo(n1.getValue(SortTestItemType.random)));
+		
+		RootBranchNode<TestModel,SortTestType> snapshotTree3 = sortTest.createSnapshot().getRootNode();
+		assertNotSame("sorted tree should be copied", snapshotTree2, snapshotTree3);
+		assertEquals("order in second snapshot should be correct", Integer.valueOf(1), snapshotTree2.getUnmodifiableNodeList(SortTestType.list).get(0).getValue(SortTestItemType.random));
+		assertEquals("order in third snapshot should be correct", Integer.valueOf(20), snapshotTree3.getUnmodifiableNodeList(SortTestType.list).get(0).getValue(SortTestItemType.random));
+		assertSame("unmodified node should be shared after sort", snapshotTree2.getUnmodifiableNodeList(SortTestType.list).get(1), snapshotTree3.getUnmodifiableNodeList(SortTestType.list).get(0));
+		
+		sortTest.dispose();
+		snapshotTree1.dispose();
+		assertEquals("shared node should not be disposed with other snapshot", Integer.valueOf(3), snapshotTree2.getUnmodifiableNodeList(SortTestType.list).get(2).getValue(SortTestItemType.random));
+	}
+}